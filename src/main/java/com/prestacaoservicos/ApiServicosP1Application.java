@@ -2,8 +2,10 @@ package com.prestacaoservicos;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ApiServicosP1Application {
     public static void main(String[] args) {
         SpringApplication.run(ApiServicosP1Application.class, args);
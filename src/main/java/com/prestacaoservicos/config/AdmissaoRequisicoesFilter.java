@@ -0,0 +1,112 @@
+package com.prestacaoservicos.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.exception.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controle de admissão das requisições da API quando elas rodam em threads virtuais.
+ * <p>
+ * Com threads virtuais o Tomcat deixa de limitar a concorrência, e uma rajada de requisições
+ * passaria a disputar as poucas conexões do pool do Hikari, acumulando esperas até o
+ * {@code connection-timeout}. Este filtro limita as requisições em andamento a
+ * {@code app.admissao.limite} (por padrão, o tamanho do pool): quem não obtém uma vaga em
+ * {@code app.admissao.espera-maxima-ms} recebe {@code 503 Service Unavailable} com
+ * {@code Retry-After}, em vez de ocupar o pool. Roda antes da segurança, que também consulta
+ * o banco para carregar o usuário.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class AdmissaoRequisicoesFilter extends OncePerRequestFilter {
+
+    private static final String PREFIXO_API = "/api/";
+
+    private final Semaphore vagas;
+    private final long esperaMaximaMs;
+    private final ObjectMapper objectMapper;
+    private final Counter rejeitadas;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param limite         Número máximo de requisições da API em andamento
+     * @param esperaMaximaMs Tempo máximo, em milissegundos, de espera por uma vaga
+     * @param objectMapper   Serializador JSON da resposta de erro
+     * @param registry       Registro de métricas
+     */
+    public AdmissaoRequisicoesFilter(@Value("${app.admissao.limite}") int limite,
+                                     @Value("${app.admissao.espera-maxima-ms:2000}") long esperaMaximaMs,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry registry) {
+        this.vagas = new Semaphore(limite, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.objectMapper = objectMapper;
+        this.rejeitadas = Counter.builder("app.admissao.rejeitadas")
+                .description("Requisições recusadas por falta de vaga")
+                .register(registry);
+        Gauge.builder("app.admissao.em.andamento", vagas, v -> limite - v.availablePermits())
+                .description("Requisições da API em andamento")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(PREFIXO_API);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        boolean admitida;
+        try {
+            admitida = vagas.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitida = false;
+        }
+
+        if (!admitida) {
+            rejeitar(request, response);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            vagas.release();
+        }
+    }
+
+    private void rejeitar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        rejeitadas.increment();
+        ApiError erro = new ApiError(HttpStatus.SERVICE_UNAVAILABLE,
+                "Servidor sobrecarregado. Tente novamente em instantes.", request.getRequestURI());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), erro);
+    }
+}
@@ -8,12 +8,16 @@ import com.prestacaoservicos.enums.RoleNameEnum;
 import com.prestacaoservicos.repository.PermissionRepository;
 import com.prestacaoservicos.repository.RoleRepository;
 import com.prestacaoservicos.repository.UserRepository;
+import com.prestacaoservicos.service.RegistroPermissoes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.EnumSet;
 import java.util.Map;
@@ -30,12 +34,15 @@ import java.util.stream.Collectors;
  *     <li>Todas as permissões definidas em {@link PermissionEnum} estejam no banco.</li>
  *     <li>Papéis de administrador, cliente e prestador sejam criados/atualizados.</li>
  *     <li>Um usuário administrador padrão seja cadastrado (se não existir).</li>
+ *     <li>O {@link RegistroPermissoes} seja montado a partir dos papéis gravados.</li>
  * </ul>
  * </p>
  */
 @Configuration
 public class DataInitializer {
 
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+
     /** Nome do administrador definido em application.properties */
     @Value("${app.admin.name}")
     private String adminName;
@@ -73,21 +80,27 @@ public class DataInitializer {
 
     /**
      * Inicializa os dados básicos da aplicação ao iniciar.
+     * <p>
+     * A carga roda em uma única transação: os papéis já gravados continuam gerenciados e suas
+     * permissões (coleção preguiçosa) podem ser lidas e alteradas ao reiniciar a aplicação.
      *
      * @param permissionRepo repositório de permissões
      * @param roleRepo repositório de papéis
      * @param userRepo repositório de usuários
      * @param passwordEncoder encoder para senhas
+     * @param registroPermissoes registro em memória das permissões de cada papel
+     * @param transactionManager gerenciador de transações
      * @return {@link CommandLineRunner} que executa a carga inicial de dados
      */
     @Bean
-    @Transactional
     public CommandLineRunner initData(
             PermissionRepository permissionRepo,
             RoleRepository roleRepo,
             UserRepository userRepo,
-            PasswordEncoder passwordEncoder) {
-        return args -> {
+            PasswordEncoder passwordEncoder,
+            RegistroPermissoes registroPermissoes,
+            PlatformTransactionManager transactionManager) {
+        return args -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
             Map<String, Permission> permissionsMap = createPermissions(permissionRepo);
 
             Set<Permission> adminPerms = getPermissionsFromEnum(permissionsMap, ADMIN_PERMISSIONS);
@@ -100,7 +113,9 @@ public class DataInitializer {
             createOrUpdateRole(roleRepo, RoleNameEnum.ROLE_SERVICE_PROVIDER, providerPerms);
 
             createAdminUser(userRepo, passwordEncoder, adminRole);
-        };
+
+            registroPermissoes.recarregar();
+        });
     }
 
     /**
@@ -139,9 +154,10 @@ public class DataInitializer {
      */
     private Role createOrUpdateRole(RoleRepository roleRepo, RoleNameEnum roleName, Set<Permission> permissions) {
         Role role = roleRepo.findByName(roleName)
-                .orElse(new Role(roleName));
+                .orElseGet(() -> new Role(roleName));
 
-        role.setPermissions(permissions);
+        role.getPermissions().retainAll(permissions);
+        role.getPermissions().addAll(permissions);
         return roleRepo.save(role);
     }
 
@@ -161,7 +177,7 @@ public class DataInitializer {
                     Set.of(adminRole)
             );
             userRepo.save(adminUser);
-            System.out.println("Usuário administrador '" + adminEmail + "' criado com sucesso!");
+            log.info("Usuário administrador '{}' criado.", adminEmail);
         }
     }
 }
@@ -0,0 +1,101 @@
+package com.prestacaoservicos.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Garante que um usuário leia as próprias escritas mesmo com a réplica atrasada.
+ * <p>
+ * Quando uma requisição confirma uma transação de escrita, o usuário autenticado fica
+ * "aderido" ao primário durante a janela configurada: as leituras das requisições
+ * seguintes dele também vão para o primário. Requisições anônimas não são aderidas.
+ * O controle é mantido em memória e vale por instância da aplicação.
+ * </p>
+ */
+class LeituraPropriaEscrita implements HandlerInterceptor {
+
+    private final long janelaNanos;
+
+    private final ThreadLocal<String> usuarioAtual = new ThreadLocal<>();
+
+    /** Usuário -> instante ({@link System#nanoTime()}) em que a aderência ao primário expira. */
+    private final Map<String, Long> aderencias = new ConcurrentHashMap<>();
+
+    /**
+     * Cria o controle com a janela informada.
+     *
+     * @param janela Tempo em que as leituras de um usuário ficam no primário após uma escrita
+     */
+    LeituraPropriaEscrita(Duration janela) {
+        this.janelaNanos = janela.toNanos();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao != null && autenticacao.isAuthenticated()
+                && !(autenticacao instanceof AnonymousAuthenticationToken)) {
+            usuarioAtual.set(autenticacao.getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        usuarioAtual.remove();
+    }
+
+    /**
+     * Indica se as leituras da requisição atual devem ir para o primário.
+     *
+     * @return {@code true} se o usuário escreveu dentro da janela
+     */
+    boolean exigePrimario() {
+        String usuario = usuarioAtual.get();
+        if (usuario == null) {
+            return false;
+        }
+        Long expiraEm = aderencias.get(usuario);
+        return expiraEm != null && System.nanoTime() - expiraEm < 0;
+    }
+
+    /**
+     * Registra que o usuário da requisição atual está escrevendo na transação corrente.
+     * <p>
+     * A janela só é aberta (ou renovada) no commit: contada a partir da obtenção da conexão, ela
+     * poderia expirar antes de uma transação longa ser confirmada, e uma transação desfeita não
+     * deixou nada que a réplica precise alcançar.
+     */
+    void registrarEscritaAposCommit() {
+        String usuario = usuarioAtual.get();
+        if (usuario == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aderencias.put(usuario, System.nanoTime() + janelaNanos);
+            }
+        });
+    }
+
+    /**
+     * Remove as aderências expiradas.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    void limparExpiradas() {
+        long agora = System.nanoTime();
+        aderencias.values().removeIf(expiraEm -> agora - expiraEm >= 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.prestacaoservicos.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Detecta threads virtuais presas à thread portadora ("pinned"), situação em que uma espera
+ * de I/O dentro de um bloco {@code synchronized} ou de código nativo ocupa a portadora e
+ * anula o ganho das threads virtuais.
+ * <p>
+ * Assina o evento JFR {@code jdk.VirtualThreadPinned} em um {@link RecordingStream} e
+ * publica cada ocorrência no timer {@code app.threads.virtuais.fixadas} (quantidade e
+ * duração), registrando em log o frame da aplicação que causou a fixação.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class MonitorFixacaoThreadsVirtuais {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorFixacaoThreadsVirtuais.class);
+
+    private static final String EVENTO = "jdk.VirtualThreadPinned";
+    private static final String PACOTE_APLICACAO = "com.prestacaoservicos.";
+
+    private final Timer fixacoes;
+    private final Duration limiar;
+
+    private volatile RecordingStream stream;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param registry  Registro de métricas
+     * @param limiarMs  Duração mínima, em milissegundos, de uma fixação para ser registrada
+     */
+    public MonitorFixacaoThreadsVirtuais(MeterRegistry registry,
+                                         @Value("${app.threads.virtuais.limiar-fixacao-ms:20}") long limiarMs) {
+        this.fixacoes = Timer.builder("app.threads.virtuais.fixadas")
+                .description("Threads virtuais presas à thread portadora")
+                .register(registry);
+        this.limiar = Duration.ofMillis(limiarMs);
+    }
+
+    /**
+     * Inicia a gravação JFR em segundo plano quando a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(limiar).withStackTrace();
+        stream.onEvent(EVENTO, this::registrar);
+        stream.startAsync();
+        log.info("Monitoramento de threads virtuais fixadas iniciado (limiar de {} ms)", limiar.toMillis());
+    }
+
+    /**
+     * Encerra a gravação JFR.
+     */
+    @PreDestroy
+    public void encerrar() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void registrar(RecordedEvent evento) {
+        fixacoes.record(evento.getDuration());
+        if (log.isWarnEnabled()) {
+            log.warn("Thread virtual fixada por {} ms em {}", evento.getDuration().toMillis(), origem(evento));
+        }
+    }
+
+    /**
+     * Primeiro frame da aplicação na pilha do evento, ou o topo da pilha se não houver.
+     */
+    private static String origem(RecordedEvent evento) {
+        if (evento.getStackTrace() == null || evento.getStackTrace().getFrames().isEmpty()) {
+            return "(pilha indisponível)";
+        }
+        for (RecordedFrame frame : evento.getStackTrace().getFrames()) {
+            String tipo = frame.getMethod().getType().getName();
+            if (tipo.startsWith(PACOTE_APLICACAO)) {
+                return tipo + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        RecordedFrame topo = evento.getStackTrace().getFrames().get(0);
+        return topo.getMethod().getType().getName() + "." + topo.getMethod().getName();
+    }
+}
@@ -0,0 +1,108 @@
+package com.prestacaoservicos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuração da réplica de leitura do PostgreSQL.
+ * <p>
+ * Ativada por {@code app.datasource.replica.habilitada=true}. Mantém um pool para o primário
+ * (propriedades {@code spring.datasource.*}) e outro para a réplica
+ * ({@code app.datasource.replica.*}), expondo à aplicação um único {@link DataSource} que
+ * encaminha as transações somente leitura para a réplica. As migrações do Flyway sempre
+ * usam o primário. Com a propriedade desligada, a aplicação usa o {@link DataSource} padrão.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "habilitada", havingValue = "true")
+public class ReplicaLeituraConfig implements WebMvcConfigurer {
+
+    private final LeituraPropriaEscrita leituraPropriaEscrita;
+
+    /**
+     * Construtor que define a janela de leitura das próprias escritas.
+     *
+     * @param janelaMs Tempo, em milissegundos, em que as leituras de um usuário ficam no
+     *                 primário após uma escrita
+     */
+    public ReplicaLeituraConfig(@Value("${app.datasource.replica.janela-leitura-propria-ms:5000}") long janelaMs) {
+        this.leituraPropriaEscrita = new LeituraPropriaEscrita(Duration.ofMillis(janelaMs));
+    }
+
+    /**
+     * Pool de conexões do banco primário.
+     *
+     * @param properties Propriedades {@code spring.datasource.*}
+     * @return Pool do primário
+     */
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimario(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primario");
+        return dataSource;
+    }
+
+    /**
+     * Pool de conexões da réplica de leitura.
+     *
+     * @return Pool da réplica, configurado por {@code app.datasource.replica.*}
+     *         ({@code jdbc-url}, {@code username}, {@code password} e demais opções do Hikari)
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource dataSourceReplica() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * {@link DataSource} usado pela aplicação (JPA e JDBC), que escolhe o destino de cada conexão.
+     *
+     * @param dataSourcePrimario Pool do primário
+     * @param dataSourceReplica  Pool da réplica
+     * @return DataSource roteado
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource dataSourcePrimario, HikariDataSource dataSourceReplica) {
+        RoteamentoDataSource roteamento = new RoteamentoDataSource(leituraPropriaEscrita);
+        roteamento.setTargetDataSources(Map.of(
+                RoteamentoDataSource.Destino.PRIMARIO, dataSourcePrimario,
+                RoteamentoDataSource.Destino.REPLICA, dataSourceReplica));
+        roteamento.setDefaultTargetDataSource(dataSourcePrimario);
+        roteamento.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(roteamento);
+    }
+
+    /**
+     * Expõe o controle de aderência como bean, para que a limpeza periódica seja agendada.
+     *
+     * @return Controle da janela de leitura das próprias escritas
+     */
+    @Bean
+    LeituraPropriaEscrita leituraPropriaEscrita() {
+        return leituraPropriaEscrita;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(leituraPropriaEscrita);
+    }
+}
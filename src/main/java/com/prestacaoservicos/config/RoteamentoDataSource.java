@@ -0,0 +1,52 @@
+package com.prestacaoservicos.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Encaminha as conexões para o banco primário ou para a réplica de leitura.
+ * <p>
+ * Vão para a réplica apenas as conexões obtidas dentro de uma transação somente leitura
+ * ({@code @Transactional(readOnly = true)}) e fora da janela de leitura das próprias escritas
+ * do usuário. Todo o restante (escritas, transações mistas, migrações e acessos sem
+ * transação) usa o primário; uma transação de escrita só abre a janela do usuário quando é
+ * confirmada. Deve ser envolvido por um
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, para que a
+ * conexão só seja escolhida depois que a transação estiver marcada como somente leitura.
+ */
+class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Destinos possíveis de uma conexão.
+     */
+    enum Destino {
+        /** Banco primário, que recebe leituras e escritas. */
+        PRIMARIO,
+        /** Réplica assíncrona, apenas para leituras. */
+        REPLICA
+    }
+
+    private final LeituraPropriaEscrita leituraPropriaEscrita;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param leituraPropriaEscrita Controle da janela de leitura das próprias escritas
+     */
+    RoteamentoDataSource(LeituraPropriaEscrita leituraPropriaEscrita) {
+        this.leituraPropriaEscrita = leituraPropriaEscrita;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean transacaoAtiva = TransactionSynchronizationManager.isActualTransactionActive();
+        if (transacaoAtiva && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return leituraPropriaEscrita.exigePrimario() ? Destino.PRIMARIO : Destino.REPLICA;
+        }
+
+        if (transacaoAtiva) {
+            leituraPropriaEscrita.registrarEscritaAposCommit();
+        }
+        return Destino.PRIMARIO;
+    }
+}
@@ -3,23 +3,37 @@ package com.prestacaoservicos.controller;
 import com.prestacaoservicos.dto.AgendamentoRequestDTO;
 import com.prestacaoservicos.dto.AgendamentoResponseDTO;
 import com.prestacaoservicos.dto.AtualizacaoStatusDTO;
+import com.prestacaoservicos.dto.FatiaDTO;
+import com.prestacaoservicos.dto.FiltroAgendamentoDTO;
+import com.prestacaoservicos.dto.HistoricoStatusDTO;
+import com.prestacaoservicos.dto.IntencaoPagamentoDTO;
+import com.prestacaoservicos.dto.PagamentoRequestDTO;
 import com.prestacaoservicos.entity.Agendamento;
+import com.prestacaoservicos.entity.IntencaoPagamento;
+import com.prestacaoservicos.enums.ModoPaginacaoEnum;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
 import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
 import com.prestacaoservicos.service.AgendamentoService;
+import com.prestacaoservicos.service.PagamentoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -38,14 +52,17 @@ import java.util.stream.Collectors;
 public class AgendamentoController {
 
     private final AgendamentoService service;
+    private final PagamentoService pagamentoService;
 
     /**
-     * Construtor que injeta o {@link AgendamentoService}.
+     * Construtor que injeta o {@link AgendamentoService} e o {@link PagamentoService}.
      *
-     * @param service serviço responsável pelas regras de negócio dos agendamentos.
+     * @param service          serviço responsável pelas regras de negócio dos agendamentos.
+     * @param pagamentoService serviço responsável pelos pagamentos dos agendamentos.
      */
-    public AgendamentoController(AgendamentoService service) {
+    public AgendamentoController(AgendamentoService service, PagamentoService pagamentoService) {
         this.service = service;
+        this.pagamentoService = pagamentoService;
     }
 
     /**
@@ -76,41 +93,154 @@ public class AgendamentoController {
         return ResponseEntity.created(location).body(AgendamentoResponseDTO.fromEntity(ag));
     }
 
+    /**
+     * Busca um agendamento pelo seu identificador.
+     *
+     * @param id            identificador do agendamento.
+     * @param usuarioLogado usuário autenticado que realiza a consulta.
+     * @param request       requisição atual, usada na verificação de {@code If-None-Match}.
+     * @return {@link ResponseEntity} contendo o agendamento e sua ETag, ou 304 se não mudou.
+     */
+    @Operation(summary = "Buscar agendamento por ID", description = "Retorna o agendamento com sua ETag; responde 304 quando If-None-Match corresponde à versão atual.")
+    @ApiResponse(responseCode = "200", description = "Agendamento encontrado")
+    @ApiResponse(responseCode = "304", description = "Agendamento não mudou desde a ETag informada")
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
+    public ResponseEntity<AgendamentoResponseDTO> buscarPorId(
+            @Parameter(description = "ID do agendamento") @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl usuarioLogado,
+            WebRequest request) {
+
+        Agendamento agendamento = service.buscarPorId(id, usuarioLogado);
+        String etag = VersaoHttp.etag(agendamento.getVersao());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(AgendamentoResponseDTO.fromEntity(agendamento));
+    }
+
+    /**
+     * Retorna o histórico de mudanças de status de um agendamento.
+     *
+     * @param id            identificador do agendamento.
+     * @param usuarioLogado usuário autenticado que realiza a consulta.
+     * @return {@link ResponseEntity} contendo as mudanças de status em ordem cronológica.
+     */
+    @Operation(summary = "Histórico de status", description = "Lista quem alterou o status do agendamento, de qual para qual status, com motivo e data.")
+    @ApiResponse(responseCode = "200", description = "Histórico retornado com sucesso")
+    @GetMapping("/{id}/historico")
+    @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
+    public ResponseEntity<List<HistoricoStatusDTO>> historico(
+            @Parameter(description = "ID do agendamento") @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl usuarioLogado) {
+
+        List<HistoricoStatusDTO> historico = service.historico(id, usuarioLogado).stream()
+                .map(HistoricoStatusDTO::fromEntity)
+                .toList();
+        return ResponseEntity.ok(historico);
+    }
+
+    /**
+     * Solicita o pagamento de um agendamento.
+     * <p>
+     * A resposta sai assim que a intenção é gravada; o envio ao gateway acontece em segundo
+     * plano e o agendamento é confirmado quando o pagamento for aprovado. Repetir a chamada
+     * com o mesmo {@code Idempotency-Key} devolve a mesma intenção.
+     * </p>
+     *
+     * @param id             identificador do agendamento.
+     * @param dto            método de pagamento.
+     * @param idempotencyKey chave de idempotência gerada pelo cliente.
+     * @param usuarioLogado  cliente autenticado.
+     * @return {@link ResponseEntity} 202 com a intenção de pagamento.
+     */
+    @Operation(summary = "Pagar agendamento", description = "Registra a intenção de pagamento (PIX, boleto ou cartão) e a processa em segundo plano.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Pagamento aceito para processamento"),
+            @ApiResponse(responseCode = "409", description = "Outra solicitação de pagamento do agendamento gravada ao mesmo tempo")
+    })
+    @PostMapping("/{id}/pagamentos")
+    @PreAuthorize("hasRole('CUSTOMER')")
+    public ResponseEntity<IntencaoPagamentoDTO> pagar(
+            @Parameter(description = "ID do agendamento") @PathVariable Long id,
+            @Valid @RequestBody PagamentoRequestDTO dto,
+            @Parameter(description = "Chave única da solicitação, reutilizada nas repetições") @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @AuthenticationPrincipal UserDetailsImpl usuarioLogado) {
+
+        IntencaoPagamento intencao = pagamentoService.solicitar(id, dto.metodo(), idempotencyKey, usuarioLogado.getId());
+        return ResponseEntity.accepted().body(IntencaoPagamentoDTO.fromEntity(intencao));
+    }
+
+    /**
+     * Lista os pagamentos de um agendamento.
+     *
+     * @param id            identificador do agendamento.
+     * @param usuarioLogado usuário autenticado que realiza a consulta.
+     * @return {@link ResponseEntity} com as intenções de pagamento, da mais recente para a mais antiga.
+     */
+    @Operation(summary = "Pagamentos do agendamento", description = "Lista as intenções de pagamento do agendamento e seus status.")
+    @ApiResponse(responseCode = "200", description = "Pagamentos retornados com sucesso")
+    @GetMapping("/{id}/pagamentos")
+    @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
+    public ResponseEntity<List<IntencaoPagamentoDTO>> pagamentos(
+            @Parameter(description = "ID do agendamento") @PathVariable Long id,
+            @AuthenticationPrincipal UserDetailsImpl usuarioLogado) {
+
+        return ResponseEntity.ok(service.pagamentos(id, usuarioLogado).stream()
+                .map(IntencaoPagamentoDTO::fromEntity)
+                .toList());
+    }
+
     /**
      * Atualiza o status de um agendamento existente.
      *
      * @param id            identificador do agendamento.
      * @param dto           dados para atualização do status.
+     * @param ifMatch       ETag lida pelo cliente; se informada, a atualização só ocorre nessa versão.
      * @param usuarioLogado usuário autenticado que realiza a operação.
-     * @return {@link ResponseEntity} contendo o agendamento atualizado.
+     * @return {@link ResponseEntity} contendo o agendamento atualizado e sua nova ETag.
      */
     @Operation(summary = "Atualizar status de um agendamento", description = "Modifica o status de um agendamento (ex: para CANCELADO).")
     @ApiResponse(responseCode = "200", description = "Agendamento atualizado com sucesso")
+    @ApiResponse(responseCode = "412", description = "O agendamento mudou desde a ETag informada em If-Match")
     @PutMapping("/{id}/status")
     @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
     public ResponseEntity<AgendamentoResponseDTO> atualizarStatus(
             @Parameter(description = "ID do agendamento") @PathVariable Long id,
             @Valid @RequestBody AtualizacaoStatusDTO dto,
+            @Parameter(description = "ETag do agendamento lida anteriormente") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal UserDetailsImpl usuarioLogado) {
 
-        Agendamento agendamentoAtualizado = service.atualizarStatus(id, dto.status(), dto.motivo(), usuarioLogado);
+        Agendamento agendamentoAtualizado = service.atualizarStatus(
+                id, dto.status(), dto.motivo(), VersaoHttp.versaoEsperada(ifMatch), usuarioLogado);
 
-        return ResponseEntity.ok(AgendamentoResponseDTO.fromEntity(agendamentoAtualizado));
+        return ResponseEntity.ok()
+                .eTag(VersaoHttp.etag(agendamentoAtualizado.getVersao()))
+                .body(AgendamentoResponseDTO.fromEntity(agendamentoAtualizado));
     }
 
     /**
      * Lista os agendamentos de um cliente específico.
+     * <p>
+     * Informar o período ({@code inicio} e {@code fim}) restringe a leitura às partições mensais do período.
+     * </p>
      *
      * @param clienteId identificador do cliente.
+     * @param inicio    data/hora inicial, inclusiva (opcional, junto com {@code fim}).
+     * @param fim       data/hora final, exclusiva (opcional, junto com {@code inicio}).
      * @return {@link ResponseEntity} contendo a lista de agendamentos do cliente.
      */
     @Operation(summary = "Listar agendamentos por cliente")
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
     public ResponseEntity<List<AgendamentoResponseDTO>> listarPorCliente(
-            @Parameter(description = "ID do cliente") @PathVariable Long clienteId) {
+            @Parameter(description = "ID do cliente") @PathVariable Long clienteId,
+            @Parameter(description = "Data/hora inicial (inclusiva)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @Parameter(description = "Data/hora final (exclusiva)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
 
-        List<Agendamento> agendamentos = service.listarPorCliente(clienteId);
+        List<Agendamento> agendamentos = inicio == null && fim == null
+                ? service.listarPorCliente(clienteId)
+                : service.listarPorCliente(clienteId, inicio, fim);
         List<AgendamentoResponseDTO> dtos = agendamentos.stream()
                 .map(AgendamentoResponseDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -119,17 +249,26 @@ public class AgendamentoController {
 
     /**
      * Lista os agendamentos de um prestador específico.
+     * <p>
+     * Informar o período ({@code inicio} e {@code fim}) restringe a leitura às partições mensais do período.
+     * </p>
      *
      * @param prestadorId identificador do prestador.
+     * @param inicio      data/hora inicial, inclusiva (opcional, junto com {@code fim}).
+     * @param fim         data/hora final, exclusiva (opcional, junto com {@code inicio}).
      * @return {@link ResponseEntity} contendo a lista de agendamentos do prestador.
      */
     @Operation(summary = "Listar agendamentos por prestador")
     @GetMapping("/prestador/{prestadorId}")
     @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER')")
     public ResponseEntity<List<AgendamentoResponseDTO>> listarPorPrestador(
-            @Parameter(description = "ID do prestador") @PathVariable Long prestadorId) {
+            @Parameter(description = "ID do prestador") @PathVariable Long prestadorId,
+            @Parameter(description = "Data/hora inicial (inclusiva)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @Parameter(description = "Data/hora final (exclusiva)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
 
-        List<Agendamento> agendamentos = service.listarPorPrestador(prestadorId);
+        List<Agendamento> agendamentos = inicio == null && fim == null
+                ? service.listarPorPrestador(prestadorId)
+                : service.listarPorPrestador(prestadorId, inicio, fim);
         List<AgendamentoResponseDTO> dtos = agendamentos.stream()
                 .map(AgendamentoResponseDTO::fromEntity)
                 .collect(Collectors.toList());
@@ -142,19 +281,25 @@ public class AgendamentoController {
      * - Se informado {@code clienteId}, retorna apenas os agendamentos do cliente.
      * - Se informado {@code prestadorId}, retorna apenas os agendamentos do prestador.
      * - Caso contrário, retorna todos os agendamentos paginados (apenas para administradores e prestadores).
+     *   No modo {@code FATIA} não há contagem total: a resposta indica apenas se há próxima página e,
+     *   se {@code total=true}, traz uma estimativa do total.
      * </p>
      *
      * @param clienteId   identificador do cliente (opcional).
      * @param prestadorId identificador do prestador (opcional).
+     * @param modo        modo de paginação da listagem completa (PAGINA ou FATIA).
+     * @param total       no modo FATIA, se deve incluir o total aproximado.
      * @param pageable    informações de paginação.
-     * @return {@link ResponseEntity} contendo a lista de agendamentos (filtrada ou paginada).
+     * @return {@link ResponseEntity} contendo a lista de agendamentos (filtrada, paginada ou em fatia).
      */
-    @Operation(summary = "Listar agendamentos", description = "Retorna uma lista de agendamentos. Administradores podem listar todos de forma paginada.")
+    @Operation(summary = "Listar agendamentos", description = "Retorna uma lista de agendamentos. Administradores podem listar todos de forma paginada; o modo FATIA evita a contagem total.")
     @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER')")
     @GetMapping
     public ResponseEntity<?> listarAgendamentos(
             @Parameter(description = "ID do cliente para filtrar os resultados") @RequestParam(required = false) Long clienteId,
             @Parameter(description = "ID do prestador para filtrar os resultados") @RequestParam(required = false) Long prestadorId,
+            @Parameter(description = "Modo de paginação (PAGINA ou FATIA)") @RequestParam(defaultValue = "PAGINA") ModoPaginacaoEnum modo,
+            @Parameter(description = "No modo FATIA, inclui o total aproximado") @RequestParam(defaultValue = "false") boolean total,
             Pageable pageable) {
 
         if (clienteId != null) {
@@ -173,6 +318,11 @@ public class AgendamentoController {
             return ResponseEntity.ok(dtos);
         }
 
+        if (modo == ModoPaginacaoEnum.FATIA) {
+            Long totalAproximado = total ? service.estimarTotal() : null;
+            return ResponseEntity.ok(FatiaDTO.of(service.listarTodosFatia(pageable), AgendamentoResponseDTO::fromEntity, totalAproximado));
+        }
+
         Page<Agendamento> agendamentosPaginados = service.listarTodosPaginado(pageable);
 
         Page<AgendamentoResponseDTO> dtosPaginados = agendamentosPaginados
@@ -180,4 +330,42 @@ public class AgendamentoController {
 
         return ResponseEntity.ok(dtosPaginados);
     }
+
+    /**
+     * Busca agendamentos combinando filtros de status, período, serviço, prestador e cliente.
+     * <p>
+     * Prestadores enxergam apenas os próprios agendamentos.
+     * </p>
+     *
+     * @param status        status aceitos (opcional, aceita múltiplos valores).
+     * @param inicio        data/hora inicial, inclusiva (opcional).
+     * @param fim           data/hora final, exclusiva (opcional).
+     * @param servicoId     identificador do serviço (opcional).
+     * @param prestadorId   identificador do prestador (opcional).
+     * @param clienteId     identificador do cliente (opcional).
+     * @param pageable      informações de paginação.
+     * @param usuarioLogado usuário autenticado que realiza a busca.
+     * @return {@link ResponseEntity} contendo a página de agendamentos encontrados.
+     */
+    @Operation(summary = "Buscar agendamentos com filtros", description = "Filtra agendamentos por status, período, serviço, prestador e cliente.")
+    @ApiResponse(responseCode = "200", description = "Busca realizada com sucesso")
+    @GetMapping("/busca")
+    @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER')")
+    public ResponseEntity<Page<AgendamentoResponseDTO>> buscar(
+            @Parameter(description = "Status do agendamento (ex: AGENDADO)") @RequestParam(required = false) List<StatusAgendamentoEnum> status,
+            @Parameter(description = "Data/hora inicial (inclusiva)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @Parameter(description = "Data/hora final (exclusiva)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim,
+            @Parameter(description = "ID do serviço") @RequestParam(required = false) Long servicoId,
+            @Parameter(description = "ID do prestador") @RequestParam(required = false) Long prestadorId,
+            @Parameter(description = "ID do cliente") @RequestParam(required = false) Long clienteId,
+            Pageable pageable,
+            @AuthenticationPrincipal UserDetailsImpl usuarioLogado) {
+
+        FiltroAgendamentoDTO filtro = new FiltroAgendamentoDTO(status, inicio, fim, servicoId, prestadorId, clienteId);
+
+        Page<AgendamentoResponseDTO> resultado = service.buscar(filtro, pageable, usuarioLogado)
+                .map(AgendamentoResponseDTO::fromEntity);
+
+        return ResponseEntity.ok(resultado);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+package com.prestacaoservicos.controller;
+
+import com.prestacaoservicos.dto.EstatisticaCacheDTO;
+import com.prestacaoservicos.service.EstatisticasCacheService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador responsável pelo acompanhamento do cache de segundo nível.
+ */
+@Tag(name = "Cache", description = "Estatísticas do cache de segundo nível do Hibernate")
+@RestController
+@RequestMapping("/api/v1/cache")
+public class CacheController {
+
+    private final EstatisticasCacheService service;
+
+    /**
+     * Construtor que injeta o {@link EstatisticasCacheService}.
+     *
+     * @param service serviço de estatísticas do cache.
+     */
+    public CacheController(EstatisticasCacheService service) {
+        this.service = service;
+    }
+
+    /**
+     * Retorna acertos, falhas, gravações e taxa de acerto de cada região do cache.
+     *
+     * @return {@link ResponseEntity} contendo as estatísticas por região.
+     */
+    @Operation(summary = "Estatísticas do cache", description = "Acertos, falhas e taxa de acerto por região do cache de segundo nível.")
+    @ApiResponse(responseCode = "200", description = "Estatísticas retornadas com sucesso")
+    @GetMapping("/estatisticas")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<List<EstatisticaCacheDTO>> estatisticas() {
+        return ResponseEntity.ok(service.listar());
+    }
+}
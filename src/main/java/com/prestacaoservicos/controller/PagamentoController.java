@@ -0,0 +1,73 @@
+package com.prestacaoservicos.controller;
+
+import com.prestacaoservicos.dto.RetornoPagamentoDTO;
+import com.prestacaoservicos.exception.AcessoNegadoException;
+import com.prestacaoservicos.service.PagamentoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirements;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Controlador que recebe os retornos do gateway de pagamento.
+ * <p>
+ * O endpoint não usa JWT: o gateway se identifica pelo token compartilhado
+ * {@code app.pagamentos.token-retorno}. Sem token configurado, todos os retornos são recusados.
+ * </p>
+ */
+@Tag(name = "Pagamentos", description = "Retornos do gateway de pagamento")
+@RestController
+@RequestMapping("/api/v1/pagamentos")
+public class PagamentoController {
+
+    private final PagamentoService pagamentoService;
+
+    /** Token que o gateway envia no cabeçalho {@code X-Gateway-Token}. */
+    @Value("${app.pagamentos.token-retorno:}")
+    private String tokenRetorno;
+
+    /**
+     * Construtor que injeta o {@link PagamentoService}.
+     *
+     * @param pagamentoService serviço responsável pelos pagamentos.
+     */
+    public PagamentoController(PagamentoService pagamentoService) {
+        this.pagamentoService = pagamentoService;
+    }
+
+    /**
+     * Registra a confirmação ou a recusa de uma cobrança (PIX e boleto).
+     *
+     * @param token token compartilhado com o gateway.
+     * @param dto   retorno do gateway.
+     * @return {@link ResponseEntity} sem conteúdo em caso de sucesso.
+     */
+    @Operation(summary = "Retorno do gateway", description = "Recebe a confirmação ou recusa assíncrona de uma cobrança. Retornos repetidos são ignorados.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Retorno registrado"),
+            @ApiResponse(responseCode = "403", description = "Token do gateway inválido"),
+            @ApiResponse(responseCode = "404", description = "Cobrança desconhecida")
+    })
+    @SecurityRequirements({})
+    @PostMapping("/retorno")
+    public ResponseEntity<Void> retorno(
+            @Parameter(description = "Token compartilhado com o gateway") @RequestHeader(value = "X-Gateway-Token", required = false) String token,
+            @Valid @RequestBody RetornoPagamentoDTO dto) {
+        if (tokenRetorno.isBlank() || token == null
+                || !MessageDigest.isEqual(tokenRetorno.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            throw new AcessoNegadoException("Token do gateway inválido.");
+        }
+
+        pagamentoService.registrarRetorno(dto.chaveIdempotencia(), dto.referencia(), dto.status());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,63 @@
+package com.prestacaoservicos.controller;
+
+import com.prestacaoservicos.enums.PermissionEnum;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.service.RegistroPermissoes;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Controlador responsável pelo registro em memória das permissões de cada papel.
+ */
+@Tag(name = "Permissões", description = "Consulta e recarga do registro de permissões por papel")
+@RestController
+@RequestMapping("/api/v1/permissoes")
+public class PermissaoController {
+
+    private final RegistroPermissoes registro;
+
+    /**
+     * Construtor que injeta o {@link RegistroPermissoes}.
+     *
+     * @param registro registro de permissões por papel.
+     */
+    public PermissaoController(RegistroPermissoes registro) {
+        this.registro = registro;
+    }
+
+    /**
+     * Retorna as permissões de cada papel, como estão no registro em memória.
+     *
+     * @return {@link ResponseEntity} contendo as permissões por papel.
+     */
+    @Operation(summary = "Listar permissões por papel", description = "Retorna o registro de permissões usado na autorização.")
+    @ApiResponse(responseCode = "200", description = "Registro retornado com sucesso")
+    @GetMapping
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<Map<RoleNameEnum, Set<PermissionEnum>>> listar() {
+        return ResponseEntity.ok(registro.permissoesPorPapel());
+    }
+
+    /**
+     * Recarrega o registro a partir do banco, após uma alteração nos papéis.
+     *
+     * @return {@link ResponseEntity} contendo as permissões por papel recarregadas.
+     */
+    @Operation(summary = "Recarregar permissões", description = "Relê do banco as permissões de cada papel. Vale para as próximas requisições.")
+    @ApiResponse(responseCode = "200", description = "Registro recarregado com sucesso")
+    @PostMapping("/recarregar")
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<Map<RoleNameEnum, Set<PermissionEnum>>> recarregar() {
+        return ResponseEntity.ok(registro.recarregar());
+    }
+}
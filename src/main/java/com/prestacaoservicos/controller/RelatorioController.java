@@ -0,0 +1,143 @@
+package com.prestacaoservicos.controller;
+
+import com.prestacaoservicos.dto.LiquidacaoPrestadorDTO;
+import com.prestacaoservicos.dto.OcupacaoDTO;
+import com.prestacaoservicos.dto.RelatorioLinhaDTO;
+import com.prestacaoservicos.enums.AgrupamentoRelatorioEnum;
+import com.prestacaoservicos.service.LiquidacaoService;
+import com.prestacaoservicos.service.RelatorioService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Controlador responsável pelos relatórios gerenciais.
+ * <p>
+ * Todos os endpoints exigem a permissão {@code VIEW_REPORTS}.
+ * </p>
+ *
+ * @author Você
+ * @since 1.0
+ */
+@Tag(name = "Relatórios", description = "Relatórios de faturamento, taxa da plataforma e cancelamentos")
+@RestController
+@RequestMapping("/api/v1/relatorios")
+public class RelatorioController {
+
+    private final RelatorioService service;
+    private final LiquidacaoService liquidacaoService;
+
+    /**
+     * Construtor que injeta o {@link RelatorioService} e o {@link LiquidacaoService}.
+     *
+     * @param service           serviço responsável pelos relatórios.
+     * @param liquidacaoService serviço responsável pela liquidação dos prestadores.
+     */
+    public RelatorioController(RelatorioService service, LiquidacaoService liquidacaoService) {
+        this.service = service;
+        this.liquidacaoService = liquidacaoService;
+    }
+
+    /**
+     * Retorna o faturamento, a taxa da plataforma e os cancelamentos de um período.
+     *
+     * @param inicio      primeiro dia do período.
+     * @param fim         último dia do período.
+     * @param agrupamento forma de agrupamento (DIA, MES, PRESTADOR ou SERVICO).
+     * @return {@link ResponseEntity} contendo as linhas do relatório.
+     */
+    @Operation(summary = "Relatório de faturamento", description = "Faturamento, taxa de 10% e cancelamentos agrupados por período, prestador ou serviço.")
+    @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso")
+    @GetMapping("/faturamento")
+    @PreAuthorize("principal.permissions.contains('VIEW_REPORTS')")
+    public ResponseEntity<List<RelatorioLinhaDTO>> faturamento(
+            @Parameter(description = "Data inicial (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @Parameter(description = "Data final (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @Parameter(description = "Agrupamento do relatório") @RequestParam(defaultValue = "DIA") AgrupamentoRelatorioEnum agrupamento) {
+
+        return ResponseEntity.ok(service.faturamento(inicio, fim, agrupamento));
+    }
+
+    /**
+     * Retorna a ocupação de um prestador em um dia, a partir da consolidação incremental.
+     *
+     * @param prestadorId identificador do prestador.
+     * @param data        dia consultado.
+     * @return {@link ResponseEntity} contendo a ocupação do prestador.
+     */
+    @Operation(summary = "Ocupação do prestador", description = "Quantidade de agendamentos e valor agendado de um prestador em um dia.")
+    @ApiResponse(responseCode = "200", description = "Ocupação retornada com sucesso")
+    @GetMapping("/ocupacao")
+    @PreAuthorize("principal.permissions.contains('VIEW_REPORTS')")
+    public ResponseEntity<OcupacaoDTO> ocupacao(
+            @Parameter(description = "ID do prestador") @RequestParam Long prestadorId,
+            @Parameter(description = "Dia (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate data) {
+
+        return ResponseEntity.ok(service.ocupacao(prestadorId, data));
+    }
+
+    /**
+     * Recalcula a consolidação diária de um período.
+     *
+     * @param inicio primeiro dia do período.
+     * @param fim    último dia do período.
+     * @return {@link ResponseEntity} sem conteúdo.
+     */
+    @Operation(summary = "Recalcular consolidação", description = "Reconstrói a consolidação diária dos agendamentos para o período informado.")
+    @ApiResponse(responseCode = "204", description = "Consolidação atualizada")
+    @PostMapping("/consolidacao")
+    @PreAuthorize("principal.permissions.contains('VIEW_REPORTS')")
+    public ResponseEntity<Void> atualizarConsolidacao(
+            @Parameter(description = "Data inicial (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @Parameter(description = "Data final (yyyy-MM-dd)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim) {
+
+        service.atualizarConsolidacao(inicio, fim);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Inicia a liquidação dos prestadores de um mês encerrado.
+     *
+     * @param competencia mês a liquidar.
+     * @return {@link ResponseEntity} com status 202; o andamento é acompanhado pela listagem.
+     */
+    @Operation(summary = "Liquidar prestadores", description = "Gera em segundo plano os extratos e a liquidação dos prestadores no mês. Prestadores já liquidados são mantidos.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Liquidação iniciada"),
+            @ApiResponse(responseCode = "400", description = "Mês não encerrado ou arquivado")
+    })
+    @PostMapping("/liquidacoes")
+    @PreAuthorize("principal.permissions.contains('VIEW_REPORTS')")
+    public ResponseEntity<Void> liquidar(
+            @Parameter(description = "Competência (yyyy-MM)") @RequestParam YearMonth competencia) {
+
+        liquidacaoService.iniciar(competencia);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Lista as liquidações de um mês.
+     *
+     * @param competencia mês liquidado.
+     * @return {@link ResponseEntity} contendo a liquidação de cada prestador.
+     */
+    @Operation(summary = "Liquidações do mês", description = "Status, valor bruto, taxa de 10%, valor líquido e extrato de cada prestador da competência.")
+    @ApiResponse(responseCode = "200", description = "Liquidações retornadas com sucesso")
+    @GetMapping("/liquidacoes")
+    @PreAuthorize("principal.permissions.contains('VIEW_REPORTS')")
+    public ResponseEntity<List<LiquidacaoPrestadorDTO>> liquidacoes(
+            @Parameter(description = "Competência (yyyy-MM)") @RequestParam YearMonth competencia) {
+
+        return ResponseEntity.ok(liquidacaoService.listar(competencia));
+    }
+}
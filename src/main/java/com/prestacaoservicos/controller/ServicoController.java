@@ -1,23 +1,34 @@
 package com.prestacaoservicos.controller;
 
+import com.prestacaoservicos.dto.PrestadorResumoDTO;
 import com.prestacaoservicos.dto.ServicoRequestDTO;
 import com.prestacaoservicos.dto.ServicoResponseDTO;
 import com.prestacaoservicos.entity.Servico;
 import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
+import com.prestacaoservicos.service.CatalogoServicoCache;
 import com.prestacaoservicos.service.ServicoService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
-import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Controlador responsável pelas operações relacionadas a {@link Servico}.
@@ -67,47 +78,119 @@ public class ServicoController {
 
     /**
      * Lista todos os serviços cadastrados no sistema.
+     * <p>
+     * A resposta sai do catálogo pré-serializado e traz uma ETag forte; requisições com
+     * {@code If-None-Match} correspondente recebem {@code 304 Not Modified}. Clientes que
+     * aceitam gzip recebem a versão já compactada.
+     * </p>
      *
-     * @return {@link ResponseEntity} contendo a lista de serviços disponíveis.
+     * @param acceptEncoding cabeçalho {@code Accept-Encoding} da requisição.
+     * @param request        requisição atual, usada na verificação condicional.
+     * @return {@link ResponseEntity} contendo a lista de serviços disponíveis em JSON.
      */
     @GetMapping
     @Operation(summary = "Listar todos os serviços disponíveis")
+    @ApiResponse(responseCode = "200", description = "Catálogo de serviços",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ServicoResponseDTO.class))))
+    @ApiResponse(responseCode = "304", description = "Catálogo não mudou desde a ETag informada")
     @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
-    public ResponseEntity<List<ServicoResponseDTO>> findAll() {
-        List<Servico> servicos = service.findAll();
-        List<ServicoResponseDTO> dtos = servicos.stream()
-                .map(ServicoResponseDTO::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(dtos);
+    public ResponseEntity<byte[]> findAll(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+
+        CatalogoServicoCache.Catalogo catalogo = service.catalogo();
+        boolean gzip = aceitaGzip(acceptEncoding);
+        String etag = gzip ? catalogo.etagGzip() : catalogo.etag();
+
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return resposta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(catalogo.gzip());
+        }
+        return resposta.body(catalogo.json());
+    }
+
+    /**
+     * Busca serviços por texto livre no nome e na descrição.
+     *
+     * @param q        texto da busca.
+     * @param pageable paginação do resultado.
+     * @return {@link ResponseEntity} contendo a página de serviços ordenada por relevância.
+     */
+    @GetMapping("/busca")
+    @Operation(summary = "Buscar serviços por texto",
+            description = "Busca por nome e descrição sem diferenciar acentos, plural ou pequenos erros de digitação; resultados ordenados por relevância.")
+    @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
+    public ResponseEntity<Page<ServicoResponseDTO>> buscar(
+            @Parameter(description = "Texto da busca") @RequestParam String q,
+            Pageable pageable) {
+        return ResponseEntity.ok(service.buscar(q, pageable));
     }
 
     /**
      * Busca um serviço pelo seu identificador único.
      *
-     * @param id identificador do serviço.
-     * @return {@link ResponseEntity} contendo o serviço encontrado.
+     * @param id      identificador do serviço.
+     * @param request requisição atual, usada na verificação de {@code If-None-Match}.
+     * @return {@link ResponseEntity} contendo o serviço encontrado e sua ETag, ou 304 se não mudou.
      */
     @GetMapping("/{id}")
     @Operation(summary = "Buscar um serviço por ID")
+    @ApiResponse(responseCode = "304", description = "Serviço não mudou desde a ETag informada")
     @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
-    public ResponseEntity<ServicoResponseDTO> findById(@PathVariable Long id) {
+    public ResponseEntity<ServicoResponseDTO> findById(@PathVariable Long id, WebRequest request) {
         Servico servico = service.findById(id);
-        return ResponseEntity.ok(ServicoResponseDTO.fromEntity(servico));
+        String etag = VersaoHttp.etag(servico.getVersao());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(ServicoResponseDTO.fromEntity(servico));
+    }
+
+    /**
+     * Lista os prestadores que oferecem um serviço.
+     *
+     * @param id       identificador do serviço.
+     * @param pageable paginação do resultado.
+     * @return {@link ResponseEntity} contendo a página de prestadores, em ordem de ID.
+     */
+    @GetMapping("/{id}/prestadores")
+    @Operation(summary = "Listar prestadores de um serviço", description = "Retorna os prestadores que oferecem o serviço informado.")
+    @ApiResponse(responseCode = "200", description = "Prestadores retornados com sucesso")
+    @ApiResponse(responseCode = "404", description = "Serviço não encontrado")
+    @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER', 'CUSTOMER')")
+    public ResponseEntity<Page<PrestadorResumoDTO>> listarPrestadores(@PathVariable Long id, Pageable pageable) {
+        return ResponseEntity.ok(service.listarPrestadores(id, pageable));
     }
 
     /**
      * Atualiza os dados de um serviço existente.
      *
-     * @param id  identificador do serviço a ser atualizado.
-     * @param dto objeto com os novos dados do serviço.
-     * @return {@link ResponseEntity} contendo o serviço atualizado.
+     * @param id      identificador do serviço a ser atualizado.
+     * @param dto     objeto com os novos dados do serviço.
+     * @param ifMatch ETag lida pelo cliente; se informada, a atualização só ocorre nessa versão.
+     * @return {@link ResponseEntity} contendo o serviço atualizado e sua nova ETag.
      */
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMINISTRATOR', 'SERVICE_PROVIDER')")
     @Operation(summary = "Atualizar um serviço existente", security = @SecurityRequirement(name = "bearerAuth"))
-    public ResponseEntity<ServicoResponseDTO> update(@PathVariable Long id, @Valid @RequestBody ServicoRequestDTO dto) {
-        Servico servicoAtualizado = service.update(id, dto);
-        return ResponseEntity.ok(ServicoResponseDTO.fromEntity(servicoAtualizado));
+    @ApiResponse(responseCode = "412", description = "O serviço mudou desde a ETag informada em If-Match")
+    public ResponseEntity<ServicoResponseDTO> update(
+            @PathVariable Long id,
+            @Valid @RequestBody ServicoRequestDTO dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Servico servicoAtualizado = service.update(id, dto, VersaoHttp.versaoEsperada(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersaoHttp.etag(servicoAtualizado.getVersao()))
+                .body(ServicoResponseDTO.fromEntity(servicoAtualizado));
     }
 
     /**
@@ -123,4 +206,20 @@ public class ServicoController {
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Indica se o cliente aceita respostas compactadas com gzip (ignora {@code q=0}).
+     */
+    private static boolean aceitaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacao : acceptEncoding.split(",")) {
+            String[] partes = codificacao.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].trim().matches("q=0(\\.0{0,3})?");
+            }
+        }
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package com.prestacaoservicos.controller;
 
 import com.prestacaoservicos.dto.*;
+import com.prestacaoservicos.service.UserImportService;
 import com.prestacaoservicos.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,12 +10,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.io.InputStream;
 
 /**
  * Controlador responsável pelas operações relacionadas à entidade {@code User}.
@@ -31,14 +34,17 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
     /**
-     * Construtor que injeta o {@link UserService}.
+     * Construtor que injeta o {@link UserService} e o {@link UserImportService}.
      *
-     * @param userService serviço responsável pelas regras de negócio da entidade usuário.
+     * @param userService       serviço responsável pelas regras de negócio da entidade usuário.
+     * @param userImportService serviço de importação de usuários em lote.
      */
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
     }
 
     /**
@@ -77,41 +83,77 @@ public class UserController {
     }
 
     /**
-     * Lista todos os usuários cadastrados no sistema.
+     * Importa usuários em lote a partir de um CSV ou NDJSON enviado no corpo da requisição.
+     *
+     * @param contentType tipo do conteúdo enviado ({@code text/csv} ou {@code application/x-ndjson}).
+     * @param body        conteúdo do arquivo, lido em fluxo.
+     * @return {@link ResponseEntity} com os totais e os registros rejeitados.
+     */
+    @Operation(summary = "Importar usuários em lote",
+            description = "CSV com cabeçalho name,email,password,role,phones (telefones como numero:TIPO separados por ;) "
+                    + "ou NDJSON com um usuário por linha. Registros inválidos são listados no relatório sem interromper a importação.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Importação processada; veja os registros rejeitados"),
+            @ApiResponse(responseCode = "400", description = "Formato não suportado ou CSV sem o cabeçalho esperado"),
+            @ApiResponse(responseCode = "403", description = "Acesso negado")
+    })
+    @PostMapping(value = "/users/import", consumes = {UserImportService.CSV, UserImportService.NDJSON})
+    @PreAuthorize("hasRole('ADMINISTRATOR')")
+    public ResponseEntity<ImportUsersResultDto> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return ResponseEntity.ok(userImportService.importar(body, contentType));
+    }
+
+    /**
+     * Lista os usuários cadastrados no sistema, paginados por cursor.
      * <p>
-     * Requer permissão de administrador.
+     * Requer permissão de administrador. Para a próxima página, envie em {@code after}
+     * o valor de {@code nextCursor} da resposta anterior.
      * </p>
      *
-     * @return {@link ResponseEntity} contendo a lista de usuários.
+     * @param after ID do último usuário da página anterior (opcional).
+     * @param size  quantidade de usuários por página.
+     * @return {@link ResponseEntity} contendo a página de usuários.
      */
-    @Operation(summary = "Listar usuários", description = "Retorna todos os usuários cadastrados (requer permissão de administrador)")
+    @Operation(summary = "Listar usuários", description = "Retorna os usuários cadastrados em ordem de ID, paginados por cursor (requer permissão de administrador)")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Lista de usuários retornada com sucesso")
+            @ApiResponse(responseCode = "200", description = "Página de usuários retornada com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Tamanho de página inválido")
     })
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMINISTRATOR')")
-    public ResponseEntity<List<RecoveryUserDto>> findAll() {
-        List<RecoveryUserDto> users = userService.listAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<UserPageDto> findAll(
+            @Parameter(description = "ID do último usuário da página anterior (cursor)") @RequestParam(required = false) Long after,
+            @Parameter(description = "Quantidade de usuários por página (máximo 200)") @RequestParam(defaultValue = "50") int size) {
+        UserPageDto page = userService.listUsers(after, size);
+        return ResponseEntity.ok(page);
     }
 
     /**
      * Busca um usuário pelo seu identificador único.
      *
-     * @param id identificador do usuário.
-     * @return {@link ResponseEntity} contendo o usuário encontrado.
+     * @param id      identificador do usuário.
+     * @param request requisição atual, usada na verificação de {@code If-None-Match}.
+     * @return {@link ResponseEntity} contendo o usuário encontrado e sua ETag, ou 304 se não mudou.
      */
     @Operation(summary = "Buscar usuário por ID", description = "Retorna um usuário específico com base no ID informado")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Usuário encontrado"),
+            @ApiResponse(responseCode = "304", description = "Usuário não mudou desde a ETag informada"),
             @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
     })
     @GetMapping("/users/{id}")
     @PreAuthorize("hasRole('ADMINISTRATOR')")
     public ResponseEntity<RecoveryUserDto> findUserById(
-            @Parameter(description = "ID do usuário a ser buscado") @PathVariable Long id) {
+            @Parameter(description = "ID do usuário a ser buscado") @PathVariable Long id,
+            WebRequest request) {
         RecoveryUserDto user = userService.findUserById(id);
-        return ResponseEntity.ok(user);
+        String etag = VersaoHttp.etag(user.version());
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(user);
     }
 
     /**
@@ -138,19 +180,112 @@ public class UserController {
      *
      * @param id            identificador do usuário a ser atualizado.
      * @param updateUserDto DTO contendo os novos dados do usuário.
-     * @return {@link ResponseEntity} contendo o usuário atualizado.
+     * @param ifMatch       ETag lida pelo cliente; se informada, a atualização só ocorre nessa versão.
+     * @return {@link ResponseEntity} contendo o usuário atualizado e sua nova ETag.
      */
     @Operation(summary = "Atualizar usuário", description = "Atualiza os dados de um usuário existente")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Usuário atualizado com sucesso"),
-            @ApiResponse(responseCode = "404", description = "Usuário não encontrado")
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "412", description = "O usuário mudou desde a ETag informada em If-Match")
     })
     @PutMapping("/users/{id}")
     public ResponseEntity<RecoveryUserDto> update(
             @Parameter(description = "ID do usuário") @PathVariable Long id,
-            @Valid @RequestBody UpdateUserDto updateUserDto) {
-        RecoveryUserDto updatedUser = userService.updateUser(id, updateUserDto);
-        return ResponseEntity.ok(updatedUser);
+            @Valid @RequestBody UpdateUserDto updateUserDto,
+            @Parameter(description = "ETag do usuário lida anteriormente") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RecoveryUserDto updatedUser = userService.updateUser(id, updateUserDto, VersaoHttp.versaoEsperada(ifMatch));
+        return ResponseEntity.ok().eTag(VersaoHttp.etag(updatedUser.version())).body(updatedUser);
+    }
+
+    /**
+     * Atualiza parcialmente um usuário existente.
+     *
+     * @param id           identificador do usuário a ser atualizado.
+     * @param patchUserDto DTO contendo apenas os campos a alterar.
+     * @param ifMatch      ETag lida pelo cliente; se informada, a atualização só ocorre nessa versão.
+     * @return {@link ResponseEntity} contendo o usuário atualizado e sua nova ETag.
+     */
+    @Operation(summary = "Atualizar usuário parcialmente", description = "Altera apenas os campos informados e inclui ou remove telefones específicos")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Usuário atualizado com sucesso"),
+            @ApiResponse(responseCode = "400", description = "Email em uso ou telefone inválido"),
+            @ApiResponse(responseCode = "404", description = "Usuário não encontrado"),
+            @ApiResponse(responseCode = "412", description = "O usuário mudou desde a ETag informada em If-Match")
+    })
+    @PatchMapping("/users/{id}")
+    public ResponseEntity<RecoveryUserDto> patch(
+            @Parameter(description = "ID do usuário") @PathVariable Long id,
+            @Valid @RequestBody PatchUserDto patchUserDto,
+            @Parameter(description = "ETag do usuário lida anteriormente") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        RecoveryUserDto updatedUser = userService.patchUser(id, patchUserDto, VersaoHttp.versaoEsperada(ifMatch));
+        return ResponseEntity.ok().eTag(VersaoHttp.etag(updatedUser.version())).body(updatedUser);
+    }
+
+    /**
+     * Associa um serviço a um prestador.
+     *
+     * @param prestadorId identificador do prestador.
+     * @param servicoId   identificador do serviço.
+     * @return {@link ResponseEntity} sem conteúdo em caso de sucesso.
+     */
+    @Operation(summary = "Associar serviço ao prestador", description = "O prestador passa a oferecer o serviço informado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Serviço associado"),
+            @ApiResponse(responseCode = "400", description = "Usuário não é prestador ou já oferece o serviço"),
+            @ApiResponse(responseCode = "404", description = "Prestador ou serviço não encontrado")
+    })
+    @PutMapping("/users/{prestadorId}/servicos/{servicoId}")
+    @PreAuthorize("hasRole('ADMINISTRATOR') or (hasRole('SERVICE_PROVIDER') and #prestadorId == principal.id)")
+    public ResponseEntity<Void> associarServico(
+            @Parameter(description = "ID do prestador") @PathVariable Long prestadorId,
+            @Parameter(description = "ID do serviço") @PathVariable Long servicoId) {
+        userService.associarServico(prestadorId, servicoId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Associa vários serviços a um prestador em uma única operação.
+     *
+     * @param prestadorId          identificador do prestador.
+     * @param associateServicesDto DTO com os IDs dos serviços.
+     * @return {@link ResponseEntity} com os serviços associados, já associados e não encontrados.
+     */
+    @Operation(summary = "Associar serviços ao prestador em lote",
+            description = "Associa vários serviços de uma vez; serviços já oferecidos ou inexistentes são apenas informados no resultado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Associação processada"),
+            @ApiResponse(responseCode = "400", description = "Usuário não é prestador ou lista inválida"),
+            @ApiResponse(responseCode = "404", description = "Prestador não encontrado")
+    })
+    @PostMapping("/users/{prestadorId}/servicos")
+    @PreAuthorize("hasRole('ADMINISTRATOR') or (hasRole('SERVICE_PROVIDER') and #prestadorId == principal.id)")
+    public ResponseEntity<AssociateServicesResultDto> associarServicos(
+            @Parameter(description = "ID do prestador") @PathVariable Long prestadorId,
+            @Valid @RequestBody AssociateServicesDto associateServicesDto) {
+        return ResponseEntity.ok(userService.associarServicos(prestadorId, associateServicesDto.servicoIds()));
+    }
+
+    /**
+     * Desassocia um serviço de um prestador.
+     *
+     * @param prestadorId identificador do prestador.
+     * @param servicoId   identificador do serviço.
+     * @return {@link ResponseEntity} sem conteúdo em caso de sucesso.
+     */
+    @Operation(summary = "Desassociar serviço do prestador", description = "O prestador deixa de oferecer o serviço informado")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Serviço desassociado"),
+            @ApiResponse(responseCode = "400", description = "O prestador não oferece o serviço"),
+            @ApiResponse(responseCode = "404", description = "Prestador ou serviço não encontrado")
+    })
+    @DeleteMapping("/users/{prestadorId}/servicos/{servicoId}")
+    @PreAuthorize("hasRole('ADMINISTRATOR') or (hasRole('SERVICE_PROVIDER') and #prestadorId == principal.id)")
+    public ResponseEntity<Void> desassociarServico(
+            @Parameter(description = "ID do prestador") @PathVariable Long prestadorId,
+            @Parameter(description = "ID do serviço") @PathVariable Long servicoId) {
+        userService.desassociarServico(prestadorId, servicoId);
+        return ResponseEntity.noContent().build();
     }
 
     /**
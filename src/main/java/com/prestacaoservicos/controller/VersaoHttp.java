@@ -0,0 +1,49 @@
+package com.prestacaoservicos.controller;
+
+import com.prestacaoservicos.exception.RegraNegocioException;
+
+/**
+ * Conversão entre a versão otimista das entidades ({@code nr_versao}) e as ETags expostas
+ * nos cabeçalhos HTTP {@code ETag}, {@code If-None-Match} e {@code If-Match}.
+ */
+final class VersaoHttp {
+
+    private VersaoHttp() {}
+
+    /**
+     * Monta a ETag forte correspondente a uma versão.
+     *
+     * @param versao Versão da entidade
+     * @return ETag entre aspas (ex.: {@code "3"})
+     */
+    static String etag(Long versao) {
+        return "\"" + versao + "\"";
+    }
+
+    /**
+     * Extrai a versão esperada do cabeçalho {@code If-Match}.
+     *
+     * @param ifMatch Valor do cabeçalho (pode ser nulo)
+     * @return Versão esperada, ou {@code null} se o cabeçalho estiver ausente ou for {@code *}
+     * @throws RegraNegocioException se o cabeçalho não contiver uma única ETag válida
+     */
+    static Long versaoEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String valor = ifMatch.trim();
+        if (valor.startsWith("W/")) {
+            valor = valor.substring(2);
+        }
+        if (valor.length() < 2 || !valor.startsWith("\"") || !valor.endsWith("\"")) {
+            throw new RegraNegocioException("Cabeçalho If-Match inválido: " + ifMatch);
+        }
+
+        try {
+            return Long.valueOf(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new RegraNegocioException("Cabeçalho If-Match inválido: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.prestacaoservicos.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para associar vários serviços a um prestador de uma só vez.
+ *
+ * @param servicoIds IDs dos serviços a associar. Não pode ser vazio.
+ */
+public record AssociateServicesDto(
+        @NotEmpty(message = "Informe ao menos um serviço")
+        @Size(max = 1000, message = "No máximo 1000 serviços por requisição")
+        List<@NotNull(message = "ID de serviço não pode ser nulo") Long> servicoIds
+) {}
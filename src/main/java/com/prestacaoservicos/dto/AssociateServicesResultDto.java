@@ -0,0 +1,16 @@
+package com.prestacaoservicos.dto;
+
+import java.util.List;
+
+/**
+ * Resultado da associação de vários serviços a um prestador.
+ *
+ * @param associated        IDs dos serviços associados nesta requisição.
+ * @param alreadyAssociated IDs dos serviços que o prestador já oferecia.
+ * @param notFound          IDs que não correspondem a nenhum serviço.
+ */
+public record AssociateServicesResultDto(
+        List<Long> associated,
+        List<Long> alreadyAssociated,
+        List<Long> notFound
+) {}
@@ -0,0 +1,18 @@
+package com.prestacaoservicos.dto;
+
+/**
+ * Estatísticas de uma região do cache de segundo nível do Hibernate.
+ *
+ * @param regiao     Nome da região (entidade, coleção ou consultas).
+ * @param acertos    Leituras atendidas pelo cache.
+ * @param falhas     Leituras que precisaram ir ao banco.
+ * @param gravacoes  Itens colocados no cache.
+ * @param taxaAcerto Acertos sobre o total de leituras (0 a 1), ou 0 se não houve leituras.
+ */
+public record EstatisticaCacheDTO(
+        String regiao,
+        long acertos,
+        long falhas,
+        long gravacoes,
+        double taxaAcerto
+) {}
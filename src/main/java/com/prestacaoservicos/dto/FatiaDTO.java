@@ -0,0 +1,44 @@
+package com.prestacaoservicos.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fatia de uma listagem paginada, sem contagem exata de registros.
+ *
+ * @param conteudo         Itens da fatia.
+ * @param pagina           Número da página (a partir de 0).
+ * @param tamanho          Tamanho solicitado da página.
+ * @param temProxima       Indica se existe próxima página.
+ * @param totalAproximado  Estimativa do total de registros, quando solicitada (pode ser nula).
+ * @param <T>              Tipo dos itens.
+ */
+public record FatiaDTO<T>(
+        List<T> conteudo,
+        int pagina,
+        int tamanho,
+        boolean temProxima,
+        Long totalAproximado
+) {
+    /**
+     * Cria a fatia a partir de um {@link Slice}, convertendo seus itens.
+     *
+     * @param slice           Fatia retornada pelo repositório.
+     * @param conversor       Conversão de cada item.
+     * @param totalAproximado Estimativa do total (pode ser nula).
+     * @param <E>             Tipo dos itens de origem.
+     * @param <T>             Tipo dos itens convertidos.
+     * @return Uma nova instância de FatiaDTO.
+     */
+    public static <E, T> FatiaDTO<T> of(Slice<E> slice, Function<E, T> conversor, Long totalAproximado) {
+        return new FatiaDTO<>(
+                slice.getContent().stream().map(conversor).toList(),
+                slice.getNumber(),
+                slice.getSize(),
+                slice.hasNext(),
+                totalAproximado
+        );
+    }
+}
@@ -0,0 +1,35 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filtros da busca de agendamentos. Campos nulos não restringem o resultado.
+ *
+ * @param status      Status aceitos.
+ * @param inicio      Data/hora inicial (inclusiva).
+ * @param fim         Data/hora final (exclusiva).
+ * @param servicoId   ID do serviço.
+ * @param prestadorId ID do prestador.
+ * @param clienteId   ID do cliente.
+ */
+public record FiltroAgendamentoDTO(
+        List<StatusAgendamentoEnum> status,
+        LocalDateTime inicio,
+        LocalDateTime fim,
+        Long servicoId,
+        Long prestadorId,
+        Long clienteId
+) {
+    /**
+     * Retorna uma cópia do filtro restrita a um prestador.
+     *
+     * @param prestadorId ID do prestador
+     * @return Novo filtro
+     */
+    public FiltroAgendamentoDTO comPrestador(Long prestadorId) {
+        return new FiltroAgendamentoDTO(status, inicio, fim, servicoId, prestadorId, clienteId);
+    }
+}
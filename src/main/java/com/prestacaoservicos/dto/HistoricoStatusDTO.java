@@ -0,0 +1,39 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.entity.HistoricoStatusAgendamento;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * Mudança de status de um agendamento.
+ *
+ * @param usuarioId      ID do usuário que fez a alteração.
+ * @param statusAnterior Status anterior ({@code null} na criação).
+ * @param statusNovo     Status após a alteração.
+ * @param motivo         Motivo informado (quando houver).
+ * @param alteradoEm     Data e hora da alteração.
+ */
+public record HistoricoStatusDTO(
+        Long usuarioId,
+        StatusAgendamentoEnum statusAnterior,
+        StatusAgendamentoEnum statusNovo,
+        String motivo,
+        LocalDateTime alteradoEm
+) {
+    /**
+     * Converte um registro do histórico no DTO.
+     *
+     * @param historico Registro do histórico
+     * @return DTO correspondente
+     */
+    public static HistoricoStatusDTO fromEntity(HistoricoStatusAgendamento historico) {
+        return new HistoricoStatusDTO(
+                historico.getUsuarioId(),
+                historico.getStatusAnterior(),
+                historico.getStatusNovo(),
+                historico.getMotivo(),
+                historico.getAlteradoEm()
+        );
+    }
+}
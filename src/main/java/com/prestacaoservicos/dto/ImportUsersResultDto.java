@@ -0,0 +1,30 @@
+package com.prestacaoservicos.dto;
+
+import java.util.List;
+
+/**
+ * Resultado da importação de usuários em lote.
+ *
+ * @param total    Quantidade de registros lidos (sem contar o cabeçalho do CSV).
+ * @param imported Quantidade de usuários criados.
+ * @param errors   Registros rejeitados, com o motivo de cada um.
+ */
+public record ImportUsersResultDto(
+        long total,
+        long imported,
+        List<RowError> errors
+) {
+
+    /**
+     * Registro rejeitado na importação.
+     *
+     * @param line    Número da linha no arquivo (começando em 1).
+     * @param email   Email informado no registro, se foi possível lê-lo.
+     * @param message Motivo da rejeição.
+     */
+    public static record RowError(
+            long line,
+            String email,
+            String message
+    ) {}
+}
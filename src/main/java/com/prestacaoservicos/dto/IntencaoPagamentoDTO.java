@@ -0,0 +1,56 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.entity.IntencaoPagamento;
+import com.prestacaoservicos.enums.MetodoPagamentoEnum;
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Situação de uma intenção de pagamento.
+ *
+ * @param id                ID da intenção.
+ * @param agendamentoId     ID do agendamento pago.
+ * @param metodo            Método de pagamento.
+ * @param valor             Valor cobrado.
+ * @param status            Status atual.
+ * @param referenciaGateway Referência da cobrança no gateway (após o envio).
+ * @param tentativas        Quantidade de envios ao gateway.
+ * @param ultimoErro        Última falha ou motivo da recusa (quando houver).
+ * @param criadoEm          Data e hora da solicitação.
+ * @param atualizadoEm      Data e hora da última alteração.
+ */
+public record IntencaoPagamentoDTO(
+        Long id,
+        Long agendamentoId,
+        MetodoPagamentoEnum metodo,
+        BigDecimal valor,
+        StatusPagamentoEnum status,
+        String referenciaGateway,
+        Integer tentativas,
+        String ultimoErro,
+        LocalDateTime criadoEm,
+        LocalDateTime atualizadoEm
+) {
+    /**
+     * Converte a entidade no DTO.
+     *
+     * @param intencao Intenção de pagamento
+     * @return DTO correspondente
+     */
+    public static IntencaoPagamentoDTO fromEntity(IntencaoPagamento intencao) {
+        return new IntencaoPagamentoDTO(
+                intencao.getId(),
+                intencao.getAgendamentoId(),
+                intencao.getMetodo(),
+                intencao.getValor(),
+                intencao.getStatus(),
+                intencao.getReferenciaGateway(),
+                intencao.getTentativas(),
+                intencao.getUltimoErro(),
+                intencao.getCriadoEm(),
+                intencao.getAtualizadoEm()
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.enums.StatusLiquidacaoEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Liquidação de um prestador em uma competência. Os valores e o extrato são nulos enquanto a
+ * liquidação estiver pendente.
+ *
+ * @param competencia        Mês liquidado.
+ * @param prestadorId        ID do prestador.
+ * @param status             Status da liquidação.
+ * @param quantidadeServicos Quantidade de agendamentos finalizados liquidados.
+ * @param valorBruto         Soma dos valores dos agendamentos finalizados.
+ * @param taxaPlataforma     Taxa da plataforma (10%) sobre o valor bruto.
+ * @param valorLiquido       Valor devido ao prestador após a taxa.
+ * @param arquivo            Caminho do extrato gerado.
+ * @param geradoEm           Data e hora da liquidação.
+ */
+public record LiquidacaoPrestadorDTO(
+        YearMonth competencia,
+        Long prestadorId,
+        StatusLiquidacaoEnum status,
+        Integer quantidadeServicos,
+        BigDecimal valorBruto,
+        BigDecimal taxaPlataforma,
+        BigDecimal valorLiquido,
+        String arquivo,
+        LocalDateTime geradoEm
+) {}
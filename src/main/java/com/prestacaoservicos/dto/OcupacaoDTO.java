@@ -0,0 +1,22 @@
+package com.prestacaoservicos.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Ocupação de um prestador em um dia.
+ *
+ * @param prestadorId      ID do prestador.
+ * @param data             Dia consultado.
+ * @param ocupados         Quantidade de agendamentos não cancelados no dia.
+ * @param porStatus        Quantidade de agendamentos por status.
+ * @param valorAgendado    Soma dos valores dos agendamentos não cancelados.
+ */
+public record OcupacaoDTO(
+        Long prestadorId,
+        LocalDate data,
+        long ocupados,
+        Map<String, Long> porStatus,
+        BigDecimal valorAgendado
+) {}
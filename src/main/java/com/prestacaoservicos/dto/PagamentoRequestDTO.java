@@ -0,0 +1,14 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.enums.MetodoPagamentoEnum;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Solicitação de pagamento de um agendamento.
+ *
+ * @param metodo Método de pagamento.
+ */
+public record PagamentoRequestDTO(
+        @NotNull(message = "O método de pagamento deve ser informado")
+        MetodoPagamentoEnum metodo
+) {}
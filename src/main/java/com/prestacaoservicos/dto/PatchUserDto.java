@@ -0,0 +1,38 @@
+package com.prestacaoservicos.dto;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * DTO para atualização parcial de um usuário.
+ * <p>
+ * Apenas os campos informados são alterados. Os telefones são alterados individualmente,
+ * sem a necessidade de reenviar a lista completa.
+ * @param name  Novo nome do usuário. Pode conter até 100 caracteres.
+ * @param email Novo endereço de email do usuário. Deve ser um email válido.
+ * @param password Nova senha do usuário. Deve conter pelo menos 6 caracteres.
+ * @param upsertPhones Telefones a incluir ou, se o número já existir, cujo tipo deve ser alterado.
+ * @param removePhones Números de telefone a remover.
+ */
+public record PatchUserDto(
+        @Nullable
+        @Size(max = 100, message = "O nome pode ter no máximo 100 caracteres")
+        String name,
+
+        @Nullable
+        @Email(message = "Email inválido")
+        String email,
+
+        @Nullable
+        @Size(min = 6, message = "Senha deve ter pelo menos 6 caracteres")
+        String password,
+
+        @Nullable
+        List<PhoneDto> upsertPhones,
+
+        @Nullable
+        List<String> removePhones
+) {}
@@ -0,0 +1,26 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.entity.User;
+
+/**
+ * Dados resumidos de um prestador que oferece um serviço.
+ *
+ * @param id    ID do prestador.
+ * @param nome  Nome do prestador.
+ * @param email Email do prestador.
+ */
+public record PrestadorResumoDTO(
+        Long id,
+        String nome,
+        String email
+) {
+    /**
+     * Cria o resumo a partir da entidade {@link User}.
+     *
+     * @param prestador A entidade a ser convertida.
+     * @return Uma nova instância de PrestadorResumoDTO.
+     */
+    public static PrestadorResumoDTO fromEntity(User prestador) {
+        return new PrestadorResumoDTO(prestador.getId(), prestador.getName(), prestador.getEmail());
+    }
+}
@@ -0,0 +1,9 @@
+package com.prestacaoservicos.dto;
+
+/**
+ * Projeção de uma linha de {@code prestador_servicos}.
+ */
+public interface PrestadorServicoProjection {
+    Long getServicoId();
+    Long getPrestadorId();
+}
@@ -12,6 +12,9 @@ import java.util.List;
  * @param name  Nome completo do usuário.
  * @param email Endereço de email do usuário.
  * @param roles Lista de roles (perfis) atribuídos ao usuário.
+ * @param permissions Permissões concedidas pelas roles do usuário.
+ * @param phones Telefones do usuário.
+ * @param version Versão atual do usuário (também enviada como ETag).
  */
 public record RecoveryUserDto(
         Long id,
@@ -19,5 +22,6 @@ public record RecoveryUserDto(
         String email,
         List<String> roles,
         List<String> permissions,
-        List<PhoneDto> phones
+        List<PhoneDto> phones,
+        Long version
 ) {}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.prestacaoservicos.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha de relatório de faturamento.
+ *
+ * @param chave             Valor do agrupamento (data, mês, ID do prestador ou do serviço).
+ * @param descricao         Descrição legível da chave (nome do prestador/serviço), quando houver.
+ * @param totalAgendamentos Quantidade total de agendamentos no grupo.
+ * @param finalizados       Quantidade de agendamentos finalizados.
+ * @param cancelados        Quantidade de agendamentos cancelados.
+ * @param faturamentoBruto  Soma dos valores dos agendamentos finalizados.
+ * @param taxaPlataforma    Taxa da plataforma (10%) sobre o faturamento bruto.
+ * @param valorLiquido      Valor devido aos prestadores após a taxa.
+ * @param valorCancelado    Soma dos valores dos agendamentos cancelados.
+ */
+public record RelatorioLinhaDTO(
+        String chave,
+        String descricao,
+        long totalAgendamentos,
+        long finalizados,
+        long cancelados,
+        BigDecimal faturamentoBruto,
+        BigDecimal taxaPlataforma,
+        BigDecimal valorLiquido,
+        BigDecimal valorCancelado
+) {}
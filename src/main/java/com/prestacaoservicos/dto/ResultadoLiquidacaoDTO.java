@@ -0,0 +1,17 @@
+package com.prestacaoservicos.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Resultado de uma execução da liquidação dos prestadores.
+ *
+ * @param competencia Mês liquidado.
+ * @param liquidados  Prestadores liquidados nesta execução.
+ * @param falhas      IDs dos prestadores cuja liquidação falhou (serão tentados na próxima execução).
+ */
+public record ResultadoLiquidacaoDTO(
+        YearMonth competencia,
+        int liquidados,
+        List<Long> falhas
+) {}
@@ -0,0 +1,18 @@
+package com.prestacaoservicos.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção das consultas agregadas sobre {@code resumo_diario_agendamento}.
+ * <p>
+ * A chave depende do agrupamento solicitado (data, ID do prestador ou ID do serviço).
+ */
+public interface ResumoAgregadoProjection {
+    Object getChave();
+    String getDescricao();
+    Long getTotal();
+    Long getFinalizados();
+    Long getCancelados();
+    BigDecimal getFaturamento();
+    BigDecimal getValorCancelado();
+}
@@ -0,0 +1,13 @@
+package com.prestacaoservicos.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Projeção da consolidação de um prestador em um dia, somada por status
+ * (linhas consolidadas mais os deltas ainda não descarregados).
+ */
+public interface ResumoStatusProjection {
+    String getStatus();
+    Long getQuantidade();
+    BigDecimal getValor();
+}
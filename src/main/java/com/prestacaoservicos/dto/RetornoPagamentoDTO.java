@@ -0,0 +1,20 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Retorno enviado pelo gateway de pagamento sobre uma cobrança.
+ *
+ * @param chaveIdempotencia Chave de idempotência enviada na cobrança.
+ * @param referencia        Referência da cobrança no gateway.
+ * @param status            Status final ({@code APROVADO} ou {@code RECUSADO}).
+ */
+public record RetornoPagamentoDTO(
+        @NotBlank(message = "A chave de idempotência deve ser informada")
+        String chaveIdempotencia,
+        String referencia,
+        @NotNull(message = "O status deve ser informado")
+        StatusPagamentoEnum status
+) {}
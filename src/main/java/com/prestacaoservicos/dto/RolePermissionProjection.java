@@ -0,0 +1,11 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.enums.RoleNameEnum;
+
+/**
+ * Projeção do par role/permissão usada na montagem do registro de permissões por role.
+ */
+public interface RolePermissionProjection {
+    RoleNameEnum getRole();
+    String getPermission();
+}
@@ -0,0 +1,16 @@
+package com.prestacaoservicos.dto;
+
+import java.util.List;
+
+/**
+ * DTO de uma página da listagem de usuários, paginada por cursor (ID do último usuário).
+ *
+ * @param users      Usuários da página, em ordem crescente de ID.
+ * @param nextCursor Valor a ser enviado em {@code after} para obter a próxima página, ou {@code null} se não houver.
+ * @param hasNext    Indica se existem mais usuários após esta página.
+ */
+public record UserPageDto(
+        List<RecoveryUserDto> users,
+        Long nextCursor,
+        boolean hasNext
+) {}
@@ -0,0 +1,12 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.enums.PhoneTypeEnum;
+
+/**
+ * Projeção dos telefones de um usuário usada na listagem paginada de usuários.
+ */
+public interface UserPhoneProjection {
+    Long getUserId();
+    String getPhone();
+    PhoneTypeEnum getType();
+}
@@ -0,0 +1,11 @@
+package com.prestacaoservicos.dto;
+
+import com.prestacaoservicos.enums.RoleNameEnum;
+
+/**
+ * Projeção do par usuário/role usada na listagem paginada de usuários.
+ */
+public interface UserRoleProjection {
+    Long getUserId();
+    RoleNameEnum getRole();
+}
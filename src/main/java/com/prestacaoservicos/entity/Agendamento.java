@@ -2,6 +2,7 @@ package com.prestacaoservicos.entity;
 
 import com.prestacaoservicos.enums.StatusAgendamentoEnum;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -9,7 +10,13 @@ import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
-@Table(name = "agendamento")
+@Table(name = "agendamento", indexes = {
+        @Index(name = "idx_agendamento_prestador_data", columnList = "cd_prestador_user, dt_agendamento"),
+        @Index(name = "idx_agendamento_cliente_data", columnList = "cd_cliente_user, dt_agendamento"),
+        @Index(name = "idx_agendamento_servico_data", columnList = "cd_servico, dt_agendamento"),
+        @Index(name = "idx_agendamento_status_data", columnList = "ds_status, dt_agendamento"),
+        @Index(name = "idx_agendamento_data", columnList = "dt_agendamento")
+})
 public class Agendamento {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,6 +48,11 @@ public class Agendamento {
     @Column(name = "ds_motivo_cancelamento", length = 255)
     private String motivoCancelamento;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "nr_versao", nullable = false)
+    private Long versao;
+
     public Agendamento() {}
 
     public Agendamento(Long id, User cliente, User prestador, Servico servico, LocalDateTime dataHora, BigDecimal valor, StatusAgendamentoEnum status, String motivoCancelamento) {
@@ -118,29 +130,40 @@ public class Agendamento {
         this.motivoCancelamento = motivoCancelamento;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Igualdade pelo ID: dois agendamentos são iguais quando representam a mesma linha.
+     * Não toca nas associações preguiçosas, e um agendamento ainda não persistido só é
+     * igual a si mesmo.
+     */
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        Agendamento that = (Agendamento) o;
-        return Objects.equals(id, that.id) && Objects.equals(cliente, that.cliente) && Objects.equals(prestador, that.prestador) && Objects.equals(servico, that.servico) && Objects.equals(dataHora, that.dataHora) && Objects.equals(valor, that.valor) && status == that.status && Objects.equals(motivoCancelamento, that.motivoCancelamento);
+        if (this == o) return true;
+        if (!(o instanceof Agendamento that)) return false;
+        return id != null && Objects.equals(id, that.getId());
     }
 
+    /**
+     * Constante por classe, para que o hash não mude quando o ID é gerado no persist.
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(id, cliente, prestador, servico, dataHora, valor, status, motivoCancelamento);
+        return Agendamento.class.hashCode();
     }
 
+    /**
+     * Apenas atributos próprios; as associações preguiçosas não são impressas para não disparar consultas.
+     */
     @Override
     public String toString() {
         return "Agendamento{" +
                 "id=" + id +
-                ", cliente=" + cliente +
-                ", prestador=" + prestador +
-                ", servico=" + servico +
                 ", dataHora=" + dataHora +
                 ", valor=" + valor +
                 ", status=" + status +
-                ", motivoCancelamento='" + motivoCancelamento + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.prestacaoservicos.entity;
+
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Registro de uma mudança de status de agendamento (histórico somente de inserção).
+ * <p>
+ * As linhas são gravadas em lote pelo {@code GravadorHistoricoStatus}; a entidade existe
+ * apenas para leitura.
+ */
+@Entity
+@Immutable
+@Table(name = "historico_status_agendamento")
+public class HistoricoStatusAgendamento {
+
+    @Id
+    @Column(name = "cd_historico")
+    private Long id;
+
+    @Column(name = "cd_agendamento", nullable = false)
+    private Long agendamentoId;
+
+    @Column(name = "cd_usuario")
+    private Long usuarioId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ds_status_anterior", length = 20)
+    private StatusAgendamentoEnum statusAnterior;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ds_status_novo", nullable = false, length = 20)
+    private StatusAgendamentoEnum statusNovo;
+
+    @Column(name = "ds_motivo")
+    private String motivo;
+
+    @Column(name = "dt_alteracao", nullable = false)
+    private LocalDateTime alteradoEm;
+
+    public HistoricoStatusAgendamento() {}
+
+    public Long getId() { return id; }
+
+    public Long getAgendamentoId() { return agendamentoId; }
+
+    public Long getUsuarioId() { return usuarioId; }
+
+    public StatusAgendamentoEnum getStatusAnterior() { return statusAnterior; }
+
+    public StatusAgendamentoEnum getStatusNovo() { return statusNovo; }
+
+    public String getMotivo() { return motivo; }
+
+    public LocalDateTime getAlteradoEm() { return alteradoEm; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HistoricoStatusAgendamento that)) return false;
+        return id != null && Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "HistoricoStatusAgendamento{" +
+                "id=" + id +
+                ", agendamentoId=" + agendamentoId +
+                ", statusAnterior=" + statusAnterior +
+                ", statusNovo=" + statusNovo +
+                ", alteradoEm=" + alteradoEm +
+                '}';
+    }
+}
@@ -0,0 +1,127 @@
+package com.prestacaoservicos.entity;
+
+import com.prestacaoservicos.enums.MetodoPagamentoEnum;
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SourceType;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Intenção de pagamento de um agendamento.
+ * <p>
+ * A quantidade de tentativas e o horário da próxima tentativa pertencem ao
+ * {@code ProcessadorPagamentos}, que os altera por SQL; por isso são somente leitura aqui.
+ */
+@Entity
+@Table(name = "intencao_pagamento")
+public class IntencaoPagamento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "cd_intencao")
+    private Long id;
+
+    @Column(name = "cd_agendamento", nullable = false)
+    private Long agendamentoId;
+
+    @Column(name = "cd_cliente", nullable = false)
+    private Long clienteId;
+
+    @Column(name = "ds_chave_idempotencia", nullable = false, unique = true, length = 64)
+    private String chaveIdempotencia;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tp_metodo", nullable = false, length = 20)
+    private MetodoPagamentoEnum metodo;
+
+    @Column(name = "vl_pagamento", nullable = false, precision = 10, scale = 2)
+    private BigDecimal valor;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "st_pagamento", nullable = false, length = 30)
+    private StatusPagamentoEnum status;
+
+    @Column(name = "ds_referencia_gateway", length = 100)
+    private String referenciaGateway;
+
+    @Column(name = "nr_tentativas", nullable = false, insertable = false, updatable = false)
+    private Integer tentativas;
+
+    @Column(name = "dt_proxima_tentativa", nullable = false, insertable = false, updatable = false)
+    private LocalDateTime proximaTentativa;
+
+    @Column(name = "ds_ultimo_erro", length = 500, insertable = false)
+    private String ultimoErro;
+
+    @CreationTimestamp(source = SourceType.DB)
+    @Column(name = "dt_criacao", nullable = false, updatable = false)
+    private LocalDateTime criadoEm;
+
+    @UpdateTimestamp(source = SourceType.DB)
+    @Column(name = "dt_atualizacao", nullable = false)
+    private LocalDateTime atualizadoEm;
+
+    @Version
+    @Column(name = "nr_versao", nullable = false)
+    private Long versao;
+
+    public IntencaoPagamento() {}
+
+    public IntencaoPagamento(Long agendamentoId, Long clienteId, String chaveIdempotencia,
+                             MetodoPagamentoEnum metodo, BigDecimal valor) {
+        this.agendamentoId = agendamentoId;
+        this.clienteId = clienteId;
+        this.chaveIdempotencia = chaveIdempotencia;
+        this.metodo = metodo;
+        this.valor = valor;
+        this.status = StatusPagamentoEnum.PENDENTE;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getAgendamentoId() { return agendamentoId; }
+
+    public Long getClienteId() { return clienteId; }
+
+    public String getChaveIdempotencia() { return chaveIdempotencia; }
+
+    public MetodoPagamentoEnum getMetodo() { return metodo; }
+
+    public BigDecimal getValor() { return valor; }
+
+    public StatusPagamentoEnum getStatus() { return status; }
+    public void setStatus(StatusPagamentoEnum status) { this.status = status; }
+
+    public String getReferenciaGateway() { return referenciaGateway; }
+    public void setReferenciaGateway(String referenciaGateway) { this.referenciaGateway = referenciaGateway; }
+
+    public Integer getTentativas() { return tentativas; }
+
+    public LocalDateTime getProximaTentativa() { return proximaTentativa; }
+
+    public String getUltimoErro() { return ultimoErro; }
+    public void setUltimoErro(String ultimoErro) { this.ultimoErro = ultimoErro; }
+
+    public LocalDateTime getCriadoEm() { return criadoEm; }
+
+    public LocalDateTime getAtualizadoEm() { return atualizadoEm; }
+
+    public Long getVersao() { return versao; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntencaoPagamento that)) return false;
+        return id != null && Objects.equals(id, that.getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return IntencaoPagamento.class.hashCode();
+    }
+}
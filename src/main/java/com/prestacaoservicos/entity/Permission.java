@@ -1,12 +1,16 @@
 package com.prestacaoservicos.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @Table(name = "permissions")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Permission {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,65 @@
+package com.prestacaoservicos.entity;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Consolidação diária dos agendamentos por prestador, serviço e status.
+ * <p>
+ * Cada linha guarda a quantidade de agendamentos e a soma de {@code vl_agendamento}
+ * de um dia, permitindo que os relatórios agreguem poucas linhas em vez de
+ * percorrer a tabela {@code agendamento}.
+ */
+@Entity
+@Table(name = "resumo_diario_agendamento")
+public class ResumoDiarioAgendamento {
+
+    @EmbeddedId
+    private ResumoDiarioAgendamentoId id;
+
+    @Column(name = "qt_agendamentos", nullable = false)
+    private long quantidade;
+
+    @Column(name = "vl_total", nullable = false, precision = 14, scale = 2)
+    private BigDecimal valorTotal;
+
+    public ResumoDiarioAgendamento() {}
+
+    public ResumoDiarioAgendamento(ResumoDiarioAgendamentoId id, long quantidade, BigDecimal valorTotal) {
+        this.id = id;
+        this.quantidade = quantidade;
+        this.valorTotal = valorTotal;
+    }
+
+    public ResumoDiarioAgendamentoId getId() { return id; }
+    public void setId(ResumoDiarioAgendamentoId id) { this.id = id; }
+
+    public long getQuantidade() { return quantidade; }
+    public void setQuantidade(long quantidade) { this.quantidade = quantidade; }
+
+    public BigDecimal getValorTotal() { return valorTotal; }
+    public void setValorTotal(BigDecimal valorTotal) { this.valorTotal = valorTotal; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResumoDiarioAgendamento that)) return false;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ResumoDiarioAgendamento{" +
+                "id=" + id +
+                ", quantidade=" + quantidade +
+                ", valorTotal=" + valorTotal +
+                '}';
+    }
+}
@@ -0,0 +1,67 @@
+package com.prestacaoservicos.entity;
+
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Chave composta de {@link ResumoDiarioAgendamento}: um dia, um prestador, um serviço e um status.
+ */
+@Embeddable
+public class ResumoDiarioAgendamentoId implements Serializable {
+
+    @Column(name = "dt_referencia", nullable = false)
+    private LocalDate data;
+
+    @Column(name = "cd_prestador_user", nullable = false)
+    private Long prestadorId;
+
+    @Column(name = "cd_servico", nullable = false)
+    private Long servicoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ds_status", nullable = false, length = 20)
+    private StatusAgendamentoEnum status;
+
+    public ResumoDiarioAgendamentoId() {}
+
+    public ResumoDiarioAgendamentoId(LocalDate data, Long prestadorId, Long servicoId, StatusAgendamentoEnum status) {
+        this.data = data;
+        this.prestadorId = prestadorId;
+        this.servicoId = servicoId;
+        this.status = status;
+    }
+
+    public LocalDate getData() { return data; }
+    public Long getPrestadorId() { return prestadorId; }
+    public Long getServicoId() { return servicoId; }
+    public StatusAgendamentoEnum getStatus() { return status; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResumoDiarioAgendamentoId that)) return false;
+        return Objects.equals(data, that.data) &&
+                Objects.equals(prestadorId, that.prestadorId) &&
+                Objects.equals(servicoId, that.servicoId) &&
+                status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(data, prestadorId, servicoId, status);
+    }
+
+    @Override
+    public String toString() {
+        return "ResumoDiarioAgendamentoId{" +
+                "data=" + data +
+                ", prestadorId=" + prestadorId +
+                ", servicoId=" + servicoId +
+                ", status=" + status +
+                '}';
+    }
+}
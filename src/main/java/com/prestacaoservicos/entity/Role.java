@@ -2,6 +2,8 @@ package com.prestacaoservicos.entity;
 
 import com.prestacaoservicos.enums.RoleNameEnum;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Objects;
@@ -9,6 +11,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "role")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Role {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +22,7 @@ public class Role {
     @Column(name = "nm_role", unique = true, nullable = false)
     private RoleNameEnum name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "role_permission",
@@ -51,15 +55,16 @@ public class Role {
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Role role = (Role) o;
-        if (id == null) return false;
-        return Objects.equals(id, role.id);
+        if (!(o instanceof Role that)) return false;
+        return id != null && Objects.equals(id, that.getId());
     }
 
+    /**
+     * Constante por classe, para que o hash não mude quando o ID é gerado no persist.
+     */
     @Override
     public int hashCode() {
-        return id != null ? id.hashCode() : getClass().hashCode();
+        return Role.class.hashCode();
     }
 
     @Override
@@ -1,12 +1,16 @@
 package com.prestacaoservicos.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.util.Objects;
 
 @Entity
 @Table(name = "servico")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Servico {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +29,11 @@ public class Servico {
     @Column(name = "st_ativo", nullable = false)
     private boolean ativo = true;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "nr_versao", nullable = false)
+    private Long versao;
+
     public Servico() {}
 
     public Servico(Long id, String nome, BigDecimal valor, String descricao, boolean ativo) {
@@ -75,21 +84,20 @@ public class Servico {
         this.ativo = ativo;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        Servico servico = (Servico) o;
-        return Objects.equals(id, servico.id) &&
-                Objects.equals(nome, servico.nome) &&
-                Objects.equals(valor, servico.valor) &&
-                Objects.equals(descricao, servico.descricao) &&
-                Objects.equals(ativo, servico.ativo);
+        if (!(o instanceof Servico that)) return false;
+        return id != null && Objects.equals(id, that.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id);
+        return Servico.class.hashCode();
     }
 
     @Override
@@ -1,6 +1,8 @@
 package com.prestacaoservicos.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OptimisticLock;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
@@ -30,10 +32,17 @@ public class User {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<UserPhone> phones = new HashSet<>();
 
+    @OptimisticLock(excluded = true)
     @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(name = "prestador_servicos", joinColumns = @JoinColumn(name = "cd_user"), inverseJoinColumns = @JoinColumn(name = "cd_servico"))
+    @JoinTable(name = "prestador_servicos", joinColumns = @JoinColumn(name = "cd_user"), inverseJoinColumns = @JoinColumn(name = "cd_servico"),
+            indexes = @Index(name = "idx_prestador_servicos_servico", columnList = "cd_servico"))
     private Set<Servico> servicosOferecidos = new HashSet<>();
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "nr_versao", nullable = false)
+    private Long versao;
+
     public User() {
     }
 
@@ -65,18 +74,21 @@ public class User {
     public Set<Servico> getServicosOferecidos() { return servicosOferecidos; }
     public void setServicosOferecidos(Set<Servico> servicosOferecidos) { this.servicosOferecidos = servicosOferecidos; }
 
+    public Long getVersao() { return versao; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
-        User user = (User) o;
-        if (id == null) return false;
-        return Objects.equals(id, user.id);
+        if (!(o instanceof User that)) return false;
+        return id != null && Objects.equals(id, that.getId());
     }
 
+    /**
+     * Constante por classe, para que o hash não mude quando o ID é gerado no persist.
+     */
     @Override
     public int hashCode() {
-        return id != null ? id.hashCode() : getClass().hashCode();
+        return User.class.hashCode();
     }
 
     @Override
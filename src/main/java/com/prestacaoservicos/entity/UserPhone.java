@@ -9,7 +9,8 @@ import jakarta.persistence.*;
 @Table(name = "user_phone")
 public class UserPhone {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_phone_seq")
+    @SequenceGenerator(name = "user_phone_seq", sequenceName = "user_phone_seq", allocationSize = 50)
     @Column(name = "cd_phone")
     private Long id;
 
@@ -20,7 +21,7 @@ public class UserPhone {
     @Column(name = "tp_phone", nullable = false, length = 20)
     private PhoneTypeEnum type;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cd_user", nullable = false)
     private User user;
 
@@ -68,14 +69,14 @@ public class UserPhone {
 
     @Override
     public boolean equals(Object o) {
-        if (o == null || getClass() != o.getClass()) return false;
-        UserPhone userPhone = (UserPhone) o;
-        return Objects.equals(id, userPhone.id) && Objects.equals(phone, userPhone.phone) && Objects.equals(type, userPhone.type) && Objects.equals(user, userPhone.user);
+        if (this == o) return true;
+        if (!(o instanceof UserPhone that)) return false;
+        return id != null && Objects.equals(id, that.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, phone, type, user);
+        return UserPhone.class.hashCode();
     }
 
     @Override
@@ -84,7 +85,6 @@ public class UserPhone {
                 "id=" + id +
                 ", phone='" + phone + '\'' +
                 ", type='" + type + '\'' +
-                ", user=" + user +
                 '}';
     }
 }
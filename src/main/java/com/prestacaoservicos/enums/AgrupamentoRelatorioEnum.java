@@ -0,0 +1,40 @@
+package com.prestacaoservicos.enums;
+
+/**
+ * Enumeração que define as formas de agrupamento dos relatórios de faturamento.
+ */
+public enum AgrupamentoRelatorioEnum {
+
+    /** Agrupa por dia do agendamento. */
+    DIA("Por dia"),
+
+    /** Agrupa por mês do agendamento. */
+    MES("Por mês"),
+
+    /** Agrupa por prestador de serviço. */
+    PRESTADOR("Por prestador"),
+
+    /** Agrupa por serviço. */
+    SERVICO("Por serviço");
+
+    /** Descrição textual do agrupamento. */
+    private final String descricao;
+
+    /**
+     * Construtor da enum AgrupamentoRelatorioEnum.
+     *
+     * @param descricao Descrição textual do agrupamento.
+     */
+    AgrupamentoRelatorioEnum(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Obtém a descrição textual do agrupamento.
+     *
+     * @return Descrição do agrupamento.
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+}
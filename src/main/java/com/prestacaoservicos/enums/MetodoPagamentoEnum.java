@@ -0,0 +1,37 @@
+package com.prestacaoservicos.enums;
+
+/**
+ * Enumeração que define os métodos de pagamento aceitos.
+ */
+public enum MetodoPagamentoEnum {
+
+    /** Pagamento instantâneo via PIX (confirmado depois pelo gateway). */
+    PIX("PIX"),
+
+    /** Boleto bancário (confirmado depois pelo gateway, após a compensação). */
+    BOLETO("Boleto"),
+
+    /** Cartão de crédito (aprovado ou recusado na própria submissão). */
+    CARTAO_CREDITO("Cartão de crédito");
+
+    /** Descrição textual do método de pagamento. */
+    private final String descricao;
+
+    /**
+     * Construtor da enum MetodoPagamentoEnum.
+     *
+     * @param descricao Descrição textual do método de pagamento.
+     */
+    MetodoPagamentoEnum(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Obtém a descrição textual do método de pagamento.
+     *
+     * @return Descrição do método de pagamento.
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+}
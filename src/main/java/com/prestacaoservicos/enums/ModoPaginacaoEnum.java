@@ -0,0 +1,34 @@
+package com.prestacaoservicos.enums;
+
+/**
+ * Enumeração que define como uma listagem paginada é respondida.
+ */
+public enum ModoPaginacaoEnum {
+
+    /** Página completa, com total exato de registros (executa {@code COUNT(*)}). */
+    PAGINA("Página com total exato"),
+
+    /** Fatia sem contagem: informa apenas se existe próxima página. */
+    FATIA("Fatia sem contagem");
+
+    /** Descrição textual do modo de paginação. */
+    private final String descricao;
+
+    /**
+     * Construtor da enum ModoPaginacaoEnum.
+     *
+     * @param descricao Descrição textual do modo de paginação.
+     */
+    ModoPaginacaoEnum(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Obtém a descrição textual do modo de paginação.
+     *
+     * @return Descrição do modo de paginação.
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+}
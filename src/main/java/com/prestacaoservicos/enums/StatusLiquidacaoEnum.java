@@ -0,0 +1,34 @@
+package com.prestacaoservicos.enums;
+
+/**
+ * Enumeração que define os status da liquidação de um prestador em uma competência.
+ */
+public enum StatusLiquidacaoEnum {
+
+    /** Prestador com serviços a liquidar, ainda sem extrato. */
+    PENDENTE("Pendente"),
+
+    /** Extrato gerado e valores gravados. */
+    CONCLUIDA("Concluída");
+
+    /** Descrição textual do status. */
+    private final String descricao;
+
+    /**
+     * Construtor da enum StatusLiquidacaoEnum.
+     *
+     * @param descricao Descrição textual do status.
+     */
+    StatusLiquidacaoEnum(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Obtém a descrição textual do status.
+     *
+     * @return Descrição do status.
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+}
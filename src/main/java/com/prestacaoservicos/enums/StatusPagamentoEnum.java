@@ -0,0 +1,65 @@
+package com.prestacaoservicos.enums;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Enumeração que define os status de uma intenção de pagamento.
+ */
+public enum StatusPagamentoEnum {
+
+    /** Aguardando envio ao gateway (inclusive entre novas tentativas). */
+    PENDENTE("Pendente"),
+
+    /** Reservada por um processador e em envio ao gateway. */
+    PROCESSANDO("Processando"),
+
+    /** Aceita pelo gateway; a confirmação chega depois pelo retorno (PIX e boleto). */
+    AGUARDANDO_CONFIRMACAO("Aguardando confirmação"),
+
+    /** Pagamento aprovado. */
+    APROVADO("Aprovado"),
+
+    /** Pagamento recusado pelo gateway. */
+    RECUSADO("Recusado"),
+
+    /** Tentativas de envio esgotadas sem resposta do gateway. */
+    FALHOU("Falhou"),
+
+    /** Pagamento aprovado e depois estornado. */
+    ESTORNADO("Estornado");
+
+    /** Status de intenções que ainda podem ser aprovadas. */
+    public static final Set<StatusPagamentoEnum> EM_ANDAMENTO =
+            EnumSet.of(PENDENTE, PROCESSANDO, AGUARDANDO_CONFIRMACAO);
+
+    /** Descrição textual do status. */
+    private final String descricao;
+
+    /**
+     * Construtor da enum StatusPagamentoEnum.
+     *
+     * @param descricao Descrição textual do status.
+     */
+    StatusPagamentoEnum(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Obtém a descrição textual do status.
+     *
+     * @return Descrição do status.
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Indica se a intenção ainda pode ser aprovada.
+     *
+     * @return {@code true} para pendente, processando ou aguardando confirmação
+     */
+    public boolean isEmAndamento() {
+        return EM_ANDAMENTO.contains(this);
+    }
+}
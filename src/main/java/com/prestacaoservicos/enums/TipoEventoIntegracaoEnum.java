@@ -0,0 +1,34 @@
+package com.prestacaoservicos.enums;
+
+/**
+ * Enumeração que define os tipos de evento de integração gravados no outbox.
+ */
+public enum TipoEventoIntegracaoEnum {
+
+    /** Um agendamento foi criado. */
+    AGENDAMENTO_CRIADO("Agendamento criado"),
+
+    /** O status de um agendamento foi alterado. */
+    AGENDAMENTO_STATUS_ALTERADO("Status do agendamento alterado");
+
+    /** Descrição textual do tipo de evento. */
+    private final String descricao;
+
+    /**
+     * Construtor da enum TipoEventoIntegracaoEnum.
+     *
+     * @param descricao Descrição textual do tipo de evento.
+     */
+    TipoEventoIntegracaoEnum(String descricao) {
+        this.descricao = descricao;
+    }
+
+    /**
+     * Obtém a descrição textual do tipo de evento.
+     *
+     * @return Descrição do tipo de evento.
+     */
+    public String getDescricao() {
+        return descricao;
+    }
+}
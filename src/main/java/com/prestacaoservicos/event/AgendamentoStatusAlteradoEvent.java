@@ -0,0 +1,74 @@
+package com.prestacaoservicos.event;
+
+import com.prestacaoservicos.entity.Agendamento;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Evento de domínio publicado quando um agendamento é criado ou tem seu status alterado.
+ * <p>
+ * Carrega apenas valores imutáveis (IDs, data, valor e status) para que os ouvintes
+ * executados após o commit não precisem acessar a entidade nem o contexto de persistência.
+ *
+ * @param agendamentoId  ID do agendamento
+ * @param clienteId      ID do cliente
+ * @param prestadorId    ID do prestador
+ * @param servicoId      ID do serviço
+ * @param dataHora       Data e hora do agendamento
+ * @param valor          Valor do agendamento
+ * @param statusAnterior Status antes da alteração ({@code null} na criação)
+ * @param statusNovo     Status após a alteração
+ * @param usuarioId      ID do usuário que realizou a operação
+ * @param motivo         Motivo informado na alteração (quando houver)
+ * @param ocorridoEm     Data e hora da alteração
+ */
+public record AgendamentoStatusAlteradoEvent(
+        Long agendamentoId,
+        Long clienteId,
+        Long prestadorId,
+        Long servicoId,
+        LocalDateTime dataHora,
+        BigDecimal valor,
+        StatusAgendamentoEnum statusAnterior,
+        StatusAgendamentoEnum statusNovo,
+        Long usuarioId,
+        String motivo,
+        LocalDateTime ocorridoEm
+) {
+    /**
+     * Cria o evento a partir do estado atual do agendamento.
+     *
+     * @param agendamento    Agendamento já persistido
+     * @param statusAnterior Status antes da alteração ({@code null} na criação)
+     * @param usuarioId      ID do usuário que realizou a operação
+     * @param motivo         Motivo informado na alteração
+     * @return Novo evento
+     */
+    public static AgendamentoStatusAlteradoEvent of(Agendamento agendamento, StatusAgendamentoEnum statusAnterior,
+                                                    Long usuarioId, String motivo) {
+        return new AgendamentoStatusAlteradoEvent(
+                agendamento.getId(),
+                agendamento.getCliente().getId(),
+                agendamento.getPrestador().getId(),
+                agendamento.getServico().getId(),
+                agendamento.getDataHora(),
+                agendamento.getValor(),
+                statusAnterior,
+                agendamento.getStatus(),
+                usuarioId,
+                motivo,
+                LocalDateTime.now()
+        );
+    }
+
+    /**
+     * Indica se o evento representa a criação do agendamento.
+     *
+     * @return {@code true} se não havia status anterior
+     */
+    public boolean isCriacao() {
+        return statusAnterior == null;
+    }
+}
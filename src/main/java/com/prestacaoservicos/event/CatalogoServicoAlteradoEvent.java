@@ -0,0 +1,8 @@
+package com.prestacaoservicos.event;
+
+/**
+ * Evento de domínio publicado quando um serviço do catálogo é criado, alterado ou desativado.
+ *
+ * @param servicoId ID do serviço alterado
+ */
+public record CatalogoServicoAlteradoEvent(Long servicoId) {}
@@ -0,0 +1,8 @@
+package com.prestacaoservicos.event;
+
+/**
+ * Evento de domínio publicado quando estornos são enfileirados em {@code estorno_pagamento}.
+ *
+ * @param agendamentoId ID do agendamento cujos pagamentos serão estornados
+ */
+public record EstornoSolicitadoEvent(Long agendamentoId) {}
@@ -0,0 +1,28 @@
+package com.prestacaoservicos.event;
+
+import com.prestacaoservicos.enums.TipoEventoIntegracaoEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * Evento de integração lido do outbox e entregue aos consumidores (notificações,
+ * pagamentos, análises).
+ * <p>
+ * A entrega é "pelo menos uma vez": o mesmo evento pode chegar mais de uma vez, e os
+ * consumidores devem usar {@code id} para descartar repetições.
+ *
+ * @param id         ID do evento no outbox, crescente na ordem de gravação
+ * @param tipo       Tipo do evento
+ * @param agregado   Nome do agregado de origem (ex.: {@code AGENDAMENTO})
+ * @param agregadoId ID do agregado de origem
+ * @param payload    Conteúdo do evento em JSON
+ * @param criadoEm   Data e hora da gravação no outbox
+ */
+public record EventoIntegracao(
+        Long id,
+        TipoEventoIntegracaoEnum tipo,
+        String agregado,
+        Long agregadoId,
+        String payload,
+        LocalDateTime criadoEm
+) {}
@@ -0,0 +1,8 @@
+package com.prestacaoservicos.event;
+
+/**
+ * Evento de domínio publicado quando uma intenção de pagamento é gravada.
+ *
+ * @param intencaoId ID da intenção de pagamento
+ */
+public record PagamentoSolicitadoEvent(Long intencaoId) {}
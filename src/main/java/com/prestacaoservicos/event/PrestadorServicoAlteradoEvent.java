@@ -0,0 +1,10 @@
+package com.prestacaoservicos.event;
+
+/**
+ * Evento de domínio publicado quando um prestador passa a oferecer ou deixa de oferecer um serviço.
+ *
+ * @param prestadorId ID do prestador
+ * @param servicoId   ID do serviço
+ * @param associado   {@code true} se o serviço foi associado, {@code false} se foi desassociado
+ */
+public record PrestadorServicoAlteradoEvent(Long prestadorId, Long servicoId, boolean associado) {}
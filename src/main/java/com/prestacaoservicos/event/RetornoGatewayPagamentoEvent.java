@@ -0,0 +1,12 @@
+package com.prestacaoservicos.event;
+
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+
+/**
+ * Retorno assíncrono do gateway sobre uma cobrança (por exemplo, a confirmação de um PIX).
+ *
+ * @param chaveIdempotencia Chave de idempotência enviada na cobrança
+ * @param referencia        Referência da cobrança no gateway
+ * @param status            Status final informado ({@code APROVADO} ou {@code RECUSADO})
+ */
+public record RetornoGatewayPagamentoEvent(String chaveIdempotencia, String referencia, StatusPagamentoEnum status) {}
@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -304,6 +305,62 @@ public class ApiExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error);
     }
 
+    /**
+     * Trata exceções do tipo {@link PrecondicaoFalhouException}.
+     * Retorna erro HTTP 412 - Precondition Failed quando o {@code If-Match} informado
+     * não corresponde à versão atual do recurso.
+     *
+     * @param ex      Exceção capturada.
+     * @param request Informações da requisição HTTP.
+     * @return ResponseEntity com status 412 e mensagem detalhada.
+     */
+    @ExceptionHandler(PrecondicaoFalhouException.class)
+    public ResponseEntity<ApiError> handlePrecondicaoFalhou(PrecondicaoFalhouException ex, HttpServletRequest request) {
+        ApiError error = new ApiError(
+                HttpStatus.PRECONDITION_FAILED,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    /**
+     * Trata exceções do tipo {@link ConflitoException}.
+     * Retorna erro HTTP 409 - Conflict quando a operação colide com outra gravada ao mesmo tempo.
+     *
+     * @param ex      Exceção capturada.
+     * @param request Informações da requisição HTTP.
+     * @return ResponseEntity com status 409 e mensagem detalhada.
+     */
+    @ExceptionHandler(ConflitoException.class)
+    public ResponseEntity<ApiError> handleConflito(ConflitoException ex, HttpServletRequest request) {
+        ApiError error = new ApiError(
+                HttpStatus.CONFLICT,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Trata conflitos de versão detectados pelo Hibernate ao gravar uma entidade
+     * alterada simultaneamente por outra requisição.
+     * Retorna erro HTTP 409 - Conflict.
+     *
+     * @param ex      Exceção capturada.
+     * @param request Informações da requisição HTTP.
+     * @return ResponseEntity com status 409 e mensagem padrão.
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleConflitoVersao(ObjectOptimisticLockingFailureException ex, HttpServletRequest request) {
+        ApiError error = new ApiError(
+                HttpStatus.CONFLICT,
+                "O recurso foi alterado por outra requisição. Recarregue os dados e tente novamente.",
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
     /**
      * Handler genérico para capturar outras exceções não tratadas.
      * <p>
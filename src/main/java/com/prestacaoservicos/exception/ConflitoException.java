@@ -0,0 +1,17 @@
+package com.prestacaoservicos.exception;
+
+/**
+ * Exceção personalizada para indicar que a operação conflita com outra gravada ao mesmo
+ * tempo (por exemplo, uma restrição de unicidade violada por uma requisição concorrente).
+ * Extende RuntimeException para indicar que é uma exceção não verificada.
+ */
+public class ConflitoException extends RuntimeException {
+    /**
+     * Construtor que recebe uma mensagem de erro.
+     *
+     * @param mensagem A mensagem de erro a ser exibida.
+     */
+    public ConflitoException(String mensagem) {
+        super(mensagem);
+    }
+}
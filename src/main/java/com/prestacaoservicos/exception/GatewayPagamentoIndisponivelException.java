@@ -0,0 +1,18 @@
+package com.prestacaoservicos.exception;
+
+/**
+ * Exceção personalizada para indicar uma falha transitória do gateway de pagamento
+ * (indisponibilidade, tempo esgotado). A operação pode ser repetida com a mesma chave
+ * de idempotência.
+ * Extende RuntimeException para indicar que é uma exceção não verificada.
+ */
+public class GatewayPagamentoIndisponivelException extends RuntimeException {
+    /**
+     * Construtor que recebe uma mensagem de erro.
+     *
+     * @param mensagem A mensagem de erro a ser exibida.
+     */
+    public GatewayPagamentoIndisponivelException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -0,0 +1,17 @@
+package com.prestacaoservicos.exception;
+
+/**
+ * Exceção personalizada para indicar que a versão informada no cabeçalho {@code If-Match}
+ * não corresponde mais à versão atual do recurso.
+ * Extende RuntimeException para indicar que é uma exceção não verificada.
+ */
+public class PrecondicaoFalhouException extends RuntimeException {
+    /**
+     * Construtor que recebe uma mensagem de erro.
+     *
+     * @param mensagem A mensagem de erro a ser exibida.
+     */
+    public PrecondicaoFalhouException(String mensagem) {
+        super(mensagem);
+    }
+}
@@ -3,7 +3,12 @@ package com.prestacaoservicos.repository;
 import com.prestacaoservicos.entity.Agendamento;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -11,9 +16,42 @@ import java.util.Set;
 
 /**
  * Repositório para operações CRUD relacionadas à entidade Agendamento.
- * Extende JpaRepository para fornecer métodos padrão de acesso a dados.
+ * Extende JpaRepository para fornecer métodos padrão de acesso a dados e
+ * JpaSpecificationExecutor para buscas com filtros combináveis ({@link AgendamentoSpecifications}).
  */
-public interface AgendamentoRepository extends JpaRepository<Agendamento, Long> {
+public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>, JpaSpecificationExecutor<Agendamento> {
+    /**
+     * Busca paginada por especificação, carregando cliente, prestador e serviço na mesma consulta.
+     *
+     * @param spec     Especificação com os filtros
+     * @param pageable Objeto de paginação
+     * @return Página de agendamentos correspondentes
+     */
+    @Override
+    @EntityGraph(attributePaths = {"cliente", "prestador", "servico"})
+    Page<Agendamento> findAll(Specification<Agendamento> spec, Pageable pageable);
+
+    /**
+     * Busca uma fatia de agendamentos sem executar a contagem total
+     * (consulta apenas {@code tamanho + 1} linhas para saber se há próxima página).
+     *
+     * @param pageable Objeto de paginação
+     * @return Fatia de agendamentos
+     */
+    @EntityGraph(attributePaths = {"cliente", "prestador", "servico"})
+    Slice<Agendamento> findAllBy(Pageable pageable);
+
+    /**
+     * Estimativa do número de linhas de {@code agendamento} mantida pelo PostgreSQL: soma de
+     * {@code pg_class.reltuples} das partições anexadas (atualizada por VACUUM/ANALYZE).
+     *
+     * @return Estimativa de linhas, ou negativo se nenhuma partição foi analisada ainda
+     */
+    @Query(value = "SELECT CAST(CASE WHEN bool_or(c.reltuples >= 0) THEN SUM(GREATEST(c.reltuples, 0)) ELSE -1 END AS bigint) " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'agendamento'::regclass", nativeQuery = true)
+    long estimarTotal();
+
     /**
      * Encontra agendamentos por ID do cliente e data/hora.
      *
@@ -22,6 +60,30 @@ public interface AgendamentoRepository extends JpaRepository<Agendamento, Long>
      */
     List<Agendamento> findByClienteId(Long clienteId);
 
+    /**
+     * Encontra agendamentos de um cliente em um período. O filtro por {@code dt_agendamento}
+     * permite ao PostgreSQL ler apenas as partições mensais do período.
+     *
+     * @param clienteId ID do cliente
+     * @param inicio    Data/hora inicial (inclusiva)
+     * @param fim       Data/hora final (exclusiva)
+     * @return Lista de agendamentos correspondentes, em ordem de data
+     */
+    List<Agendamento> findByClienteIdAndDataHoraGreaterThanEqualAndDataHoraLessThanOrderByDataHora(
+            Long clienteId, LocalDateTime inicio, LocalDateTime fim);
+
+    /**
+     * Encontra agendamentos de um prestador em um período. O filtro por {@code dt_agendamento}
+     * permite ao PostgreSQL ler apenas as partições mensais do período.
+     *
+     * @param prestadorId ID do prestador
+     * @param inicio      Data/hora inicial (inclusiva)
+     * @param fim         Data/hora final (exclusiva)
+     * @return Lista de agendamentos correspondentes, em ordem de data
+     */
+    List<Agendamento> findByPrestadorIdAndDataHoraGreaterThanEqualAndDataHoraLessThanOrderByDataHora(
+            Long prestadorId, LocalDateTime inicio, LocalDateTime fim);
+
     /**
      * Encontra agendamentos por ID do prestador.
      *
@@ -0,0 +1,112 @@
+package com.prestacaoservicos.repository;
+
+import com.prestacaoservicos.dto.FiltroAgendamentoDTO;
+import com.prestacaoservicos.entity.Agendamento;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Critérios combináveis para a busca de {@link Agendamento}.
+ * <p>
+ * Cada filtro suportado é coberto por um índice de {@code agendamento}
+ * (criados pela migração {@code db/migration/V2__indices.sql}):
+ * <ul>
+ *   <li>prestador [+ período] [+ status]: {@code idx_agendamento_prestador_data (cd_prestador_user, dt_agendamento)}
+ *       e, para a agenda ativa, o índice parcial {@code idx_agendamento_prestador_ativo}
+ *       ({@code WHERE ds_status IN ('AGENDADO', 'CONFIRMADO')});</li>
+ *   <li>cliente [+ período]: {@code idx_agendamento_cliente_data (cd_cliente_user, dt_agendamento)};</li>
+ *   <li>serviço [+ período]: {@code idx_agendamento_servico_data (cd_servico, dt_agendamento)};</li>
+ *   <li>status [+ período]: {@code idx_agendamento_status_data (ds_status, dt_agendamento)};</li>
+ *   <li>apenas período: {@code idx_agendamento_data (dt_agendamento)}.</li>
+ * </ul>
+ */
+public final class AgendamentoSpecifications {
+
+    private AgendamentoSpecifications() {}
+
+    /**
+     * Monta a especificação combinando todos os filtros informados.
+     *
+     * @param filtro Filtros da busca; campos nulos são ignorados
+     * @return Especificação resultante (sem restrições se nenhum filtro for informado)
+     */
+    public static Specification<Agendamento> deFiltro(FiltroAgendamentoDTO filtro) {
+        List<Specification<Agendamento>> criterios = new ArrayList<>();
+
+        if (filtro.prestadorId() != null) criterios.add(doPrestador(filtro.prestadorId()));
+        if (filtro.clienteId() != null) criterios.add(doCliente(filtro.clienteId()));
+        if (filtro.servicoId() != null) criterios.add(doServico(filtro.servicoId()));
+        if (filtro.status() != null && !filtro.status().isEmpty()) criterios.add(comStatus(filtro.status()));
+        if (filtro.inicio() != null) criterios.add(aPartirDe(filtro.inicio()));
+        if (filtro.fim() != null) criterios.add(ate(filtro.fim()));
+
+        return Specification.allOf(criterios);
+    }
+
+    /**
+     * Agendamentos de um prestador.
+     *
+     * @param prestadorId ID do prestador
+     * @return Especificação
+     */
+    public static Specification<Agendamento> doPrestador(Long prestadorId) {
+        return (root, query, cb) -> cb.equal(root.get("prestador").get("id"), prestadorId);
+    }
+
+    /**
+     * Agendamentos de um cliente.
+     *
+     * @param clienteId ID do cliente
+     * @return Especificação
+     */
+    public static Specification<Agendamento> doCliente(Long clienteId) {
+        return (root, query, cb) -> cb.equal(root.get("cliente").get("id"), clienteId);
+    }
+
+    /**
+     * Agendamentos de um serviço.
+     *
+     * @param servicoId ID do serviço
+     * @return Especificação
+     */
+    public static Specification<Agendamento> doServico(Long servicoId) {
+        return (root, query, cb) -> cb.equal(root.get("servico").get("id"), servicoId);
+    }
+
+    /**
+     * Agendamentos em qualquer um dos status informados.
+     *
+     * @param status Status aceitos
+     * @return Especificação
+     */
+    public static Specification<Agendamento> comStatus(Collection<StatusAgendamentoEnum> status) {
+        return (root, query, cb) -> status.size() == 1
+                ? cb.equal(root.get("status"), status.iterator().next())
+                : root.get("status").in(status);
+    }
+
+    /**
+     * Agendamentos a partir de uma data/hora (inclusiva).
+     *
+     * @param inicio Data/hora inicial
+     * @return Especificação
+     */
+    public static Specification<Agendamento> aPartirDe(LocalDateTime inicio) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("dataHora"), inicio);
+    }
+
+    /**
+     * Agendamentos até uma data/hora (exclusiva).
+     *
+     * @param fim Data/hora final
+     * @return Especificação
+     */
+    public static Specification<Agendamento> ate(LocalDateTime fim) {
+        return (root, query, cb) -> cb.lessThan(root.get("dataHora"), fim);
+    }
+}
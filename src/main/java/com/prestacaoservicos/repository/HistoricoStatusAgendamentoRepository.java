@@ -0,0 +1,20 @@
+package com.prestacaoservicos.repository;
+
+import com.prestacaoservicos.entity.HistoricoStatusAgendamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repositório de leitura do histórico de status dos agendamentos.
+ */
+public interface HistoricoStatusAgendamentoRepository extends JpaRepository<HistoricoStatusAgendamento, Long> {
+
+    /**
+     * Busca o histórico de um agendamento em ordem cronológica.
+     *
+     * @param agendamentoId ID do agendamento.
+     * @return Mudanças de status do agendamento.
+     */
+    List<HistoricoStatusAgendamento> findByAgendamentoIdOrderByAlteradoEmAscIdAsc(Long agendamentoId);
+}
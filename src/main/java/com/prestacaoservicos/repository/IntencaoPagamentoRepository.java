@@ -0,0 +1,73 @@
+package com.prestacaoservicos.repository;
+
+import com.prestacaoservicos.entity.IntencaoPagamento;
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositório para operações relacionadas às intenções de pagamento.
+ * <p>
+ * Os comandos nativos declaram as tabelas que alteram ({@code HINT_NATIVE_SPACES}); sem isso o
+ * Hibernate não sabe o que foi escrito e esvazia todas as regiões do cache de segundo nível.
+ */
+public interface IntencaoPagamentoRepository extends JpaRepository<IntencaoPagamento, Long> {
+
+    /**
+     * Busca a intenção gravada com uma chave de idempotência.
+     *
+     * @param chaveIdempotencia Chave informada pelo cliente.
+     * @return A intenção, se existir.
+     */
+    Optional<IntencaoPagamento> findByChaveIdempotencia(String chaveIdempotencia);
+
+    /**
+     * Lista as intenções de pagamento de um agendamento, da mais recente para a mais antiga.
+     *
+     * @param agendamentoId ID do agendamento.
+     * @return Intenções do agendamento.
+     */
+    List<IntencaoPagamento> findByAgendamentoIdOrderByIdDesc(Long agendamentoId);
+
+    /**
+     * Verifica se o agendamento tem alguma intenção em um dos status informados.
+     *
+     * @param agendamentoId ID do agendamento.
+     * @param status        Status aceitos.
+     * @return {@code true} se existir.
+     */
+    boolean existsByAgendamentoIdAndStatusIn(Long agendamentoId, Collection<StatusPagamentoEnum> status);
+
+    /**
+     * Enfileira o estorno das intenções aprovadas de um agendamento.
+     *
+     * @param agendamentoId ID do agendamento.
+     * @return Quantidade de estornos enfileirados agora.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "estorno_pagamento"))
+    @Query(value = "INSERT INTO estorno_pagamento (cd_intencao) " +
+            "SELECT cd_intencao FROM intencao_pagamento WHERE cd_agendamento = :agendamentoId AND st_pagamento = 'APROVADO' " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int enfileirarEstornosDoAgendamento(@Param("agendamentoId") Long agendamentoId);
+
+    /**
+     * Enfileira o estorno de uma intenção.
+     *
+     * @param intencaoId ID da intenção.
+     * @return Quantidade de estornos enfileirados agora (0 se já estava na fila).
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "estorno_pagamento"))
+    @Query(value = "INSERT INTO estorno_pagamento (cd_intencao) VALUES (:intencaoId) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int enfileirarEstorno(@Param("intencaoId") Long intencaoId);
+}
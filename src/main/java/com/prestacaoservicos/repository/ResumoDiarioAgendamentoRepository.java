@@ -0,0 +1,148 @@
+package com.prestacaoservicos.repository;
+
+import com.prestacaoservicos.dto.ResumoAgregadoProjection;
+import com.prestacaoservicos.dto.ResumoStatusProjection;
+import com.prestacaoservicos.entity.ResumoDiarioAgendamento;
+import com.prestacaoservicos.entity.ResumoDiarioAgendamentoId;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositório da tabela de consolidação diária {@code resumo_diario_agendamento}.
+ * <p>
+ * As consultas de relatório agregam apenas as linhas consolidadas; a tabela
+ * {@code agendamento} só é lida na atualização da consolidação. Os comandos nativos declaram
+ * a tabela que alteram ({@code HINT_NATIVE_SPACES}), para que o Hibernate não esvazie as
+ * demais regiões do cache de segundo nível.
+ */
+public interface ResumoDiarioAgendamentoRepository extends JpaRepository<ResumoDiarioAgendamento, ResumoDiarioAgendamentoId> {
+
+    /**
+     * Soma, por status, as linhas consolidadas de um prestador em um dia e os deltas desse
+     * dia/prestador ainda não descarregados. Um único comando (um único snapshot), para que um
+     * delta movido para o resumo durante a consulta não seja contado duas vezes nem nenhuma.
+     *
+     * @param dia         Dia consultado
+     * @param prestadorId ID do prestador
+     * @return Quantidade e valor por status
+     */
+    @Query(value = "SELECT r.ds_status AS status, SUM(r.qt_agendamentos) AS quantidade, SUM(r.vl_total) AS valor " +
+            "FROM (SELECT ds_status, qt_agendamentos, vl_total FROM resumo_diario_agendamento " +
+            "      WHERE dt_referencia = :dia AND cd_prestador_user = :prestadorId " +
+            "      UNION ALL " +
+            "      SELECT ds_status, qt_agendamentos, vl_total FROM resumo_diario_agendamento_delta " +
+            "      WHERE dt_referencia = :dia AND cd_prestador_user = :prestadorId) r " +
+            "GROUP BY r.ds_status",
+            nativeQuery = true)
+    List<ResumoStatusProjection> somarPorStatus(@Param("dia") LocalDate dia, @Param("prestadorId") Long prestadorId);
+
+    /**
+     * Remove as linhas consolidadas de um intervalo de dias.
+     *
+     * @param inicio Primeiro dia do intervalo (inclusivo)
+     * @param fim    Último dia do intervalo (inclusivo)
+     * @return Quantidade de linhas removidas
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_agendamento"))
+    @Query(value = "DELETE FROM resumo_diario_agendamento WHERE dt_referencia BETWEEN :inicio AND :fim", nativeQuery = true)
+    int removerIntervalo(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    /**
+     * Recalcula a consolidação a partir de {@code agendamento} para um intervalo de data/hora.
+     *
+     * @param inicio Data/hora inicial (inclusiva)
+     * @param fim    Data/hora final (exclusiva)
+     * @return Quantidade de linhas consolidadas inseridas
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "resumo_diario_agendamento"))
+    @Query(value = "INSERT INTO resumo_diario_agendamento " +
+            "(dt_referencia, cd_prestador_user, cd_servico, ds_status, qt_agendamentos, vl_total) " +
+            "SELECT CAST(a.dt_agendamento AS date), a.cd_prestador_user, a.cd_servico, a.ds_status, " +
+            "COUNT(*), SUM(a.vl_agendamento) " +
+            "FROM agendamento a " +
+            "WHERE a.dt_agendamento >= :inicio AND a.dt_agendamento < :fim " +
+            "GROUP BY CAST(a.dt_agendamento AS date), a.cd_prestador_user, a.cd_servico, a.ds_status",
+            nativeQuery = true)
+    int consolidarIntervalo(@Param("inicio") LocalDateTime inicio, @Param("fim") LocalDateTime fim);
+
+    /**
+     * Agrega a consolidação por dia.
+     *
+     * @param inicio     Primeiro dia (inclusivo)
+     * @param fim        Último dia (inclusivo)
+     * @param finalizado Status considerado faturado
+     * @param cancelado  Status considerado cancelado
+     * @return Linhas agregadas ordenadas por dia
+     */
+    @Query("SELECT r.id.data AS chave, CAST(r.id.data AS String) AS descricao, " +
+            "SUM(r.quantidade) AS total, " +
+            "SUM(CASE WHEN r.id.status = :finalizado THEN r.quantidade ELSE 0 END) AS finalizados, " +
+            "SUM(CASE WHEN r.id.status = :cancelado THEN r.quantidade ELSE 0 END) AS cancelados, " +
+            "SUM(CASE WHEN r.id.status = :finalizado THEN r.valorTotal ELSE 0 END) AS faturamento, " +
+            "SUM(CASE WHEN r.id.status = :cancelado THEN r.valorTotal ELSE 0 END) AS valorCancelado " +
+            "FROM ResumoDiarioAgendamento r " +
+            "WHERE r.id.data BETWEEN :inicio AND :fim " +
+            "GROUP BY r.id.data ORDER BY r.id.data")
+    List<ResumoAgregadoProjection> agregarPorDia(@Param("inicio") LocalDate inicio,
+                                                 @Param("fim") LocalDate fim,
+                                                 @Param("finalizado") StatusAgendamentoEnum finalizado,
+                                                 @Param("cancelado") StatusAgendamentoEnum cancelado);
+
+    /**
+     * Agrega a consolidação por prestador.
+     *
+     * @param inicio     Primeiro dia (inclusivo)
+     * @param fim        Último dia (inclusivo)
+     * @param finalizado Status considerado faturado
+     * @param cancelado  Status considerado cancelado
+     * @return Linhas agregadas ordenadas pelo ID do prestador
+     */
+    @Query("SELECT r.id.prestadorId AS chave, u.name AS descricao, " +
+            "SUM(r.quantidade) AS total, " +
+            "SUM(CASE WHEN r.id.status = :finalizado THEN r.quantidade ELSE 0 END) AS finalizados, " +
+            "SUM(CASE WHEN r.id.status = :cancelado THEN r.quantidade ELSE 0 END) AS cancelados, " +
+            "SUM(CASE WHEN r.id.status = :finalizado THEN r.valorTotal ELSE 0 END) AS faturamento, " +
+            "SUM(CASE WHEN r.id.status = :cancelado THEN r.valorTotal ELSE 0 END) AS valorCancelado " +
+            "FROM ResumoDiarioAgendamento r JOIN User u ON u.id = r.id.prestadorId " +
+            "WHERE r.id.data BETWEEN :inicio AND :fim " +
+            "GROUP BY r.id.prestadorId, u.name ORDER BY r.id.prestadorId")
+    List<ResumoAgregadoProjection> agregarPorPrestador(@Param("inicio") LocalDate inicio,
+                                                       @Param("fim") LocalDate fim,
+                                                       @Param("finalizado") StatusAgendamentoEnum finalizado,
+                                                       @Param("cancelado") StatusAgendamentoEnum cancelado);
+
+    /**
+     * Agrega a consolidação por serviço.
+     *
+     * @param inicio     Primeiro dia (inclusivo)
+     * @param fim        Último dia (inclusivo)
+     * @param finalizado Status considerado faturado
+     * @param cancelado  Status considerado cancelado
+     * @return Linhas agregadas ordenadas pelo ID do serviço
+     */
+    @Query("SELECT r.id.servicoId AS chave, s.nome AS descricao, " +
+            "SUM(r.quantidade) AS total, " +
+            "SUM(CASE WHEN r.id.status = :finalizado THEN r.quantidade ELSE 0 END) AS finalizados, " +
+            "SUM(CASE WHEN r.id.status = :cancelado THEN r.quantidade ELSE 0 END) AS cancelados, " +
+            "SUM(CASE WHEN r.id.status = :finalizado THEN r.valorTotal ELSE 0 END) AS faturamento, " +
+            "SUM(CASE WHEN r.id.status = :cancelado THEN r.valorTotal ELSE 0 END) AS valorCancelado " +
+            "FROM ResumoDiarioAgendamento r JOIN Servico s ON s.id = r.id.servicoId " +
+            "WHERE r.id.data BETWEEN :inicio AND :fim " +
+            "GROUP BY r.id.servicoId, s.nome ORDER BY r.id.servicoId")
+    List<ResumoAgregadoProjection> agregarPorServico(@Param("inicio") LocalDate inicio,
+                                                     @Param("fim") LocalDate fim,
+                                                     @Param("finalizado") StatusAgendamentoEnum finalizado,
+                                                     @Param("cancelado") StatusAgendamentoEnum cancelado);
+}
@@ -1,8 +1,17 @@
 package com.prestacaoservicos.repository;
 
+import com.prestacaoservicos.dto.RolePermissionProjection;
 import com.prestacaoservicos.entity.Role;
 import com.prestacaoservicos.enums.RoleNameEnum;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -12,9 +21,21 @@ import java.util.Optional;
 public interface RoleRepository extends JpaRepository<Role, Long> {
     /**
      * Busca uma Role pelo seu nome.
+     * <p>
+     * O resultado fica no cache de consultas do Hibernate (a Role em si, no cache de segundo nível).
      *
      * @param name O nome da Role a ser buscada.
      * @return Um Optional contendo a Role, se encontrada, ou vazio caso contrário.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(RoleNameEnum name);
+
+    /**
+     * Busca as permissões de um conjunto de roles em uma única consulta.
+     *
+     * @param names Nomes das roles.
+     * @return Pares role/permissão.
+     */
+    @Query("SELECT r.name AS role, p.name AS permission FROM Role r JOIN r.permissions p WHERE r.name IN :names")
+    List<RolePermissionProjection> findPermissionsByRoleNames(@Param("names") Collection<RoleNameEnum> names);
 }
\ No newline at end of file
@@ -1,7 +1,14 @@
 package com.prestacaoservicos.repository;
 
 import com.prestacaoservicos.entity.Servico;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -21,8 +28,76 @@ public interface ServicoRepository extends JpaRepository<Servico, Long> {
 
     /**
      * Busca todos os serviços que estão ativos (st_ativo = true).
+     * <p>
+     * O resultado fica no cache de consultas do Hibernate e é invalidado a cada escrita na tabela.
      *
      * @return Uma lista de serviços ativos.
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Servico> findAllByAtivoTrue();
+
+    /**
+     * Busca os serviços ativos direto no banco, sem o cache de consultas, que é local a cada
+     * instância e não enxerga as alterações feitas pelas outras.
+     *
+     * @return Uma lista de serviços ativos.
+     */
+    @Query("SELECT s FROM Servico s WHERE s.ativo = true")
+    List<Servico> listarAtivosSemCache();
+
+    /**
+     * Assinatura da tabela de serviços: quantidade, soma das versões e maior ID. Muda a cada
+     * inclusão, exclusão ou alteração versionada de um serviço.
+     *
+     * @return A assinatura atual, em texto.
+     */
+    @Query(value = "SELECT count(*) || ':' || coalesce(sum(nr_versao), 0) || ':' || coalesce(max(cd_servico), 0) " +
+            "FROM servico", nativeQuery = true)
+    String assinaturaCatalogo();
+
+    /**
+     * Define, até o fim da transação, a semelhança mínima de palavra usada pelo operador
+     * {@code <%} da busca. O padrão do pg_trgm (0,6) recusa erros comuns de digitação, como
+     * "encandor" para "encanador" (0,58).
+     *
+     * @param semelhancaMinima Valor entre 0 e 1.
+     * @return O valor aplicado.
+     */
+    @Query(value = "SELECT set_config('pg_trgm.word_similarity_threshold', CAST(:semelhanca AS text), true)",
+            nativeQuery = true)
+    String definirSemelhancaMinima(@Param("semelhanca") double semelhancaMinima);
+
+    /**
+     * Consulta de texto completo nas duas configurações indexadas em {@code ds_busca}.
+     */
+    String CONSULTA_TEXTO = "(websearch_to_tsquery('portuguese', :consulta) " +
+            "|| websearch_to_tsquery('portugues_sem_acento', :consulta))";
+
+    /**
+     * Filtro da busca textual, atendido pelos índices parciais GIN de {@code servico}.
+     */
+    String FILTRO_BUSCA = "FROM servico s WHERE s.st_ativo " +
+            "AND (s.ds_busca @@ " + CONSULTA_TEXTO + " " +
+            "OR texto_busca(:consulta) <% texto_busca(s.nm_servico || ' ' || s.ds_servico)) ";
+
+    /**
+     * Serviços ativos cujo nome ou descrição casam com a consulta (V10__busca_servico.sql).
+     * <p>
+     * Casam os serviços com todos os radicais da consulta, com ou sem acentos, e os que têm
+     * um trecho de trigramas semelhantes a ela (a partir de {@link #definirSemelhancaMinima}, na
+     * mesma transação), o que tolera erros de digitação. A ordem é a
+     * relevância do texto completo (nome pesa mais que descrição), depois a semelhança dos
+     * trigramas e o nome.
+     *
+     * @param consulta Texto da busca, não vazio.
+     * @param pageable Página desejada, sem ordenação.
+     * @return Página de serviços encontrados.
+     */
+    @Query(value = "SELECT s.* " + FILTRO_BUSCA +
+            "ORDER BY ts_rank(s.ds_busca, " + CONSULTA_TEXTO + ") DESC, " +
+            "word_similarity(texto_busca(:consulta), texto_busca(s.nm_servico || ' ' || s.ds_servico)) DESC, " +
+            "s.nm_servico",
+            countQuery = "SELECT COUNT(*) " + FILTRO_BUSCA,
+            nativeQuery = true)
+    Page<Servico> buscarPorTexto(@Param("consulta") String consulta, Pageable pageable);
 }
@@ -1,13 +1,25 @@
 package com.prestacaoservicos.repository;
 
+import com.prestacaoservicos.dto.UserPhoneProjection;
 import com.prestacaoservicos.entity.UserPhone;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repositório para operações CRUD relacionadas à entidade UserPhone
  * Extende JpaRepository para fornecer métodos padrão de acesso a dados.
  */
 public interface UserPhoneRepository extends JpaRepository<UserPhone, Long> {
+    /**
+     * Busca os telefones de um conjunto de usuários em uma única consulta.
+     *
+     * @param ids IDs dos usuários.
+     * @return Telefones dos usuários, com o ID do dono.
+     */
+    @Query("SELECT p.user.id AS userId, p.phone AS phone, p.type AS type FROM UserPhone p WHERE p.user.id IN :ids ORDER BY p.id")
+    List<UserPhoneProjection> findByUserIds(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
@@ -1,12 +1,17 @@
 package com.prestacaoservicos.repository;
 
+import com.prestacaoservicos.dto.PrestadorServicoProjection;
+import com.prestacaoservicos.dto.UserRoleProjection;
 import com.prestacaoservicos.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Repositório para operações CRUD relacionadas à entidade User.
@@ -22,13 +27,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     /**
-     * Busca um usuário pelo seu email, incluindo suas roles e permissões.
+     * Dentre os emails informados, retorna os que já pertencem a algum usuário.
+     *
+     * @param emails Emails a verificar.
+     * @return Emails já cadastrados.
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Busca um usuário pelo seu email, incluindo suas roles.
+     * <p>
+     * As permissões das roles vêm do {@code RegistroPermissoes}, sem junção com {@code role_permission}.
      *
      * @param email O email do usuário a ser buscado.
-     * @return Um Optional contendo o usuário com suas roles e permissões, se encontrado.
+     * @return Um Optional contendo o usuário com suas roles, se encontrado.
      */
-    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions WHERE u.email = :email")
-    Optional<User> findByEmailWithRolesAndPermissions(@Param("email") String email);
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles WHERE u.email = :email")
+    Optional<User> findByEmailWithRoles(@Param("email") String email);
 
     /**
      * Verifica se um usuário é um prestador de serviços.
@@ -51,10 +67,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByIdWithRolesAndPermissions(@Param("id") Long id);
 
     /**
-     * Busca todos os usuários, incluindo suas roles e permissões.
+     * Busca uma página de usuários por cursor: os usuários com ID maior que o informado,
+     * em ordem crescente de ID (percorre a chave primária, sem OFFSET).
+     *
+     * @param afterId ID do último usuário da página anterior (0 para a primeira página).
+     * @param limit   Quantidade máxima de usuários.
+     * @return Os usuários da página, sem roles e telefones carregados.
+     */
+    @Query("SELECT u FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<User> findPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Busca as roles de um conjunto de usuários em uma única consulta.
+     *
+     * @param ids IDs dos usuários.
+     * @return Pares usuário/role.
+     */
+    @Query("SELECT u.id AS userId, r.name AS role FROM User u JOIN u.roles r WHERE u.id IN :ids")
+    List<UserRoleProjection> findRolesByUserIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Lista todas as associações entre prestadores e serviços.
+     *
+     * @return Pares serviço/prestador de {@code prestador_servicos}.
+     */
+    @Query("SELECT s.id AS servicoId, u.id AS prestadorId FROM User u JOIN u.servicosOferecidos s")
+    List<PrestadorServicoProjection> findAllPrestadorServico();
+
+    /**
+     * Lista os IDs dos serviços oferecidos por um prestador.
      *
-     * @return Uma lista de usuários com suas roles e permissões.
+     * @param userId O ID do prestador.
+     * @return IDs dos serviços em {@code prestador_servicos}.
      */
-    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles r LEFT JOIN FETCH r.permissions")
-    List<User> findAllWithRolesAndPermissions();
+    @Query("SELECT s.id FROM User u JOIN u.servicosOferecidos s WHERE u.id = :userId")
+    List<Long> findServicoIdsOferecidos(@Param("userId") Long userId);
 }
\ No newline at end of file
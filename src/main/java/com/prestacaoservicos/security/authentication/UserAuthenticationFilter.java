@@ -5,6 +5,7 @@ import com.prestacaoservicos.repository.UserRepository;
 import com.prestacaoservicos.security.config.SecurityConfiguration;
 import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
 import com.prestacaoservicos.service.JwtTokenService;
+import com.prestacaoservicos.service.RegistroPermissoes;
 import io.micrometer.common.lang.NonNull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -32,10 +33,13 @@ import java.util.Arrays;
 public class UserAuthenticationFilter extends OncePerRequestFilter {
     private final JwtTokenService jwtTokenService;
     private final UserRepository userRepository;
+    private final RegistroPermissoes registroPermissoes;
 
-    public UserAuthenticationFilter(JwtTokenService jwtTokenService, UserRepository userRepository) {
+    public UserAuthenticationFilter(JwtTokenService jwtTokenService, UserRepository userRepository,
+                                    RegistroPermissoes registroPermissoes) {
         this.jwtTokenService = jwtTokenService;
         this.userRepository = userRepository;
+        this.registroPermissoes = registroPermissoes;
     }
 
     /**
@@ -65,8 +69,8 @@ public class UserAuthenticationFilter extends OncePerRequestFilter {
             try {
                 String subject = jwtTokenService.getSubjectFromToken(token);
 
-                userRepository.findByEmailWithRolesAndPermissions(subject)
-                        .map(UserDetailsImpl::new)
+                userRepository.findByEmailWithRoles(subject)
+                        .map(user -> new UserDetailsImpl(user, registroPermissoes))
                         .map(userDetails -> new UsernamePasswordAuthenticationToken(
                                 userDetails, null, userDetails.getAuthorities()))
                         .ifPresent(authentication -> SecurityContextHolder.getContext().setAuthentication(authentication));
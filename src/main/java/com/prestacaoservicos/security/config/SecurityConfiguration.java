@@ -43,6 +43,7 @@ public class SecurityConfiguration {
     public static final String [] ENDPOINTS_WITH_AUTHENTICATION_NOT_REQUIRED = {
             "/api/v1/auth/login",
             "/api/v1/users",
+            "/api/v1/pagamentos/retorno",
             "/api-docs/**",
             "/swagger-ui.html",
             "/swagger-ui/**",
@@ -67,6 +68,13 @@ public class SecurityConfiguration {
             "/api/v1/users/test/administrator",
     };
 
+    /**
+     * Endpoints de monitoramento (Actuator), acessíveis apenas por usuários com a role 'ADMINISTRATOR'.
+     */
+    public static final String [] ENDPOINTS_ACTUATOR = {
+            "/actuator/**"
+    };
+
     /**
      * Endpoints acessíveis apenas por usuários com a role 'SERVICE_PROVIDER'.
      * <p>
@@ -101,6 +109,7 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(ENDPOINTS_WITH_AUTHENTICATION_NOT_REQUIRED).permitAll()
                         .requestMatchers(ENDPOINTS_ADMINISTRATOR).hasRole("ADMINISTRATOR")
+                        .requestMatchers(ENDPOINTS_ACTUATOR).hasRole("ADMINISTRATOR")
                         .requestMatchers(ENDPOINTS_CUSTOMER).hasRole("CUSTOMER")
                         .anyRequest().authenticated()
                 )
@@ -1,12 +1,17 @@
 package com.prestacaoservicos.security.userdetails;
 
-import com.prestacaoservicos.entity.Permission;
+import com.prestacaoservicos.entity.Role;
 import com.prestacaoservicos.entity.User;
+import com.prestacaoservicos.enums.PermissionEnum;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.service.RegistroPermissoes;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,14 +26,24 @@ import java.util.stream.Collectors;
  */
 public class UserDetailsImpl implements UserDetails {
     private final User user;
+    private final Set<RoleNameEnum> roles;
+    private final Set<PermissionEnum> permissions;
 
     /**
      * Construtor que recebe a entidade de usuário da aplicação.
+     * <p>
+     * Apenas as roles do usuário precisam estar carregadas: as permissões são resolvidas
+     * no {@link RegistroPermissoes}, sem consultar {@code role_permission}.
      *
-     * @param user A entidade {@link User} contendo os dados do usuário.
+     * @param user     A entidade {@link User} contendo os dados do usuário e suas roles.
+     * @param registro Registro de permissões por role.
      */
-    public UserDetailsImpl(User user) {
+    public UserDetailsImpl(User user, RegistroPermissoes registro) {
         this.user = user;
+        this.roles = user.getRoles().stream()
+                .map(Role::getName)
+                .collect(Collectors.toCollection(() -> EnumSet.noneOf(RoleNameEnum.class)));
+        this.permissions = registro.permissoesDe(this.roles);
     }
 
     /**
@@ -41,9 +56,8 @@ public class UserDetailsImpl implements UserDetails {
      */
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return user.getRoles()
-                .stream()
-                .map(role -> new SimpleGrantedAuthority(role.getName().name()))
+        return roles.stream()
+                .map(role -> new SimpleGrantedAuthority(role.name()))
                 .collect(Collectors.toList());
     }
 
@@ -56,10 +70,8 @@ public class UserDetailsImpl implements UserDetails {
      * @return Uma coleção de strings contendo os nomes das permissões.
      */
     public Collection<String> getPermissions() {
-        return user.getRoles()
-                .stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .map(Permission::getName)
+        return permissions.stream()
+                .map(PermissionEnum::getName)
                 .collect(Collectors.toList());
     }
 
@@ -0,0 +1,140 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantém a consolidação diária de agendamentos de forma incremental.
+ * <p>
+ * Cada criação ou mudança de status grava, na própria transação (antes do commit), os deltas
+ * de quantidade e valor por dia/prestador/serviço/status em {@code resumo_diario_agendamento_delta}.
+ * A tabela de deltas só recebe INSERTs, então as requisições não disputam as linhas do resumo,
+ * e um delta confirmado nunca se perde. Periodicamente os deltas são movidos para
+ * {@code resumo_diario_agendamento} em lotes, cada um com um único comando
+ * ({@code DELETE ... RETURNING} seguido de {@code INSERT ... ON CONFLICT}): ou o lote inteiro
+ * é somado ao resumo e sai da fila, ou nada acontece.
+ * <p>
+ * A reconciliação em {@link RelatorioService} bloqueia a descarga com {@link #bloquearDescarga()}
+ * e descarta os deltas do período recalculado na mesma transação, sob o mesmo snapshot do recálculo.
+ */
+@Component
+public class AcumuladorResumoAgendamento {
+
+    private static final Logger log = LoggerFactory.getLogger(AcumuladorResumoAgendamento.class);
+
+    private static final String SQL_REGISTRAR =
+            "INSERT INTO resumo_diario_agendamento_delta " +
+            "(dt_referencia, cd_prestador_user, cd_servico, ds_status, qt_agendamentos, vl_total) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_DESCARREGAR =
+            "WITH drenados AS (DELETE FROM resumo_diario_agendamento_delta WHERE cd_delta IN (" +
+            "    SELECT cd_delta FROM resumo_diario_agendamento_delta ORDER BY cd_delta LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "    RETURNING dt_referencia, cd_prestador_user, cd_servico, ds_status, qt_agendamentos, vl_total), " +
+            "somados AS (INSERT INTO resumo_diario_agendamento " +
+            "    (dt_referencia, cd_prestador_user, cd_servico, ds_status, qt_agendamentos, vl_total) " +
+            "    SELECT dt_referencia, cd_prestador_user, cd_servico, ds_status, SUM(qt_agendamentos), SUM(vl_total) " +
+            "    FROM drenados GROUP BY dt_referencia, cd_prestador_user, cd_servico, ds_status " +
+            "    ON CONFLICT (dt_referencia, cd_prestador_user, cd_servico, ds_status) DO UPDATE SET " +
+            "    qt_agendamentos = resumo_diario_agendamento.qt_agendamentos + EXCLUDED.qt_agendamentos, " +
+            "    vl_total = resumo_diario_agendamento.vl_total + EXCLUDED.vl_total) " +
+            "SELECT count(*) FROM drenados";
+
+    private static final String SQL_DESCARTAR =
+            "DELETE FROM resumo_diario_agendamento_delta WHERE dt_referencia BETWEEN ? AND ?";
+
+    /**
+     * Bloqueia as escritas no resumo (descarga) sem bloquear suas leituras. Não toma snapshot:
+     * executado como primeiro comando de uma transação {@code REPEATABLE READ}, o snapshot da
+     * transação só é tomado depois que o bloqueio for obtido.
+     */
+    private static final String SQL_BLOQUEAR_DESCARGA =
+            "LOCK TABLE resumo_diario_agendamento IN EXCLUSIVE MODE";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Quantidade máxima de deltas movidos para o resumo por comando. */
+    @Value("${app.relatorios.tamanho-lote-descarga:5000}")
+    private int tamanhoLote;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate Template JDBC (participa da transação JPA corrente)
+     */
+    public AcumuladorResumoAgendamento(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Grava os deltas de um agendamento criado ou alterado, na transação que o alterou.
+     *
+     * @param evento Evento de alteração de status
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void aoAlterarStatus(AgendamentoStatusAlteradoEvent evento) {
+        if (evento.statusAnterior() == evento.statusNovo()) {
+            return;
+        }
+
+        Date dia = Date.valueOf(evento.dataHora().toLocalDate());
+        long centavos = Centavos.de(evento.valor());
+
+        List<Object[]> deltas = new ArrayList<>(2);
+        if (!evento.isCriacao()) {
+            deltas.add(new Object[]{dia, evento.prestadorId(), evento.servicoId(), evento.statusAnterior().name(),
+                    -1L, Centavos.paraBigDecimal(-centavos)});
+        }
+        deltas.add(new Object[]{dia, evento.prestadorId(), evento.servicoId(), evento.statusNovo().name(),
+                1L, Centavos.paraBigDecimal(centavos)});
+        jdbcTemplate.batchUpdate(SQL_REGISTRAR, deltas);
+    }
+
+    /**
+     * Move os deltas pendentes para a tabela de consolidação, em lotes de
+     * {@code app.relatorios.tamanho-lote-descarga}. Várias instâncias podem descarregar ao
+     * mesmo tempo: cada uma reserva deltas diferentes com {@code SKIP LOCKED}.
+     */
+    @Scheduled(fixedDelayString = "${app.relatorios.intervalo-descarga-ms:5000}")
+    public void descarregar() {
+        try {
+            Integer movidos;
+            do {
+                movidos = jdbcTemplate.queryForObject(SQL_DESCARREGAR, Integer.class, tamanhoLote);
+            } while (movidos != null && movidos == tamanhoLote);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao mover os deltas da consolidação de agendamentos; nova tentativa na próxima descarga.", e);
+        }
+    }
+
+    /**
+     * Impede a descarga até o fim da transação corrente. Deve ser o primeiro comando de uma
+     * transação {@code REPEATABLE READ}, para que o snapshot seja tomado já com o bloqueio.
+     */
+    void bloquearDescarga() {
+        jdbcTemplate.execute(SQL_BLOQUEAR_DESCARGA);
+    }
+
+    /**
+     * Remove, na transação corrente, os deltas ainda não descarregados de um período.
+     *
+     * @param inicio Primeiro dia do período (inclusivo)
+     * @param fim    Último dia do período (inclusivo)
+     * @return Quantidade de deltas removidos
+     */
+    int descartar(LocalDate inicio, LocalDate fim) {
+        return jdbcTemplate.update(SQL_DESCARTAR, Date.valueOf(inicio), Date.valueOf(fim));
+    }
+}
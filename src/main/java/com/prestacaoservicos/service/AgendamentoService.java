@@ -1,19 +1,28 @@
 package com.prestacaoservicos.service;
 
+import com.prestacaoservicos.dto.FiltroAgendamentoDTO;
 import com.prestacaoservicos.entity.Agendamento;
+import com.prestacaoservicos.entity.HistoricoStatusAgendamento;
+import com.prestacaoservicos.entity.IntencaoPagamento;
 import com.prestacaoservicos.entity.Servico;
 import com.prestacaoservicos.entity.User;
 import com.prestacaoservicos.enums.RoleNameEnum;
 import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
 import com.prestacaoservicos.exception.AcessoNegadoException;
+import com.prestacaoservicos.exception.PrecondicaoFalhouException;
 import com.prestacaoservicos.exception.RecursoNaoEncontradoException;
 import com.prestacaoservicos.exception.RegraNegocioException;
 import com.prestacaoservicos.repository.AgendamentoRepository;
+import com.prestacaoservicos.repository.AgendamentoSpecifications;
+import com.prestacaoservicos.repository.HistoricoStatusAgendamentoRepository;
 import com.prestacaoservicos.repository.ServicoRepository;
 import com.prestacaoservicos.repository.UserRepository;
 import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -36,6 +45,8 @@ public class AgendamentoService {
     private final UserRepository userRepo;
     private final ServicoRepository servicoRepo;
     private final PagamentoService pagamentoService;
+    private final HistoricoStatusAgendamentoRepository historicoRepo;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Construtor que injeta os repositórios e serviços necessários.
@@ -44,16 +55,22 @@ public class AgendamentoService {
      * @param userRepo          Repositório de usuários
      * @param servicoRepo       Repositório de serviços
      * @param pagamentoService  Serviço responsável por operações de pagamento
+     * @param historicoRepo     Repositório do histórico de status
+     * @param eventPublisher    Publicador dos eventos de domínio de agendamento
      */
     public AgendamentoService(
             AgendamentoRepository agendamentoRepo,
             UserRepository userRepo,
             ServicoRepository servicoRepo,
-            PagamentoService pagamentoService) {
+            PagamentoService pagamentoService,
+            HistoricoStatusAgendamentoRepository historicoRepo,
+            ApplicationEventPublisher eventPublisher) {
         this.agendamentoRepo = agendamentoRepo;
         this.userRepo = userRepo;
         this.servicoRepo = servicoRepo;
         this.pagamentoService = pagamentoService;
+        this.historicoRepo = historicoRepo;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -107,7 +124,9 @@ public class AgendamentoService {
         ag.setStatus(StatusAgendamentoEnum.AGENDADO);
         ag.setValor(servico.getValor());
 
-        return agendamentoRepo.save(ag);
+        Agendamento salvo = agendamentoRepo.save(ag);
+        eventPublisher.publishEvent(AgendamentoStatusAlteradoEvent.of(salvo, null, clienteId, null));
+        return salvo;
     }
 
     /**
@@ -120,6 +139,69 @@ public class AgendamentoService {
         return agendamentoRepo.findByClienteId(clienteId);
     }
 
+    /**
+     * Lista os agendamentos de um cliente em um período, lendo apenas as partições do período.
+     *
+     * @param clienteId ID do cliente
+     * @param inicio    Data/hora inicial (inclusiva)
+     * @param fim       Data/hora final (exclusiva)
+     * @return Lista de agendamentos do cliente no período, em ordem de data
+     * @throws RegraNegocioException se o período for inválido
+     */
+    public List<Agendamento> listarPorCliente(Long clienteId, LocalDateTime inicio, LocalDateTime fim) {
+        validarPeriodo(inicio, fim);
+        return agendamentoRepo.findByClienteIdAndDataHoraGreaterThanEqualAndDataHoraLessThanOrderByDataHora(clienteId, inicio, fim);
+    }
+
+    /**
+     * Busca um agendamento pelo ID, desde que o usuário logado possa acessá-lo.
+     *
+     * @param id            ID do agendamento
+     * @param usuarioLogado Usuário autenticado que realiza a consulta
+     * @return O agendamento encontrado
+     * @throws RecursoNaoEncontradoException se o agendamento não for encontrado
+     * @throws AcessoNegadoException se o usuário não tiver permissão
+     */
+    @Transactional(readOnly = true)
+    public Agendamento buscarPorId(Long id, UserDetailsImpl usuarioLogado) {
+        Agendamento agendamento = agendamentoRepo.findById(id)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Agendamento não encontrado."));
+
+        verificarAcesso(agendamento, usuarioLogado, papeis(usuarioLogado),
+                "Você não tem permissão para acessar este agendamento.");
+        return agendamento;
+    }
+
+    /**
+     * Retorna o histórico de status de um agendamento, desde que o usuário logado possa acessá-lo.
+     *
+     * @param id            ID do agendamento
+     * @param usuarioLogado Usuário autenticado
+     * @return Mudanças de status em ordem cronológica
+     * @throws RecursoNaoEncontradoException se o agendamento não for encontrado
+     * @throws AcessoNegadoException se o usuário não tiver permissão
+     */
+    @Transactional(readOnly = true)
+    public List<HistoricoStatusAgendamento> historico(Long id, UserDetailsImpl usuarioLogado) {
+        buscarPorId(id, usuarioLogado);
+        return historicoRepo.findByAgendamentoIdOrderByAlteradoEmAscIdAsc(id);
+    }
+
+    /**
+     * Lista os pagamentos de um agendamento, desde que o usuário logado possa acessá-lo.
+     *
+     * @param id            ID do agendamento
+     * @param usuarioLogado Usuário autenticado
+     * @return Intenções de pagamento, da mais recente para a mais antiga
+     * @throws RecursoNaoEncontradoException se o agendamento não for encontrado
+     * @throws AcessoNegadoException se o usuário não tiver permissão
+     */
+    @Transactional(readOnly = true)
+    public List<IntencaoPagamento> pagamentos(Long id, UserDetailsImpl usuarioLogado) {
+        buscarPorId(id, usuarioLogado);
+        return pagamentoService.listarPorAgendamento(id);
+    }
+
     /**
      * Lista todos os agendamentos de forma paginada.
      *
@@ -130,6 +212,56 @@ public class AgendamentoService {
         return agendamentoRepo.findAll(pageable);
     }
 
+    /**
+     * Lista uma fatia de agendamentos sem contar o total de registros.
+     *
+     * @param pageable Objeto de paginação
+     * @return Fatia de agendamentos
+     */
+    @Transactional(readOnly = true)
+    public Slice<Agendamento> listarTodosFatia(Pageable pageable) {
+        return agendamentoRepo.findAllBy(pageable);
+    }
+
+    /**
+     * Retorna o total aproximado de agendamentos a partir das estatísticas do PostgreSQL,
+     * recorrendo à contagem exata apenas enquanto a tabela ainda não foi analisada.
+     *
+     * @return Total aproximado de agendamentos
+     */
+    @Transactional(readOnly = true)
+    public long estimarTotal() {
+        long estimativa = agendamentoRepo.estimarTotal();
+        return estimativa >= 0 ? estimativa : agendamentoRepo.count();
+    }
+
+    /**
+     * Busca agendamentos combinando filtros de status, período, serviço, prestador e cliente.
+     * <p>
+     * Prestadores (sem papel de administrador) só enxergam os próprios agendamentos:
+     * o filtro de prestador é sempre substituído pelo ID do usuário logado.
+     *
+     * @param filtro        Filtros da busca
+     * @param pageable      Objeto de paginação
+     * @param usuarioLogado Usuário autenticado que realiza a busca
+     * @return Página de agendamentos correspondentes
+     * @throws RegraNegocioException se o período informado for inválido
+     */
+    @Transactional(readOnly = true)
+    public Page<Agendamento> buscar(FiltroAgendamentoDTO filtro, Pageable pageable, UserDetailsImpl usuarioLogado) {
+        if (filtro.inicio() != null && filtro.fim() != null && !filtro.inicio().isBefore(filtro.fim())) {
+            throw new RegraNegocioException("A data inicial deve ser anterior à data final.");
+        }
+
+        Set<String> roles = papeis(usuarioLogado);
+
+        if (!roles.contains(RoleNameEnum.ROLE_ADMINISTRATOR.name())) {
+            filtro = filtro.comPrestador(usuarioLogado.getId());
+        }
+
+        return agendamentoRepo.findAll(AgendamentoSpecifications.deFiltro(filtro), pageable);
+    }
+
     /**
      * Lista todos os agendamentos de um prestador.
      *
@@ -140,6 +272,29 @@ public class AgendamentoService {
         return agendamentoRepo.findByPrestadorId(prestadorId);
     }
 
+    /**
+     * Lista os agendamentos de um prestador em um período, lendo apenas as partições do período.
+     *
+     * @param prestadorId ID do prestador
+     * @param inicio      Data/hora inicial (inclusiva)
+     * @param fim         Data/hora final (exclusiva)
+     * @return Lista de agendamentos do prestador no período, em ordem de data
+     * @throws RegraNegocioException se o período for inválido
+     */
+    public List<Agendamento> listarPorPrestador(Long prestadorId, LocalDateTime inicio, LocalDateTime fim) {
+        validarPeriodo(inicio, fim);
+        return agendamentoRepo.findByPrestadorIdAndDataHoraGreaterThanEqualAndDataHoraLessThanOrderByDataHora(prestadorId, inicio, fim);
+    }
+
+    private static void validarPeriodo(LocalDateTime inicio, LocalDateTime fim) {
+        if (inicio == null || fim == null) {
+            throw new RegraNegocioException("As datas inicial e final devem ser informadas juntas.");
+        }
+        if (!inicio.isBefore(fim)) {
+            throw new RegraNegocioException("A data inicial deve ser anterior à data final.");
+        }
+    }
+
     /**
      * Atualiza o status de um agendamento existente, validando permissões e regras.
      *
@@ -148,35 +303,33 @@ public class AgendamentoService {
      *   <li>Apenas cliente, prestador ou administrador podem alterar o agendamento.</li>
      *   <li>Para cancelamento, é obrigatório informar o motivo.</li>
      *   <li>Clientes só podem cancelar até 12 horas antes do agendamento.</li>
+     *   <li>Cancelamentos enfileiram o estorno dos pagamentos aprovados; o gateway só é chamado após o commit.</li>
      * </ul>
      *
      * @param id            ID do agendamento
      * @param status        Novo status do agendamento
-     * @param motivo        Motivo do cancelamento (quando aplicável)
-     * @param usuarioLogado Usuário autenticado que solicita a alteração
-     * @return O agendamento atualizado
+     * @param motivo         Motivo do cancelamento (quando aplicável)
+     * @param versaoEsperada Versão que o cliente leu (If-Match), ou {@code null} para não verificar
+     * @param usuarioLogado  Usuário autenticado que solicita a alteração
+     * @return O agendamento atualizado, já com a nova versão
      * @throws RecursoNaoEncontradoException se o agendamento não for encontrado
      * @throws AcessoNegadoException se o usuário não tiver permissão
+     * @throws PrecondicaoFalhouException se o agendamento estiver em outra versão
      * @throws RegraNegocioException se alguma regra de negócio for violada
      */
     @Transactional
-    public Agendamento atualizarStatus(Long id, StatusAgendamentoEnum status, String motivo, UserDetailsImpl usuarioLogado) {
+    public Agendamento atualizarStatus(Long id, StatusAgendamentoEnum status, String motivo, Long versaoEsperada,
+                                       UserDetailsImpl usuarioLogado) {
         Agendamento agendamento = agendamentoRepo.findById(id)
                 .orElseThrow(() -> new RecursoNaoEncontradoException("Agendamento não encontrado."));
 
         Long usuarioLogadoId = usuarioLogado.getId();
-        Set<String> roles = usuarioLogado.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toSet());
-
-        boolean isOwner = agendamento.getCliente().getId().equals(usuarioLogadoId) ||
-                agendamento.getPrestador().getId().equals(usuarioLogadoId);
+        Set<String> roles = papeis(usuarioLogado);
 
-        boolean isAdminOrProvider = roles.contains(RoleNameEnum.ROLE_ADMINISTRATOR.name()) ||
-                roles.contains(RoleNameEnum.ROLE_SERVICE_PROVIDER.name());
+        verificarAcesso(agendamento, usuarioLogado, roles, "Você não tem permissão para modificar este agendamento.");
 
-        if (!isOwner && !isAdminOrProvider) {
-            throw new AcessoNegadoException("Você não tem permissão para modificar este agendamento.");
+        if (versaoEsperada != null && !versaoEsperada.equals(agendamento.getVersao())) {
+            throw new PrecondicaoFalhouException("O agendamento foi alterado por outra requisição. Versão atual: " + agendamento.getVersao());
         }
 
         if (status == StatusAgendamentoEnum.CANCELADO) {
@@ -191,7 +344,37 @@ public class AgendamentoService {
             pagamentoService.reembolsar(id);
         }
 
+        StatusAgendamentoEnum statusAnterior = agendamento.getStatus();
         agendamento.setStatus(status);
-        return agendamentoRepo.save(agendamento);
+        Agendamento salvo = agendamentoRepo.saveAndFlush(agendamento);
+        eventPublisher.publishEvent(AgendamentoStatusAlteradoEvent.of(salvo, statusAnterior, usuarioLogadoId, motivo));
+        return salvo;
+    }
+
+    /**
+     * Garante que o usuário seja cliente ou prestador do agendamento, ou administrador.
+     * <p>
+     * É a mesma regra da {@link #buscar busca}: um prestador só enxerga os próprios agendamentos.
+     *
+     * @param agendamento   Agendamento acessado
+     * @param usuarioLogado Usuário autenticado
+     * @param roles         Papéis do usuário autenticado
+     * @param mensagem      Mensagem do erro em caso de acesso negado
+     * @throws AcessoNegadoException se o usuário não tiver permissão
+     */
+    private void verificarAcesso(Agendamento agendamento, UserDetailsImpl usuarioLogado, Set<String> roles, String mensagem) {
+        Long usuarioLogadoId = usuarioLogado.getId();
+        boolean isOwner = agendamento.getCliente().getId().equals(usuarioLogadoId) ||
+                agendamento.getPrestador().getId().equals(usuarioLogadoId);
+
+        if (!isOwner && !roles.contains(RoleNameEnum.ROLE_ADMINISTRATOR.name())) {
+            throw new AcessoNegadoException(mensagem);
+        }
+    }
+
+    private static Set<String> papeis(UserDetailsImpl usuarioLogado) {
+        return usuarioLogado.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
     }
 }
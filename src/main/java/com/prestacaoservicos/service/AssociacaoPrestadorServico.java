@@ -0,0 +1,99 @@
+package com.prestacaoservicos.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Grava as associações entre prestadores e serviços ({@code prestador_servicos}) direto na
+ * tabela de junção, sem carregar a coleção {@code servicosOferecidos} do prestador.
+ * <p>
+ * A associação usa {@code INSERT ... ON CONFLICT DO NOTHING} e a desassociação um
+ * {@code DELETE} pela chave; o custo não depende de quantos serviços o prestador já oferece.
+ * Deve ser chamado dentro da transação de quem publica o {@code PrestadorServicoAlteradoEvent}.
+ */
+@Component
+public class AssociacaoPrestadorServico {
+
+    private static final String SQL_ASSOCIAR =
+            "WITH pedidos AS (SELECT DISTINCT unnest(?::bigint[]) AS cd_servico), " +
+            "inseridos AS (" +
+            "  INSERT INTO prestador_servicos (cd_user, cd_servico) " +
+            "  SELECT ?, p.cd_servico FROM pedidos p JOIN servico s ON s.cd_servico = p.cd_servico " +
+            "  ON CONFLICT DO NOTHING RETURNING cd_servico) " +
+            "SELECT p.cd_servico, s.cd_servico IS NOT NULL AS existe, i.cd_servico IS NOT NULL AS inserido " +
+            "FROM pedidos p " +
+            "LEFT JOIN servico s ON s.cd_servico = p.cd_servico " +
+            "LEFT JOIN inseridos i ON i.cd_servico = p.cd_servico " +
+            "ORDER BY p.cd_servico";
+
+    private static final String SQL_DESASSOCIAR =
+            "DELETE FROM prestador_servicos WHERE cd_user = ? AND cd_servico = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate Acesso JDBC ao banco
+     */
+    public AssociacaoPrestadorServico(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Resultado de uma associação em lote, com os IDs em ordem crescente.
+     *
+     * @param associados     Serviços associados agora
+     * @param jaAssociados   Serviços que o prestador já oferecia
+     * @param naoEncontrados IDs que não correspondem a nenhum serviço
+     */
+    public record Resultado(List<Long> associados, List<Long> jaAssociados, List<Long> naoEncontrados) {}
+
+    /**
+     * Associa vários serviços a um prestador em um único comando.
+     *
+     * @param prestadorId ID do prestador
+     * @param servicoIds  IDs dos serviços (repetições são ignoradas)
+     * @return Serviços associados, já associados e não encontrados
+     */
+    public Resultado associar(Long prestadorId, Collection<Long> servicoIds) {
+        List<Long> associados = new ArrayList<>();
+        List<Long> jaAssociados = new ArrayList<>();
+        List<Long> naoEncontrados = new ArrayList<>();
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_ASSOCIAR);
+            ps.setArray(1, con.createArrayOf("bigint", servicoIds.toArray()));
+            ps.setLong(2, prestadorId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long servicoId = rs.getLong(1);
+            if (!rs.getBoolean(2)) {
+                naoEncontrados.add(servicoId);
+            } else if (rs.getBoolean(3)) {
+                associados.add(servicoId);
+            } else {
+                jaAssociados.add(servicoId);
+            }
+        });
+
+        return new Resultado(associados, jaAssociados, naoEncontrados);
+    }
+
+    /**
+     * Remove a associação entre um prestador e um serviço.
+     *
+     * @param prestadorId ID do prestador
+     * @param servicoId   ID do serviço
+     * @return {@code true} se a associação existia
+     */
+    public boolean desassociar(Long prestadorId, Long servicoId) {
+        return jdbcTemplate.update(SQL_DESASSOCIAR, prestadorId, servicoId) > 0;
+    }
+}
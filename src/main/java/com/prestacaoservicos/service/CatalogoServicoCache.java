@@ -0,0 +1,164 @@
+package com.prestacaoservicos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.dto.ServicoResponseDTO;
+import com.prestacaoservicos.event.CatalogoServicoAlteradoEvent;
+import com.prestacaoservicos.repository.ServicoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Mantém o catálogo de serviços ativos já serializado em JSON (puro e compactado com gzip).
+ * <p>
+ * A fotografia é montada na primeira leitura e descartada após o commit de qualquer alteração
+ * do catálogo feita nesta instância ({@link CatalogoServicoAlteradoEvent}). A fotografia e a
+ * geração em que foi lida ficam num único {@link Estado}: a invalidação troca o estado por uma
+ * nova geração vazia, e uma fotografia montada só é publicada por {@code compareAndSet} sobre o
+ * estado lido antes da montagem. Se houve invalidação no meio, a troca falha e a fotografia
+ * (possivelmente anterior à alteração) é usada apenas pela requisição que a montou.
+ * <p>
+ * Alterações feitas por outras instâncias não geram o evento aqui. Por isso, no máximo a cada
+ * {@code app.servicos.catalogo.intervalo-verificacao-ms}, a fotografia é conferida com a
+ * assinatura da tabela {@code servico} (quantidade, soma das versões e maior ID) e remontada
+ * se ela mudou. A assinatura e a montagem são lidas numa transação de escrita, que o roteamento
+ * sempre envia ao primário, e sem o cache de consultas, que também é local a cada instância.
+ * </p>
+ */
+@Component
+public class CatalogoServicoCache {
+
+    private final ServicoRepository servicoRepo;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate primario;
+
+    /** Intervalo mínimo, em milissegundos, entre duas conferências da assinatura do catálogo. */
+    @Value("${app.servicos.catalogo.intervalo-verificacao-ms:1000}")
+    private long intervaloVerificacaoMs;
+
+    private final AtomicReference<Estado> atual = new AtomicReference<>(new Estado(0, null, null, 0));
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param servicoRepo        Repositório de serviços
+     * @param objectMapper       Serializador JSON da aplicação
+     * @param transactionManager Gerenciador de transações
+     */
+    public CatalogoServicoCache(ServicoRepository servicoRepo, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.servicoRepo = servicoRepo;
+        this.objectMapper = objectMapper;
+        this.primario = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Catálogo serializado.
+     *
+     * @param etag ETag forte do conteúdo JSON (hash SHA-256)
+     * @param json Lista de serviços em JSON (UTF-8)
+     * @param gzip O mesmo JSON compactado com gzip
+     */
+    public record Catalogo(String etag, byte[] json, byte[] gzip) {
+
+        /**
+         * ETag da representação compactada, distinta da representação original.
+         *
+         * @return ETag forte da versão gzip
+         */
+        public String etagGzip() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+
+    /**
+     * Fotografia publicada e a geração do catálogo a que ela pertence.
+     *
+     * @param geracao      Quantidade de invalidações até a montagem
+     * @param catalogo     Catálogo serializado, ou {@code null} se ainda não montado nesta geração
+     * @param assinatura   Assinatura da tabela lida antes da montagem
+     * @param conferidoEm  Instante ({@link System#nanoTime()}) da última conferência da assinatura
+     */
+    private record Estado(long geracao, Catalogo catalogo, String assinatura, long conferidoEm) {}
+
+    /**
+     * Retorna o catálogo atual, montando-o se necessário.
+     *
+     * @return Catálogo serializado
+     */
+    public Catalogo obter() {
+        Estado lido = atual.get();
+        long agora = System.nanoTime();
+        if (lido.catalogo() != null && agora - lido.conferidoEm() < TimeUnit.MILLISECONDS.toNanos(intervaloVerificacaoMs)) {
+            return lido.catalogo();
+        }
+
+        // Lida antes da montagem: uma alteração no meio só faz a próxima conferência remontar.
+        String assinatura = primario.execute(status -> servicoRepo.assinaturaCatalogo());
+        if (lido.catalogo() != null && Objects.equals(assinatura, lido.assinatura())) {
+            atual.compareAndSet(lido, new Estado(lido.geracao(), lido.catalogo(), assinatura, agora));
+            return lido.catalogo();
+        }
+
+        Catalogo montado = primario.execute(status -> montar());
+        atual.compareAndSet(lido, new Estado(lido.geracao(), montado, assinatura, agora));
+        return montado;
+    }
+
+    /**
+     * Descarta o catálogo serializado depois que uma alteração é confirmada.
+     *
+     * @param evento Evento de alteração do catálogo
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarCatalogo(CatalogoServicoAlteradoEvent evento) {
+        atual.updateAndGet(estado -> new Estado(estado.geracao() + 1, null, null, 0));
+    }
+
+    private Catalogo montar() {
+        List<ServicoResponseDTO> servicos = servicoRepo.listarAtivosSemCache().stream()
+                .map(ServicoResponseDTO::fromEntity)
+                .toList();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(servicos);
+            return new Catalogo(etagDe(json), json, compactar(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o catálogo de serviços", e);
+        }
+    }
+
+    private static String etagDe(byte[] conteudo) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(conteudo);
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] compactar(byte[] conteudo) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(conteudo.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(conteudo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+}
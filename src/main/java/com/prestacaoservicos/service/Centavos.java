@@ -0,0 +1,145 @@
+package com.prestacaoservicos.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética de valores monetários em centavos ({@code long}), para agregações de muitas linhas
+ * (relatórios e liquidação dos prestadores) sem alocar um {@link BigDecimal} por operação.
+ * <p>
+ * O {@link BigDecimal} continua sendo o tipo das entidades e das respostas da API; a conversão
+ * acontece só nas bordas, com {@link #de(BigDecimal)} e {@link #paraBigDecimal(long)}. Toda
+ * operação que pode perder precisão recebe o {@link RoundingMode} explicitamente e produz o
+ * mesmo resultado que a operação equivalente em {@link BigDecimal} com escala 2. Estouros
+ * lançam {@link ArithmeticException} em vez de dar a volta.
+ */
+public final class Centavos {
+
+    /** Denominador dos percentuais em pontos-base (1% = 100 pontos-base). */
+    public static final long PONTOS_BASE_POR_UNIDADE = 10_000;
+
+    private static final int ESCALA = 2;
+
+    private Centavos() {
+    }
+
+    /**
+     * Converte um valor em reais para centavos, arredondando para duas casas.
+     *
+     * @param valor Valor em reais
+     * @param modo  Arredondamento aplicado se o valor tiver mais de duas casas
+     * @return Valor em centavos
+     * @throws ArithmeticException se o valor não couber em um {@code long} ou o modo for
+     *                             {@link RoundingMode#UNNECESSARY} e houver arredondamento
+     */
+    public static long de(BigDecimal valor, RoundingMode modo) {
+        return valor.setScale(ESCALA, modo).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converte um valor em reais para centavos, arredondando para duas casas com
+     * {@link RoundingMode#HALF_EVEN}.
+     *
+     * @param valor Valor em reais ({@code null} vale zero)
+     * @return Valor em centavos
+     * @throws ArithmeticException se o valor não couber em um {@code long}
+     */
+    public static long de(BigDecimal valor) {
+        return valor == null ? 0L : de(valor, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * Converte centavos para reais, com escala 2.
+     *
+     * @param centavos Valor em centavos
+     * @return Valor em reais
+     */
+    public static BigDecimal paraBigDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    /**
+     * Soma dois valores.
+     *
+     * @param a Primeira parcela, em centavos
+     * @param b Segunda parcela, em centavos
+     * @return Soma, em centavos
+     * @throws ArithmeticException em caso de estouro
+     */
+    public static long somar(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Subtrai dois valores.
+     *
+     * @param a Minuendo, em centavos
+     * @param b Subtraendo, em centavos
+     * @return Diferença, em centavos
+     * @throws ArithmeticException em caso de estouro
+     */
+    public static long subtrair(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Aplica um percentual a um valor: {@code centavos * pontosBase / 10000}, arredondado.
+     * <p>
+     * Equivale a {@code valor.multiply(percentual).setScale(2, modo)} com o valor em reais e
+     * o percentual como fração decimal (10% = {@code 0.10} = 1000 pontos-base).
+     *
+     * @param centavos   Valor, em centavos
+     * @param pontosBase Percentual, em pontos-base
+     * @param modo       Arredondamento do resultado
+     * @return Resultado, em centavos
+     * @throws ArithmeticException em caso de estouro, ou se o modo for
+     *                             {@link RoundingMode#UNNECESSARY} e houver arredondamento
+     */
+    public static long percentual(long centavos, long pontosBase, RoundingMode modo) {
+        return dividir(Math.multiplyExact(centavos, pontosBase), PONTOS_BASE_POR_UNIDADE, modo);
+    }
+
+    /**
+     * Divide dois inteiros arredondando o quociente conforme o modo, com a mesma semântica
+     * de {@link BigDecimal#divide(BigDecimal, int, RoundingMode)} com escala 0.
+     *
+     * @param dividendo Dividendo
+     * @param divisor   Divisor (diferente de zero)
+     * @param modo      Arredondamento
+     * @return Quociente arredondado
+     * @throws ArithmeticException se o divisor for zero ou o modo for
+     *                             {@link RoundingMode#UNNECESSARY} e a divisão não for exata
+     */
+    public static long dividir(long dividendo, long divisor, RoundingMode modo) {
+        long quociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        if (resto == 0) {
+            return quociente;
+        }
+
+        // Sinal do resultado exato: o quociente truncado anda em sua direção quando arredonda "para fora".
+        int sinal = (dividendo ^ divisor) < 0 ? -1 : 1;
+        boolean afastar = switch (modo) {
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> sinal < 0;
+            case CEILING -> sinal > 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                // Compara |resto| com |divisor| / 2 sem estourar.
+                long restoAbs = Math.abs(resto);
+                long complemento = Math.abs(divisor) - restoAbs;
+                int comparacao = Long.compare(restoAbs, complemento);
+                if (comparacao != 0) {
+                    yield comparacao > 0;
+                }
+                yield switch (modo) {
+                    case HALF_UP -> true;
+                    case HALF_DOWN -> false;
+                    default -> (quociente & 1) != 0;
+                };
+            }
+            case UNNECESSARY -> throw new ArithmeticException("Arredondamento necessário em " + dividendo + " / " + divisor);
+        };
+        return afastar ? quociente + sinal : quociente;
+    }
+}
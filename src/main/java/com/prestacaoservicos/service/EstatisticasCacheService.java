@@ -0,0 +1,57 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.EstatisticaCacheDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Serviço que expõe as estatísticas do cache de segundo nível do Hibernate.
+ * <p>
+ * Depende de {@code hibernate.generate_statistics=true}; com as estatísticas desligadas
+ * os contadores permanecem zerados.
+ */
+@Service
+public class EstatisticasCacheService {
+
+    private final Statistics estatisticas;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param entityManagerFactory Fábrica de EntityManagers da aplicação
+     */
+    public EstatisticasCacheService(EntityManagerFactory entityManagerFactory) {
+        this.estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Lista as estatísticas de cada região do cache, ordenadas pelo nome.
+     *
+     * @return Estatísticas por região
+     */
+    public List<EstatisticaCacheDTO> listar() {
+        return Arrays.stream(estatisticas.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(regiao -> paraDto(regiao, estatisticas.getCacheRegionStatistics(regiao)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static EstatisticaCacheDTO paraDto(String regiao, CacheRegionStatistics regiaoEstatisticas) {
+        if (regiaoEstatisticas == null) {
+            return null;
+        }
+        long acertos = regiaoEstatisticas.getHitCount();
+        long falhas = regiaoEstatisticas.getMissCount();
+        long leituras = acertos + falhas;
+        double taxaAcerto = leituras == 0 ? 0.0 : (double) acertos / leituras;
+        return new EstatisticaCacheDTO(regiao, acertos, falhas, regiaoEstatisticas.getPutCount(), taxaAcerto);
+    }
+}
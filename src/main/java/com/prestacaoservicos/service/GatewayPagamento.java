@@ -0,0 +1,89 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.enums.MetodoPagamentoEnum;
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import com.prestacaoservicos.exception.GatewayPagamentoIndisponivelException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Porta de saída para o gateway de pagamento.
+ * <p>
+ * Toda operação leva uma chave de idempotência: repetir a chamada com a mesma chave
+ * (após um tempo esgotado, por exemplo) devolve a resposta original sem cobrar ou estornar
+ * de novo. Falhas transitórias são sinalizadas com {@link GatewayPagamentoIndisponivelException};
+ * recusas são respostas normais.
+ */
+public interface GatewayPagamento {
+
+    /**
+     * Dados de uma cobrança.
+     *
+     * @param chaveIdempotencia Chave de idempotência da cobrança
+     * @param metodo            Método de pagamento
+     * @param valor             Valor a cobrar
+     * @param agendamentoId     ID do agendamento (para conciliação no gateway)
+     */
+    record Cobranca(String chaveIdempotencia, MetodoPagamentoEnum metodo, BigDecimal valor, Long agendamentoId) {}
+
+    /**
+     * Dados de um estorno.
+     *
+     * @param chaveIdempotencia Chave de idempotência do estorno
+     * @param referencia        Referência da cobrança no gateway
+     * @param valor             Valor a estornar
+     */
+    record Estorno(String chaveIdempotencia, String referencia, BigDecimal valor) {}
+
+    /**
+     * Resposta do gateway.
+     *
+     * @param status     Status resultante
+     * @param referencia Referência da operação no gateway
+     * @param mensagem   Mensagem do gateway (motivo da recusa, por exemplo)
+     */
+    record Resposta(StatusPagamentoEnum status, String referencia, String mensagem) {}
+
+    /**
+     * Envia uma cobrança.
+     *
+     * @param cobranca Dados da cobrança
+     * @return {@code APROVADO}, {@code RECUSADO} ou {@code AGUARDANDO_CONFIRMACAO}
+     * @throws GatewayPagamentoIndisponivelException em falhas transitórias
+     */
+    Resposta cobrar(Cobranca cobranca);
+
+    /**
+     * Estorna uma cobrança aprovada.
+     *
+     * @param estorno Dados do estorno
+     * @return {@code ESTORNADO}
+     * @throws GatewayPagamentoIndisponivelException em falhas transitórias
+     */
+    Resposta estornar(Estorno estorno);
+
+    /**
+     * Estorna várias cobranças em uma única chamada.
+     * <p>
+     * A resposta de cada estorno vem na mesma posição da lista recebida; um item com status
+     * diferente de {@code ESTORNADO} não foi estornado e pode ser repetido com a mesma chave.
+     * A implementação padrão chama {@link #estornar} item a item, para gateways sem operação em lote.
+     *
+     * @param estornos Dados dos estornos
+     * @return Respostas, na ordem dos estornos
+     * @throws GatewayPagamentoIndisponivelException se o lote inteiro falhar de forma transitória
+     */
+    default List<Resposta> estornarLote(List<Estorno> estornos) {
+        List<Resposta> respostas = new ArrayList<>(estornos.size());
+        for (Estorno estorno : estornos) {
+            try {
+                respostas.add(estornar(estorno));
+            } catch (GatewayPagamentoIndisponivelException e) {
+                respostas.add(new Resposta(StatusPagamentoEnum.FALHOU, null, e.getMessage()));
+            }
+        }
+        return respostas;
+    }
+}
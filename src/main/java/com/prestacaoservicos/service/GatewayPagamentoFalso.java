@@ -0,0 +1,136 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import com.prestacaoservicos.event.RetornoGatewayPagamentoEvent;
+import com.prestacaoservicos.exception.GatewayPagamentoIndisponivelException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway de pagamento simulado em memória, para execução local e testes.
+ * <p>
+ * Responde após uma latência configurável e falha de forma transitória numa fração das
+ * chamadas. Cartões são aprovados na hora, exceto valores terminados em {@code ,51}, que
+ * são recusados. PIX e boleto ficam aguardando confirmação, que chega depois como um
+ * {@link RetornoGatewayPagamentoEvent}, como faria o retorno de um gateway real. As
+ * respostas são guardadas por chave de idempotência; estornos em lote custam uma única
+ * latência simulada.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.pagamentos", name = "gateway", havingValue = "falso", matchIfMissing = true)
+public class GatewayPagamentoFalso implements GatewayPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayPagamentoFalso.class);
+    private static final BigDecimal CENTAVOS_RECUSA = new BigDecimal("0.51");
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<String, Resposta> respostas = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("gateway-falso").daemon(true).factory());
+
+    /** Latência simulada de cada chamada, em milissegundos. */
+    @Value("${app.pagamentos.falso.latencia-ms:200}")
+    private long latenciaMs;
+
+    /** Fração das chamadas que falham de forma transitória (0 a 1). */
+    @Value("${app.pagamentos.falso.taxa-falha:0.1}")
+    private double taxaFalha;
+
+    /** Tempo, em milissegundos, até a confirmação de PIX e boleto. */
+    @Value("${app.pagamentos.falso.confirmacao-ms:3000}")
+    private long confirmacaoMs;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param eventPublisher Publicador usado para entregar os retornos assíncronos
+     */
+    public GatewayPagamentoFalso(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Resposta cobrar(Cobranca cobranca) {
+        simularRede();
+        Resposta anterior = respostas.get(cobranca.chaveIdempotencia());
+        if (anterior != null) {
+            return anterior;
+        }
+
+        String referencia = "falso-" + UUID.randomUUID();
+        Resposta resposta = switch (cobranca.metodo()) {
+            case CARTAO_CREDITO -> cobranca.valor().remainder(BigDecimal.ONE).compareTo(CENTAVOS_RECUSA) == 0
+                    ? new Resposta(StatusPagamentoEnum.RECUSADO, referencia, "Cartão recusado pelo emissor (simulação).")
+                    : new Resposta(StatusPagamentoEnum.APROVADO, referencia, null);
+            case PIX, BOLETO -> new Resposta(StatusPagamentoEnum.AGUARDANDO_CONFIRMACAO, referencia, null);
+        };
+
+        Resposta registrada = respostas.putIfAbsent(cobranca.chaveIdempotencia(), resposta);
+        if (registrada != null) {
+            return registrada;
+        }
+        if (resposta.status() == StatusPagamentoEnum.AGUARDANDO_CONFIRMACAO) {
+            agendador.schedule(() -> confirmar(cobranca.chaveIdempotencia(), referencia), confirmacaoMs, TimeUnit.MILLISECONDS);
+        }
+        return resposta;
+    }
+
+    @Override
+    public Resposta estornar(Estorno estorno) {
+        simularRede();
+        return respostas.computeIfAbsent(estorno.chaveIdempotencia(),
+                chave -> new Resposta(StatusPagamentoEnum.ESTORNADO, "falso-" + UUID.randomUUID(), null));
+    }
+
+    @Override
+    public List<Resposta> estornarLote(List<Estorno> estornos) {
+        simularRede();
+        return estornos.stream()
+                .map(estorno -> respostas.computeIfAbsent(estorno.chaveIdempotencia(),
+                        chave -> new Resposta(StatusPagamentoEnum.ESTORNADO, "falso-" + UUID.randomUUID(), null)))
+                .toList();
+    }
+
+    private void confirmar(String chaveIdempotencia, String referencia) {
+        try {
+            eventPublisher.publishEvent(new RetornoGatewayPagamentoEvent(chaveIdempotencia, referencia, StatusPagamentoEnum.APROVADO));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao entregar a confirmação simulada da cobrança {}", referencia, e);
+        }
+    }
+
+    private void simularRede() {
+        try {
+            Thread.sleep(latenciaMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GatewayPagamentoIndisponivelException("Chamada ao gateway interrompida.");
+        }
+        if (ThreadLocalRandom.current().nextDouble() < taxaFalha) {
+            throw new GatewayPagamentoIndisponivelException("Gateway indisponível (falha simulada).");
+        }
+    }
+
+    /**
+     * Encerra o agendador de confirmações.
+     */
+    @PreDestroy
+    public void encerrar() {
+        agendador.shutdownNow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava o histórico de status dos agendamentos ({@code historico_status_agendamento}) na
+ * transação que produziu as mudanças.
+ * <p>
+ * As mudanças publicadas durante a transação são acumuladas e gravadas antes do commit com
+ * {@code INSERT}s de várias linhas: o histórico é confirmado junto com o agendamento ou desfeito
+ * com ele, como o {@link OutboxAgendamento}, e uma queda da aplicação não perde registros já
+ * confirmados. Sem transação ativa, a entrada é gravada na hora.
+ * <p>
+ * A gravação fica no caminho da requisição por escolha: uma fila em memória descarregada em
+ * segundo plano perderia as entradas pendentes em uma queda e não teria como ser desfeita junto
+ * com o agendamento. O custo é um {@code INSERT} por lote de até {@code tamanhoLote} mudanças.
+ */
+@Component
+public class GravadorHistoricoStatus {
+
+    private static final String SQL_INSERT =
+            "INSERT INTO historico_status_agendamento " +
+            "(cd_agendamento, cd_usuario, ds_status_anterior, ds_status_novo, ds_motivo, dt_alteracao) VALUES ";
+    private static final String LINHA = "(?, ?, ?, ?, ?, ?)";
+    private static final int COLUNAS = 6;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int tamanhoLote;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate Template JDBC (participa da transação JPA corrente)
+     * @param tamanhoLote  Quantidade máxima de linhas por {@code INSERT}
+     */
+    public GravadorHistoricoStatus(JdbcTemplate jdbcTemplate,
+                                   @Value("${app.historico.tamanho-lote:500}") int tamanhoLote) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    /**
+     * Acumula a mudança de status para gravação antes do commit da transação corrente.
+     *
+     * @param evento Evento de alteração de status
+     */
+    @EventListener
+    public void aoAlterarStatus(AgendamentoStatusAlteradoEvent evento) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            gravar(List.of(evento));
+            return;
+        }
+        pendentesDaTransacao().add(evento);
+    }
+
+    /**
+     * Entradas ainda não gravadas da transação corrente. Na primeira entrada, registra a
+     * gravação antes do commit; a lista sai de cena enquanto a transação estiver suspensa, para
+     * que uma transação interna ({@code REQUIRES_NEW}) acumule as próprias entradas.
+     */
+    @SuppressWarnings("unchecked")
+    private List<AgendamentoStatusAlteradoEvent> pendentesDaTransacao() {
+        List<AgendamentoStatusAlteradoEvent> pendentes =
+                (List<AgendamentoStatusAlteradoEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pendentes != null) {
+            return pendentes;
+        }
+
+        List<AgendamentoStatusAlteradoEvent> novas = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, novas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(GravadorHistoricoStatus.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(GravadorHistoricoStatus.this, novas);
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                gravarEmLotes(novas);
+                novas.clear();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(GravadorHistoricoStatus.this);
+            }
+        });
+        return novas;
+    }
+
+    private void gravarEmLotes(List<AgendamentoStatusAlteradoEvent> entradas) {
+        for (int i = 0; i < entradas.size(); i += tamanhoLote) {
+            gravar(entradas.subList(i, Math.min(i + tamanhoLote, entradas.size())));
+        }
+    }
+
+    /**
+     * Grava as entradas com um único {@code INSERT} de várias linhas.
+     *
+     * @param lote Entradas a gravar
+     */
+    void gravar(List<AgendamentoStatusAlteradoEvent> lote) {
+        StringBuilder sql = new StringBuilder(SQL_INSERT.length() + lote.size() * (LINHA.length() + 2)).append(SQL_INSERT);
+        Object[] parametros = new Object[lote.size() * COLUNAS];
+        int p = 0;
+        for (AgendamentoStatusAlteradoEvent evento : lote) {
+            if (p > 0) {
+                sql.append(", ");
+            }
+            sql.append(LINHA);
+            parametros[p++] = evento.agendamentoId();
+            parametros[p++] = evento.usuarioId();
+            parametros[p++] = evento.statusAnterior() == null ? null : evento.statusAnterior().name();
+            parametros[p++] = evento.statusNovo().name();
+            parametros[p++] = evento.motivo();
+            parametros[p++] = Timestamp.valueOf(evento.ocorridoEm());
+        }
+        jdbcTemplate.update(sql.toString(), parametros);
+    }
+}
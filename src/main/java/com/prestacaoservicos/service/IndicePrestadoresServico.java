@@ -0,0 +1,121 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.PrestadorServicoProjection;
+import com.prestacaoservicos.event.PrestadorServicoAlteradoEvent;
+import com.prestacaoservicos.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice reverso em memória de {@code prestador_servicos}: para cada serviço, os IDs dos
+ * prestadores que o oferecem, em um {@code long[]} ordenado.
+ * <p>
+ * Os arrays publicados nunca são alterados; cada associação ou desassociação confirmada
+ * ({@link PrestadorServicoAlteradoEvent}) substitui o array do serviço por uma cópia, de modo
+ * que as leituras não precisam de bloqueio. As operações são idempotentes.
+ */
+@Component
+public class IndicePrestadoresServico {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicePrestadoresServico.class);
+    private static final long[] VAZIO = new long[0];
+
+    private final UserRepository userRepo;
+    private final ConcurrentHashMap<Long, long[]> prestadoresPorServico = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param userRepo Repositório de usuários
+     */
+    public IndicePrestadoresServico(UserRepository userRepo) {
+        this.userRepo = userRepo;
+    }
+
+    /**
+     * Carrega o índice quando a aplicação termina de subir.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recarregar() {
+        Map<Long, List<Long>> agrupado = new HashMap<>();
+        List<PrestadorServicoProjection> associacoes = userRepo.findAllPrestadorServico();
+        for (PrestadorServicoProjection linha : associacoes) {
+            agrupado.computeIfAbsent(linha.getServicoId(), s -> new ArrayList<>()).add(linha.getPrestadorId());
+        }
+
+        Map<Long, long[]> novo = new HashMap<>();
+        agrupado.forEach((servicoId, prestadores) ->
+                novo.put(servicoId, prestadores.stream().mapToLong(Long::longValue).sorted().distinct().toArray()));
+
+        prestadoresPorServico.keySet().retainAll(novo.keySet());
+        prestadoresPorServico.putAll(novo);
+        log.debug("Índice de prestadores por serviço carregado com {} associações", associacoes.size());
+    }
+
+    /**
+     * Aplica ao índice uma associação ou desassociação confirmada.
+     *
+     * @param evento Evento de alteração de prestador_servicos
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarAssociacao(PrestadorServicoAlteradoEvent evento) {
+        if (evento.associado()) {
+            prestadoresPorServico.compute(evento.servicoId(), (id, atual) -> inserir(atual, evento.prestadorId()));
+        } else {
+            prestadoresPorServico.computeIfPresent(evento.servicoId(), (id, atual) -> remover(atual, evento.prestadorId()));
+        }
+    }
+
+    /**
+     * Retorna os IDs dos prestadores que oferecem um serviço, em ordem crescente.
+     * O array retornado não deve ser modificado.
+     *
+     * @param servicoId ID do serviço
+     * @return IDs dos prestadores (vazio se nenhum)
+     */
+    public long[] prestadoresDe(Long servicoId) {
+        return prestadoresPorServico.getOrDefault(servicoId, VAZIO);
+    }
+
+    private static long[] inserir(long[] atual, long prestadorId) {
+        if (atual == null) {
+            return new long[]{prestadorId};
+        }
+        int pos = Arrays.binarySearch(atual, prestadorId);
+        if (pos >= 0) {
+            return atual;
+        }
+        int insercao = -pos - 1;
+        long[] novo = new long[atual.length + 1];
+        System.arraycopy(atual, 0, novo, 0, insercao);
+        novo[insercao] = prestadorId;
+        System.arraycopy(atual, insercao, novo, insercao + 1, atual.length - insercao);
+        return novo;
+    }
+
+    private static long[] remover(long[] atual, long prestadorId) {
+        int pos = Arrays.binarySearch(atual, prestadorId);
+        if (pos < 0) {
+            return atual;
+        }
+        if (atual.length == 1) {
+            return null;
+        }
+        long[] novo = new long[atual.length - 1];
+        System.arraycopy(atual, 0, novo, 0, pos);
+        System.arraycopy(atual, pos + 1, novo, pos, atual.length - pos - 1);
+        return novo;
+    }
+}
@@ -0,0 +1,461 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.LiquidacaoPrestadorDTO;
+import com.prestacaoservicos.dto.ResultadoLiquidacaoDTO;
+import com.prestacaoservicos.enums.StatusLiquidacaoEnum;
+import com.prestacaoservicos.exception.RegraNegocioException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Liquidação mensal dos prestadores: para cada prestador com agendamentos {@code FINALIZADO}
+ * ainda não liquidados, gera um extrato CSV com os serviços, o valor bruto, a taxa da
+ * plataforma e o valor líquido, e grava o resumo em {@code liquidacao_prestador}.
+ * <p>
+ * A liquidação é feita pelos agendamentos, não só pela data: cada agendamento liquidado é
+ * gravado em {@code liquidacao_agendamento}, e uma competência inclui todos os finalizados até
+ * o fim do mês que ainda não estejam lá. Assim, um agendamento finalizado depois da liquidação
+ * do seu mês (ou com data retroativa) entra na competência seguinte, em vez de ficar de fora.
+ * <p>
+ * Os prestadores a liquidar recebem uma linha {@code PENDENTE}, e cada um é liquidado em uma
+ * única transação no primário: a linha é reservada com {@code FOR UPDATE SKIP LOCKED}, os
+ * agendamentos são separados, o extrato é escrito em um arquivo temporário exclusivo e movido
+ * para o nome final, e a linha passa a {@code CONCLUIDA}. Várias instâncias (a execução
+ * agendada dispara em todas) dividem os prestadores sem repetir nenhum; uma execução
+ * interrompida continua dos prestadores ainda pendentes, e a falha de um prestador não impede
+ * os demais. Dentro da instância, os prestadores são divididos recursivamente entre as threads
+ * de um {@link ForkJoinPool} limitado, e os agendamentos de cada um são lidos em fluxo (cursor
+ * com {@code fetchSize}) e somados em {@link Centavos}, sem carregar o mês inteiro em memória.
+ */
+@Service
+public class LiquidacaoService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiquidacaoService.class);
+
+    private static final String SQL_INICIO_LIQUIDACOES =
+            "SELECT min(dt_competencia) FROM liquidacao_prestador";
+
+    private static final String SQL_ENFILEIRAR =
+            "INSERT INTO liquidacao_prestador (dt_competencia, cd_prestador_user) " +
+            "SELECT DISTINCT CAST(? AS date), a.cd_prestador_user FROM agendamento a " +
+            "WHERE a.ds_status = 'FINALIZADO' AND a.dt_agendamento >= ? AND a.dt_agendamento < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM liquidacao_agendamento la WHERE la.cd_agendamento = a.cd_agendamento) " +
+            "ON CONFLICT DO NOTHING";
+
+    private static final String SQL_PENDENTES =
+            "SELECT cd_prestador_user FROM liquidacao_prestador " +
+            "WHERE dt_competencia = ? AND st_liquidacao = 'PENDENTE' ORDER BY cd_prestador_user";
+
+    private static final String SQL_RESERVAR =
+            "SELECT cd_prestador_user FROM liquidacao_prestador " +
+            "WHERE dt_competencia = ? AND cd_prestador_user = ? AND st_liquidacao = 'PENDENTE' " +
+            "FOR UPDATE SKIP LOCKED";
+
+    private static final String SQL_SEPARAR =
+            "INSERT INTO liquidacao_agendamento " +
+            "(cd_agendamento, dt_competencia, cd_prestador_user, dt_agendamento, cd_servico, vl_agendamento) " +
+            "SELECT a.cd_agendamento, ?, a.cd_prestador_user, a.dt_agendamento, a.cd_servico, a.vl_agendamento " +
+            "FROM agendamento a " +
+            "WHERE a.cd_prestador_user = ? AND a.ds_status = 'FINALIZADO' " +
+            "AND a.dt_agendamento >= ? AND a.dt_agendamento < ? " +
+            "AND NOT EXISTS (SELECT 1 FROM liquidacao_agendamento la WHERE la.cd_agendamento = a.cd_agendamento) " +
+            "ON CONFLICT (cd_agendamento) DO NOTHING";
+
+    private static final String SQL_AGENDAMENTOS =
+            "SELECT la.cd_agendamento, la.dt_agendamento, s.nm_servico, la.vl_agendamento " +
+            "FROM liquidacao_agendamento la JOIN servico s ON s.cd_servico = la.cd_servico " +
+            "WHERE la.dt_competencia = ? AND la.cd_prestador_user = ? " +
+            "ORDER BY la.dt_agendamento, la.cd_agendamento";
+
+    private static final String SQL_CONCLUIR =
+            "UPDATE liquidacao_prestador SET st_liquidacao = 'CONCLUIDA', qt_servicos = ?, vl_bruto = ?, " +
+            "vl_taxa = ?, vl_liquido = ?, ds_arquivo = ?, dt_geracao = now() " +
+            "WHERE dt_competencia = ? AND cd_prestador_user = ?";
+
+    private static final String SQL_DESCARTAR =
+            "DELETE FROM liquidacao_prestador WHERE dt_competencia = ? AND cd_prestador_user = ?";
+
+    private static final String SQL_LISTAR =
+            "SELECT cd_prestador_user, st_liquidacao, qt_servicos, vl_bruto, vl_taxa, vl_liquido, ds_arquivo, dt_geracao " +
+            "FROM liquidacao_prestador WHERE dt_competencia = ? ORDER BY cd_prestador_user";
+
+    private static final String CABECALHO = "agendamento;data;servico;valor";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate escrita;
+    private final ManutencaoParticoesAgendamento particoes;
+    private final Path diretorio;
+    private final int tamanhoParticao;
+    private final int tamanhoBusca;
+    private final ForkJoinPool pool;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate       Acesso JDBC ao banco
+     * @param transactionManager Gerenciador das transações de liquidação de cada prestador
+     * @param particoes          Manutenção das partições (limite dos meses ainda não arquivados)
+     * @param diretorio          Diretório onde os extratos são gravados, um subdiretório por competência
+     * @param paralelismo        Prestadores liquidados ao mesmo tempo
+     * @param tamanhoParticao    Quantidade de prestadores a partir da qual a lista é dividida entre as threads
+     * @param tamanhoBusca       Linhas buscadas do banco por vez ao ler os agendamentos de um prestador
+     */
+    public LiquidacaoService(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ManutencaoParticoesAgendamento particoes,
+                             @Value("${app.liquidacao.diretorio:liquidacoes}") String diretorio,
+                             @Value("${app.liquidacao.paralelismo:4}") int paralelismo,
+                             @Value("${app.liquidacao.tamanho-particao:8}") int tamanhoParticao,
+                             @Value("${app.liquidacao.tamanho-busca:1000}") int tamanhoBusca) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.escrita = new TransactionTemplate(transactionManager);
+        this.particoes = particoes;
+        this.diretorio = Path.of(diretorio).toAbsolutePath();
+        this.tamanhoParticao = Math.max(1, tamanhoParticao);
+        this.tamanhoBusca = tamanhoBusca;
+
+        ForkJoinPool.ForkJoinWorkerThreadFactory fabrica = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("liquidacao-" + thread.getPoolIndex());
+            return thread;
+        };
+        this.pool = new ForkJoinPool(paralelismo, fabrica, null, false);
+    }
+
+    /**
+     * Liquida o mês anterior. Dispara em todas as instâncias, que dividem os prestadores entre
+     * si; os que falharem são tentados de novo na próxima execução, manual ou agendada.
+     */
+    @Scheduled(cron = "${app.liquidacao.cron:0 0 5 1 * *}")
+    public void liquidarMesAnterior() {
+        liquidar(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Inicia em segundo plano a liquidação de uma competência. Prestadores já liquidados são
+     * mantidos; apenas os pendentes são processados, mesmo que outra execução da competência
+     * esteja em andamento.
+     *
+     * @param competencia Mês a liquidar
+     * @throws RegraNegocioException se o mês não estiver encerrado ou já tiver sido arquivado
+     */
+    public void iniciar(YearMonth competencia) {
+        validarCompetencia(competencia);
+        Thread.ofPlatform().name("liquidacao-" + competencia).daemon(true).start(() -> {
+            try {
+                liquidar(competencia);
+            } catch (RuntimeException e) {
+                log.error("Falha na liquidação de {}", competencia, e);
+            }
+        });
+    }
+
+    /**
+     * Lista as liquidações de uma competência, concluídas ou ainda pendentes.
+     *
+     * @param competencia Mês liquidado
+     * @return Liquidações por prestador, em ordem de ID do prestador
+     */
+    public List<LiquidacaoPrestadorDTO> listar(YearMonth competencia) {
+        return jdbcTemplate.query(SQL_LISTAR, (rs, i) -> {
+            Timestamp geracao = rs.getTimestamp("dt_geracao");
+            return new LiquidacaoPrestadorDTO(
+                    competencia,
+                    rs.getLong("cd_prestador_user"),
+                    StatusLiquidacaoEnum.valueOf(rs.getString("st_liquidacao")),
+                    rs.getObject("qt_servicos", Integer.class),
+                    rs.getBigDecimal("vl_bruto"),
+                    rs.getBigDecimal("vl_taxa"),
+                    rs.getBigDecimal("vl_liquido"),
+                    rs.getString("ds_arquivo"),
+                    geracao != null ? geracao.toLocalDateTime() : null);
+        }, Date.valueOf(competencia.atDay(1)));
+    }
+
+    /**
+     * Liquida os prestadores pendentes de uma competência.
+     *
+     * @param competencia Mês a liquidar
+     * @return Quantidade de prestadores liquidados por esta execução e os que falharam
+     */
+    ResultadoLiquidacaoDTO liquidar(YearMonth competencia) {
+        Periodo periodo = periodo(competencia);
+        jdbcTemplate.update(SQL_ENFILEIRAR, Date.valueOf(competencia.atDay(1)),
+                Timestamp.valueOf(periodo.inicio()), Timestamp.valueOf(periodo.fim()));
+        List<Long> pendentes = jdbcTemplate.queryForList(SQL_PENDENTES, Long.class, Date.valueOf(competencia.atDay(1)));
+        log.info("Liquidação de {}: {} prestador(es) pendente(s).", competencia, pendentes.size());
+
+        try {
+            Files.createDirectories(diretorio.resolve(competencia.toString()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível criar o diretório dos extratos de " + competencia, e);
+        }
+
+        Parcial parcial = pool.invoke(new Particao(competencia, periodo, pendentes));
+        if (!parcial.falhas().isEmpty()) {
+            log.warn("Liquidação de {}: {} prestador(es) com falha serão tentados na próxima execução: {}",
+                    competencia, parcial.falhas().size(), parcial.falhas());
+        }
+        log.info("Liquidação de {} concluída: {} prestador(es) liquidado(s).", competencia, parcial.liquidados());
+        return new ResultadoLiquidacaoDTO(competencia, parcial.liquidados(), parcial.falhas());
+    }
+
+    /**
+     * Faixa de datas dos agendamentos considerados na competência: do início da primeira
+     * competência já liquidada (para recolher os finalizados com atraso) até o fim do mês,
+     * sem passar do início da retenção.
+     */
+    private Periodo periodo(YearMonth competencia) {
+        LocalDate inicio = competencia.atDay(1);
+        LocalDate primeiraLiquidada = jdbcTemplate.queryForObject(SQL_INICIO_LIQUIDACOES, LocalDate.class);
+        if (primeiraLiquidada != null && primeiraLiquidada.isBefore(inicio)) {
+            inicio = primeiraLiquidada;
+        }
+        LocalDate inicioRetencao = particoes.inicioRetencao();
+        if (inicio.isBefore(inicioRetencao)) {
+            inicio = inicioRetencao;
+        }
+        return new Periodo(inicio.atStartOfDay(), competencia.plusMonths(1).atDay(1).atStartOfDay());
+    }
+
+    /**
+     * Reserva, separa os agendamentos, gera o extrato e conclui a liquidação de um prestador,
+     * em uma única transação.
+     *
+     * @param competencia Mês liquidado
+     * @param periodo     Faixa de datas dos agendamentos considerados
+     * @param prestadorId ID do prestador
+     * @return {@code true} se o prestador foi liquidado por esta chamada; {@code false} se outra
+     *         execução já o reservou ou concluiu, ou se não restou agendamento a liquidar
+     * @throws IOException se o extrato não puder ser escrito
+     */
+    private boolean liquidarPrestador(YearMonth competencia, Periodo periodo, Long prestadorId) throws IOException {
+        Date dataCompetencia = Date.valueOf(competencia.atDay(1));
+        try {
+            Boolean liquidado = escrita.execute(status -> {
+                if (jdbcTemplate.queryForList(SQL_RESERVAR, Long.class, dataCompetencia, prestadorId).isEmpty()) {
+                    return false;
+                }
+                int separados = jdbcTemplate.update(SQL_SEPARAR, dataCompetencia, prestadorId,
+                        Timestamp.valueOf(periodo.inicio()), Timestamp.valueOf(periodo.fim()));
+                if (separados == 0) {
+                    // Agendamentos deixaram de estar finalizados (ou já foram liquidados) desde o enfileiramento.
+                    jdbcTemplate.update(SQL_DESCARTAR, dataCompetencia, prestadorId);
+                    return false;
+                }
+                try {
+                    gerarExtrato(competencia, prestadorId);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            });
+            return Boolean.TRUE.equals(liquidado);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Escreve o extrato com os agendamentos separados do prestador e grava os totais. Executa
+     * dentro da transação de {@link #liquidarPrestador}: se ela for desfeita depois de o arquivo
+     * ser movido, a próxima execução o sobrescreve.
+     */
+    private void gerarExtrato(YearMonth competencia, Long prestadorId) throws IOException {
+        Path pasta = diretorio.resolve(competencia.toString());
+        Path destino = pasta.resolve("prestador-" + prestadorId + ".csv");
+        Path temporario = Files.createTempFile(pasta, "prestador-" + prestadorId + "-", ".tmp");
+
+        Totais totais;
+        long taxa;
+        try {
+            try (BufferedWriter saida = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8)) {
+                saida.write(CABECALHO);
+                saida.newLine();
+                totais = escreverServicos(saida, prestadorId, competencia);
+                taxa = RelatorioService.calcularTaxa(totais.bruto);
+                escreverTotal(saida, "TOTAL BRUTO", totais.bruto);
+                escreverTotal(saida, "TAXA DA PLATAFORMA", taxa);
+                escreverTotal(saida, "VALOR LIQUIDO", Centavos.subtrair(totais.bruto, taxa));
+            }
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+
+        jdbcTemplate.update(SQL_CONCLUIR,
+                totais.quantidade,
+                Centavos.paraBigDecimal(totais.bruto),
+                Centavos.paraBigDecimal(taxa),
+                Centavos.paraBigDecimal(Centavos.subtrair(totais.bruto, taxa)),
+                destino.toString(),
+                Date.valueOf(competencia.atDay(1)),
+                prestadorId);
+    }
+
+    /**
+     * Lê em fluxo os agendamentos separados do prestador e escreve uma linha por serviço.
+     */
+    private Totais escreverServicos(Writer saida, Long prestadorId, YearMonth competencia) {
+        Totais totais = new Totais();
+        StringBuilder linha = new StringBuilder(128);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_AGENDAMENTOS);
+            ps.setFetchSize(tamanhoBusca);
+            ps.setDate(1, Date.valueOf(competencia.atDay(1)));
+            ps.setLong(2, prestadorId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long valor = Centavos.de(rs.getBigDecimal("vl_agendamento"));
+            totais.quantidade++;
+            totais.bruto = Centavos.somar(totais.bruto, valor);
+
+            linha.setLength(0);
+            linha.append(rs.getLong("cd_agendamento")).append(';')
+                    .append(rs.getTimestamp("dt_agendamento").toLocalDateTime()).append(';')
+                    .append(campo(rs.getString("nm_servico"))).append(';')
+                    .append(Centavos.paraBigDecimal(valor).toPlainString())
+                    .append(System.lineSeparator());
+            try {
+                saida.append(linha);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return totais;
+    }
+
+    private static void escreverTotal(Writer saida, String rotulo, long centavos) throws IOException {
+        saida.write(rotulo + ";;;" + Centavos.paraBigDecimal(centavos).toPlainString() + System.lineSeparator());
+    }
+
+    /**
+     * Protege um campo de texto do CSV (separador, aspas ou quebras de linha).
+     */
+    private static String campo(String texto) {
+        if (texto.indexOf(';') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            return texto;
+        }
+        return '"' + texto.replace("\"", "\"\"") + '"';
+    }
+
+    private void validarCompetencia(YearMonth competencia) {
+        if (competencia == null || !competencia.isBefore(YearMonth.now())) {
+            throw new RegraNegocioException("Informe uma competência já encerrada (yyyy-MM).");
+        }
+        LocalDate inicioRetencao = particoes.inicioRetencao();
+        if (competencia.atDay(1).isBefore(inicioRetencao)) {
+            throw new RegraNegocioException("Agendamentos anteriores a " + inicioRetencao
+                    + " podem estar arquivados; a competência não pode ser liquidada.");
+        }
+    }
+
+    /**
+     * Encerra o pool de liquidação.
+     */
+    @PreDestroy
+    public void encerrar() {
+        pool.shutdown();
+    }
+
+    /**
+     * Faixa de datas dos agendamentos considerados em uma competência.
+     *
+     * @param inicio Início, inclusive
+     * @param fim    Fim (início do mês seguinte à competência), exclusive
+     */
+    private record Periodo(LocalDateTime inicio, LocalDateTime fim) {}
+
+    /**
+     * Quantidade e soma dos serviços de um extrato.
+     */
+    private static final class Totais {
+        int quantidade;
+        long bruto;
+    }
+
+    /**
+     * Resultado parcial de um grupo de prestadores.
+     *
+     * @param liquidados Prestadores liquidados por esta execução
+     * @param falhas     IDs dos prestadores com falha
+     */
+    private record Parcial(int liquidados, List<Long> falhas) {
+
+        Parcial juntar(Parcial outro) {
+            List<Long> todas = new ArrayList<>(falhas);
+            todas.addAll(outro.falhas);
+            return new Parcial(liquidados + outro.liquidados, todas);
+        }
+    }
+
+    /**
+     * Liquida uma faixa da lista de prestadores, dividindo-a ao meio enquanto for maior que
+     * {@code app.liquidacao.tamanho-particao}.
+     */
+    private final class Particao extends RecursiveTask<Parcial> {
+
+        private final YearMonth competencia;
+        private final Periodo periodo;
+        private final List<Long> prestadores;
+
+        Particao(YearMonth competencia, Periodo periodo, List<Long> prestadores) {
+            this.competencia = competencia;
+            this.periodo = periodo;
+            this.prestadores = prestadores;
+        }
+
+        @Override
+        protected Parcial compute() {
+            if (prestadores.size() > tamanhoParticao) {
+                int meio = prestadores.size() / 2;
+                Particao esquerda = new Particao(competencia, periodo, prestadores.subList(0, meio));
+                esquerda.fork();
+                Parcial direita = new Particao(competencia, periodo, prestadores.subList(meio, prestadores.size())).compute();
+                return esquerda.join().juntar(direita);
+            }
+
+            int liquidados = 0;
+            List<Long> falhas = new ArrayList<>();
+            for (Long prestadorId : prestadores) {
+                try {
+                    if (liquidarPrestador(competencia, periodo, prestadorId)) {
+                        liquidados++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Falha ao liquidar o prestador {} em {}", prestadorId, competencia, e);
+                    falhas.add(prestadorId);
+                }
+            }
+            return new Parcial(liquidados, falhas);
+        }
+    }
+}
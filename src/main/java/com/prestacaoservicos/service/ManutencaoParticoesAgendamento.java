@@ -0,0 +1,84 @@
+package com.prestacaoservicos.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Manutenção das partições mensais de {@code agendamento}.
+ * <p>
+ * Na subida da aplicação e diariamente, garante as partições dos próximos meses
+ * ({@code criar_particoes_agendamento}) e move para o schema {@code arquivo} as partições
+ * encerradas mais antigas que o período de retenção ({@code arquivar_particoes_agendamento}).
+ * As funções são criadas pela migração {@code V3__particionamento_agendamento.sql}.
+ */
+@Component
+public class ManutencaoParticoesAgendamento {
+
+    private static final Logger log = LoggerFactory.getLogger(ManutencaoParticoesAgendamento.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Quantidade de meses futuros com partição criada antecipadamente. */
+    @Value("${app.agendamentos.meses-futuros:6}")
+    private int mesesFuturos;
+
+    /** Quantidade de meses passados mantidos na tabela ativa. */
+    @Value("${app.agendamentos.meses-retencao:24}")
+    private int mesesRetencao;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate Acesso JDBC ao banco
+     */
+    public ManutencaoParticoesAgendamento(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Garante as partições futuras assim que a aplicação sobe.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        criarParticoesFuturas();
+    }
+
+    /**
+     * Rotina diária: cria as partições futuras e arquiva as antigas.
+     */
+    @Scheduled(cron = "${app.agendamentos.cron-particoes:0 0 2 * * *}")
+    public void executar() {
+        criarParticoesFuturas();
+
+        Integer arquivadas = jdbcTemplate.queryForObject(
+                "SELECT arquivar_particoes_agendamento(?)", Integer.class, mesesRetencao);
+        if (arquivadas != null && arquivadas > 0) {
+            log.info("{} partição(ões) de agendamento movida(s) para o schema arquivo", arquivadas);
+        }
+    }
+
+    /**
+     * Primeiro dia dos dados mantidos na tabela ativa; meses anteriores podem já ter sido arquivados.
+     *
+     * @return Início do período de retenção
+     */
+    public LocalDate inicioRetencao() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(mesesRetencao);
+    }
+
+    private void criarParticoesFuturas() {
+        Integer criadas = jdbcTemplate.queryForObject(
+                "SELECT criar_particoes_agendamento(?)", Integer.class, mesesFuturos);
+        if (criadas != null && criadas > 0) {
+            log.info("{} partição(ões) de agendamento criada(s)", criadas);
+        }
+    }
+}
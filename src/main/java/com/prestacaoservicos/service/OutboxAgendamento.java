@@ -0,0 +1,63 @@
+package com.prestacaoservicos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.enums.TipoEventoIntegracaoEnum;
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Grava no outbox os eventos de agendamento, dentro da transação que os produziu.
+ * <p>
+ * Ouve {@link AgendamentoStatusAlteradoEvent} antes do commit: a linha em
+ * {@code outbox_evento} é confirmada junto com o agendamento ou desfeita com ele, e a
+ * publicação fica a cargo do {@link RelayOutbox}, fora da requisição.
+ */
+@Component
+public class OutboxAgendamento {
+
+    /** Nome do agregado gravado em {@code ds_agregado}. */
+    public static final String AGREGADO = "AGENDAMENTO";
+
+    private static final String SQL_INSERT =
+            "INSERT INTO outbox_evento (ds_tipo, ds_agregado, cd_agregado, js_payload) VALUES (?, ?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate Template JDBC (participa da transação JPA corrente)
+     * @param objectMapper Serializador JSON do payload
+     */
+    public OutboxAgendamento(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Grava o evento de criação ou de mudança de status no outbox.
+     *
+     * @param evento Evento de alteração de status
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void aoAlterarStatus(AgendamentoStatusAlteradoEvent evento) {
+        TipoEventoIntegracaoEnum tipo = evento.isCriacao()
+                ? TipoEventoIntegracaoEnum.AGENDAMENTO_CRIADO
+                : TipoEventoIntegracaoEnum.AGENDAMENTO_STATUS_ALTERADO;
+
+        jdbcTemplate.update(SQL_INSERT, tipo.name(), AGREGADO, evento.agendamentoId(), paraJson(evento));
+    }
+
+    private String paraJson(AgendamentoStatusAlteradoEvent evento) {
+        try {
+            return objectMapper.writeValueAsString(evento);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar o evento do agendamento " + evento.agendamentoId(), e);
+        }
+    }
+}
@@ -1,25 +1,261 @@
 package com.prestacaoservicos.service;
 
+import com.prestacaoservicos.entity.Agendamento;
+import com.prestacaoservicos.entity.IntencaoPagamento;
+import com.prestacaoservicos.enums.MetodoPagamentoEnum;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
+import com.prestacaoservicos.event.EstornoSolicitadoEvent;
+import com.prestacaoservicos.event.PagamentoSolicitadoEvent;
+import com.prestacaoservicos.event.RetornoGatewayPagamentoEvent;
+import com.prestacaoservicos.exception.AcessoNegadoException;
+import com.prestacaoservicos.exception.ConflitoException;
+import com.prestacaoservicos.exception.RecursoNaoEncontradoException;
+import com.prestacaoservicos.exception.RegraNegocioException;
+import com.prestacaoservicos.repository.AgendamentoRepository;
+import com.prestacaoservicos.repository.IntencaoPagamentoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Regras de negócio dos pagamentos de agendamentos.
+ * <p>
+ * A solicitação do cliente apenas grava uma {@link IntencaoPagamento} e retorna; o envio ao
+ * gateway é feito pelo {@link ProcessadorPagamentos} em segundo plano. O resultado chega por
+ * {@link #registrarResultado} (resposta imediata do gateway) ou por {@link #registrarRetorno}
+ * (confirmação posterior de PIX e boleto), e um pagamento aprovado confirma o agendamento.
+ * Estornos são enfileirados na transação do cancelamento e enviados pelo {@link ProcessadorEstornos}.
+ */
 @Service
 public class PagamentoService {
 
+    private static final Logger log = LoggerFactory.getLogger(PagamentoService.class);
+
+    /** Tamanho máximo da chave de idempotência informada pelo cliente. */
+    public static final int TAMANHO_MAXIMO_CHAVE = 64;
+
+    /** Índice único parcial: uma intenção em andamento ou aprovada por agendamento. */
+    private static final String RESTRICAO_INTENCAO_ATIVA = "uk_intencao_pagamento_ativa";
+
+    /** Restrição única da chave de idempotência. */
+    private static final String RESTRICAO_CHAVE_IDEMPOTENCIA = "uk_intencao_pagamento_chave";
+
+    private final IntencaoPagamentoRepository intencaoRepo;
+    private final AgendamentoRepository agendamentoRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param intencaoRepo    Repositório de intenções de pagamento
+     * @param agendamentoRepo Repositório de agendamentos
+     * @param eventPublisher  Publicador de eventos de domínio
+     */
+    public PagamentoService(IntencaoPagamentoRepository intencaoRepo, AgendamentoRepository agendamentoRepo,
+                            ApplicationEventPublisher eventPublisher) {
+        this.intencaoRepo = intencaoRepo;
+        this.agendamentoRepo = agendamentoRepo;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Registra a intenção de pagar um agendamento. O envio ao gateway acontece depois do commit.
+     * <p>
+     * Repetir a solicitação com a mesma chave de idempotência devolve a intenção já gravada.
+     *
+     * @param agendamentoId     ID do agendamento
+     * @param metodo            Método de pagamento
+     * @param chaveIdempotencia Chave de idempotência informada pelo cliente
+     * @param clienteId         ID do cliente autenticado
+     * @return A intenção de pagamento (nova ou já existente para a chave)
+     * @throws RecursoNaoEncontradoException se o agendamento não for encontrado
+     * @throws AcessoNegadoException se o agendamento não for do cliente
+     * @throws RegraNegocioException se a chave for inválida ou já usada em outra solicitação, se o
+     *                               agendamento não estiver agendado ou se já houver pagamento em andamento
+     * @throws ConflitoException se outra solicitação do mesmo agendamento (ou com a mesma chave)
+     *                           for gravada ao mesmo tempo
+     */
+    @Transactional
+    public IntencaoPagamento solicitar(Long agendamentoId, MetodoPagamentoEnum metodo, String chaveIdempotencia, Long clienteId) {
+        if (chaveIdempotencia == null || chaveIdempotencia.isBlank() || chaveIdempotencia.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new RegraNegocioException("Informe o cabeçalho Idempotency-Key com até " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+
+        Optional<IntencaoPagamento> existente = intencaoRepo.findByChaveIdempotencia(chaveIdempotencia);
+        if (existente.isPresent()) {
+            IntencaoPagamento intencao = existente.get();
+            if (!intencao.getAgendamentoId().equals(agendamentoId) || !intencao.getClienteId().equals(clienteId)
+                    || intencao.getMetodo() != metodo) {
+                throw new RegraNegocioException("A chave de idempotência informada já foi usada em outra solicitação.");
+            }
+            return intencao;
+        }
+
+        Agendamento agendamento = agendamentoRepo.findById(agendamentoId)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Agendamento não encontrado."));
+        if (!agendamento.getCliente().getId().equals(clienteId)) {
+            throw new AcessoNegadoException("Você não tem permissão para pagar este agendamento.");
+        }
+        if (agendamento.getStatus() != StatusAgendamentoEnum.AGENDADO) {
+            throw new RegraNegocioException("Apenas agendamentos com status Agendado podem ser pagos.");
+        }
+        EnumSet<StatusPagamentoEnum> bloqueantes = EnumSet.copyOf(StatusPagamentoEnum.EM_ANDAMENTO);
+        bloqueantes.add(StatusPagamentoEnum.APROVADO);
+        if (intencaoRepo.existsByAgendamentoIdAndStatusIn(agendamentoId, bloqueantes)) {
+            throw new RegraNegocioException("Já existe um pagamento em andamento ou aprovado para este agendamento.");
+        }
+
+        IntencaoPagamento intencao;
+        try {
+            intencao = intencaoRepo.saveAndFlush(
+                    new IntencaoPagamento(agendamentoId, clienteId, chaveIdempotencia, metodo, agendamento.getValor()));
+        } catch (DataIntegrityViolationException e) {
+            throw conflito(e);
+        }
+        eventPublisher.publishEvent(new PagamentoSolicitadoEvent(intencao.getId()));
+        return intencao;
+    }
+
+    /**
+     * Lista os pagamentos de um agendamento, do mais recente para o mais antigo.
+     *
+     * @param agendamentoId ID do agendamento
+     * @return Intenções de pagamento do agendamento
+     */
+    @Transactional(readOnly = true)
+    public List<IntencaoPagamento> listarPorAgendamento(Long agendamentoId) {
+        return intencaoRepo.findByAgendamentoIdOrderByIdDesc(agendamentoId);
+    }
+
+    /**
+     * Aplica a resposta imediata do gateway a uma intenção enviada pelo processador.
+     * Intenções que já saíram de {@code PROCESSANDO} (por um retorno que chegou antes) não mudam.
+     *
+     * @param intencaoId ID da intenção
+     * @param resposta   Resposta do gateway
+     */
+    @Transactional
+    public void registrarResultado(Long intencaoId, GatewayPagamento.Resposta resposta) {
+        IntencaoPagamento intencao = intencaoRepo.findById(intencaoId).orElse(null);
+        if (intencao == null || intencao.getStatus() != StatusPagamentoEnum.PROCESSANDO) {
+            return;
+        }
+        intencao.setReferenciaGateway(resposta.referencia());
+        aplicar(intencao, resposta.status(), resposta.mensagem());
+    }
+
     /**
-     * Processa o pagamento utilizando o método especificado.
+     * Aplica o retorno assíncrono do gateway (confirmação ou recusa de PIX e boleto).
+     * Retornos repetidos são ignorados.
      *
-     * @param metodo O método de pagamento a ser utilizado (ex: cartão de crédito, boleto, etc.).
+     * @param chaveIdempotencia Chave de idempotência da cobrança
+     * @param referencia        Referência da cobrança no gateway
+     * @param status            {@code APROVADO} ou {@code RECUSADO}
+     * @throws RegraNegocioException se o status não for final
+     * @throws RecursoNaoEncontradoException se não houver intenção com a chave
      */
-    public void processar(String metodo) {
-        System.out.println("Pagamento via: " + metodo);
+    @Transactional
+    public void registrarRetorno(String chaveIdempotencia, String referencia, StatusPagamentoEnum status) {
+        if (status != StatusPagamentoEnum.APROVADO && status != StatusPagamentoEnum.RECUSADO) {
+            throw new RegraNegocioException("O retorno do gateway deve ser APROVADO ou RECUSADO.");
+        }
+
+        IntencaoPagamento intencao = intencaoRepo.findByChaveIdempotencia(chaveIdempotencia)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Intenção de pagamento não encontrada."));
+        if (intencao.getStatus() == status) {
+            return;
+        }
+        if (!intencao.getStatus().isEmAndamento()) {
+            log.warn("Retorno {} ignorado para a intenção {}, já em {}", status, intencao.getId(), intencao.getStatus());
+            return;
+        }
+
+        if (referencia != null) {
+            intencao.setReferenciaGateway(referencia);
+        }
+        aplicar(intencao, status, null);
     }
 
     /**
-     * Reembolsa um agendamento específico.
+     * Recebe os retornos entregues em processo (gateway simulado).
+     *
+     * @param evento Retorno do gateway
+     */
+    @EventListener
+    @Transactional
+    public void aoReceberRetorno(RetornoGatewayPagamentoEvent evento) {
+        registrarRetorno(evento.chaveIdempotencia(), evento.referencia(), evento.status());
+    }
+
+    /**
+     * Enfileira o estorno dos pagamentos aprovados de um agendamento, na transação de quem chama.
+     * <p>
+     * O gateway só é chamado pelo {@link ProcessadorEstornos} depois do commit; se a transação
+     * for desfeita, o pedido de estorno também é.
      *
      * @param agendamentoId O ID do agendamento a ser reembolsado.
      */
+    @Transactional
     public void reembolsar(Long agendamentoId) {
-        System.out.println("Reembolsando agendamento: " + agendamentoId);
+        if (intencaoRepo.enfileirarEstornosDoAgendamento(agendamentoId) > 0) {
+            eventPublisher.publishEvent(new EstornoSolicitadoEvent(agendamentoId));
+        }
+    }
+
+    /**
+     * Traduz a violação das restrições de unicidade por uma solicitação concorrente: a
+     * verificação acima não enxerga a intenção ainda não confirmada da outra requisição.
+     */
+    private RuntimeException conflito(DataIntegrityViolationException e) {
+        String mensagem = String.valueOf(e.getMostSpecificCause().getMessage());
+        if (mensagem.contains(RESTRICAO_INTENCAO_ATIVA)) {
+            return new ConflitoException("Já existe um pagamento em andamento ou aprovado para este agendamento.");
+        }
+        if (mensagem.contains(RESTRICAO_CHAVE_IDEMPOTENCIA)) {
+            return new ConflitoException("Outra solicitação com a mesma chave de idempotência está em processamento; repita a chamada.");
+        }
+        return e;
+    }
+
+    private void aplicar(IntencaoPagamento intencao, StatusPagamentoEnum status, String mensagem) {
+        intencao.setStatus(status);
+        if (mensagem != null) {
+            intencao.setUltimoErro(mensagem);
+        }
+        if (status == StatusPagamentoEnum.APROVADO) {
+            confirmarAgendamento(intencao);
+        }
+    }
+
+    /**
+     * Confirma o agendamento pago. Se ele foi cancelado enquanto o pagamento estava em
+     * andamento, o estorno é enfileirado.
+     */
+    private void confirmarAgendamento(IntencaoPagamento intencao) {
+        Agendamento agendamento = agendamentoRepo.findById(intencao.getAgendamentoId()).orElse(null);
+        if (agendamento == null || agendamento.getStatus() == StatusAgendamentoEnum.CANCELADO) {
+            log.warn("Pagamento {} aprovado para o agendamento {} cancelado ou inexistente; estornando.",
+                    intencao.getId(), intencao.getAgendamentoId());
+            if (intencaoRepo.enfileirarEstorno(intencao.getId()) > 0) {
+                eventPublisher.publishEvent(new EstornoSolicitadoEvent(intencao.getAgendamentoId()));
+            }
+            return;
+        }
+        if (agendamento.getStatus() == StatusAgendamentoEnum.AGENDADO) {
+            agendamento.setStatus(StatusAgendamentoEnum.CONFIRMADO);
+            Agendamento salvo = agendamentoRepo.saveAndFlush(agendamento);
+            eventPublisher.publishEvent(AgendamentoStatusAlteradoEvent.of(
+                    salvo, StatusAgendamentoEnum.AGENDADO, null, "Pagamento aprovado"));
+        }
     }
-}
\ No newline at end of file
+}
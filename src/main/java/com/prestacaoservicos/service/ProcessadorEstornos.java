@@ -0,0 +1,248 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import com.prestacaoservicos.event.EstornoSolicitadoEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envia ao {@link GatewayPagamento} os estornos enfileirados em {@code estorno_pagamento}.
+ * <p>
+ * O pedido de estorno é gravado na transação do cancelamento; este processador só é acordado
+ * depois do commit, espera uma curta janela para juntar os cancelamentos próximos e envia os
+ * estornos reservados (com {@code FOR UPDATE SKIP LOCKED}) em uma única chamada em lote.
+ * Estornos que falham voltam à fila com espera exponencial e, esgotadas as tentativas, são
+ * movidos para {@code estorno_pagamento_falho} para tratamento manual. A chave de
+ * idempotência de cada estorno é derivada da cobrança, então um reenvio após queda da
+ * instância não estorna duas vezes. Pedidos gravados por outras instâncias ou perdidos no
+ * encerramento são encontrados pela coleta periódica.
+ */
+@Component
+public class ProcessadorEstornos {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessadorEstornos.class);
+
+    private static final String SQL_RESERVAR =
+            "UPDATE estorno_pagamento e SET nr_tentativas = e.nr_tentativas + 1, " +
+            "dt_proxima_tentativa = now() + make_interval(secs => ?) " +
+            "FROM intencao_pagamento i " +
+            "WHERE e.cd_intencao IN (SELECT cd_intencao FROM estorno_pagamento " +
+            "    WHERE dt_proxima_tentativa <= now() ORDER BY dt_proxima_tentativa LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "AND i.cd_intencao = e.cd_intencao " +
+            "RETURNING e.cd_intencao, e.nr_tentativas, i.st_pagamento, i.ds_chave_idempotencia, " +
+            "i.ds_referencia_gateway, i.vl_pagamento";
+
+    private static final String SQL_CONCLUIR =
+            "WITH concluidos AS (DELETE FROM estorno_pagamento WHERE cd_intencao = ANY(?::bigint[]) RETURNING cd_intencao) " +
+            "UPDATE intencao_pagamento SET st_pagamento = 'ESTORNADO', dt_atualizacao = now(), nr_versao = nr_versao + 1 " +
+            "WHERE cd_intencao IN (SELECT cd_intencao FROM concluidos) AND st_pagamento = 'APROVADO'";
+
+    private static final String SQL_FALHA =
+            "UPDATE estorno_pagamento SET ds_ultimo_erro = left(?, 500), " +
+            "dt_proxima_tentativa = now() + make_interval(secs => least(power(2, nr_tentativas), ?)) " +
+            "WHERE cd_intencao = ?";
+
+    private static final String SQL_DESCARTAR =
+            "WITH esgotados AS (DELETE FROM estorno_pagamento WHERE cd_intencao = ? AND nr_tentativas >= ? " +
+            "    RETURNING cd_intencao, nr_tentativas, ds_ultimo_erro, dt_criacao) " +
+            "INSERT INTO estorno_pagamento_falho (cd_intencao, nr_tentativas, ds_ultimo_erro, dt_criacao) " +
+            "SELECT cd_intencao, nr_tentativas, ds_ultimo_erro, dt_criacao FROM esgotados";
+
+    /**
+     * Estorno reservado para envio.
+     *
+     * @param intencaoId ID da intenção estornada
+     * @param tentativa  Número desta tentativa
+     * @param status     Status atual da intenção
+     * @param estorno    Dados enviados ao gateway
+     */
+    private record Reservado(Long intencaoId, int tentativa, StatusPagamentoEnum status, GatewayPagamento.Estorno estorno) {}
+
+    private static final RowMapper<Reservado> MAPPER = (rs, i) -> new Reservado(
+            rs.getLong("cd_intencao"),
+            rs.getInt("nr_tentativas"),
+            StatusPagamentoEnum.valueOf(rs.getString("st_pagamento")),
+            new GatewayPagamento.Estorno(
+                    "estorno-" + rs.getString("ds_chave_idempotencia"),
+                    rs.getString("ds_referencia_gateway"),
+                    rs.getBigDecimal("vl_pagamento")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GatewayPagamento gateway;
+    private final Semaphore despertar = new Semaphore(0);
+
+    /** Quantidade máxima de estornos por chamada ao gateway. */
+    @Value("${app.pagamentos.estornos.tamanho-lote:50}")
+    private int tamanhoLote;
+
+    /** Espera, em milissegundos, para juntar pedidos próximos no mesmo lote. */
+    @Value("${app.pagamentos.estornos.janela-ms:200}")
+    private long janelaMs;
+
+    /** Intervalo máximo, em milissegundos, entre coletas sem novos pedidos. */
+    @Value("${app.pagamentos.estornos.intervalo-ms:5000}")
+    private long intervaloMs;
+
+    /** Tempo, em segundos, que um estorno fica reservado antes de poder ser reenviado. */
+    @Value("${app.pagamentos.estornos.reserva-s:120}")
+    private int reservaSegundos;
+
+    /** Quantidade máxima de tentativas antes de mover o estorno para {@code estorno_pagamento_falho}. */
+    @Value("${app.pagamentos.estornos.max-tentativas:10}")
+    private int maxTentativas;
+
+    /** Espera máxima, em segundos, entre tentativas. */
+    @Value("${app.pagamentos.estornos.espera-maxima-s:900}")
+    private int esperaMaximaSegundos;
+
+    private volatile boolean ativo = true;
+    private Thread coletor;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate Acesso JDBC ao banco
+     * @param gateway      Gateway de pagamento
+     */
+    public ProcessadorEstornos(JdbcTemplate jdbcTemplate, GatewayPagamento gateway) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gateway = gateway;
+    }
+
+    /**
+     * Inicia a thread de envio.
+     */
+    @PostConstruct
+    public void iniciar() {
+        coletor = Thread.ofPlatform().name("pagamentos-estornos").daemon(true).start(this::executar);
+    }
+
+    /**
+     * Acorda o envio depois que a transação que pediu o estorno é confirmada.
+     *
+     * @param evento Evento do pedido de estorno
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoSolicitarEstorno(EstornoSolicitadoEvent evento) {
+        despertar.release();
+    }
+
+    private void executar() {
+        while (ativo) {
+            try {
+                if (despertar.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS)) {
+                    Thread.sleep(janelaMs);
+                }
+                despertar.drainPermits();
+                while (ativo && enviarLote() == tamanhoLote) {
+                    // lote cheio: provavelmente há mais estornos vencidos
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Falha ao processar a fila de estornos; nova coleta em {} ms.", intervaloMs, e);
+            }
+        }
+    }
+
+    /**
+     * Reserva um lote de estornos, envia-os ao gateway e registra o resultado de cada um.
+     *
+     * @return Quantidade de estornos reservados
+     */
+    private int enviarLote() {
+        List<Reservado> reservados = jdbcTemplate.query(SQL_RESERVAR, MAPPER, reservaSegundos, tamanhoLote);
+        if (reservados.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> concluidos = new ArrayList<>();
+        List<Reservado> enviar = new ArrayList<>();
+        for (Reservado reservado : reservados) {
+            // Intenção já estornada (ou fora de APROVADO): só sai da fila.
+            if (reservado.status() == StatusPagamentoEnum.APROVADO) {
+                enviar.add(reservado);
+            } else {
+                concluidos.add(reservado.intencaoId());
+            }
+        }
+
+        Map<Reservado, String> falhas = new LinkedHashMap<>();
+        if (!enviar.isEmpty()) {
+            try {
+                List<GatewayPagamento.Resposta> respostas = gateway.estornarLote(
+                        enviar.stream().map(Reservado::estorno).toList());
+                if (respostas.size() != enviar.size()) {
+                    throw new IllegalStateException("O gateway devolveu " + respostas.size() + " respostas para "
+                            + enviar.size() + " estornos.");
+                }
+                for (int i = 0; i < enviar.size(); i++) {
+                    GatewayPagamento.Resposta resposta = respostas.get(i);
+                    if (resposta.status() == StatusPagamentoEnum.ESTORNADO) {
+                        concluidos.add(enviar.get(i).intencaoId());
+                    } else {
+                        falhas.put(enviar.get(i), resposta.mensagem() != null
+                                ? resposta.mensagem() : "Estorno não realizado: " + resposta.status());
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Falha ao enviar um lote de {} estorno(s) ao gateway.", enviar.size(), e);
+                enviar.forEach(reservado -> falhas.put(reservado, String.valueOf(e.getMessage())));
+            }
+        }
+
+        concluir(concluidos);
+        falhas.forEach(this::registrarFalha);
+        return reservados.size();
+    }
+
+    private void concluir(List<Long> intencaoIds) {
+        if (intencaoIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(SQL_CONCLUIR);
+            ps.setArray(1, con.createArrayOf("bigint", intencaoIds.toArray()));
+            return ps;
+        });
+    }
+
+    private void registrarFalha(Reservado reservado, String erro) {
+        jdbcTemplate.update(SQL_FALHA, erro, esperaMaximaSegundos, reservado.intencaoId());
+        if (jdbcTemplate.update(SQL_DESCARTAR, reservado.intencaoId(), maxTentativas) > 0) {
+            log.error("Estorno da intenção de pagamento {} falhou {} vezes e foi movido para estorno_pagamento_falho: {}",
+                    reservado.intencaoId(), reservado.tentativa(), erro);
+        }
+    }
+
+    /**
+     * Para a coleta. Estornos reservados e não concluídos são reenviados quando a reserva vencer.
+     */
+    @PreDestroy
+    public void encerrar() {
+        ativo = false;
+        coletor.interrupt();
+        try {
+            coletor.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
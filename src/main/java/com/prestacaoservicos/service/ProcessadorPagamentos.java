@@ -0,0 +1,201 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.enums.MetodoPagamentoEnum;
+import com.prestacaoservicos.event.PagamentoSolicitadoEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Envia as intenções de pagamento pendentes ao {@link GatewayPagamento} fora do caminho
+ * das requisições.
+ * <p>
+ * Uma thread de coleta reserva, com {@code FOR UPDATE SKIP LOCKED}, no máximo tantas
+ * intenções quantos trabalhadores livres houver, marcando-as como {@code PROCESSANDO} com
+ * uma reserva de tempo limitado; os trabalhadores chamam o gateway e registram o resultado.
+ * Falhas transitórias voltam a {@code PENDENTE} com espera exponencial e, esgotadas as
+ * tentativas, a intenção termina em {@code FALHOU}. Se a instância cair durante o envio, a
+ * reserva vence e a intenção é reenviada com a mesma chave de idempotência, sem cobrança
+ * duplicada. A coleta é acordada logo após o commit de cada nova solicitação.
+ */
+@Component
+public class ProcessadorPagamentos {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessadorPagamentos.class);
+
+    private static final String SQL_RESERVAR =
+            "UPDATE intencao_pagamento SET st_pagamento = 'PROCESSANDO', nr_tentativas = nr_tentativas + 1, " +
+            "dt_proxima_tentativa = now() + make_interval(secs => ?), dt_atualizacao = now(), nr_versao = nr_versao + 1 " +
+            "WHERE cd_intencao IN (SELECT cd_intencao FROM intencao_pagamento " +
+            "    WHERE st_pagamento IN ('PENDENTE', 'PROCESSANDO') AND dt_proxima_tentativa <= now() " +
+            "    ORDER BY dt_proxima_tentativa LIMIT ? FOR UPDATE SKIP LOCKED) " +
+            "RETURNING cd_intencao, cd_agendamento, ds_chave_idempotencia, tp_metodo, vl_pagamento, nr_tentativas";
+
+    private static final String SQL_FALHA =
+            "UPDATE intencao_pagamento SET " +
+            "st_pagamento = CASE WHEN nr_tentativas >= ? THEN 'FALHOU' ELSE 'PENDENTE' END, " +
+            "ds_ultimo_erro = left(?, 500), " +
+            "dt_proxima_tentativa = now() + make_interval(secs => least(power(2, nr_tentativas), ?)), " +
+            "dt_atualizacao = now(), nr_versao = nr_versao + 1 " +
+            "WHERE cd_intencao = ? AND st_pagamento = 'PROCESSANDO'";
+
+    /**
+     * Intenção reservada para envio.
+     *
+     * @param id         ID da intenção
+     * @param tentativa  Número desta tentativa
+     * @param cobranca   Dados enviados ao gateway
+     */
+    private record Reservada(Long id, int tentativa, GatewayPagamento.Cobranca cobranca) {}
+
+    private static final RowMapper<Reservada> MAPPER = (rs, i) -> new Reservada(
+            rs.getLong("cd_intencao"),
+            rs.getInt("nr_tentativas"),
+            new GatewayPagamento.Cobranca(
+                    rs.getString("ds_chave_idempotencia"),
+                    MetodoPagamentoEnum.valueOf(rs.getString("tp_metodo")),
+                    rs.getBigDecimal("vl_pagamento"),
+                    rs.getLong("cd_agendamento")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GatewayPagamento gateway;
+    private final PagamentoService pagamentoService;
+    private final int trabalhadores;
+    private final Semaphore vagas;
+    private final Semaphore despertar = new Semaphore(0);
+
+    /** Intervalo máximo, em milissegundos, entre coletas sem novas solicitações. */
+    @Value("${app.pagamentos.intervalo-ms:1000}")
+    private long intervaloMs;
+
+    /** Tempo, em segundos, que uma intenção fica reservada antes de poder ser reenviada. */
+    @Value("${app.pagamentos.reserva-s:60}")
+    private int reservaSegundos;
+
+    /** Quantidade máxima de tentativas de envio. */
+    @Value("${app.pagamentos.max-tentativas:8}")
+    private int maxTentativas;
+
+    /** Espera máxima, em segundos, entre tentativas. */
+    @Value("${app.pagamentos.espera-maxima-s:300}")
+    private int esperaMaximaSegundos;
+
+    private volatile boolean ativo = true;
+    private ExecutorService executor;
+    private Thread coletor;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate     Acesso JDBC ao banco
+     * @param gateway          Gateway de pagamento
+     * @param pagamentoService Serviço que registra os resultados
+     * @param trabalhadores    Quantidade de envios simultâneos ao gateway
+     */
+    public ProcessadorPagamentos(JdbcTemplate jdbcTemplate, GatewayPagamento gateway, PagamentoService pagamentoService,
+                                 @Value("${app.pagamentos.trabalhadores:4}") int trabalhadores) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.gateway = gateway;
+        this.pagamentoService = pagamentoService;
+        this.trabalhadores = trabalhadores;
+        this.vagas = new Semaphore(trabalhadores);
+    }
+
+    /**
+     * Inicia os trabalhadores e a thread de coleta.
+     */
+    @PostConstruct
+    public void iniciar() {
+        executor = Executors.newFixedThreadPool(trabalhadores, Thread.ofPlatform().name("pagamentos-", 0).daemon(true).factory());
+        coletor = Thread.ofPlatform().name("pagamentos-coletor").daemon(true).start(this::executar);
+    }
+
+    /**
+     * Acorda a coleta assim que uma nova solicitação é confirmada.
+     *
+     * @param evento Evento da solicitação
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void aoSolicitarPagamento(PagamentoSolicitadoEvent evento) {
+        despertar.release();
+    }
+
+    private void executar() {
+        while (ativo) {
+            try {
+                despertar.tryAcquire(intervaloMs, TimeUnit.MILLISECONDS);
+                despertar.drainPermits();
+                coletar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Falha ao reservar intenções de pagamento; nova coleta em {} ms.", intervaloMs, e);
+            }
+        }
+    }
+
+    /**
+     * Reserva até uma intenção por trabalhador livre e as entrega aos trabalhadores.
+     */
+    private void coletar() {
+        int livres = vagas.availablePermits();
+        if (livres == 0) {
+            return;
+        }
+
+        List<Reservada> reservadas = jdbcTemplate.query(SQL_RESERVAR, MAPPER, reservaSegundos, livres);
+        for (Reservada reservada : reservadas) {
+            vagas.acquireUninterruptibly();
+            executor.execute(() -> {
+                try {
+                    enviar(reservada);
+                } finally {
+                    vagas.release();
+                    despertar.release();
+                }
+            });
+        }
+    }
+
+    private void enviar(Reservada reservada) {
+        try {
+            GatewayPagamento.Resposta resposta = gateway.cobrar(reservada.cobranca());
+            pagamentoService.registrarResultado(reservada.id(), resposta);
+        } catch (OptimisticLockingFailureException e) {
+            log.debug("Intenção {} alterada por um retorno do gateway durante o envio.", reservada.id());
+        } catch (RuntimeException e) {
+            log.warn("Tentativa {} de envio da intenção de pagamento {} falhou.", reservada.tentativa(), reservada.id(), e);
+            jdbcTemplate.update(SQL_FALHA, maxTentativas, String.valueOf(e.getMessage()), esperaMaximaSegundos, reservada.id());
+        }
+    }
+
+    /**
+     * Para a coleta e aguarda os envios em andamento.
+     *
+     * @throws InterruptedException se a espera for interrompida
+     */
+    @PreDestroy
+    public void encerrar() throws InterruptedException {
+        ativo = false;
+        coletor.interrupt();
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Envios de pagamento ainda em andamento no encerramento; serão retomados após a reserva vencer.");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.event.EventoIntegracao;
+
+/**
+ * Destino dos eventos drenados do outbox pelo {@link RelayOutbox}.
+ * <p>
+ * Uma implementação que lance exceção mantém o evento pendente para nova tentativa.
+ */
+public interface PublicadorEventosIntegracao {
+
+    /**
+     * Entrega um evento aos consumidores.
+     *
+     * @param evento Evento a publicar
+     */
+    void publicar(EventoIntegracao evento);
+}
@@ -0,0 +1,29 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.event.EventoIntegracao;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publicador padrão: entrega os eventos do outbox aos ouvintes da própria aplicação
+ * ({@code @EventListener} de {@link EventoIntegracao}), de forma síncrona na thread do relay.
+ */
+@Component
+public class PublicadorEventosIntegracaoLocal implements PublicadorEventosIntegracao {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param eventPublisher Publicador de eventos da aplicação
+     */
+    public PublicadorEventosIntegracaoLocal(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void publicar(EventoIntegracao evento) {
+        eventPublisher.publishEvent(evento);
+    }
+}
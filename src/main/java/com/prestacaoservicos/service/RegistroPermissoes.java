@@ -0,0 +1,97 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.RolePermissionProjection;
+import com.prestacaoservicos.enums.PermissionEnum;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registro imutável em memória das permissões de cada papel ({@code role_permission}).
+ * <p>
+ * Construído na inicialização, depois que o {@code DataInitializer} grava papéis e permissões,
+ * e reconstruído sob demanda quando os papéis mudam. Com ele, carregar um usuário autenticado
+ * exige apenas os seus papéis: as permissões saem de uma consulta a um {@link EnumMap}.
+ * Cada recarga publica um novo mapa, sem alterar o anterior.
+ */
+@Component
+public class RegistroPermissoes {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroPermissoes.class);
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<RoleNameEnum, Set<PermissionEnum>> permissoesPorPapel = Map.of();
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param roleRepository Repositório de papéis
+     */
+    public RegistroPermissoes(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Relê do banco as permissões de todos os papéis e substitui o registro atual.
+     *
+     * @return Permissões por papel recém-carregadas
+     */
+    public Map<RoleNameEnum, Set<PermissionEnum>> recarregar() {
+        List<RolePermissionProjection> linhas = roleRepository.findPermissionsByRoleNames(EnumSet.allOf(RoleNameEnum.class));
+
+        Map<RoleNameEnum, EnumSet<PermissionEnum>> agrupado = new EnumMap<>(RoleNameEnum.class);
+        for (RoleNameEnum papel : RoleNameEnum.values()) {
+            agrupado.put(papel, EnumSet.noneOf(PermissionEnum.class));
+        }
+        for (RolePermissionProjection linha : linhas) {
+            try {
+                agrupado.get(linha.getRole()).add(PermissionEnum.valueOf(linha.getPermission()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Permissão '{}' do papel {} não existe em PermissionEnum e foi ignorada",
+                        linha.getPermission(), linha.getRole());
+            }
+        }
+
+        Map<RoleNameEnum, Set<PermissionEnum>> novo = new EnumMap<>(RoleNameEnum.class);
+        agrupado.forEach((papel, permissoes) -> novo.put(papel, Collections.unmodifiableSet(permissoes)));
+        permissoesPorPapel = Collections.unmodifiableMap(novo);
+
+        log.info("Registro de permissões carregado com {} associações papel/permissão", linhas.size());
+        return permissoesPorPapel;
+    }
+
+    /**
+     * Retorna o registro atual.
+     *
+     * @return Permissões por papel
+     */
+    public Map<RoleNameEnum, Set<PermissionEnum>> permissoesPorPapel() {
+        return permissoesPorPapel;
+    }
+
+    /**
+     * Reúne as permissões de um conjunto de papéis.
+     *
+     * @param papeis Papéis do usuário
+     * @return União das permissões dos papéis
+     */
+    public Set<PermissionEnum> permissoesDe(Collection<RoleNameEnum> papeis) {
+        Map<RoleNameEnum, Set<PermissionEnum>> atual = permissoesPorPapel;
+        EnumSet<PermissionEnum> permissoes = EnumSet.noneOf(PermissionEnum.class);
+        for (RoleNameEnum papel : papeis) {
+            permissoes.addAll(atual.getOrDefault(papel, Set.of()));
+        }
+        return permissoes;
+    }
+}
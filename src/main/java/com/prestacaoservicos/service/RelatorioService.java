@@ -0,0 +1,260 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.OcupacaoDTO;
+import com.prestacaoservicos.dto.RelatorioLinhaDTO;
+import com.prestacaoservicos.dto.ResumoAgregadoProjection;
+import com.prestacaoservicos.dto.ResumoStatusProjection;
+import com.prestacaoservicos.enums.AgrupamentoRelatorioEnum;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import com.prestacaoservicos.exception.RegraNegocioException;
+import com.prestacaoservicos.repository.ResumoDiarioAgendamentoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serviço responsável pelos relatórios de faturamento, taxa da plataforma e cancelamentos.
+ * <p>
+ * Os relatórios são calculados sobre a consolidação diária ({@code resumo_diario_agendamento}),
+ * mantida incrementalmente por {@link AcumuladorResumoAgendamento} a cada evento de agendamento.
+ * Uma reconciliação periódica recalcula a janela de dias recentes a partir de {@code agendamento}
+ * para corrigir alterações feitas fora da aplicação (ex.: correções diretas no banco).
+ */
+@Service
+public class RelatorioService {
+
+    /** Taxa cobrada pela plataforma sobre o valor dos serviços finalizados (10%). */
+    public static final BigDecimal TAXA_PLATAFORMA = new BigDecimal("0.10");
+
+    /** A mesma taxa em pontos-base, para os cálculos em {@link Centavos}. */
+    public static final long TAXA_PLATAFORMA_PONTOS_BASE = 1_000;
+
+    /** Arredondamento da taxa da plataforma. */
+    public static final RoundingMode ARREDONDAMENTO_TAXA = RoundingMode.HALF_EVEN;
+
+    private final ResumoDiarioAgendamentoRepository resumoRepo;
+    private final AcumuladorResumoAgendamento acumulador;
+    private final ManutencaoParticoesAgendamento particoes;
+
+    /** Quantidade de dias passados recalculados a cada reconciliação. */
+    @Value("${app.relatorios.dias-retroativos:7}")
+    private int diasRetroativos;
+
+    /** Quantidade de dias futuros recalculados a cada reconciliação. */
+    @Value("${app.relatorios.dias-futuros:90}")
+    private int diasFuturos;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param resumoRepo Repositório da consolidação diária
+     * @param acumulador Acumulador dos deltas incrementais ainda não descarregados
+     * @param particoes  Manutenção das partições de agendamento (período de retenção)
+     */
+    public RelatorioService(ResumoDiarioAgendamentoRepository resumoRepo, AcumuladorResumoAgendamento acumulador,
+                            ManutencaoParticoesAgendamento particoes) {
+        this.resumoRepo = resumoRepo;
+        this.acumulador = acumulador;
+        this.particoes = particoes;
+    }
+
+    /**
+     * Gera o relatório de faturamento de um período.
+     *
+     * @param inicio      Primeiro dia do período (inclusivo)
+     * @param fim         Último dia do período (inclusivo)
+     * @param agrupamento Forma de agrupamento das linhas
+     * @return Linhas do relatório
+     * @throws RegraNegocioException se o período for inválido
+     */
+    @Transactional(readOnly = true)
+    public List<RelatorioLinhaDTO> faturamento(LocalDate inicio, LocalDate fim, AgrupamentoRelatorioEnum agrupamento) {
+        validarPeriodo(inicio, fim);
+
+        StatusAgendamentoEnum finalizado = StatusAgendamentoEnum.FINALIZADO;
+        StatusAgendamentoEnum cancelado = StatusAgendamentoEnum.CANCELADO;
+
+        return switch (agrupamento) {
+            case DIA -> converter(resumoRepo.agregarPorDia(inicio, fim, finalizado, cancelado));
+            case MES -> agruparPorMes(resumoRepo.agregarPorDia(inicio, fim, finalizado, cancelado));
+            case PRESTADOR -> converter(resumoRepo.agregarPorPrestador(inicio, fim, finalizado, cancelado));
+            case SERVICO -> converter(resumoRepo.agregarPorServico(inicio, fim, finalizado, cancelado));
+        };
+    }
+
+    /**
+     * Retorna a ocupação e o valor agendado de um prestador em um dia.
+     * <p>
+     * Lê apenas as linhas consolidadas do dia/prestador (busca pela chave primária)
+     * somadas aos deltas ainda não descarregados.
+     *
+     * @param prestadorId ID do prestador
+     * @param dia         Dia consultado
+     * @return Ocupação do prestador no dia
+     */
+    @Transactional(readOnly = true)
+    public OcupacaoDTO ocupacao(Long prestadorId, LocalDate dia) {
+        Map<String, Long> quantidades = new HashMap<>();
+        long ocupados = 0;
+        long centavos = 0;
+        for (ResumoStatusProjection resumo : resumoRepo.somarPorStatus(dia, prestadorId)) {
+            quantidades.put(resumo.getStatus(), resumo.getQuantidade());
+            if (!StatusAgendamentoEnum.CANCELADO.name().equals(resumo.getStatus())) {
+                ocupados += resumo.getQuantidade();
+                centavos = Centavos.somar(centavos, Centavos.de(resumo.getValor()));
+            }
+        }
+
+        return new OcupacaoDTO(prestadorId, dia, ocupados, quantidades, Centavos.paraBigDecimal(centavos));
+    }
+
+    /**
+     * Recalcula a consolidação diária de um período a partir da tabela de agendamentos.
+     *
+     * @param inicio Primeiro dia do período (inclusivo)
+     * @param fim    Último dia do período (inclusivo)
+     * @throws RegraNegocioException se o período for inválido ou incluir meses já arquivados
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void atualizarConsolidacao(LocalDate inicio, LocalDate fim) {
+        validarPeriodo(inicio, fim);
+        LocalDate inicioRetencao = particoes.inicioRetencao();
+        if (inicio.isBefore(inicioRetencao)) {
+            throw new RegraNegocioException("Agendamentos anteriores a " + inicioRetencao
+                    + " podem estar arquivados; a consolidação desse período não pode ser recalculada.");
+        }
+        reconciliar(inicio, fim);
+    }
+
+    /**
+     * Reconciliação periódica da janela de dias recentes e futuros,
+     * onde ainda ocorrem novos agendamentos e mudanças de status.
+     */
+    @Scheduled(cron = "${app.relatorios.cron-reconciliacao:0 30 3 * * *}")
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public void reconciliarJanelaRecente() {
+        LocalDate hoje = LocalDate.now();
+        reconciliar(hoje.minusDays(diasRetroativos), hoje.plusDays(diasFuturos));
+    }
+
+    /**
+     * Recalcula o período a partir de {@code agendamento} e descarta os deltas ainda não
+     * descarregados desse período, que já estão refletidos no recálculo.
+     * <p>
+     * Executa em uma transação {@code REPEATABLE READ} que começa bloqueando a descarga: o
+     * recálculo e o descarte veem o mesmo snapshot, então cada alteração confirmada entra ou
+     * pelo recálculo (e seu delta é descartado) ou pelo seu delta (descarregado depois), nunca
+     * pelos dois. Se a transação for desfeita, nada muda: os deltas continuam na tabela.
+     *
+     * @param inicio Primeiro dia do período (inclusivo)
+     * @param fim    Último dia do período (inclusivo)
+     */
+    private void reconciliar(LocalDate inicio, LocalDate fim) {
+        acumulador.bloquearDescarga();
+        resumoRepo.removerIntervalo(inicio, fim);
+        acumulador.descartar(inicio, fim);
+        resumoRepo.consolidarIntervalo(inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Calcula a taxa da plataforma sobre um valor faturado.
+     *
+     * @param faturamento Valor bruto faturado
+     * @return Valor da taxa, com duas casas decimais
+     */
+    public static BigDecimal calcularTaxa(BigDecimal faturamento) {
+        return faturamento.multiply(TAXA_PLATAFORMA).setScale(2, ARREDONDAMENTO_TAXA);
+    }
+
+    /**
+     * Calcula a taxa da plataforma sobre um valor faturado em centavos. Dá o mesmo
+     * resultado que {@link #calcularTaxa(BigDecimal)} para valores com até duas casas.
+     *
+     * @param faturamentoCentavos Valor bruto faturado, em centavos
+     * @return Valor da taxa, em centavos
+     */
+    public static long calcularTaxa(long faturamentoCentavos) {
+        return Centavos.percentual(faturamentoCentavos, TAXA_PLATAFORMA_PONTOS_BASE, ARREDONDAMENTO_TAXA);
+    }
+
+    /**
+     * Converte as linhas agregadas do banco em linhas de relatório, calculando taxa e valor líquido.
+     *
+     * @param linhas Linhas agregadas
+     * @return Linhas de relatório
+     */
+    private List<RelatorioLinhaDTO> converter(List<ResumoAgregadoProjection> linhas) {
+        return linhas.stream()
+                .map(l -> criarLinha(String.valueOf(l.getChave()), l.getDescricao(),
+                        valorOuZero(l.getTotal()), valorOuZero(l.getFinalizados()), valorOuZero(l.getCancelados()),
+                        Centavos.de(l.getFaturamento()), Centavos.de(l.getValorCancelado())))
+                .toList();
+    }
+
+    /**
+     * Reagrupa as linhas diárias por mês.
+     *
+     * @param linhasDiarias Linhas agregadas por dia, em ordem cronológica
+     * @return Linhas de relatório agrupadas por mês
+     */
+    private List<RelatorioLinhaDTO> agruparPorMes(List<ResumoAgregadoProjection> linhasDiarias) {
+        // Por mês: total, finalizados, cancelados, faturamento (centavos) e valor cancelado (centavos).
+        Map<YearMonth, long[]> somas = new LinkedHashMap<>();
+
+        for (ResumoAgregadoProjection linha : linhasDiarias) {
+            YearMonth mes = YearMonth.from((LocalDate) linha.getChave());
+
+            long[] c = somas.computeIfAbsent(mes, m -> new long[5]);
+            c[0] += valorOuZero(linha.getTotal());
+            c[1] += valorOuZero(linha.getFinalizados());
+            c[2] += valorOuZero(linha.getCancelados());
+            c[3] = Centavos.somar(c[3], Centavos.de(linha.getFaturamento()));
+            c[4] = Centavos.somar(c[4], Centavos.de(linha.getValorCancelado()));
+        }
+
+        List<RelatorioLinhaDTO> resultado = new ArrayList<>(somas.size());
+        somas.forEach((mes, c) -> resultado.add(criarLinha(mes.toString(), mes.toString(), c[0], c[1], c[2], c[3], c[4])));
+        return resultado;
+    }
+
+    private RelatorioLinhaDTO criarLinha(String chave, String descricao, long total, long finalizados,
+                                         long cancelados, long faturamento, long valorCancelado) {
+        long taxa = calcularTaxa(faturamento);
+        return new RelatorioLinhaDTO(
+                chave,
+                descricao,
+                total,
+                finalizados,
+                cancelados,
+                Centavos.paraBigDecimal(faturamento),
+                Centavos.paraBigDecimal(taxa),
+                Centavos.paraBigDecimal(Centavos.subtrair(faturamento, taxa)),
+                Centavos.paraBigDecimal(valorCancelado)
+        );
+    }
+
+    private void validarPeriodo(LocalDate inicio, LocalDate fim) {
+        if (inicio == null || fim == null) {
+            throw new RegraNegocioException("As datas inicial e final devem ser informadas.");
+        }
+        if (inicio.isAfter(fim)) {
+            throw new RegraNegocioException("A data inicial deve ser anterior ou igual à data final.");
+        }
+    }
+
+    private static long valorOuZero(Long valor) {
+        return valor == null ? 0L : valor;
+    }
+}
@@ -0,0 +1,143 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.enums.TipoEventoIntegracaoEnum;
+import com.prestacaoservicos.event.EventoIntegracao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drena o outbox ({@code outbox_evento}) e entrega os eventos ao {@link PublicadorEventosIntegracao}.
+ * <p>
+ * Cada lote é lido em ordem de gravação com {@code FOR UPDATE SKIP LOCKED} e publicado e
+ * marcado na mesma transação, de modo que várias instâncias drenam em paralelo sem pegar os
+ * mesmos eventos. Um evento só é lido quando não há evento anterior pendente do mesmo
+ * agregado, preservando a ordem por agendamento mesmo entre instâncias. Falhas de publicação
+ * adiam o evento com espera exponencial; se a instância cair entre a publicação e o commit,
+ * o evento é publicado de novo (entrega pelo menos uma vez).
+ */
+@Component
+public class RelayOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(RelayOutbox.class);
+
+    private static final String SQL_LOTE =
+            "SELECT o.cd_evento, o.ds_tipo, o.ds_agregado, o.cd_agregado, o.js_payload::text AS payload, o.dt_criacao " +
+            "FROM outbox_evento o " +
+            "WHERE o.dt_publicacao IS NULL AND o.dt_disponivel <= now() " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox_evento a " +
+            "    WHERE a.dt_publicacao IS NULL AND a.ds_agregado = o.ds_agregado " +
+            "    AND a.cd_agregado = o.cd_agregado AND a.cd_evento < o.cd_evento) " +
+            "ORDER BY o.cd_evento " +
+            "LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String SQL_PUBLICADOS =
+            "UPDATE outbox_evento SET dt_publicacao = now() WHERE cd_evento = ANY (?)";
+
+    private static final String SQL_FALHA =
+            "UPDATE outbox_evento SET nr_tentativas = nr_tentativas + 1, ds_ultimo_erro = left(?, 500), " +
+            "dt_disponivel = now() + make_interval(secs => least(power(2, nr_tentativas), ?)) " +
+            "WHERE cd_evento = ?";
+
+    private static final String SQL_LIMPEZA =
+            "DELETE FROM outbox_evento WHERE dt_publicacao < now() - make_interval(days => ?)";
+
+    private static final RowMapper<EventoIntegracao> MAPPER = (rs, i) -> new EventoIntegracao(
+            rs.getLong("cd_evento"),
+            TipoEventoIntegracaoEnum.valueOf(rs.getString("ds_tipo")),
+            rs.getString("ds_agregado"),
+            rs.getLong("cd_agregado"),
+            rs.getString("payload"),
+            rs.getTimestamp("dt_criacao").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PublicadorEventosIntegracao publicador;
+
+    /** Quantidade máxima de eventos por lote (e por transação). */
+    @Value("${app.outbox.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    /** Espera máxima, em segundos, entre tentativas de um evento que falhou. */
+    @Value("${app.outbox.espera-maxima-s:300}")
+    private int esperaMaximaSegundos;
+
+    /** Dias em que os eventos publicados permanecem na tabela. */
+    @Value("${app.outbox.dias-retencao:7}")
+    private int diasRetencao;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param jdbcTemplate       Acesso JDBC ao banco
+     * @param transactionManager Gerenciador de transações
+     * @param publicador         Destino dos eventos
+     */
+    public RelayOutbox(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       PublicadorEventosIntegracao publicador) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publicador = publicador;
+    }
+
+    /**
+     * Drena o outbox em lotes até esvaziar os eventos disponíveis.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo-ms:1000}")
+    public void drenar() {
+        int lido;
+        do {
+            Integer resultado = transactionTemplate.execute(status -> processarLote());
+            lido = resultado == null ? 0 : resultado;
+        } while (lido == tamanhoLote);
+    }
+
+    /**
+     * Remove os eventos publicados há mais dias que o período de retenção.
+     */
+    @Scheduled(cron = "${app.outbox.cron-limpeza:0 15 3 * * *}")
+    public void limpar() {
+        int removidos = jdbcTemplate.update(SQL_LIMPEZA, diasRetencao);
+        if (removidos > 0) {
+            log.info("{} evento(s) publicado(s) removido(s) do outbox", removidos);
+        }
+    }
+
+    /**
+     * Lê, publica e marca um lote de eventos. Deve rodar dentro de uma transação.
+     *
+     * @return Quantidade de eventos lidos
+     */
+    int processarLote() {
+        List<EventoIntegracao> lote = jdbcTemplate.query(SQL_LOTE, MAPPER, tamanhoLote);
+        if (lote.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> publicados = new ArrayList<>(lote.size());
+        for (EventoIntegracao evento : lote) {
+            try {
+                publicador.publicar(evento);
+                publicados.add(evento.id());
+            } catch (RuntimeException e) {
+                log.warn("Falha ao publicar o evento {} ({}) do outbox; nova tentativa mais tarde.", evento.id(), evento.tipo(), e);
+                jdbcTemplate.update(SQL_FALHA, String.valueOf(e.getMessage()), esperaMaximaSegundos, evento.id());
+            }
+        }
+
+        if (!publicados.isEmpty()) {
+            jdbcTemplate.update(SQL_PUBLICADOS, (Object) publicados.toArray(Long[]::new));
+        }
+        log.debug("Outbox: {} de {} evento(s) publicado(s)", publicados.size(), lote.size());
+        return lote.size();
+    }
+}
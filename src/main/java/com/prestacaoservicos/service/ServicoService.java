@@ -1,16 +1,29 @@
 package com.prestacaoservicos.service;
 
+import com.prestacaoservicos.dto.PrestadorResumoDTO;
 import com.prestacaoservicos.dto.ServicoRequestDTO;
+import com.prestacaoservicos.dto.ServicoResponseDTO;
 import com.prestacaoservicos.entity.Servico;
 import com.prestacaoservicos.entity.User;
+import com.prestacaoservicos.event.CatalogoServicoAlteradoEvent;
+import com.prestacaoservicos.event.PrestadorServicoAlteradoEvent;
+import com.prestacaoservicos.exception.PrecondicaoFalhouException;
 import com.prestacaoservicos.exception.RecursoNaoEncontradoException;
 import com.prestacaoservicos.exception.RegraNegocioException;
 import com.prestacaoservicos.repository.ServicoRepository;
 import com.prestacaoservicos.repository.UserRepository;
 import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 
 /**
@@ -24,16 +37,35 @@ public class ServicoService {
 
     private final ServicoRepository servicoRepo;
     private final UserRepository userRepo;
+    private final CatalogoServicoCache catalogoCache;
+    private final IndicePrestadoresServico indicePrestadores;
+    private final AssociacaoPrestadorServico associacaoPrestadorServico;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Semelhança mínima de palavra (trigramas) para a busca tolerar erros de digitação. */
+    @Value("${app.servicos.busca.semelhanca-minima:0.5}")
+    private double semelhancaMinima;
 
     /**
      * Construtor do service com injeção de dependências.
      *
-     * @param servicoRepo Repositório de serviços
-     * @param userRepo    Repositório de usuários
+     * @param servicoRepo    Repositório de serviços
+     * @param userRepo       Repositório de usuários
+     * @param catalogoCache     Catálogo de serviços ativos pré-serializado
+     * @param indicePrestadores Índice reverso de prestadores por serviço
+     * @param associacaoPrestadorServico Gravação direta das associações prestador-serviço
+     * @param eventPublisher    Publicador de eventos de domínio
      */
-    public ServicoService(ServicoRepository servicoRepo, UserRepository userRepo) {
+    public ServicoService(ServicoRepository servicoRepo, UserRepository userRepo,
+                          CatalogoServicoCache catalogoCache, IndicePrestadoresServico indicePrestadores,
+                          AssociacaoPrestadorServico associacaoPrestadorServico,
+                          ApplicationEventPublisher eventPublisher) {
         this.servicoRepo = servicoRepo;
         this.userRepo = userRepo;
+        this.catalogoCache = catalogoCache;
+        this.indicePrestadores = indicePrestadores;
+        this.associacaoPrestadorServico = associacaoPrestadorServico;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -51,14 +83,15 @@ public class ServicoService {
         novoServico.setValor(dto.valor());
         novoServico.setDescricao(dto.descricao());
 
-        servicoRepo.save(novoServico);
-
-        User prestador = userRepo.findById(usuarioLogado.getId())
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Usuário não encontrado."));
+        servicoRepo.saveAndFlush(novoServico);
 
-        prestador.getServicosOferecidos().add(novoServico);
-        userRepo.save(prestador);
+        if (!userRepo.existsById(usuarioLogado.getId())) {
+            throw new RecursoNaoEncontradoException("Usuário não encontrado.");
+        }
+        associacaoPrestadorServico.associar(usuarioLogado.getId(), List.of(novoServico.getId()));
 
+        eventPublisher.publishEvent(new CatalogoServicoAlteradoEvent(novoServico.getId()));
+        eventPublisher.publishEvent(new PrestadorServicoAlteradoEvent(usuarioLogado.getId(), novoServico.getId(), true));
         return novoServico;
     }
 
@@ -83,19 +116,85 @@ public class ServicoService {
         return servicoRepo.findAllByAtivoTrue();
     }
 
+    /**
+     * Lista, paginados em ordem de ID, os prestadores que oferecem um serviço.
+     * <p>
+     * Os IDs vêm do índice reverso em memória; apenas os prestadores da página são lidos do banco.
+     *
+     * @param servicoId Identificador do serviço
+     * @param pageable  Página desejada (a ordenação informada é ignorada)
+     * @return Página de prestadores do serviço
+     * @throws RecursoNaoEncontradoException Se o serviço não for encontrado
+     */
+    @Transactional(readOnly = true)
+    public Page<PrestadorResumoDTO> listarPrestadores(Long servicoId, Pageable pageable) {
+        if (!servicoRepo.existsById(servicoId)) {
+            throw new RecursoNaoEncontradoException("Serviço não encontrado. ID: " + servicoId);
+        }
+
+        long[] prestadores = indicePrestadores.prestadoresDe(servicoId);
+        int inicio = (int) Math.min(pageable.getOffset(), prestadores.length);
+        int fim = Math.min(inicio + pageable.getPageSize(), prestadores.length);
+
+        List<Long> ids = Arrays.stream(prestadores, inicio, fim).boxed().toList();
+        List<PrestadorResumoDTO> conteudo = userRepo.findAllById(ids).stream()
+                .sorted(Comparator.comparing(User::getId))
+                .map(PrestadorResumoDTO::fromEntity)
+                .toList();
+
+        return new PageImpl<>(conteudo, pageable, prestadores.length);
+    }
+
+    /**
+     * Retorna o catálogo de serviços ativos já serializado, reaproveitado entre as
+     * requisições até a próxima criação, alteração ou exclusão de serviço.
+     *
+     * @return Catálogo serializado com sua ETag
+     */
+    public CatalogoServicoCache.Catalogo catalogo() {
+        return catalogoCache.obter();
+    }
+
+    /**
+     * Busca serviços ativos por nome e descrição, ignorando acentos, variações de
+     * plural/gênero e pequenos erros de digitação.
+     * <p>
+     * A busca roda no banco (texto completo e trigramas), de modo que toda instância enxerga
+     * uma alteração do catálogo assim que ela é confirmada.
+     *
+     * @param consulta Texto da busca
+     * @param pageable Página desejada (a ordenação informada é ignorada)
+     * @return Página de serviços ordenada por relevância
+     */
+    @Transactional(readOnly = true)
+    public Page<ServicoResponseDTO> buscar(String consulta, Pageable pageable) {
+        Pageable pagina = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        if (consulta == null || consulta.isBlank()) {
+            return Page.empty(pagina);
+        }
+        servicoRepo.definirSemelhancaMinima(semelhancaMinima);
+        return servicoRepo.buscarPorTexto(consulta.strip(), pagina).map(ServicoResponseDTO::fromEntity);
+    }
+
     /**
      * Atualiza os dados de um serviço existente.
      *
-     * @param id  Identificador do serviço
-     * @param dto Dados a serem atualizados
-     * @return O serviço atualizado
+     * @param id             Identificador do serviço
+     * @param dto            Dados a serem atualizados
+     * @param versaoEsperada Versão que o cliente leu (If-Match), ou {@code null} para não verificar
+     * @return O serviço atualizado, já com a nova versão
      * @throws RecursoNaoEncontradoException Se o serviço não for encontrado
+     * @throws PrecondicaoFalhouException    Se o serviço estiver em outra versão
      * @throws RegraNegocioException         Se o nome informado já estiver em uso por outro serviço
      */
     @Transactional
-    public Servico update(Long id, ServicoRequestDTO dto) {
+    public Servico update(Long id, ServicoRequestDTO dto, Long versaoEsperada) {
         Servico servico = findById(id);
 
+        if (versaoEsperada != null && !versaoEsperada.equals(servico.getVersao())) {
+            throw new PrecondicaoFalhouException("O serviço foi alterado por outra requisição. Versão atual: " + servico.getVersao());
+        }
+
         servicoRepo.findByNomeIgnoreCase(dto.nome()).ifPresent(s -> {
             if (!s.getId().equals(id)) {
                 throw new RegraNegocioException("O nome '" + dto.nome() + "' já está em uso por outro serviço.");
@@ -106,7 +205,9 @@ public class ServicoService {
         servico.setValor(dto.valor());
         servico.setDescricao(dto.descricao());
 
-        return servicoRepo.save(servico);
+        Servico atualizado = servicoRepo.saveAndFlush(servico);
+        eventPublisher.publishEvent(new CatalogoServicoAlteradoEvent(id));
+        return atualizado;
     }
 
     /**
@@ -121,5 +222,6 @@ public class ServicoService {
 
         servico.setAtivo(false);
         servicoRepo.save(servico);
+        eventPublisher.publishEvent(new CatalogoServicoAlteradoEvent(id));
     }
 }
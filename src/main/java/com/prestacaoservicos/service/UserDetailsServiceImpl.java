@@ -23,14 +23,17 @@ import org.springframework.transaction.annotation.Transactional;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final RegistroPermissoes registroPermissoes;
 
     /**
      * Construtor para injeção de dependência do repositório de usuários.
      *
-     * @param userRepository O repositório para acessar os dados dos usuários.
+     * @param userRepository     O repositório para acessar os dados dos usuários.
+     * @param registroPermissoes O registro de permissões por role.
      */
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, RegistroPermissoes registroPermissoes) {
         this.userRepository = userRepository;
+        this.registroPermissoes = registroPermissoes;
     }
 
     /**
@@ -43,9 +46,9 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username)
+        User user = userRepository.findByEmailWithRoles(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
 
-        return new UserDetailsImpl(user);
+        return new UserDetailsImpl(user, registroPermissoes);
     }
 }
\ No newline at end of file
@@ -0,0 +1,429 @@
+package com.prestacaoservicos.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.dto.CreateUserDto;
+import com.prestacaoservicos.dto.ImportUsersResultDto;
+import com.prestacaoservicos.dto.ImportUsersResultDto.RowError;
+import com.prestacaoservicos.dto.PhoneDto;
+import com.prestacaoservicos.entity.Role;
+import com.prestacaoservicos.enums.PhoneTypeEnum;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.exception.RegraNegocioException;
+import com.prestacaoservicos.repository.RoleRepository;
+import com.prestacaoservicos.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Collectors;
+
+/**
+ * Importação de usuários em lote a partir de CSV ou NDJSON.
+ * <p>
+ * O corpo é lido linha a linha e processado em lotes de tamanho fixo, sem carregar o
+ * arquivo inteiro em memória. As roles são resolvidas uma única vez por importação e, a
+ * cada lote, os emails são verificados com uma só consulta; as senhas são codificadas em
+ * paralelo num {@link ForkJoinPool} limitado, fora da transação, e os usuários, roles e
+ * telefones são gravados com um {@code INSERT} de várias linhas e lotes JDBC.
+ * </p>
+ * Registros inválidos não interrompem a importação: são devolvidos no relatório com o
+ * número da linha e o motivo. Cada lote é gravado em sua própria transação.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    /** Tipo de conteúdo aceito para CSV. */
+    public static final String CSV = "text/csv";
+    /** Tipo de conteúdo aceito para NDJSON (um {@link CreateUserDto} por linha). */
+    public static final String NDJSON = "application/x-ndjson";
+
+    private static final List<String> CABECALHO_CSV = List.of("name", "email", "password", "role", "phones");
+    private static final int TAMANHO_MAXIMO_TELEFONE = 20;
+    private static final String EMAIL_EM_USO = "O email informado já está em uso.";
+    /** Tamanho máximo de um registro CSV que continua em várias linhas por causa de aspas. */
+    private static final int TAMANHO_MAXIMO_REGISTRO_CSV = 64 * 1024;
+
+    private static final String SQL_INSERT_USUARIO = "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ";
+    private static final String SQL_INSERT_ROLE = "INSERT INTO user_role (cd_user, cd_role) VALUES (?, ?)";
+    private static final String SQL_INSERT_TELEFONE = "INSERT INTO user_phone (ds_phone, tp_phone, cd_user) VALUES (?, ?, ?)";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ForkJoinPool poolSenhas;
+    private final int tamanhoLote;
+
+    /**
+     * Construtor com injeção de dependências.
+     *
+     * @param userRepository     Repositório de usuários
+     * @param roleRepository     Repositório de roles
+     * @param passwordEncoder    Codificador de senhas
+     * @param jdbcTemplate       Acesso JDBC ao banco
+     * @param transactionManager Gerenciador de transações
+     * @param objectMapper       Leitor de JSON da aplicação
+     * @param validator          Validador das restrições de {@link CreateUserDto}
+     * @param paralelismo        Threads para codificar senhas ({@code 0} = quantidade de processadores)
+     * @param tamanhoLote        Quantidade máxima de registros gravados por transação
+     */
+    public UserImportService(UserRepository userRepository,
+                             RoleRepository roleRepository,
+                             PasswordEncoder passwordEncoder,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             @Value("${app.importacao.paralelismo:0}") int paralelismo,
+                             @Value("${app.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.tamanhoLote = tamanhoLote;
+
+        ForkJoinPool.ForkJoinWorkerThreadFactory fabrica = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("importacao-senhas-" + thread.getPoolIndex());
+            return thread;
+        };
+        this.poolSenhas = new ForkJoinPool(paralelismo > 0 ? paralelismo : Runtime.getRuntime().availableProcessors(),
+                fabrica, null, false);
+    }
+
+    /**
+     * Registro lido do arquivo e já validado.
+     *
+     * @param linha Número da linha no arquivo
+     * @param dados Dados do usuário
+     */
+    private record Registro(long linha, CreateUserDto dados) {}
+
+    /**
+     * Importa os usuários do corpo informado.
+     *
+     * @param corpo       Conteúdo do arquivo
+     * @param contentType Tipo do conteúdo ({@value #CSV} ou {@value #NDJSON})
+     * @return Relatório com os totais e os registros rejeitados
+     * @throws RegraNegocioException se o tipo não for suportado ou o CSV não tiver o cabeçalho esperado
+     */
+    public ImportUsersResultDto importar(InputStream corpo, String contentType) {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV));
+        if (!csv && !MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(NDJSON))) {
+            throw new RegraNegocioException("Formato não suportado: use " + CSV + " ou " + NDJSON + ".");
+        }
+
+        Map<RoleNameEnum, Long> roles = new EnumMap<>(RoleNameEnum.class);
+        for (Role role : roleRepository.findAll()) {
+            roles.put(role.getName(), role.getId());
+        }
+
+        long total = 0;
+        long importados = 0;
+        List<RowError> erros = new ArrayList<>();
+        Set<String> emailsDoArquivo = new HashSet<>();
+        List<Registro> lote = new ArrayList<>(tamanhoLote);
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+            long numero = 0;
+            if (csv) {
+                String cabecalho = leitor.readLine();
+                numero++;
+                if (cabecalho == null || !dividirCsv(cabecalho.strip().toLowerCase(Locale.ROOT))
+                        .stream().map(String::strip).toList().equals(CABECALHO_CSV)) {
+                    throw new RegraNegocioException("O CSV deve começar pelo cabeçalho " + String.join(",", CABECALHO_CSV) + ".");
+                }
+            }
+
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                numero++;
+                long inicio = numero;
+                if (linha.isBlank()) {
+                    continue;
+                }
+                total++;
+
+                if (csv && aspasAbertas(linha)) {
+                    StringBuilder registro = new StringBuilder(linha);
+                    boolean aberto = true;
+                    String continuacao;
+                    while (aberto && registro.length() <= TAMANHO_MAXIMO_REGISTRO_CSV
+                            && (continuacao = leitor.readLine()) != null) {
+                        numero++;
+                        registro.append('\n').append(continuacao);
+                        aberto = aspasAbertas(continuacao) != aberto;
+                    }
+                    linha = registro.toString();
+                }
+
+                CreateUserDto dados;
+                try {
+                    dados = csv ? lerCsv(linha) : objectMapper.readValue(linha, CreateUserDto.class);
+                } catch (JsonProcessingException e) {
+                    erros.add(new RowError(inicio, null, "Registro mal formatado: " + e.getOriginalMessage()));
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    erros.add(new RowError(inicio, null, "Registro mal formatado: " + e.getMessage()));
+                    continue;
+                }
+
+                String erro = validar(dados, roles);
+                if (erro == null && !emailsDoArquivo.add(dados.email())) {
+                    erro = "O email informado se repete no arquivo.";
+                }
+                if (erro != null) {
+                    erros.add(new RowError(inicio, dados.email(), erro));
+                    continue;
+                }
+
+                lote.add(new Registro(inicio, dados));
+                if (lote.size() >= tamanhoLote) {
+                    importados += gravarLote(lote, roles, erros);
+                    lote.clear();
+                }
+            }
+            if (!lote.isEmpty()) {
+                importados += gravarLote(lote, roles, erros);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        erros.sort(Comparator.comparingLong(RowError::line));
+        log.info("Importação de usuários: {} registros, {} importados, {} rejeitados", total, importados, erros.size());
+        return new ImportUsersResultDto(total, importados, erros);
+    }
+
+    /**
+     * Valida um registro.
+     *
+     * @return Motivo da rejeição, ou {@code null} se o registro for válido
+     */
+    private String validar(CreateUserDto dados, Map<RoleNameEnum, Long> roles) {
+        Set<ConstraintViolation<CreateUserDto>> violacoes = validator.validate(dados);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (!roles.containsKey(dados.role())) {
+            return "A role '" + dados.role() + "' não existe no sistema.";
+        }
+        if (dados.phones() != null) {
+            for (PhoneDto phone : dados.phones()) {
+                if (phone.type() == null) {
+                    return "O tipo de telefone deve ser informado.";
+                }
+                if (phone.phone() == null || phone.phone().isBlank() || phone.phone().length() > TAMANHO_MAXIMO_TELEFONE) {
+                    return "Telefone inválido: " + phone.phone();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Grava um lote de registros válidos.
+     *
+     * @return Quantidade de usuários criados
+     */
+    private long gravarLote(List<Registro> lote, Map<RoleNameEnum, Long> roles, List<RowError> erros) {
+        Set<String> existentes = userRepository.findExistingEmails(lote.stream().map(r -> r.dados().email()).toList());
+
+        List<Registro> novos = new ArrayList<>(lote.size());
+        for (Registro registro : lote) {
+            if (existentes.contains(registro.dados().email())) {
+                erros.add(new RowError(registro.linha(), registro.dados().email(), EMAIL_EM_USO));
+            } else {
+                novos.add(registro);
+            }
+        }
+        if (novos.isEmpty()) {
+            return 0;
+        }
+
+        List<ForkJoinTask<String>> tarefas = novos.stream()
+                .map(r -> poolSenhas.submit(() -> passwordEncoder.encode(r.dados().password())))
+                .toList();
+        List<String> senhas = tarefas.stream().map(ForkJoinTask::join).toList();
+
+        Map<String, Long> ids = transactionTemplate.execute(status -> inserir(novos, senhas, roles));
+
+        // Emails cadastrados por outra requisição entre a verificação e o INSERT
+        for (Registro registro : novos) {
+            if (!ids.containsKey(registro.dados().email())) {
+                erros.add(new RowError(registro.linha(), registro.dados().email(), EMAIL_EM_USO));
+            }
+        }
+        return ids.size();
+    }
+
+    /**
+     * Insere os usuários, suas roles e seus telefones.
+     *
+     * @return Email -> ID de cada usuário efetivamente criado
+     */
+    private Map<String, Long> inserir(List<Registro> registros, List<String> senhas, Map<RoleNameEnum, Long> roles) {
+        StringBuilder sql = new StringBuilder(SQL_INSERT_USUARIO);
+        Object[] parametros = new Object[registros.size() * 3];
+        for (int i = 0; i < registros.size(); i++) {
+            CreateUserDto dados = registros.get(i).dados();
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            parametros[i * 3] = dados.name();
+            parametros[i * 3 + 1] = dados.email();
+            parametros[i * 3 + 2] = senhas.get(i);
+        }
+        sql.append(" ON CONFLICT (ds_email) DO NOTHING RETURNING cd_user, ds_email");
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> ids.put(rs.getString(2), rs.getLong(1)), parametros);
+
+        List<Object[]> papeis = new ArrayList<>(ids.size());
+        List<Object[]> telefones = new ArrayList<>();
+        for (Registro registro : registros) {
+            CreateUserDto dados = registro.dados();
+            Long id = ids.get(dados.email());
+            if (id == null) {
+                continue;
+            }
+            papeis.add(new Object[]{id, roles.get(dados.role())});
+            if (dados.phones() != null) {
+                for (PhoneDto phone : dados.phones()) {
+                    telefones.add(new Object[]{phone.phone(), phone.type().name(), id});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(SQL_INSERT_ROLE, papeis);
+        jdbcTemplate.batchUpdate(SQL_INSERT_TELEFONE, telefones);
+        return ids;
+    }
+
+    /**
+     * Lê uma linha de dados do CSV.
+     * <p>
+     * Colunas: {@code name,email,password,role,phones}. Os telefones vão numa só coluna,
+     * separados por {@code ;} e no formato {@code numero:TIPO}.
+     */
+    private static CreateUserDto lerCsv(String linha) {
+        List<String> campos = dividirCsv(linha);
+        if (campos.size() != CABECALHO_CSV.size() && campos.size() != CABECALHO_CSV.size() - 1) {
+            throw new IllegalArgumentException("esperadas " + CABECALHO_CSV.size() + " colunas, encontradas " + campos.size());
+        }
+
+        List<PhoneDto> phones = null;
+        if (campos.size() == CABECALHO_CSV.size() && !campos.get(4).isBlank()) {
+            phones = new ArrayList<>();
+            for (String item : campos.get(4).split(";")) {
+                int separador = item.lastIndexOf(':');
+                if (separador < 0) {
+                    throw new IllegalArgumentException("telefone sem tipo: " + item.strip());
+                }
+                phones.add(new PhoneDto(item.substring(0, separador).strip(),
+                        valorDe(PhoneTypeEnum.class, item.substring(separador + 1), "tipo de telefone")));
+            }
+        }
+
+        return new CreateUserDto(vazioComoNulo(campos.get(0)), vazioComoNulo(campos.get(1)), vazioComoNulo(campos.get(2)),
+                valorDe(RoleNameEnum.class, campos.get(3), "role"), phones);
+    }
+
+    /**
+     * Indica se o trecho deixa aspas abertas, isto é, se tem uma quantidade ímpar de aspas
+     * ({@code ""} dentro de aspas conta duas vezes e não muda o estado).
+     */
+    private static boolean aspasAbertas(String trecho) {
+        boolean abertas = false;
+        for (int i = 0; i < trecho.length(); i++) {
+            if (trecho.charAt(i) == '"') {
+                abertas = !abertas;
+            }
+        }
+        return abertas;
+    }
+
+    /**
+     * Divide um registro CSV em campos, respeitando aspas duplas ({@code ""} dentro de aspas é uma
+     * aspa). Entre aspas, o registro pode conter vírgulas e quebras de linha.
+     */
+    private static List<String> dividirCsv(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c != '"') {
+                    atual.append(c);
+                } else if (i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else {
+                    entreAspas = false;
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new IllegalArgumentException("aspas não fechadas");
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    private static <E extends Enum<E>> E valorDe(Class<E> tipo, String valor, String campo) {
+        if (valor == null || valor.isBlank()) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(tipo, valor.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(campo + " inválido(a): " + valor.strip());
+        }
+    }
+
+    private static String vazioComoNulo(String valor) {
+        return valor == null || valor.isBlank() ? null : valor.strip();
+    }
+
+    /**
+     * Encerra o pool de codificação de senhas.
+     */
+    @PreDestroy
+    public void encerrar() {
+        poolSenhas.shutdown();
+    }
+}
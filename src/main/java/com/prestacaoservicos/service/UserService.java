@@ -3,8 +3,11 @@ package com.prestacaoservicos.service;
 import com.prestacaoservicos.dto.*;
 import com.prestacaoservicos.dto.RecoveryUserDto;
 import com.prestacaoservicos.entity.*;
+import com.prestacaoservicos.enums.PermissionEnum;
 import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.event.PrestadorServicoAlteradoEvent;
 import com.prestacaoservicos.exception.CredenciaisInvalidasException;
+import com.prestacaoservicos.exception.PrecondicaoFalhouException;
 import com.prestacaoservicos.exception.RecursoNaoEncontradoException;
 import com.prestacaoservicos.exception.RegraNegocioException;
 import com.prestacaoservicos.repository.RoleRepository;
@@ -13,6 +16,11 @@ import com.prestacaoservicos.repository.UserPhoneRepository;
 import com.prestacaoservicos.repository.UserRepository;
 import com.prestacaoservicos.security.config.SecurityConfiguration;
 import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -21,9 +29,7 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -38,21 +44,38 @@ public class UserService {
     private final SecurityConfiguration securityConfiguration;
     private final RoleRepository roleRepository;
     private final ServicoRepository servicoRepository;
+    private final UserPhoneRepository userPhoneRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RegistroPermissoes registroPermissoes;
+    private final AssociacaoPrestadorServico associacaoPrestadorServico;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private final String DEFAULT_TOKEN_TYPE = "Bearer";
 
+    /** Tamanho máximo de uma página da listagem de usuários. */
+    public static final int MAX_PAGE_SIZE = 200;
+
     public UserService(AuthenticationManager authenticationManager,
                        JwtTokenService jwtTokenService,
                        UserRepository userRepository,
                        SecurityConfiguration securityConfiguration,
                        RoleRepository roleRepository, ServicoRepository servicoRepository,
-                       UserPhoneRepository userPhoneRepository) {
+                       UserPhoneRepository userPhoneRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       RegistroPermissoes registroPermissoes,
+                       AssociacaoPrestadorServico associacaoPrestadorServico) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenService = jwtTokenService;
         this.userRepository = userRepository;
         this.securityConfiguration = securityConfiguration;
         this.roleRepository = roleRepository;
         this.servicoRepository = servicoRepository;
+        this.userPhoneRepository = userPhoneRepository;
+        this.eventPublisher = eventPublisher;
+        this.registroPermissoes = registroPermissoes;
+        this.associacaoPrestadorServico = associacaoPrestadorServico;
     }
 
     /**
@@ -133,15 +156,59 @@ public class UserService {
     }
 
     /**
-     * Retorna uma lista com todos os usuários do sistema.
-     * @return Uma lista de {@link RecoveryUserDto}.
+     * Retorna uma página de usuários ordenada por ID, paginada por cursor.
+     * <p>
+     * Busca primeiro os usuários da página e depois, com uma consulta {@code IN} cada,
+     * as roles, as permissões dessas roles e os telefones, de modo que o custo
+     * depende apenas do tamanho da página.
+     *
+     * @param after ID do último usuário da página anterior, ou {@code null} para a primeira página.
+     * @param size  Quantidade de usuários por página (1 a {@value #MAX_PAGE_SIZE}).
+     * @return Um {@link UserPageDto} com os usuários e o cursor da próxima página.
+     * @throws RegraNegocioException se o tamanho da página for inválido.
      */
     @Transactional(readOnly = true)
-    public List<RecoveryUserDto> listAllUsers() {
-        return userRepository.findAllWithRolesAndPermissions()
-                .stream()
-                .map(this::convertToUserDto)
-                .collect(Collectors.toList());
+    public UserPageDto listUsers(Long after, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RegraNegocioException("O tamanho da página deve estar entre 1 e " + MAX_PAGE_SIZE + ".");
+        }
+
+        List<User> users = userRepository.findPageAfter(after == null ? 0L : after, Limit.of(size + 1));
+        boolean hasNext = users.size() > size;
+        if (hasNext) {
+            users = users.subList(0, size);
+        }
+        if (users.isEmpty()) {
+            return new UserPageDto(List.of(), null, false);
+        }
+
+        List<Long> ids = users.stream().map(User::getId).toList();
+
+        Map<Long, List<RoleNameEnum>> rolesByUser = userRepository.findRolesByUserIds(ids).stream()
+                .collect(Collectors.groupingBy(UserRoleProjection::getUserId,
+                        Collectors.mapping(UserRoleProjection::getRole, Collectors.toList())));
+
+        Map<Long, List<PhoneDto>> phonesByUser = userPhoneRepository.findByUserIds(ids).stream()
+                .collect(Collectors.groupingBy(UserPhoneProjection::getUserId,
+                        Collectors.mapping(p -> new PhoneDto(p.getPhone(), p.getType()), Collectors.toList())));
+
+        List<RecoveryUserDto> dtos = users.stream()
+                .map(user -> {
+                    List<RoleNameEnum> roles = rolesByUser.getOrDefault(user.getId(), List.of());
+                    return new RecoveryUserDto(
+                            user.getId(),
+                            user.getName(),
+                            user.getEmail(),
+                            roles.stream().map(RoleNameEnum::name).toList(),
+                            registroPermissoes.permissoesDe(roles).stream().map(PermissionEnum::getName).toList(),
+                            phonesByUser.getOrDefault(user.getId(), List.of()),
+                            user.getVersao()
+                    );
+                })
+                .toList();
+
+        Long nextCursor = hasNext ? ids.get(ids.size() - 1) : null;
+        return new UserPageDto(dtos, nextCursor, hasNext);
     }
 
     /**
@@ -174,45 +241,87 @@ public class UserService {
      * Atualiza os dados de um usuário existente.
      * @param id O ID do usuário a ser atualizado.
      * @param updateUserDto DTO contendo os novos dados do usuário.
-     * @return O {@link RecoveryUserDto} atualizado.
+     * @param versaoEsperada Versão que o cliente leu (If-Match), ou {@code null} para não verificar.
+     * @return O {@link RecoveryUserDto} atualizado, já com a nova versão.
      * @throws RecursoNaoEncontradoException se o usuário não for encontrado.
+     * @throws PrecondicaoFalhouException se o usuário estiver em outra versão.
      * @throws RegraNegocioException se o novo email já estiver em uso por outro usuário.
      */
     @Transactional
-    public RecoveryUserDto updateUser(Long id, UpdateUserDto updateUserDto) {
+    public RecoveryUserDto updateUser(Long id, UpdateUserDto updateUserDto, Long versaoEsperada) {
         User existingUser = userRepository.findById(id)
                 .orElseThrow(() -> new RecursoNaoEncontradoException("Usuário não encontrado."));
 
-        if (updateUserDto.name() != null) {
-            existingUser.setName(updateUserDto.name());
+        if (versaoEsperada != null && !versaoEsperada.equals(existingUser.getVersao())) {
+            throw new PrecondicaoFalhouException("O usuário foi alterado por outra requisição. Versão atual: " + existingUser.getVersao());
         }
 
-        if (updateUserDto.email() != null &&
-                !Objects.equals(updateUserDto.email(), existingUser.getEmail())) {
+        Long versaoLida = existingUser.getVersao();
+        aplicarDadosCadastrais(existingUser, updateUserDto.name(), updateUserDto.email(), updateUserDto.password());
 
-            if (userRepository.findByEmail(updateUserDto.email()).isPresent()) {
-                throw new RegraNegocioException("O email informado já está em uso.");
-            }
-            existingUser.setEmail(updateUserDto.email());
+        boolean telefonesAlterados = updateUserDto.phones() != null
+                && sincronizarTelefones(existingUser, updateUserDto.phones());
+
+        User updatedUser = userRepository.saveAndFlush(existingUser);
+        if (telefonesAlterados) {
+            garantirNovaVersao(updatedUser, versaoLida);
         }
 
-        if (updateUserDto.password() != null) {
-            existingUser.setPassword(securityConfiguration.passwordEncoder()
-                    .encode(updateUserDto.password()));
+        return convertToUserDto(updatedUser);
+    }
+
+    /**
+     * Atualiza parcialmente um usuário: altera apenas os campos informados e, nos telefones,
+     * inclui/altera ou remove números específicos sem reenviar a lista inteira.
+     * @param id O ID do usuário a ser atualizado.
+     * @param patchUserDto DTO com os campos a alterar.
+     * @param versaoEsperada Versão que o cliente leu (If-Match), ou {@code null} para não verificar.
+     * @return O {@link RecoveryUserDto} atualizado, já com a nova versão.
+     * @throws RecursoNaoEncontradoException se o usuário não for encontrado.
+     * @throws PrecondicaoFalhouException se o usuário estiver em outra versão.
+     * @throws RegraNegocioException se o novo email já estiver em uso ou um telefone for inválido.
+     */
+    @Transactional
+    public RecoveryUserDto patchUser(Long id, PatchUserDto patchUserDto, Long versaoEsperada) {
+        User existingUser = userRepository.findById(id)
+                .orElseThrow(() -> new RecursoNaoEncontradoException("Usuário não encontrado."));
+
+        if (versaoEsperada != null && !versaoEsperada.equals(existingUser.getVersao())) {
+            throw new PrecondicaoFalhouException("O usuário foi alterado por outra requisição. Versão atual: " + existingUser.getVersao());
         }
 
-        if (updateUserDto.phones() != null) {
-            existingUser.getPhones().clear();
-            addUserPhones(existingUser, updateUserDto.phones());
+        Long versaoLida = existingUser.getVersao();
+        aplicarDadosCadastrais(existingUser, patchUserDto.name(), patchUserDto.email(), patchUserDto.password());
+
+        boolean telefonesAlterados = false;
+        boolean alteraTelefones = (patchUserDto.upsertPhones() != null && !patchUserDto.upsertPhones().isEmpty())
+                || (patchUserDto.removePhones() != null && !patchUserDto.removePhones().isEmpty());
+        if (alteraTelefones) {
+            Map<String, PhoneDto> desejados = new LinkedHashMap<>();
+            existingUser.getPhones().forEach(p -> desejados.put(p.getPhone(), new PhoneDto(p.getPhone(), p.getType())));
+            if (patchUserDto.removePhones() != null) {
+                patchUserDto.removePhones().forEach(desejados::remove);
+            }
+            if (patchUserDto.upsertPhones() != null) {
+                indexarTelefones(patchUserDto.upsertPhones()).forEach(desejados::put);
+            }
+            telefonesAlterados = sincronizarTelefones(existingUser, List.copyOf(desejados.values()));
         }
 
-        User updatedUser = userRepository.save(existingUser);
+        User updatedUser = userRepository.saveAndFlush(existingUser);
+        if (telefonesAlterados) {
+            garantirNovaVersao(updatedUser, versaoLida);
+        }
 
         return convertToUserDto(updatedUser);
     }
 
     /**
      * Deleta um usuário pelo seu ID.
+     * <p>
+     * As associações de um prestador saem de {@code prestador_servicos} junto com ele; cada uma
+     * é publicada como desassociação, para que o índice de prestadores por serviço também o remova
+     * após o commit.
      * @param id O ID do usuário a ser deletado.
      * @throws RecursoNaoEncontradoException se o usuário não for encontrado.
      */
@@ -221,7 +330,10 @@ public class UserService {
         if (!userRepository.existsById(id)) {
             throw new RecursoNaoEncontradoException("Usuário com ID " + id + " não encontrado para exclusão.");
         }
+        List<Long> servicosOferecidos = userRepository.findServicoIdsOferecidos(id);
         userRepository.deleteById(id);
+        servicosOferecidos.forEach(servicoId ->
+                eventPublisher.publishEvent(new PrestadorServicoAlteradoEvent(id, servicoId, false)));
     }
 
     /**
@@ -239,10 +351,8 @@ public class UserService {
 
         List<String> permissions = (user.getRoles() == null) ?
                 List.of() :
-                user.getRoles().stream()
-                        .flatMap(role -> role.getPermissions().stream())
-                        .map(Permission::getName)
-                        .distinct()
+                registroPermissoes.permissoesDe(user.getRoles().stream().map(Role::getName).toList()).stream()
+                        .map(PermissionEnum::getName)
                         .toList();
 
         List<PhoneDto> phones = (user.getPhones() == null) ?
@@ -257,7 +367,8 @@ public class UserService {
                 user.getEmail(),
                 roleNames,
                 permissions,
-                phones
+                phones,
+                user.getVersao()
         );
     }
 
@@ -280,6 +391,100 @@ public class UserService {
         }
     }
 
+    /**
+     * Aplica nome, email e senha informados, ignorando os campos nulos.
+     * @param user O usuário a ser alterado.
+     * @param name Novo nome, ou {@code null}.
+     * @param email Novo email, ou {@code null}.
+     * @param password Nova senha em texto puro, ou {@code null}.
+     * @throws RegraNegocioException se o novo email já estiver em uso por outro usuário.
+     */
+    private void aplicarDadosCadastrais(User user, String name, String email, String password) {
+        if (name != null) {
+            user.setName(name);
+        }
+
+        if (email != null && !Objects.equals(email, user.getEmail())) {
+            if (userRepository.findByEmail(email).isPresent()) {
+                throw new RegraNegocioException("O email informado já está em uso.");
+            }
+            user.setEmail(email);
+        }
+
+        if (password != null) {
+            user.setPassword(securityConfiguration.passwordEncoder().encode(password));
+        }
+    }
+
+    /**
+     * Sincroniza os telefones do usuário com a lista desejada, usando o número como chave.
+     * <p>
+     * Números que já existem e não mudaram ficam intocados; os que mudaram de tipo são
+     * atualizados; os ausentes na lista são removidos e os novos, incluídos. Assim um
+     * perfil reenviado sem mudanças não gera nenhum comando em {@code user_phone}, e as
+     * alterações restantes saem em lote no flush.
+     * @param user O usuário cujos telefones serão sincronizados.
+     * @param phones Lista completa de telefones desejada.
+     * @return {@code true} se algum telefone foi incluído, alterado ou removido.
+     * @throws RegraNegocioException se algum telefone não tiver tipo ou for informado mais de uma vez.
+     */
+    private boolean sincronizarTelefones(User user, List<PhoneDto> phones) {
+        Map<String, PhoneDto> desejados = indexarTelefones(phones);
+        boolean alterou = false;
+
+        Iterator<UserPhone> atuais = user.getPhones().iterator();
+        while (atuais.hasNext()) {
+            UserPhone atual = atuais.next();
+            PhoneDto desejado = desejados.remove(atual.getPhone());
+            if (desejado == null) {
+                atuais.remove();
+                alterou = true;
+            } else if (desejado.type() != atual.getType()) {
+                atual.setType(desejado.type());
+                alterou = true;
+            }
+        }
+
+        addUserPhones(user, List.copyOf(desejados.values()));
+        return alterou || !desejados.isEmpty();
+    }
+
+    /**
+     * Incrementa a versão do usuário cujos telefones mudaram, se o flush ainda não o fez.
+     * <p>
+     * Os telefones ficam no lado inverso do relacionamento ({@code mappedBy}): alterá-los não
+     * torna o usuário sujo, e a versão (a ETag) continuaria a mesma. O incremento é feito na
+     * hora, com {@code PESSIMISTIC_FORCE_INCREMENT}, para que o DTO devolvido já traga a nova
+     * versão; {@code OPTIMISTIC_FORCE_INCREMENT} só incrementaria no commit. Se os dados
+     * cadastrais também mudaram, o flush já incrementou e nada é feito.
+     * @param user O usuário já sincronizado com o banco.
+     * @param versaoLida Versão do usuário antes das alterações.
+     */
+    private void garantirNovaVersao(User user, Long versaoLida) {
+        if (Objects.equals(user.getVersao(), versaoLida)) {
+            entityManager.lock(user, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+    }
+
+    /**
+     * Indexa os telefones pelo número, preservando a ordem recebida.
+     * @param phones Telefones informados pelo cliente.
+     * @return Mapa número -> telefone.
+     * @throws RegraNegocioException se algum telefone não tiver tipo ou for informado mais de uma vez.
+     */
+    private Map<String, PhoneDto> indexarTelefones(List<PhoneDto> phones) {
+        Map<String, PhoneDto> indexados = new LinkedHashMap<>();
+        for (PhoneDto phoneDto : phones) {
+            if (phoneDto.type() == null) {
+                throw new RegraNegocioException("O tipo de telefone deve ser informado.");
+            }
+            if (indexados.putIfAbsent(phoneDto.phone(), phoneDto) != null) {
+                throw new RegraNegocioException("O telefone " + phoneDto.phone() + " foi informado mais de uma vez.");
+            }
+        }
+        return indexados;
+    }
+
     /**
      * Associa um serviço a um prestador.
      *
@@ -290,25 +495,41 @@ public class UserService {
      */
     @Transactional
     public void associarServico(Long prestadorId, Long servicoId) {
-        User prestador = userRepository.findById(prestadorId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Usuário (prestador) não encontrado."));
+        verificarPrestador(prestadorId);
 
-        Servico servico = servicoRepository.findById(servicoId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Serviço não encontrado."));
+        AssociacaoPrestadorServico.Resultado resultado = associacaoPrestadorServico.associar(prestadorId, List.of(servicoId));
+        if (!resultado.naoEncontrados().isEmpty()) {
+            throw new RecursoNaoEncontradoException("Serviço não encontrado.");
+        }
+        if (!resultado.jaAssociados().isEmpty()) {
+            throw new RegraNegocioException("Este prestador já oferece o serviço selecionado.");
+        }
 
-        boolean isProvider = prestador.getRoles().stream()
-                .anyMatch(role -> role.getName().equals(RoleNameEnum.ROLE_SERVICE_PROVIDER));
+        eventPublisher.publishEvent(new PrestadorServicoAlteradoEvent(prestadorId, servicoId, true));
+    }
 
-        if (!isProvider) {
-            throw new RegraNegocioException("Apenas usuários com o papel de prestador podem oferecer serviços.");
-        }
+    /**
+     * Associa vários serviços a um prestador em um único comando.
+     * <p>
+     * Serviços que o prestador já oferece e IDs inexistentes não interrompem a operação:
+     * são apenas informados no resultado.
+     *
+     * @param prestadorId ID do prestador.
+     * @param servicoIds  IDs dos serviços a serem associados.
+     * @return Um {@link AssociateServicesResultDto} com o resultado de cada ID.
+     * @throws RecursoNaoEncontradoException se o prestador não for encontrado.
+     * @throws RegraNegocioException          se o usuário não for um prestador.
+     */
+    @Transactional
+    public AssociateServicesResultDto associarServicos(Long prestadorId, Collection<Long> servicoIds) {
+        verificarPrestador(prestadorId);
 
-        if (prestador.getServicosOferecidos().contains(servico)) {
-            throw new RegraNegocioException("Este prestador já oferece o serviço selecionado.");
+        AssociacaoPrestadorServico.Resultado resultado = associacaoPrestadorServico.associar(prestadorId, servicoIds);
+        for (Long servicoId : resultado.associados()) {
+            eventPublisher.publishEvent(new PrestadorServicoAlteradoEvent(prestadorId, servicoId, true));
         }
 
-        prestador.getServicosOferecidos().add(servico);
-        userRepository.save(prestador);
+        return new AssociateServicesResultDto(resultado.associados(), resultado.jaAssociados(), resultado.naoEncontrados());
     }
 
     /**
@@ -321,17 +542,35 @@ public class UserService {
      */
     @Transactional
     public void desassociarServico(Long prestadorId, Long servicoId) {
-        User prestador = userRepository.findById(prestadorId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Usuário (prestador) não encontrado."));
-
-        Servico servico = servicoRepository.findById(servicoId)
-                .orElseThrow(() -> new RecursoNaoEncontradoException("Serviço não encontrado."));
-
-        if (!prestador.getServicosOferecidos().contains(servico)) {
+        if (!associacaoPrestadorServico.desassociar(prestadorId, servicoId)) {
+            if (!userRepository.existsById(prestadorId)) {
+                throw new RecursoNaoEncontradoException("Usuário (prestador) não encontrado.");
+            }
+            if (!servicoRepository.existsById(servicoId)) {
+                throw new RecursoNaoEncontradoException("Serviço não encontrado.");
+            }
             throw new RegraNegocioException("O prestador não oferece o serviço informado para que seja desassociado.");
         }
 
-        prestador.getServicosOferecidos().remove(servico);
-        userRepository.save(prestador);
+        eventPublisher.publishEvent(new PrestadorServicoAlteradoEvent(prestadorId, servicoId, false));
+    }
+
+    /**
+     * Garante que o usuário exista e tenha o papel de prestador, sem carregar a entidade.
+     *
+     * @param prestadorId ID do usuário.
+     * @throws RecursoNaoEncontradoException se o usuário não for encontrado.
+     * @throws RegraNegocioException          se o usuário não for um prestador.
+     */
+    private void verificarPrestador(Long prestadorId) {
+        boolean isProvider = userRepository.findRolesByUserIds(List.of(prestadorId)).stream()
+                .anyMatch(r -> r.getRole() == RoleNameEnum.ROLE_SERVICE_PROVIDER);
+
+        if (!isProvider) {
+            if (!userRepository.existsById(prestadorId)) {
+                throw new RecursoNaoEncontradoException("Usuário (prestador) não encontrado.");
+            }
+            throw new RegraNegocioException("Apenas usuários com o papel de prestador podem oferecer serviços.");
+        }
     }
-}
\ No newline at end of file
+}
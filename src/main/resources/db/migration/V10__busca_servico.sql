@@ -0,0 +1,32 @@
+-- Busca textual do catalogo no proprio banco (GET /servicos/busca), para que todas as instancias
+-- enxerguem o mesmo resultado logo apos o commit de uma alteracao.
+--
+-- Texto completo: coluna gerada com o nome (peso A) e a descricao (peso B), cada um com os
+-- radicais da configuracao portuguesa e com os do texto sem acentos. O removedor de sufixos
+-- precisa dos acentos ("instalação" e "instalações" dao "instal"); a segunda forma atende quem
+-- digita sem eles. Erros de digitacao: trigramas do texto sem acentos (pg_trgm), consultados
+-- por similaridade de palavra.
+
+CREATE EXTENSION IF NOT EXISTS unaccent SCHEMA public;
+CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public;
+
+CREATE TEXT SEARCH CONFIGURATION portugues_sem_acento (COPY = portuguese);
+ALTER TEXT SEARCH CONFIGURATION portugues_sem_acento
+    ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+
+-- unaccent(text) e STABLE (depende do search_path); com o dicionario e o schema explicitos
+-- pode entrar em indices.
+CREATE FUNCTION texto_busca(texto TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+    AS $$ SELECT lower(public.unaccent('public.unaccent'::regdictionary, texto)) $$;
+
+ALTER TABLE servico ADD COLUMN ds_busca TSVECTOR GENERATED ALWAYS AS (
+    setweight(to_tsvector('portuguese', nm_servico) || to_tsvector('portugues_sem_acento', nm_servico), 'A') ||
+    setweight(to_tsvector('portuguese', ds_servico) || to_tsvector('portugues_sem_acento', ds_servico), 'B')
+) STORED;
+
+CREATE INDEX idx_servico_busca ON servico USING gin (ds_busca) WHERE st_ativo;
+
+CREATE INDEX idx_servico_busca_trgm ON servico
+    USING gin (texto_busca(nm_servico || ' ' || ds_servico) gin_trgm_ops)
+    WHERE st_ativo;
@@ -0,0 +1,38 @@
+-- Consolidacao diaria dos agendamentos usada pelos relatorios de faturamento e taxa.
+-- IF NOT EXISTS: bancos criados com ddl-auto=update pelas versoes intermediarias ja tem a tabela.
+
+CREATE TABLE IF NOT EXISTS resumo_diario_agendamento (
+    dt_referencia     DATE           NOT NULL,
+    cd_prestador_user BIGINT         NOT NULL,
+    cd_servico        BIGINT         NOT NULL,
+    ds_status         VARCHAR(20)    NOT NULL,
+    qt_agendamentos   BIGINT         NOT NULL,
+    vl_total          NUMERIC(14, 2) NOT NULL,
+    CONSTRAINT pk_resumo_diario_agendamento PRIMARY KEY (dt_referencia, cd_prestador_user, cd_servico, ds_status)
+);
+
+-- Deltas de quantidade e valor gravados na transacao de cada criacao ou mudanca de status de
+-- agendamento, e movidos periodicamente para resumo_diario_agendamento. Apenas recebe INSERTs
+-- das requisicoes, sem disputa pelas mesmas linhas do resumo.
+CREATE TABLE IF NOT EXISTS resumo_diario_agendamento_delta (
+    cd_delta          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    dt_referencia     DATE           NOT NULL,
+    cd_prestador_user BIGINT         NOT NULL,
+    cd_servico        BIGINT         NOT NULL,
+    ds_status         VARCHAR(20)    NOT NULL,
+    qt_agendamentos   BIGINT         NOT NULL,
+    vl_total          NUMERIC(14, 2) NOT NULL,
+    CONSTRAINT pk_resumo_diario_agendamento_delta PRIMARY KEY (cd_delta)
+);
+
+CREATE INDEX IF NOT EXISTS idx_resumo_diario_agendamento_delta_prestador
+    ON resumo_diario_agendamento_delta (dt_referencia, cd_prestador_user);
+
+-- Carga inicial a partir dos agendamentos existentes; a tabela so e preenchida se estiver vazia.
+INSERT INTO resumo_diario_agendamento
+    (dt_referencia, cd_prestador_user, cd_servico, ds_status, qt_agendamentos, vl_total)
+SELECT CAST(a.dt_agendamento AS date), a.cd_prestador_user, a.cd_servico, a.ds_status,
+       COUNT(*), SUM(a.vl_agendamento)
+FROM agendamento a
+WHERE NOT EXISTS (SELECT 1 FROM resumo_diario_agendamento)
+GROUP BY CAST(a.dt_agendamento AS date), a.cd_prestador_user, a.cd_servico, a.ds_status;
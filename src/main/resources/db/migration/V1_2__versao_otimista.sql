@@ -0,0 +1,6 @@
+-- Versao para o controle otimista (ETag / If-Match) de usuario, servico e agendamento.
+-- IF NOT EXISTS: bancos criados com ddl-auto=update pelas versoes intermediarias ja tem as colunas.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS nr_versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE servico ADD COLUMN IF NOT EXISTS nr_versao BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE agendamento ADD COLUMN IF NOT EXISTS nr_versao BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,85 @@
+-- Baseline do schema, equivalente ao que o Hibernate gerava com ddl-auto=update antes do
+-- versionamento das migracoes. Bancos ja existentes sao marcados nesta versao
+-- (spring.flyway.baseline-on-migrate) e recebem apenas as migracoes seguintes; por isso este
+-- arquivo nao deve ganhar objetos novos, que vao sempre em uma migracao posterior.
+
+CREATE TABLE permissions (
+    cd_permission  BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    ds_name        VARCHAR(255) NOT NULL,
+    ds_description VARCHAR(255),
+    CONSTRAINT pk_permissions PRIMARY KEY (cd_permission),
+    CONSTRAINT uk_permissions_name UNIQUE (ds_name)
+);
+
+CREATE TABLE role (
+    cd_role BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nm_role VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_role PRIMARY KEY (cd_role),
+    CONSTRAINT uk_role_name UNIQUE (nm_role)
+);
+
+CREATE TABLE role_permission (
+    cd_role       BIGINT NOT NULL,
+    permission_id BIGINT NOT NULL,
+    CONSTRAINT pk_role_permission PRIMARY KEY (cd_role, permission_id),
+    CONSTRAINT fk_role_permission_role FOREIGN KEY (cd_role) REFERENCES role (cd_role),
+    CONSTRAINT fk_role_permission_permission FOREIGN KEY (permission_id) REFERENCES permissions (cd_permission)
+);
+
+CREATE TABLE users (
+    cd_user     BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nm_user     VARCHAR(255) NOT NULL,
+    ds_email    VARCHAR(255) NOT NULL,
+    ds_password VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (cd_user),
+    CONSTRAINT uk_users_email UNIQUE (ds_email)
+);
+
+CREATE TABLE user_role (
+    cd_user BIGINT NOT NULL,
+    cd_role BIGINT NOT NULL,
+    CONSTRAINT pk_user_role PRIMARY KEY (cd_user, cd_role),
+    CONSTRAINT fk_user_role_user FOREIGN KEY (cd_user) REFERENCES users (cd_user),
+    CONSTRAINT fk_user_role_role FOREIGN KEY (cd_role) REFERENCES role (cd_role)
+);
+
+CREATE TABLE user_phone (
+    cd_phone BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    ds_phone VARCHAR(20) NOT NULL,
+    tp_phone VARCHAR(20) NOT NULL,
+    cd_user  BIGINT      NOT NULL,
+    CONSTRAINT pk_user_phone PRIMARY KEY (cd_phone),
+    CONSTRAINT fk_user_phone_user FOREIGN KEY (cd_user) REFERENCES users (cd_user)
+);
+
+CREATE TABLE servico (
+    cd_servico BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nm_servico VARCHAR(100)   NOT NULL,
+    vl_servico NUMERIC(10, 2) NOT NULL,
+    ds_servico VARCHAR(255)   NOT NULL,
+    st_ativo   BOOLEAN        NOT NULL,
+    CONSTRAINT pk_servico PRIMARY KEY (cd_servico)
+);
+
+CREATE TABLE prestador_servicos (
+    cd_user    BIGINT NOT NULL,
+    cd_servico BIGINT NOT NULL,
+    CONSTRAINT pk_prestador_servicos PRIMARY KEY (cd_user, cd_servico),
+    CONSTRAINT fk_prestador_servicos_user FOREIGN KEY (cd_user) REFERENCES users (cd_user),
+    CONSTRAINT fk_prestador_servicos_servico FOREIGN KEY (cd_servico) REFERENCES servico (cd_servico)
+);
+
+CREATE TABLE agendamento (
+    cd_agendamento         BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    cd_cliente_user        BIGINT         NOT NULL,
+    cd_prestador_user      BIGINT         NOT NULL,
+    cd_servico             BIGINT         NOT NULL,
+    dt_agendamento         TIMESTAMP(6)   NOT NULL,
+    vl_agendamento         NUMERIC(38, 2) NOT NULL,
+    ds_status              VARCHAR(20)    NOT NULL,
+    ds_motivo_cancelamento VARCHAR(255),
+    CONSTRAINT pk_agendamento PRIMARY KEY (cd_agendamento),
+    CONSTRAINT fk_agendamento_cliente FOREIGN KEY (cd_cliente_user) REFERENCES users (cd_user),
+    CONSTRAINT fk_agendamento_prestador FOREIGN KEY (cd_prestador_user) REFERENCES users (cd_user),
+    CONSTRAINT fk_agendamento_servico FOREIGN KEY (cd_servico) REFERENCES servico (cd_servico)
+);
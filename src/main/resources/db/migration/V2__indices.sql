@@ -0,0 +1,24 @@
+-- Indices secundarios usados pelas consultas dos repositorios.
+-- IF NOT EXISTS porque bancos criados pelo ddl-auto=update podem ja ter os declarados via @Index.
+
+-- agendamento: filtros de AgendamentoSpecifications, listagens por cliente/prestador
+-- e leitura do periodo na consolidacao diaria.
+CREATE INDEX IF NOT EXISTS idx_agendamento_prestador_data ON agendamento (cd_prestador_user, dt_agendamento);
+CREATE INDEX IF NOT EXISTS idx_agendamento_cliente_data ON agendamento (cd_cliente_user, dt_agendamento);
+CREATE INDEX IF NOT EXISTS idx_agendamento_servico_data ON agendamento (cd_servico, dt_agendamento);
+CREATE INDEX IF NOT EXISTS idx_agendamento_status_data ON agendamento (ds_status, dt_agendamento);
+CREATE INDEX IF NOT EXISTS idx_agendamento_data ON agendamento (dt_agendamento);
+
+-- Agenda ativa do prestador: buscas por prestador/periodo com status AGENDADO ou CONFIRMADO
+-- e a verificacao de conflito de horario em AgendamentoService.agendar.
+CREATE INDEX IF NOT EXISTS idx_agendamento_prestador_ativo
+    ON agendamento (cd_prestador_user, dt_agendamento)
+    WHERE ds_status IN ('AGENDADO', 'CONFIRMADO');
+
+-- Tabelas de juncao: a chave primaria cobre a busca pelo lado do dono; estes cobrem o lado inverso.
+CREATE INDEX IF NOT EXISTS idx_prestador_servicos_servico ON prestador_servicos (cd_servico);
+CREATE INDEX IF NOT EXISTS idx_user_role_role ON user_role (cd_role);
+CREATE INDEX IF NOT EXISTS idx_role_permission_permission ON role_permission (permission_id);
+
+-- Telefones carregados por usuario (listagem paginada e atualizacao de usuario).
+CREATE INDEX IF NOT EXISTS idx_user_phone_user ON user_phone (cd_user);
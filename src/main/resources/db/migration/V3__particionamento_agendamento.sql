@@ -0,0 +1,134 @@
+-- Particiona agendamento por mes de dt_agendamento (particionamento declarativo por faixa).
+-- A chave primaria passa a incluir dt_agendamento, exigencia do PostgreSQL para tabelas particionadas;
+-- cd_agendamento continua unico por vir de uma sequencia.
+
+CREATE SCHEMA IF NOT EXISTS arquivo;
+
+ALTER TABLE agendamento RENAME TO agendamento_legado;
+
+CREATE SEQUENCE seq_agendamento;
+SELECT setval('seq_agendamento', COALESCE((SELECT MAX(cd_agendamento) FROM agendamento_legado), 0) + 1, false);
+
+CREATE TABLE agendamento (
+    cd_agendamento         BIGINT         NOT NULL DEFAULT nextval('seq_agendamento'),
+    cd_cliente_user        BIGINT         NOT NULL,
+    cd_prestador_user      BIGINT         NOT NULL,
+    cd_servico             BIGINT         NOT NULL,
+    dt_agendamento         TIMESTAMP(6)   NOT NULL,
+    vl_agendamento         NUMERIC(38, 2) NOT NULL,
+    ds_status              VARCHAR(20)    NOT NULL,
+    ds_motivo_cancelamento VARCHAR(255),
+    nr_versao              BIGINT         NOT NULL DEFAULT 0,
+    CONSTRAINT fk_agendamento_cliente FOREIGN KEY (cd_cliente_user) REFERENCES users (cd_user),
+    CONSTRAINT fk_agendamento_prestador FOREIGN KEY (cd_prestador_user) REFERENCES users (cd_user),
+    CONSTRAINT fk_agendamento_servico FOREIGN KEY (cd_servico) REFERENCES servico (cd_servico)
+) PARTITION BY RANGE (dt_agendamento);
+
+ALTER SEQUENCE seq_agendamento OWNED BY agendamento.cd_agendamento;
+
+-- Recebe linhas fora de qualquer particao mensal; deve permanecer vazia
+-- (as particoes futuras sao criadas com meses de antecedencia).
+CREATE TABLE agendamento_padrao PARTITION OF agendamento DEFAULT;
+
+-- Cria a particao do mes informado (agendamento_AAAA_MM), se ainda nao existir.
+-- Retorna 1 se a particao foi criada e 0 caso contrario.
+CREATE OR REPLACE FUNCTION criar_particao_agendamento(mes DATE) RETURNS INTEGER AS $$
+DECLARE
+    inicio DATE := date_trunc('month', mes)::date;
+    fim    DATE := (date_trunc('month', mes) + INTERVAL '1 month')::date;
+    nome   TEXT := 'agendamento_' || to_char(date_trunc('month', mes), 'YYYY_MM');
+BEGIN
+    IF to_regclass(nome) IS NOT NULL OR to_regclass('arquivo.' || nome) IS NOT NULL THEN
+        RETURN 0;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM agendamento_padrao WHERE dt_agendamento >= inicio AND dt_agendamento < fim) THEN
+        RAISE WARNING 'Particao % nao criada: agendamento_padrao possui linhas desse mes', nome;
+        RETURN 0;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I PARTITION OF agendamento FOR VALUES FROM (%L) TO (%L)', nome, inicio, fim);
+    RETURN 1;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Garante as particoes do mes atual ate meses_a_frente meses no futuro.
+CREATE OR REPLACE FUNCTION criar_particoes_agendamento(meses_a_frente INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    mes     DATE;
+    criadas INTEGER := 0;
+BEGIN
+    FOR mes IN
+        SELECT generate_series(date_trunc('month', now()),
+                               date_trunc('month', now()) + make_interval(months => meses_a_frente),
+                               INTERVAL '1 month')::date
+    LOOP
+        criadas := criadas + criar_particao_agendamento(mes);
+    END LOOP;
+    RETURN criadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Desanexa as particoes mensais anteriores a meses_retencao meses e as move para o schema arquivo.
+-- Uma particao so e arquivada se todos os seus agendamentos estiverem encerrados
+-- (FINALIZADO, CANCELADO ou NAO_COMPARECEU); caso contrario permanece e gera um aviso.
+-- Retorna a quantidade de particoes arquivadas.
+CREATE OR REPLACE FUNCTION arquivar_particoes_agendamento(meses_retencao INTEGER) RETURNS INTEGER AS $$
+DECLARE
+    limite     DATE := (date_trunc('month', now()) - make_interval(months => meses_retencao))::date;
+    particao   RECORD;
+    pendente   BOOLEAN;
+    arquivadas INTEGER := 0;
+BEGIN
+    FOR particao IN
+        SELECT c.relname AS nome, to_date(substring(c.relname FROM 13), 'YYYY_MM') AS mes
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'agendamento'::regclass
+          AND c.relname ~ '^agendamento_[0-9]{4}_[0-9]{2}$'
+        ORDER BY 2
+    LOOP
+        EXIT WHEN particao.mes >= limite;
+
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE ds_status NOT IN (''FINALIZADO'', ''CANCELADO'', ''NAO_COMPARECEU''))',
+                       particao.nome) INTO pendente;
+        IF pendente THEN
+            RAISE WARNING 'Particao % nao arquivada: possui agendamentos em aberto', particao.nome;
+            CONTINUE;
+        END IF;
+
+        EXECUTE format('ALTER TABLE agendamento DETACH PARTITION %I', particao.nome);
+        EXECUTE format('ALTER TABLE %I SET SCHEMA arquivo', particao.nome);
+        arquivadas := arquivadas + 1;
+    END LOOP;
+    RETURN arquivadas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Particoes para todo o historico existente e para os proximos meses.
+SELECT criar_particao_agendamento(mes::date)
+FROM generate_series(
+        date_trunc('month', COALESCE((SELECT MIN(dt_agendamento) FROM agendamento_legado), now())),
+        date_trunc('month', COALESCE((SELECT MAX(dt_agendamento) FROM agendamento_legado), now())),
+        INTERVAL '1 month') AS mes;
+SELECT criar_particoes_agendamento(6);
+
+INSERT INTO agendamento (cd_agendamento, cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento,
+                         vl_agendamento, ds_status, ds_motivo_cancelamento, nr_versao)
+SELECT cd_agendamento, cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento,
+       vl_agendamento, ds_status, ds_motivo_cancelamento, nr_versao
+FROM agendamento_legado;
+
+DROP TABLE agendamento_legado;
+
+-- Chave e indices particionados (criados em cada particao, inclusive nas futuras).
+ALTER TABLE agendamento ADD CONSTRAINT pk_agendamento PRIMARY KEY (cd_agendamento, dt_agendamento);
+
+CREATE INDEX idx_agendamento_prestador_data ON agendamento (cd_prestador_user, dt_agendamento);
+CREATE INDEX idx_agendamento_cliente_data ON agendamento (cd_cliente_user, dt_agendamento);
+CREATE INDEX idx_agendamento_servico_data ON agendamento (cd_servico, dt_agendamento);
+CREATE INDEX idx_agendamento_status_data ON agendamento (ds_status, dt_agendamento);
+CREATE INDEX idx_agendamento_data ON agendamento (dt_agendamento);
+CREATE INDEX idx_agendamento_prestador_ativo
+    ON agendamento (cd_prestador_user, dt_agendamento)
+    WHERE ds_status IN ('AGENDADO', 'CONFIRMADO');
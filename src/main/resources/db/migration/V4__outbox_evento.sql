@@ -0,0 +1,31 @@
+-- Outbox transacional: eventos de integracao gravados na mesma transacao da alteracao
+-- e publicados depois pelo RelayOutbox (entrega pelo menos uma vez).
+
+CREATE TABLE outbox_evento (
+    cd_evento           BIGSERIAL    NOT NULL,
+    ds_tipo             VARCHAR(50)  NOT NULL,
+    ds_agregado         VARCHAR(50)  NOT NULL,
+    cd_agregado         BIGINT       NOT NULL,
+    js_payload          JSONB        NOT NULL,
+    dt_criacao          TIMESTAMP    NOT NULL DEFAULT now(),
+    dt_disponivel       TIMESTAMP    NOT NULL DEFAULT now(),
+    dt_publicacao       TIMESTAMP,
+    nr_tentativas       INTEGER      NOT NULL DEFAULT 0,
+    ds_ultimo_erro      VARCHAR(500),
+    CONSTRAINT pk_outbox_evento PRIMARY KEY (cd_evento)
+);
+
+-- Fila de pendentes na ordem de gravacao.
+CREATE INDEX idx_outbox_evento_pendente
+    ON outbox_evento (cd_evento)
+    WHERE dt_publicacao IS NULL;
+
+-- Verificacao de evento anterior pendente do mesmo agregado (ordem por agregado).
+CREATE INDEX idx_outbox_evento_agregado_pendente
+    ON outbox_evento (ds_agregado, cd_agregado, cd_evento)
+    WHERE dt_publicacao IS NULL;
+
+-- Limpeza dos eventos ja publicados.
+CREATE INDEX idx_outbox_evento_publicacao
+    ON outbox_evento (dt_publicacao)
+    WHERE dt_publicacao IS NOT NULL;
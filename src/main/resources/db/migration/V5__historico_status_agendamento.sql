@@ -0,0 +1,29 @@
+-- Historico somente de insercao das mudancas de status dos agendamentos.
+-- Sem chave estrangeira para agendamento: a tabela e particionada (chave composta) e as
+-- particoes antigas sao arquivadas, enquanto o historico permanece.
+
+CREATE TABLE historico_status_agendamento (
+    cd_historico        BIGSERIAL     NOT NULL,
+    cd_agendamento      BIGINT        NOT NULL,
+    cd_usuario          BIGINT,
+    ds_status_anterior  VARCHAR(20),
+    ds_status_novo      VARCHAR(20)   NOT NULL,
+    ds_motivo           VARCHAR(255),
+    dt_alteracao        TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT pk_historico_status_agendamento PRIMARY KEY (cd_historico)
+);
+
+CREATE INDEX idx_historico_status_agendamento_agendamento
+    ON historico_status_agendamento (cd_agendamento, dt_alteracao);
+
+-- Garante que o historico nao seja alterado nem apagado.
+CREATE FUNCTION impedir_alteracao_historico_status() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    RAISE EXCEPTION 'historico_status_agendamento aceita apenas insercoes';
+END;
+$$;
+
+CREATE TRIGGER trg_historico_status_agendamento_somente_insercao
+    BEFORE UPDATE OR DELETE ON historico_status_agendamento
+    FOR EACH ROW EXECUTE FUNCTION impedir_alteracao_historico_status();
@@ -0,0 +1,12 @@
+-- Telefones passam a usar sequencia em vez de identity: o Hibernate reserva 50 IDs por
+-- chamada (otimizador pooled) e consegue agrupar os INSERTs em lotes JDBC, o que identity
+-- impede por precisar do ID gerado a cada linha.
+
+ALTER TABLE user_phone ALTER COLUMN cd_phone DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE user_phone_seq INCREMENT BY 50 OWNED BY user_phone.cd_phone;
+
+-- O otimizador pooled usa a faixa (valor - 49, valor]; comeca 50 acima do maior ID existente.
+SELECT setval('user_phone_seq', COALESCE((SELECT MAX(cd_phone) FROM user_phone), 0) + 50, false);
+
+ALTER TABLE user_phone ALTER COLUMN cd_phone SET DEFAULT nextval('user_phone_seq');
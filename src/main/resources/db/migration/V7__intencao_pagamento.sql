@@ -0,0 +1,38 @@
+-- Intencoes de pagamento dos agendamentos. A requisicao do cliente apenas grava a intencao;
+-- o ProcessadorPagamentos a envia ao gateway em segundo plano, com novas tentativas.
+-- Sem chave estrangeira para agendamento: a tabela e particionada (chave composta).
+
+CREATE TABLE intencao_pagamento (
+    cd_intencao            BIGSERIAL      NOT NULL,
+    cd_agendamento         BIGINT         NOT NULL,
+    cd_cliente             BIGINT         NOT NULL,
+    ds_chave_idempotencia  VARCHAR(64)    NOT NULL,
+    tp_metodo              VARCHAR(20)    NOT NULL,
+    vl_pagamento           NUMERIC(10, 2) NOT NULL,
+    st_pagamento           VARCHAR(30)    NOT NULL,
+    ds_referencia_gateway  VARCHAR(100),
+    nr_tentativas          INTEGER        NOT NULL DEFAULT 0,
+    dt_proxima_tentativa   TIMESTAMP      NOT NULL DEFAULT now(),
+    ds_ultimo_erro         VARCHAR(500),
+    dt_criacao             TIMESTAMP      NOT NULL DEFAULT now(),
+    dt_atualizacao         TIMESTAMP      NOT NULL DEFAULT now(),
+    nr_versao              BIGINT         NOT NULL DEFAULT 0,
+    CONSTRAINT pk_intencao_pagamento PRIMARY KEY (cd_intencao),
+    CONSTRAINT uk_intencao_pagamento_chave UNIQUE (ds_chave_idempotencia),
+    CONSTRAINT fk_intencao_pagamento_cliente FOREIGN KEY (cd_cliente) REFERENCES users (cd_user)
+);
+
+-- Pagamentos de um agendamento.
+CREATE INDEX idx_intencao_pagamento_agendamento
+    ON intencao_pagamento (cd_agendamento);
+
+-- Fila do processador: intencoes a enviar (ou com reserva vencida), por horario da proxima tentativa.
+CREATE INDEX idx_intencao_pagamento_fila
+    ON intencao_pagamento (dt_proxima_tentativa)
+    WHERE st_pagamento IN ('PENDENTE', 'PROCESSANDO');
+
+-- No maximo uma intencao ativa (em andamento ou aprovada) por agendamento. Fecha a corrida entre
+-- duas solicitacoes simultaneas com chaves diferentes, que passariam ambas pela verificacao.
+CREATE UNIQUE INDEX uk_intencao_pagamento_ativa
+    ON intencao_pagamento (cd_agendamento)
+    WHERE st_pagamento IN ('PENDENTE', 'PROCESSANDO', 'AGUARDANDO_CONFIRMACAO', 'APROVADO');
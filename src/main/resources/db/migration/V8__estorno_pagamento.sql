@@ -0,0 +1,28 @@
+-- Fila de estornos de pagamentos aprovados. A linha e gravada na mesma transacao do
+-- cancelamento (um rollback desfaz o pedido); o ProcessadorEstornos a envia ao gateway
+-- depois do commit, em lotes, com novas tentativas.
+
+CREATE TABLE estorno_pagamento (
+    cd_intencao           BIGINT        NOT NULL,
+    nr_tentativas         INTEGER       NOT NULL DEFAULT 0,
+    dt_proxima_tentativa  TIMESTAMP     NOT NULL DEFAULT now(),
+    ds_ultimo_erro        VARCHAR(500),
+    dt_criacao            TIMESTAMP     NOT NULL DEFAULT now(),
+    CONSTRAINT pk_estorno_pagamento PRIMARY KEY (cd_intencao),
+    CONSTRAINT fk_estorno_pagamento_intencao FOREIGN KEY (cd_intencao) REFERENCES intencao_pagamento (cd_intencao)
+);
+
+-- Fila do processador, por horario da proxima tentativa.
+CREATE INDEX idx_estorno_pagamento_fila
+    ON estorno_pagamento (dt_proxima_tentativa);
+
+-- Estornos que esgotaram as tentativas e exigem tratamento manual.
+CREATE TABLE estorno_pagamento_falho (
+    cd_intencao     BIGINT        NOT NULL,
+    nr_tentativas   INTEGER       NOT NULL,
+    ds_ultimo_erro  VARCHAR(500),
+    dt_criacao      TIMESTAMP     NOT NULL,
+    dt_falha        TIMESTAMP     NOT NULL DEFAULT now(),
+    CONSTRAINT pk_estorno_pagamento_falho PRIMARY KEY (cd_intencao),
+    CONSTRAINT fk_estorno_pagamento_falho_intencao FOREIGN KEY (cd_intencao) REFERENCES intencao_pagamento (cd_intencao)
+);
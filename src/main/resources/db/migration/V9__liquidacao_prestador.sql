@@ -0,0 +1,43 @@
+-- Liquidacao mensal dos prestadores: servicos finalizados, taxa da plataforma e valor liquido,
+-- com o caminho do extrato gerado.
+--
+-- Cada prestador com servicos a liquidar recebe uma linha PENDENTE na competencia; a instancia
+-- que a reserva (FOR UPDATE SKIP LOCKED) grava os agendamentos liquidados, escreve o extrato e
+-- a marca como CONCLUIDA na mesma transacao. Uma nova execucao pula os prestadores concluidos.
+
+CREATE TABLE liquidacao_prestador (
+    dt_competencia     DATE           NOT NULL,
+    cd_prestador_user  BIGINT         NOT NULL,
+    st_liquidacao      VARCHAR(20)    NOT NULL DEFAULT 'PENDENTE',
+    qt_servicos        INTEGER,
+    vl_bruto           NUMERIC(14, 2),
+    vl_taxa            NUMERIC(14, 2),
+    vl_liquido         NUMERIC(14, 2),
+    ds_arquivo         VARCHAR(500),
+    dt_geracao         TIMESTAMP,
+    CONSTRAINT pk_liquidacao_prestador PRIMARY KEY (dt_competencia, cd_prestador_user),
+    CONSTRAINT fk_liquidacao_prestador_prestador FOREIGN KEY (cd_prestador_user) REFERENCES users (cd_user),
+    CONSTRAINT ck_liquidacao_prestador_status CHECK (st_liquidacao IN ('PENDENTE', 'CONCLUIDA'))
+);
+
+CREATE INDEX idx_liquidacao_prestador_pendente
+    ON liquidacao_prestador (dt_competencia, cd_prestador_user) WHERE st_liquidacao = 'PENDENTE';
+
+-- Agendamentos ja liquidados, com os valores do extrato. Um agendamento finalizado depois da
+-- liquidacao do seu mes (ou com data retroativa) nao esta aqui e entra na competencia seguinte.
+-- Sem FK para agendamento: a PK da tabela particionada inclui dt_agendamento e as particoes
+-- antigas sao arquivadas.
+CREATE TABLE liquidacao_agendamento (
+    cd_agendamento     BIGINT         NOT NULL,
+    dt_competencia     DATE           NOT NULL,
+    cd_prestador_user  BIGINT         NOT NULL,
+    dt_agendamento     TIMESTAMP(6)   NOT NULL,
+    cd_servico         BIGINT         NOT NULL,
+    vl_agendamento     NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_liquidacao_agendamento PRIMARY KEY (cd_agendamento),
+    CONSTRAINT fk_liquidacao_agendamento_liquidacao FOREIGN KEY (dt_competencia, cd_prestador_user)
+        REFERENCES liquidacao_prestador (dt_competencia, cd_prestador_user)
+);
+
+CREATE INDEX idx_liquidacao_agendamento_prestador
+    ON liquidacao_agendamento (dt_competencia, cd_prestador_user, dt_agendamento);
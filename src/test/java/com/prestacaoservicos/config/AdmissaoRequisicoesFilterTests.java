@@ -0,0 +1,145 @@
+package com.prestacaoservicos.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admissão de requisições com o filtro isolado e um limite de uma vaga: a requisição excedente
+ * espera pela vaga até o tempo máximo e, sem ela, recebe 503 com {@code Retry-After}; caminhos
+ * fora da API não disputam vagas e a vaga volta mesmo quando a requisição falha.
+ * <p>
+ * A requisição que ocupa a vaga fica parada na cadeia de filtros até o teste liberá-la.
+ */
+class AdmissaoRequisicoesFilterTests {
+
+    private static final long ESPERA_MAXIMA_MS = 200;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final AdmissaoRequisicoesFilter filtro =
+            new AdmissaoRequisicoesFilter(1, ESPERA_MAXIMA_MS, new ObjectMapper().findAndRegisterModules(), registry);
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final CountDownLatch ocupando = new CountDownLatch(1);
+    private final CountDownLatch liberar = new CountDownLatch(1);
+
+    @AfterEach
+    void encerrar() {
+        liberar.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void requisicaoExcedenteSemVagaRecebe503() throws Exception {
+        Future<MockHttpServletResponse> primeira = ocuparAVaga();
+
+        long inicio = System.nanoTime();
+        MockHttpServletResponse recusada = executar("/api/v1/servicos", (req, res) -> {
+            throw new AssertionError("Requisição excedente não deveria ser admitida");
+        });
+        long esperouMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        assertEquals(503, recusada.getStatus());
+        assertEquals("1", recusada.getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(recusada.getContentAsString().contains("\"statusCode\":503"), recusada.getContentAsString());
+        assertTrue(esperouMs >= ESPERA_MAXIMA_MS, "Recusada antes do tempo máximo: " + esperouMs + " ms");
+        assertEquals(1.0, registry.get("app.admissao.rejeitadas").counter().count());
+        assertEquals(1.0, registry.get("app.admissao.em.andamento").gauge().value());
+
+        liberar.countDown();
+        assertEquals(200, primeira.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(0.0, registry.get("app.admissao.em.andamento").gauge().value());
+    }
+
+    @Test
+    void requisicaoExcedenteEntraQuandoAVagaLiberaDentroDaEspera() throws Exception {
+        AdmissaoRequisicoesFilter paciente =
+                new AdmissaoRequisicoesFilter(1, 10_000, new ObjectMapper(), new SimpleMeterRegistry());
+        Future<MockHttpServletResponse> primeira = executor.submit(() -> executar(paciente, "/api/v1/servicos", (req, res) -> {
+            ocupando.countDown();
+            aguardar(liberar);
+        }));
+        assertTrue(ocupando.await(5, TimeUnit.SECONDS));
+
+        CountDownLatch admitida = new CountDownLatch(1);
+        Future<MockHttpServletResponse> segunda = executor.submit(() -> executar(paciente, "/api/v1/servicos",
+                (req, res) -> admitida.countDown()));
+
+        assertFalse(admitida.await(ESPERA_MAXIMA_MS, TimeUnit.MILLISECONDS), "Admitida com a vaga ocupada");
+        liberar.countDown();
+
+        assertEquals(200, segunda.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(0, admitida.getCount());
+        assertEquals(200, primeira.get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void caminhosForaDaApiNaoDisputamVagas() throws Exception {
+        ocuparAVaga();
+
+        CountDownLatch admitida = new CountDownLatch(1);
+        MockHttpServletResponse resposta = executar("/actuator/health", (req, res) -> admitida.countDown());
+
+        assertEquals(200, resposta.getStatus());
+        assertEquals(0, admitida.getCount());
+    }
+
+    @Test
+    void vagaVoltaQuandoARequisicaoFalha() throws Exception {
+        assertThrows(IllegalStateException.class, () -> executar("/api/v1/servicos", (req, res) -> {
+            throw new IllegalStateException("falha");
+        }));
+
+        CountDownLatch admitida = new CountDownLatch(1);
+        assertEquals(200, executar("/api/v1/servicos", (req, res) -> admitida.countDown()).getStatus());
+        assertEquals(0, admitida.getCount());
+        assertEquals(0.0, registry.get("app.admissao.rejeitadas").counter().count());
+    }
+
+    /**
+     * Inicia uma requisição que ocupa a única vaga até {@code liberar}.
+     */
+    private Future<MockHttpServletResponse> ocuparAVaga() throws InterruptedException {
+        Future<MockHttpServletResponse> requisicao = executor.submit(() -> executar("/api/v1/agendamentos", (req, res) -> {
+            ocupando.countDown();
+            aguardar(liberar);
+        }));
+        assertTrue(ocupando.await(5, TimeUnit.SECONDS));
+        return requisicao;
+    }
+
+    private MockHttpServletResponse executar(String uri, FilterChain cadeia) throws Exception {
+        return executar(filtro, uri, cadeia);
+    }
+
+    private static MockHttpServletResponse executar(AdmissaoRequisicoesFilter filtro, String uri, FilterChain cadeia)
+            throws Exception {
+        MockHttpServletResponse resposta = new MockHttpServletResponse();
+        filtro.doFilter(new MockHttpServletRequest("GET", uri), resposta, cadeia);
+        return resposta;
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
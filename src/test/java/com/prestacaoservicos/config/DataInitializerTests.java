@@ -0,0 +1,56 @@
+package com.prestacaoservicos.config;
+
+import com.prestacaoservicos.ApiServicosP1Application;
+import com.prestacaoservicos.enums.PermissionEnum;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.service.RegistroPermissoes;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Carga inicial contra o banco configurado: a aplicação sobe de novo sobre um banco que já tem
+ * os papéis gravados e devolve a um papel a permissão que lhe foi retirada.
+ * <p>
+ * As duas subidas são aplicações independentes, sem o cache de segundo nível, que é compartilhado
+ * na JVM com os contextos dos outros testes e seria fechado junto com elas.
+ */
+class DataInitializerTests {
+
+    @Test
+    void aplicacaoSobeDuasVezesNoMesmoBanco() {
+        try (ConfigurableApplicationContext primeira = subir()) {
+            assertEquals(Set.of(PermissionEnum.MANAGE_USERS, PermissionEnum.MANAGE_SERVICES, PermissionEnum.VIEW_REPORTS),
+                    primeira.getBean(RegistroPermissoes.class).permissoesPorPapel().get(RoleNameEnum.ROLE_ADMINISTRATOR));
+
+            primeira.getBean(JdbcTemplate.class).update(
+                    "DELETE FROM role_permission WHERE cd_role = (SELECT cd_role FROM role WHERE nm_role = ?) " +
+                    "AND permission_id = (SELECT cd_permission FROM permissions WHERE ds_name = ?)",
+                    RoleNameEnum.ROLE_SERVICE_PROVIDER.name(), PermissionEnum.CONFIRM_EXECUTION.getName());
+        }
+
+        try (ConfigurableApplicationContext segunda = subir()) {
+            assertEquals(Set.of(PermissionEnum.CONFIRM_EXECUTION, PermissionEnum.DEFINE_AVAILABILITY, PermissionEnum.VIEW_APPOINTMENTS),
+                    segunda.getBean(RegistroPermissoes.class).permissoesPorPapel().get(RoleNameEnum.ROLE_SERVICE_PROVIDER));
+        }
+    }
+
+    private static ConfigurableApplicationContext subir() {
+        return new SpringApplicationBuilder(ApiServicosP1Application.class)
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "spring.jpa.properties.hibernate.cache.region.factory_class=none",
+                        "app.outbox.intervalo-ms=3600000",
+                        "app.relatorios.intervalo-descarga-ms=3600000",
+                        "app.pagamentos.intervalo-ms=3600000",
+                        "app.pagamentos.estornos.intervalo-ms=3600000")
+                .run();
+    }
+}
@@ -0,0 +1,152 @@
+package com.prestacaoservicos.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Roteamento entre primário e réplica e a aderência das leituras às próprias escritas.
+ * <p>
+ * Roda quando {@code DB_REPLICA_URL} aponta para um segundo banco (basta outro banco vazio no
+ * mesmo servidor local; a réplica não precisa do schema). O destino de cada transação é
+ * identificado pelo nome e pela porta do banco que responde à consulta.
+ */
+@EnabledIfEnvironmentVariable(named = "DB_REPLICA_URL", matches = ".+")
+@SpringBootTest(properties = {
+        "app.datasource.replica.habilitada=true",
+        "app.datasource.replica.janela-leitura-propria-ms=" + RoteamentoDataSourceTests.JANELA_MS
+})
+class RoteamentoDataSourceTests {
+
+    static final long JANELA_MS = 300;
+
+    private static final String BANCO_ATUAL = "SELECT current_database() || ':' || coalesce(inet_server_port(), 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LeituraPropriaEscrita leituraPropriaEscrita;
+
+    @Autowired
+    private HikariDataSource dataSourcePrimario;
+
+    @Autowired
+    private HikariDataSource dataSourceReplica;
+
+    private String primario;
+    private String replica;
+
+    @BeforeEach
+    void identificarBancos() {
+        primario = new JdbcTemplate(dataSourcePrimario).queryForObject(BANCO_ATUAL, String.class);
+        replica = new JdbcTemplate(dataSourceReplica).queryForObject(BANCO_ATUAL, String.class);
+        assertNotEquals(primario, replica, "DB_REPLICA_URL deve apontar para outro banco");
+    }
+
+    @AfterEach
+    void encerrarRequisicao() {
+        leituraPropriaEscrita.afterCompletion(new MockHttpServletRequest(), new MockHttpServletResponse(), null, null);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void leituraVaiParaAReplicaEEscritaParaOPrimario() {
+        assertEquals(replica, bancoDaLeitura());
+        assertEquals(primario, bancoDaEscrita(false, 0));
+        assertEquals(primario, jdbcTemplate.queryForObject(BANCO_ATUAL, String.class));
+    }
+
+    @Test
+    void leiturasDoUsuarioFicamNoPrimarioDuranteAJanelaAposOCommit() throws InterruptedException {
+        autenticar();
+        assertEquals(replica, bancoDaLeitura());
+
+        bancoDaEscrita(false, 0);
+        assertEquals(primario, bancoDaLeitura());
+
+        Thread.sleep(JANELA_MS * 2);
+        assertEquals(replica, bancoDaLeitura());
+    }
+
+    @Test
+    void janelaComecaNoCommitENaoNaObtencaoDaConexao() {
+        autenticar();
+
+        bancoDaEscrita(false, JANELA_MS * 2);
+
+        assertEquals(primario, bancoDaLeitura());
+    }
+
+    @Test
+    void escritaDesfeitaNaoAderePrimario() {
+        autenticar();
+
+        bancoDaEscrita(true, 0);
+
+        assertEquals(replica, bancoDaLeitura());
+    }
+
+    @Test
+    void escritaDeOutroUsuarioNaoAderePrimario() {
+        autenticar();
+        bancoDaEscrita(false, 0);
+
+        autenticar();
+
+        assertEquals(replica, bancoDaLeitura());
+    }
+
+    /**
+     * Simula o início de uma requisição de um usuário novo.
+     */
+    private void autenticar() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(UUID.randomUUID() + "@roteamento.teste", null, List.of()));
+        leituraPropriaEscrita.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), null);
+    }
+
+    private String bancoDaLeitura() {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.setReadOnly(true);
+        return transacao.execute(status -> jdbcTemplate.queryForObject(BANCO_ATUAL, String.class));
+    }
+
+    /**
+     * Executa uma transação de escrita, segurando-a pelo tempo informado depois de obter a conexão.
+     */
+    private String bancoDaEscrita(boolean desfazer, long duracaoMs) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            String banco = jdbcTemplate.queryForObject(BANCO_ATUAL, String.class);
+            try {
+                Thread.sleep(duracaoMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (desfazer) {
+                status.setRollbackOnly();
+            }
+            return banco;
+        });
+    }
+}
@@ -0,0 +1,201 @@
+package com.prestacaoservicos.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.entity.Role;
+import com.prestacaoservicos.entity.User;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
+import com.prestacaoservicos.service.RegistroPermissoes;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags do agendamento contra o banco configurado: {@code If-None-Match} com a versão atual
+ * responde 304 e, depois que outra requisição altera o agendamento, 200; {@code If-Match} com a
+ * versão anterior é recusado com 412 antes de qualquer mudança. A listagem no modo
+ * {@code FATIA} não conta os registros: indica se há próxima página e, se pedido, o total
+ * aproximado das estatísticas do PostgreSQL.
+ * <p>
+ * A alteração concorrente é simulada incrementando {@code nr_versao} direto no banco, para que
+ * nenhum histórico (que não aceita exclusões) seja gravado. Os comandos da fatia são contados
+ * pelas estatísticas do Hibernate; as tarefas periódicas ficam com intervalos longos para não
+ * somarem comandos a elas.
+ */
+@SpringBootTest(properties = {
+        "app.outbox.intervalo-ms=3600000",
+        "app.relatorios.intervalo-descarga-ms=3600000",
+        "app.pagamentos.intervalo-ms=3600000",
+        "app.pagamentos.estornos.intervalo-ms=3600000"
+})
+@AutoConfigureMockMvc
+class AgendamentoControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RegistroPermissoes registroPermissoes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long cliente;
+    private Long prestador;
+    private Long servico;
+    private Long agendamento;
+
+    @BeforeEach
+    void preparar() {
+        cliente = criarUsuario();
+        prestador = criarUsuario();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES ('Teste', 70.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class);
+        agendamento = criarAgendamento();
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user IN (?, ?)", cliente, prestador);
+    }
+
+    @Test
+    void ifNoneMatchResponde304SoEnquantoAVersaoNaoMuda() throws Exception {
+        String lida = etag();
+
+        mockMvc.perform(get("/api/v1/agendamentos/{id}", agendamento).with(user(cliente()))
+                        .header(HttpHeaders.IF_NONE_MATCH, lida))
+                .andExpect(status().isNotModified());
+
+        alterarEmOutraRequisicao();
+
+        mockMvc.perform(get("/api/v1/agendamentos/{id}", agendamento).with(user(cliente()))
+                        .header(HttpHeaders.IF_NONE_MATCH, lida))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void etagAcompanhaAVersaoDoBanco() throws Exception {
+        alterarEmOutraRequisicao();
+
+        assertEquals(versaoNoBanco(), VersaoHttp.versaoEsperada(etag()));
+    }
+
+    @Test
+    void ifMatchComETagAnteriorRetorna412SemAlterarOStatus() throws Exception {
+        String lida = etag();
+        alterarEmOutraRequisicao();
+
+        mockMvc.perform(put("/api/v1/agendamentos/{id}/status", agendamento).with(user(cliente()))
+                        .header(HttpHeaders.IF_MATCH, lida)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"CONFIRMADO\",\"motivo\":\"ok\"}"))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("AGENDADO", jdbcTemplate.queryForObject(
+                "SELECT ds_status FROM agendamento WHERE cd_agendamento = ?", String.class, agendamento));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMINISTRATOR")
+    void fatiaIndicaAProximaPaginaSemContarOsRegistros() throws Exception {
+        Long ultimo = criarAgendamento();
+        long total = jdbcTemplate.queryForObject("SELECT count(*) FROM agendamento", Long.class);
+        Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        estatisticas.clear();
+        mockMvc.perform(get("/api/v1/agendamentos").param("modo", "FATIA")
+                        .param("page", String.valueOf(total - 2)).param("size", "1").param("sort", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conteudo.length()").value(1))
+                .andExpect(jsonPath("$.conteudo[0].id").value(agendamento))
+                .andExpect(jsonPath("$.temProxima").value(true))
+                .andExpect(jsonPath("$.totalAproximado").doesNotExist());
+        assertEquals(1, estatisticas.getPrepareStatementCount());
+
+        mockMvc.perform(get("/api/v1/agendamentos").param("modo", "FATIA")
+                        .param("page", String.valueOf(total - 1)).param("size", "1").param("sort", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conteudo[0].id").value(ultimo))
+                .andExpect(jsonPath("$.temProxima").value(false));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMINISTRATOR")
+    void fatiaComTotalTrazAEstimativaDasEstatisticas() throws Exception {
+        jdbcTemplate.execute("ANALYZE agendamento");
+        long total = jdbcTemplate.queryForObject("SELECT count(*) FROM agendamento", Long.class);
+
+        long estimado = objectMapper.readTree(mockMvc.perform(get("/api/v1/agendamentos").param("modo", "FATIA")
+                        .param("total", "true").param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString())
+                .get("totalAproximado").asLong();
+
+        assertTrue(Math.abs(estimado - total) <= total / 10, () -> "Estimativa " + estimado + " para " + total + " linhas");
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get("/api/v1/agendamentos/{id}", agendamento).with(user(cliente())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void alterarEmOutraRequisicao() {
+        jdbcTemplate.update("UPDATE agendamento SET nr_versao = nr_versao + 1 WHERE cd_agendamento = ?", agendamento);
+    }
+
+    private Long criarAgendamento() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                "VALUES (?, ?, ?, ?, 70.00, 'AGENDADO') RETURNING cd_agendamento",
+                Long.class, cliente, prestador, servico, Timestamp.valueOf(LocalDateTime.now().plusDays(3).withNano(0)));
+    }
+
+    private Long versaoNoBanco() {
+        return jdbcTemplate.queryForObject("SELECT nr_versao FROM agendamento WHERE cd_agendamento = ?", Long.class, agendamento);
+    }
+
+    private Long criarUsuario() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@agendamento.teste");
+    }
+
+    private UserDetailsImpl cliente() {
+        User user = new User("Teste", cliente + "@agendamento.teste", "x", Set.of(new Role(RoleNameEnum.ROLE_CUSTOMER)));
+        user.setId(cliente);
+        return new UserDetailsImpl(user, registroPermissoes);
+    }
+}
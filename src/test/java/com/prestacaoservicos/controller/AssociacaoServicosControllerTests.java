@@ -0,0 +1,201 @@
+package com.prestacaoservicos.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.dto.AssociateServicesResultDto;
+import com.prestacaoservicos.entity.Role;
+import com.prestacaoservicos.entity.User;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
+import com.prestacaoservicos.service.RegistroPermissoes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Associação de serviços em lote ({@code POST /api/v1/users/{prestadorId}/servicos}) contra o
+ * banco configurado: um único pedido associa os novos, informa os já oferecidos e os
+ * inexistentes, e só o próprio prestador ou um administrador pode fazê-lo.
+ * <p>
+ * Cada teste cria e remove um prestador, um cliente e três serviços; o terceiro já vem associado.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMINISTRATOR")
+class AssociacaoServicosControllerTests {
+
+    private static final long INEXISTENTE = -1L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private RegistroPermissoes registroPermissoes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long prestador;
+    private Long cliente;
+    private final List<Long> servicos = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        prestador = criarUsuario(RoleNameEnum.ROLE_SERVICE_PROVIDER);
+        cliente = criarUsuario(RoleNameEnum.ROLE_CUSTOMER);
+        for (int i = 0; i < 3; i++) {
+            servicos.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 70.00, 'teste', true) " +
+                    "RETURNING cd_servico", Long.class, "Lote " + UUID.randomUUID()));
+        }
+        jdbcTemplate.update("INSERT INTO prestador_servicos (cd_user, cd_servico) VALUES (?, ?)", prestador, servicos.get(2));
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM prestador_servicos WHERE cd_user IN (?, ?)", prestador, cliente);
+        jdbcTemplate.update("DELETE FROM user_role WHERE cd_user IN (?, ?)", prestador, cliente);
+        for (Long servico : servicos) {
+            jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user IN (?, ?)", prestador, cliente);
+    }
+
+    @Test
+    void loteAssociaOsNovosEInformaJaOferecidosEInexistentes() throws Exception {
+        String resposta = mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo(servicos.get(1), servicos.get(0), servicos.get(1), servicos.get(2), INEXISTENTE)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(new AssociateServicesResultDto(List.of(servicos.get(0), servicos.get(1)), List.of(servicos.get(2)),
+                List.of(INEXISTENTE)), objectMapper.readValue(resposta, AssociateServicesResultDto.class));
+        assertEquals(servicos, associadosNoBanco(prestador));
+    }
+
+    @Test
+    void servicosAssociadosEmLoteListamOPrestador() throws Exception {
+        mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo(servicos.get(0), servicos.get(1))))
+                .andExpect(status().isOk());
+
+        for (Long servico : servicos.subList(0, 2)) {
+            JsonNode pagina = objectMapper.readTree(mockMvc.perform(get("/api/v1/servicos/{id}/prestadores", servico))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            assertEquals(1, pagina.get("content").size());
+            assertEquals(prestador, pagina.get("content").get(0).get("id").asLong());
+        }
+    }
+
+    @Test
+    void repetirOLoteNaoAssociaNadaDeNovo() throws Exception {
+        String corpo = corpo(servicos.get(0), servicos.get(1));
+        mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isOk());
+
+        String resposta = mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(new AssociateServicesResultDto(List.of(), List.of(servicos.get(0), servicos.get(1)), List.of()),
+                objectMapper.readValue(resposta, AssociateServicesResultDto.class));
+    }
+
+    @Test
+    void usuarioQueNaoEPrestadorRecebe400SemAssociacoes() throws Exception {
+        mockMvc.perform(post("/api/v1/users/{id}/servicos", cliente)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo(servicos.get(0))))
+                .andExpect(status().isBadRequest());
+
+        assertTrue(associadosNoBanco(cliente).isEmpty());
+    }
+
+    @Test
+    void prestadorInexistenteRecebe404() throws Exception {
+        mockMvc.perform(post("/api/v1/users/{id}/servicos", INEXISTENTE)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo(servicos.get(0))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void listaVaziaOuComNuloRecebe400() throws Exception {
+        mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"servicoIds\":[]}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"servicoIds\":[null]}"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(List.of(servicos.get(2)), associadosNoBanco(prestador));
+    }
+
+    @Test
+    void oProprioPrestadorAssociaMasNaoOsDeOutro() throws Exception {
+        mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador).with(user(logado(prestador)))
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo(servicos.get(0))))
+                .andExpect(status().isOk());
+
+        Long outro = criarUsuario(RoleNameEnum.ROLE_SERVICE_PROVIDER);
+        try {
+            mockMvc.perform(post("/api/v1/users/{id}/servicos", prestador).with(user(logado(outro)))
+                            .contentType(MediaType.APPLICATION_JSON).content(corpo(servicos.get(1))))
+                    .andExpect(status().isForbidden());
+        } finally {
+            jdbcTemplate.update("DELETE FROM user_role WHERE cd_user = ?", outro);
+            jdbcTemplate.update("DELETE FROM users WHERE cd_user = ?", outro);
+        }
+
+        assertEquals(List.of(servicos.get(0), servicos.get(2)), associadosNoBanco(prestador));
+    }
+
+    private String corpo(Long... servicoIds) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("servicoIds", List.of(servicoIds)));
+    }
+
+    private List<Long> associadosNoBanco(Long usuario) {
+        return jdbcTemplate.queryForList(
+                "SELECT cd_servico FROM prestador_servicos WHERE cd_user = ? ORDER BY cd_servico", Long.class, usuario);
+    }
+
+    private Long criarUsuario(RoleNameEnum papel) {
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@associacao.teste");
+        jdbcTemplate.update("INSERT INTO user_role (cd_user, cd_role) SELECT ?, cd_role FROM role WHERE nm_role = ?",
+                id, papel.name());
+        return id;
+    }
+
+    private UserDetailsImpl logado(Long id) {
+        User user = new User("Teste", id + "@associacao.teste", "x", Set.of(new Role(RoleNameEnum.ROLE_SERVICE_PROVIDER)));
+        user.setId(id);
+        return new UserDetailsImpl(user, registroPermissoes);
+    }
+}
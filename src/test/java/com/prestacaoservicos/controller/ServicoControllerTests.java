@@ -0,0 +1,122 @@
+package com.prestacaoservicos.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags do serviço contra o banco configurado: {@code If-None-Match} com a versão atual responde
+ * 304, a atualização devolve a nova ETag e {@code If-Match} com a anterior é recusado com 412.
+ * <p>
+ * Cada teste cria e remove o próprio serviço.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMINISTRATOR")
+class ServicoControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String nome;
+    private Long servico;
+
+    @BeforeEach
+    void preparar() {
+        nome = "ETag " + UUID.randomUUID();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 70.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, nome);
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+    }
+
+    @Test
+    void ifNoneMatchResponde304SoEnquantoAVersaoNaoMuda() throws Exception {
+        String lida = etag();
+
+        mockMvc.perform(get("/api/v1/servicos/{id}", servico).header(HttpHeaders.IF_NONE_MATCH, lida))
+                .andExpect(status().isNotModified());
+
+        atualizar(lida, "80.00");
+
+        mockMvc.perform(get("/api/v1/servicos/{id}", servico).header(HttpHeaders.IF_NONE_MATCH, lida))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void atualizacaoDevolveANovaETag() throws Exception {
+        String lida = etag();
+
+        String nova = atualizar(lida, "80.00");
+
+        assertNotEquals(lida, nova);
+        assertEquals(nova, etag());
+        assertEquals(versaoNoBanco(), VersaoHttp.versaoEsperada(nova));
+    }
+
+    @Test
+    void ifMatchComETagAnteriorRetorna412() throws Exception {
+        String lida = etag();
+        atualizar(lida, "80.00");
+
+        mockMvc.perform(put("/api/v1/servicos/{id}", servico).header(HttpHeaders.IF_MATCH, lida)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo("90.00")))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals(0, new BigDecimal("80.00").compareTo(jdbcTemplate.queryForObject(
+                "SELECT vl_servico FROM servico WHERE cd_servico = ?", BigDecimal.class, servico)));
+    }
+
+    @Test
+    void ifMatchInvalidoRetorna400() throws Exception {
+        mockMvc.perform(put("/api/v1/servicos/{id}", servico).header(HttpHeaders.IF_MATCH, "sem-aspas")
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo("90.00")))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get("/api/v1/servicos/{id}", servico))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String atualizar(String ifMatch, String valor) throws Exception {
+        return mockMvc.perform(put("/api/v1/servicos/{id}", servico).header(HttpHeaders.IF_MATCH, ifMatch)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo(valor)))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String corpo(String valor) {
+        return "{\"nome\":\"" + nome + "\",\"valor\":" + valor + ",\"descricao\":\"teste\"}";
+    }
+
+    private Long versaoNoBanco() {
+        return jdbcTemplate.queryForObject("SELECT nr_versao FROM servico WHERE cd_servico = ?", Long.class, servico);
+    }
+}
@@ -0,0 +1,146 @@
+package com.prestacaoservicos.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETags do usuário contra o banco configurado: toda alteração gravada, inclusive a que muda
+ * apenas telefones, gera uma nova versão; {@code If-Match} com a versão antiga é recusado
+ * com 412 e {@code If-None-Match} com a versão atual responde 304.
+ * <p>
+ * Cada teste cria e remove o próprio usuário, com um telefone celular.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMINISTRATOR")
+class UserControllerTests {
+
+    private static final String TELEFONE = "11999990000";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long usuario;
+
+    @BeforeEach
+    void preparar() {
+        usuario = jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@usuario.teste");
+        jdbcTemplate.update("INSERT INTO user_phone (ds_phone, tp_phone, cd_user) VALUES (?, 'MOBILE', ?)", TELEFONE, usuario);
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM user_phone WHERE cd_user = ?", usuario);
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user = ?", usuario);
+    }
+
+    @Test
+    void patchSoDeTelefonesGeraNovaETag() throws Exception {
+        String lida = etag();
+
+        String nova = patchar(lida, "{\"upsertPhones\":[{\"phone\":\"1133330000\",\"type\":\"LANDLINE\"}]}");
+
+        assertNotEquals(lida, nova);
+        assertEquals(nova, etag());
+        assertEquals(versaoNoBanco(), VersaoHttp.versaoEsperada(nova));
+        mockMvc.perform(get("/api/v1/users/{id}", usuario))
+                .andExpect(jsonPath("$.phones.length()").value(2));
+    }
+
+    @Test
+    void patchQueSoMudaOTipoOuRemoveTelefoneGeraNovaETag() throws Exception {
+        String lida = etag();
+
+        String tipoAlterado = patchar(lida, "{\"upsertPhones\":[{\"phone\":\"" + TELEFONE + "\",\"type\":\"WHATSAPP\"}]}");
+        String removido = patchar(tipoAlterado, "{\"removePhones\":[\"" + TELEFONE + "\"]}");
+
+        assertNotEquals(lida, tipoAlterado);
+        assertNotEquals(tipoAlterado, removido);
+        assertEquals(removido, etag());
+    }
+
+    @Test
+    void patchDeNomeETelefoneIncrementaAVersaoUmaVez() throws Exception {
+        Long antes = versaoNoBanco();
+
+        patchar(etag(), "{\"name\":\"Outro nome\",\"upsertPhones\":[{\"phone\":\"1133330000\",\"type\":\"LANDLINE\"}]}");
+
+        assertEquals(antes + 1, versaoNoBanco());
+    }
+
+    @Test
+    void patchSemMudancaNosTelefonesMantemAETag() throws Exception {
+        String lida = etag();
+
+        String mesma = patchar(lida, "{\"upsertPhones\":[{\"phone\":\"" + TELEFONE + "\",\"type\":\"MOBILE\"}]}");
+
+        assertEquals(lida, mesma);
+    }
+
+    @Test
+    void ifMatchComETagAnteriorAAlteracaoDeTelefoneRetorna412() throws Exception {
+        String lida = etag();
+        patchar(lida, "{\"removePhones\":[\"" + TELEFONE + "\"]}");
+
+        mockMvc.perform(patch("/api/v1/users/{id}", usuario).header(HttpHeaders.IF_MATCH, lida)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"name\":\"Atrasado\"}"))
+                .andExpect(status().isPreconditionFailed());
+        assertEquals("Teste", jdbcTemplate.queryForObject(
+                "SELECT nm_user FROM users WHERE cd_user = ?", String.class, usuario));
+    }
+
+    @Test
+    void ifNoneMatchResponde304SoEnquantoAVersaoNaoMuda() throws Exception {
+        String lida = etag();
+
+        mockMvc.perform(get("/api/v1/users/{id}", usuario).header(HttpHeaders.IF_NONE_MATCH, lida))
+                .andExpect(status().isNotModified());
+
+        patchar(lida, "{\"upsertPhones\":[{\"phone\":\"1133330000\",\"type\":\"LANDLINE\"}]}");
+
+        mockMvc.perform(get("/api/v1/users/{id}", usuario).header(HttpHeaders.IF_NONE_MATCH, lida))
+                .andExpect(status().isOk());
+    }
+
+    private String etag() throws Exception {
+        return mockMvc.perform(get("/api/v1/users/{id}", usuario))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private String patchar(String ifMatch, String corpo) throws Exception {
+        return mockMvc.perform(patch("/api/v1/users/{id}", usuario).header(HttpHeaders.IF_MATCH, ifMatch)
+                        .contentType(MediaType.APPLICATION_JSON).content(corpo))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private Long versaoNoBanco() {
+        return jdbcTemplate.queryForObject("SELECT nr_versao FROM users WHERE cd_user = ?", Long.class, usuario);
+    }
+}
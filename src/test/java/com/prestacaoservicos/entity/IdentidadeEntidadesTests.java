@@ -0,0 +1,202 @@
+package com.prestacaoservicos.entity;
+
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Garante, contra o banco configurado e com as entidades instrumentadas pelo enhancer, que
+ * {@code equals}, {@code hashCode} e {@code toString} usam apenas o ID e os atributos próprios.
+ * <p>
+ * Os comandos SQL são contados pelas estatísticas do Hibernate: colocar uma entidade em um
+ * {@link HashSet}, compará-la com um proxy ou imprimi-la não pode disparar nenhum SELECT nem
+ * inicializar associações preguiçosas. As tarefas periódicas ficam com intervalos longos para
+ * não somarem comandos às estatísticas, que são da fábrica de sessões inteira.
+ */
+@SpringBootTest(properties = {
+        "app.outbox.intervalo-ms=3600000",
+        "app.relatorios.intervalo-descarga-ms=3600000",
+        "app.pagamentos.intervalo-ms=3600000",
+        "app.pagamentos.estornos.intervalo-ms=3600000"
+})
+class IdentidadeEntidadesTests {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long cliente;
+    private Long prestador;
+    private Long servico;
+    private Long agendamento;
+    private Long telefone;
+
+    @BeforeEach
+    void preparar() {
+        cliente = criarUsuario();
+        prestador = criarUsuario();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 150.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, "Identidade " + UUID.randomUUID());
+        agendamento = jdbcTemplate.queryForObject(
+                "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                "VALUES (?, ?, ?, ?, 150.00, 'AGENDADO') RETURNING cd_agendamento",
+                Long.class, cliente, prestador, servico, Timestamp.valueOf(LocalDateTime.now().plusDays(2).withNano(0)));
+        telefone = jdbcTemplate.queryForObject(
+                "INSERT INTO user_phone (ds_phone, tp_phone, cd_user) VALUES ('11999999999', 'MOBILE', ?) RETURNING cd_phone",
+                Long.class, cliente);
+    }
+
+    @AfterEach
+    void limpar() {
+        entityManagerFactory.getCache().evict(Servico.class, servico);
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cd_agendamento = ?", agendamento);
+        jdbcTemplate.update("DELETE FROM user_phone WHERE cd_user IN (?, ?)", cliente, prestador);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user IN (?, ?)", cliente, prestador);
+    }
+
+    @Test
+    void entidadesSaoInstrumentadas() {
+        assertTrue(estatisticas().isStatisticsEnabled());
+        for (Class<?> entidade : new Class<?>[]{Agendamento.class, User.class, UserPhone.class, Servico.class, Role.class}) {
+            assertTrue(ManagedEntity.class.isAssignableFrom(entidade), entidade + " não passou pelo enhancer");
+        }
+    }
+
+    @Test
+    void agendamentoNaoCarregaAssociacoesEmColecoesNemNoLog() {
+        emTransacao(() -> {
+            Agendamento carregado = entityManager.find(Agendamento.class, agendamento);
+            Statistics estatisticas = estatisticas();
+            estatisticas.clear();
+
+            Set<Agendamento> conjunto = new HashSet<>();
+            conjunto.add(carregado);
+            assertTrue(conjunto.contains(carregado));
+            String texto = carregado.toString();
+
+            assertEquals(0, estatisticas.getPrepareStatementCount(), "SQL disparado por hashCode/equals/toString");
+            assertFalse(Hibernate.isInitialized(carregado.getCliente()));
+            assertFalse(Hibernate.isInitialized(carregado.getPrestador()));
+            assertFalse(Hibernate.isInitialized(carregado.getServico()));
+            assertTrue(texto.contains("id=" + agendamento));
+        });
+    }
+
+    @Test
+    void telefoneNaoCarregaUsuarioEmColecoesNemNoLog() {
+        emTransacao(() -> {
+            UserPhone carregado = entityManager.find(UserPhone.class, telefone);
+            Statistics estatisticas = estatisticas();
+            estatisticas.clear();
+
+            Set<UserPhone> conjunto = new HashSet<>();
+            conjunto.add(carregado);
+            assertTrue(conjunto.contains(carregado));
+            String texto = carregado.toString();
+
+            assertEquals(0, estatisticas.getPrepareStatementCount(), "SQL disparado por hashCode/equals/toString");
+            assertFalse(Hibernate.isInitialized(carregado.getUser()));
+            assertFalse(texto.contains("user="));
+        });
+    }
+
+    @Test
+    void entidadeIgualAoProxyDeOutraSessaoSemInicializarOProxy() {
+        EntityManager outraSessao = entityManagerFactory.createEntityManager();
+        try {
+            User proxy = outraSessao.getReference(User.class, cliente);
+            emTransacao(() -> {
+                User carregado = entityManager.find(User.class, cliente);
+                Statistics estatisticas = estatisticas();
+                estatisticas.clear();
+
+                assertEquals(carregado, proxy);
+                assertEquals(0, estatisticas.getPrepareStatementCount(), "SQL disparado ao comparar com o proxy");
+                assertFalse(Hibernate.isInitialized(proxy));
+            });
+        } finally {
+            outraSessao.close();
+        }
+    }
+
+    @Test
+    void transienteSoIgualASiMesmoEHashNaoMudaAoPersistir() {
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        transacao.executeWithoutResult(status -> {
+            User transiente = new User("Teste", UUID.randomUUID() + "@identidade.teste", "x", new HashSet<>());
+            assertNotEquals(transiente, new User("Teste", transiente.getEmail(), "x", new HashSet<>()));
+            assertEquals(transiente, transiente);
+
+            Set<User> conjunto = new HashSet<>();
+            conjunto.add(transiente);
+            entityManager.persist(transiente);
+            entityManager.flush();
+
+            assertNotNull(transiente.getId());
+            assertTrue(conjunto.contains(transiente));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void igualdadePeloIdMesmoComAtributosDiferentes() {
+        Agendamento a = new Agendamento(1L, null, null, null,
+                LocalDateTime.now(), BigDecimal.TEN, StatusAgendamentoEnum.AGENDADO, null);
+        Agendamento b = new Agendamento(1L, null, null, null,
+                LocalDateTime.now().plusDays(1), BigDecimal.ONE, StatusAgendamentoEnum.CANCELADO, "motivo");
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, new Agendamento(2L, null, null, null, null, null, null, null));
+
+        Servico original = new Servico(3L, "Limpeza", new BigDecimal("80.00"), "Limpeza residencial", true);
+        Servico alterado = new Servico(3L, "Limpeza pesada", new BigDecimal("120.00"), "Outra descrição", false);
+        assertEquals(original, alterado);
+        assertEquals(original.hashCode(), alterado.hashCode());
+        assertNotEquals(original, new Servico(null, "Limpeza", new BigDecimal("80.00"), "Limpeza residencial", true));
+    }
+
+    private void emTransacao(Runnable corpo) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> corpo.run());
+    }
+
+    private Statistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Long criarUsuario() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@identidade.teste");
+    }
+}
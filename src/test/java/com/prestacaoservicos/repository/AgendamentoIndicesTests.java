@@ -0,0 +1,239 @@
+package com.prestacaoservicos.repository;
+
+import com.prestacaoservicos.dto.FiltroAgendamentoDTO;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Garante, via EXPLAIN, que cada combinação de filtros de {@link AgendamentoSpecifications} é
+ * atendida por um índice de {@code agendamento}.
+ * <p>
+ * O SQL explicado é o que o Hibernate gera para {@code findAll(spec, pageable)}: um
+ * {@link StatementInspector} o captura e os valores dos critérios saem como literais
+ * ({@code value_handling_mode=inline}), de modo que o planejador vê os mesmos valores da busca
+ * e poda as partições como faria na execução. O planejador roda com a configuração padrão,
+ * sobre uma massa com distribuição realista (muitos prestadores e clientes, três meses de
+ * agenda, poucos agendamentos não comparecidos) recém-analisada; nenhuma partição com essa
+ * massa pode ser lida por seq scan.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=inline",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.prestacaoservicos.repository.AgendamentoIndicesTests$CapturaSql"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class AgendamentoIndicesTests {
+
+    private static final int PRESTADORES = 200;
+    private static final int CLIENTES = 2000;
+    private static final int SERVICOS = 100;
+    private static final int AGENDAMENTOS = 60_000;
+    private static final int DIAS = 90;
+    private static final int TAMANHO_PAGINA = 20;
+
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    private static final Pattern PAGINACAO = Pattern.compile("(offset|fetch first|fetch next|limit) \\?");
+
+    /** Filtros de {@link FiltroAgendamentoDTO}; o período pode ter só início, só fim ou os dois. */
+    enum Filtro { PRESTADOR, CLIENTE, SERVICO, STATUS, INICIO, FIM }
+
+    /**
+     * Guarda o SQL gerado pelo Hibernate na thread que ativou a captura.
+     */
+    public static class CapturaSql implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> CAPTURADOS = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> capturados = CAPTURADOS.get();
+            if (capturados != null) {
+                capturados.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private AgendamentoRepository agendamentoRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String marcador = UUID.randomUUID().toString();
+    private final LocalDateTime base = LocalDate.now().withDayOfMonth(1).plusMonths(1).atTime(8, 0);
+    private List<Long> prestadores;
+    private List<Long> clientes;
+    private List<Long> servicos;
+    private Set<String> particoesDaMassa;
+
+    @BeforeAll
+    void popular() {
+        jdbcTemplate.queryForObject("SELECT criar_particoes_agendamento(6)", Integer.class);
+        prestadores = criarUsuarios("p", PRESTADORES);
+        clientes = criarUsuarios("c", CLIENTES);
+        servicos = jdbcTemplate.queryForList(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) " +
+                "SELECT 'Indice ' || ? || ' ' || g, 100.00, 'teste', true FROM generate_series(1, ?) g RETURNING cd_servico",
+                Long.class, marcador, SERVICOS);
+
+        jdbcTemplate.update(
+                "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                "SELECT c.ids[1 + (g * 7919) % cardinality(c.ids)], p.ids[1 + g % cardinality(p.ids)], " +
+                "       s.ids[1 + (g * 31) % cardinality(s.ids)], " +
+                "       CAST(? AS timestamp) + make_interval(days => g % ?, hours => (g / ?) % 10), 100.00, " +
+                "       CASE WHEN g % 100 < 70 THEN 'FINALIZADO' WHEN g % 100 < 80 THEN 'AGENDADO' " +
+                "            WHEN g % 100 < 87 THEN 'CONFIRMADO' WHEN g % 100 < 97 THEN 'CANCELADO' ELSE 'NAO_COMPARECEU' END " +
+                "FROM generate_series(1, ?) g, " +
+                "     (SELECT array_agg(cd_user) ids FROM users WHERE ds_email LIKE ?) p, " +
+                "     (SELECT array_agg(cd_user) ids FROM users WHERE ds_email LIKE ?) c, " +
+                "     (SELECT array_agg(cd_servico) ids FROM servico WHERE nm_servico LIKE ?) s",
+                Timestamp.valueOf(base), DIAS, DIAS, AGENDAMENTOS,
+                "indice-" + marcador + "-p-%", "indice-" + marcador + "-c-%", "Indice " + marcador + " %");
+        jdbcTemplate.execute("ANALYZE agendamento");
+
+        particoesDaMassa = Set.copyOf(jdbcTemplate.queryForList(
+                "SELECT DISTINCT tableoid::regclass::text FROM agendamento WHERE cd_servico = ANY (?)",
+                String.class, (Object) servicos.toArray(Long[]::new)));
+    }
+
+    @AfterAll
+    void limpar() {
+        Long[] ids = servicos.toArray(Long[]::new);
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cd_servico = ANY (?)", (Object) ids);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ANY (?)", (Object) ids);
+        jdbcTemplate.update("DELETE FROM users WHERE ds_email LIKE ?", "indice-" + marcador + "-%");
+        jdbcTemplate.execute("ANALYZE agendamento");
+    }
+
+    /**
+     * Todas as combinações não vazias de filtros (sem nenhum filtro, a busca percorre a tabela inteira).
+     */
+    Stream<Set<Filtro>> combinacoes() {
+        Filtro[] filtros = Filtro.values();
+        return IntStream.range(1, 1 << filtros.length).mapToObj(mascara -> {
+            Set<Filtro> combinacao = EnumSet.noneOf(Filtro.class);
+            for (Filtro filtro : filtros) {
+                if ((mascara & (1 << filtro.ordinal())) != 0) {
+                    combinacao.add(filtro);
+                }
+            }
+            return combinacao;
+        });
+    }
+
+    @ParameterizedTest
+    @MethodSource("combinacoes")
+    void filtroUsaIndice(Set<Filtro> combinacao) {
+        List<String> comandos = capturar(filtro(combinacao));
+
+        assertFalse(comandos.isEmpty(), "Nenhum SQL capturado para " + combinacao);
+        for (String sql : comandos) {
+            String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + comValoresDePagina(sql), String.class));
+
+            assertTrue(plano.contains("Index"), () -> "Filtro sem índice: " + combinacao + "\n" + sql + "\n" + plano);
+            Matcher seqScan = SEQ_SCAN.matcher(plano);
+            while (seqScan.find()) {
+                String tabela = seqScan.group(1);
+                assertFalse(particoesDaMassa.contains(tabela),
+                        () -> "Filtro com seq scan em " + tabela + ": " + combinacao + "\n" + sql + "\n" + plano);
+            }
+        }
+    }
+
+    /**
+     * Valores seletivos para cada filtro; o período sozinho cobre um dia da massa.
+     */
+    private FiltroAgendamentoDTO filtro(Set<Filtro> combinacao) {
+        List<StatusAgendamentoEnum> status = null;
+        if (combinacao.contains(Filtro.STATUS)) {
+            status = combinacao.contains(Filtro.PRESTADOR)
+                    ? List.of(StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.CONFIRMADO)
+                    : List.of(StatusAgendamentoEnum.NAO_COMPARECEU);
+        }
+
+        LocalDateTime inicio = null;
+        LocalDateTime fim = null;
+        if (combinacao.contains(Filtro.INICIO) && combinacao.contains(Filtro.FIM)) {
+            inicio = base.plusDays(DIAS / 2).toLocalDate().atStartOfDay();
+            fim = inicio.plusDays(1);
+        } else if (combinacao.contains(Filtro.INICIO)) {
+            inicio = base.plusDays(DIAS - 1).toLocalDate().atStartOfDay();
+        } else if (combinacao.contains(Filtro.FIM)) {
+            fim = base.plusDays(1).toLocalDate().atStartOfDay();
+        }
+
+        return new FiltroAgendamentoDTO(
+                status,
+                inicio,
+                fim,
+                combinacao.contains(Filtro.SERVICO) ? servicos.get(0) : null,
+                combinacao.contains(Filtro.PRESTADOR) ? prestadores.get(0) : null,
+                combinacao.contains(Filtro.CLIENTE) ? clientes.get(0) : null);
+    }
+
+    /**
+     * Executa a busca como o serviço a executa e devolve o SQL gerado (consulta e, se houver, contagem).
+     */
+    private List<String> capturar(FiltroAgendamentoDTO filtro) {
+        List<String> capturados = new ArrayList<>();
+        CapturaSql.CAPTURADOS.set(capturados);
+        try {
+            agendamentoRepo.findAll(AgendamentoSpecifications.deFiltro(filtro), PageRequest.of(0, TAMANHO_PAGINA));
+        } finally {
+            CapturaSql.CAPTURADOS.remove();
+        }
+        return capturados.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                .toList();
+    }
+
+    /**
+     * Os critérios já vêm como literais; restam apenas os parâmetros da paginação.
+     */
+    private static String comValoresDePagina(String sql) {
+        Matcher parametro = PAGINACAO.matcher(sql);
+        StringBuilder resultado = new StringBuilder();
+        while (parametro.find()) {
+            String valor = parametro.group(1).equals("offset") ? "0" : String.valueOf(TAMANHO_PAGINA);
+            parametro.appendReplacement(resultado, parametro.group(1) + " " + valor);
+        }
+        parametro.appendTail(resultado);
+        String semParametros = resultado.toString();
+        assertFalse(semParametros.contains("?"), () -> "Parâmetro não resolvido no SQL: " + sql);
+        return semParametros;
+    }
+
+    private List<Long> criarUsuarios(String tipo, int quantidade) {
+        return jdbcTemplate.queryForList(
+                "INSERT INTO users (nm_user, ds_email, ds_password) " +
+                "SELECT 'Indice', 'indice-' || ? || '-' || ? || '-' || g || '@indice.teste', 'x' " +
+                "FROM generate_series(1, ?) g RETURNING cd_user",
+                Long.class, marcador, tipo, quantidade);
+    }
+}
@@ -0,0 +1,166 @@
+package com.prestacaoservicos.repository;
+
+import com.prestacaoservicos.dto.EstatisticaCacheDTO;
+import com.prestacaoservicos.entity.Role;
+import com.prestacaoservicos.entity.Servico;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.service.EstatisticasCacheService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cache de segundo nível contra o banco configurado: {@link Servico}, {@link Role} e suas
+ * permissões são lidos da memória a partir da segunda transação, uma alteração feita pelo
+ * Hibernate atualiza o cache e o resultado das consultas em cache é refeito quando a tabela muda.
+ * <p>
+ * Os comandos SQL são contados pelas estatísticas do Hibernate. As tarefas periódicas ficam com
+ * intervalos longos para não somarem comandos às estatísticas, que são da fábrica de sessões inteira.
+ */
+@SpringBootTest(properties = {
+        "app.outbox.intervalo-ms=3600000",
+        "app.relatorios.intervalo-descarga-ms=3600000",
+        "app.pagamentos.intervalo-ms=3600000",
+        "app.pagamentos.estornos.intervalo-ms=3600000"
+})
+class CacheSegundoNivelTests {
+
+    @Autowired
+    private ServicoRepository servicoRepo;
+
+    @Autowired
+    private RoleRepository roleRepo;
+
+    @Autowired
+    private EstatisticasCacheService estatisticasCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Long> servicos = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() {
+        servicos.add(jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 20.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, "Cache " + UUID.randomUUID()));
+    }
+
+    @AfterEach
+    void limpar() {
+        for (Long servico : servicos) {
+            entityManagerFactory.getCache().evict(Servico.class, servico);
+            jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        }
+    }
+
+    @Test
+    void servicoLidoUmaVezVemDoCacheNasProximasTransacoes() {
+        Long servico = servicos.get(0);
+        executar(() -> servicoRepo.findById(servico));
+
+        Statistics estatisticas = estatisticas();
+        estatisticas.clear();
+        Servico lido = executar(() -> servicoRepo.findById(servico).orElseThrow());
+
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        assertEquals(1, estatisticas.getSecondLevelCacheHitCount());
+        assertEquals(servico, lido.getId());
+        assertTrue(estatisticasCache.listar().stream()
+                .filter(regiao -> regiao.regiao().equals(Servico.class.getName()))
+                .mapToLong(EstatisticaCacheDTO::acertos)
+                .sum() > 0);
+    }
+
+    @Test
+    void alteracaoPeloHibernateAtualizaOCache() {
+        Long servico = servicos.get(0);
+        executar(() -> {
+            Servico lido = servicoRepo.findById(servico).orElseThrow();
+            lido.setValor(new BigDecimal("35.50"));
+            return servicoRepo.saveAndFlush(lido);
+        });
+
+        Statistics estatisticas = estatisticas();
+        estatisticas.clear();
+        Servico relido = executar(() -> servicoRepo.findById(servico).orElseThrow());
+
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        assertEquals(0, new BigDecimal("35.50").compareTo(relido.getValor()));
+    }
+
+    @Test
+    void consultaEmCacheERefeitaQuandoATabelaMuda() {
+        // O serviço do teste entrou por JDBC, que não invalida os resultados já guardados.
+        entityManagerFactory.getCache().unwrap(Cache.class).evictDefaultQueryRegion();
+        executar(() -> servicoRepo.findAllByAtivoTrue());
+
+        Statistics estatisticas = estatisticas();
+        estatisticas.clear();
+        List<Long> emCache = ids(executar(() -> servicoRepo.findAllByAtivoTrue()));
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        assertTrue(emCache.contains(servicos.get(0)));
+
+        Servico novo = executar(() -> servicoRepo.saveAndFlush(
+                new Servico(null, "Cache " + UUID.randomUUID(), new BigDecimal("10.00"), "teste", true)));
+        servicos.add(novo.getId());
+
+        estatisticas.clear();
+        List<Long> refeita = ids(executar(() -> servicoRepo.findAllByAtivoTrue()));
+        assertFalse(emCache.contains(novo.getId()));
+        assertTrue(refeita.contains(novo.getId()));
+        assertEquals(1, estatisticas.getQueryCacheMissCount());
+    }
+
+    @Test
+    void roleEPermissoesVemDoCacheNasProximasTransacoes() {
+        int permissoes = executar(() -> roleRepo.findByName(RoleNameEnum.ROLE_ADMINISTRATOR).orElseThrow()
+                .getPermissions().size());
+
+        Statistics estatisticas = estatisticas();
+        estatisticas.clear();
+        int emCache = executar(() -> roleRepo.findByName(RoleNameEnum.ROLE_ADMINISTRATOR).orElseThrow()
+                .getPermissions().size());
+
+        assertEquals(0, estatisticas.getPrepareStatementCount());
+        assertEquals(permissoes, emCache);
+        assertTrue(permissoes > 0);
+    }
+
+    private <T> T executar(Supplier<T> leitura) {
+        return new TransactionTemplate(transactionManager).execute(status -> leitura.get());
+    }
+
+    private Statistics estatisticas() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private static List<Long> ids(List<Servico> servicos) {
+        return servicos.stream().map(Servico::getId).toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.prestacaoservicos.repository;
+
+import com.prestacaoservicos.entity.Servico;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comandos nativos com {@code @Modifying} contra o banco configurado: como declaram as tabelas
+ * que alteram, executá-los não pode tirar do cache de segundo nível entidades de outras tabelas.
+ */
+@SpringBootTest
+class ComandosNativosCacheTests {
+
+    private static final LocalDate DIA_SEM_RESUMO = LocalDate.of(1990, 1, 1);
+
+    @Autowired
+    private ServicoRepository servicoRepo;
+
+    @Autowired
+    private IntencaoPagamentoRepository intencaoRepo;
+
+    @Autowired
+    private ResumoDiarioAgendamentoRepository resumoRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long servico;
+
+    @BeforeEach
+    void preparar() {
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 20.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, "Cache " + UUID.randomUUID());
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> servicoRepo.findById(servico));
+        assertTrue(emCache());
+    }
+
+    @AfterEach
+    void limpar() {
+        entityManagerFactory.getCache().evict(Servico.class, servico);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+    }
+
+    @Test
+    void enfileirarEstornosPreservaOCache() {
+        executar(() -> intencaoRepo.enfileirarEstornosDoAgendamento(-1L));
+
+        assertTrue(emCache());
+    }
+
+    @Test
+    void reconsolidarResumoPreservaOCache() {
+        executar(() -> {
+            resumoRepo.removerIntervalo(DIA_SEM_RESUMO, DIA_SEM_RESUMO);
+            resumoRepo.consolidarIntervalo(DIA_SEM_RESUMO.atStartOfDay(), DIA_SEM_RESUMO.plusDays(1).atStartOfDay());
+        });
+
+        assertTrue(emCache());
+    }
+
+    private void executar(Runnable comando) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> comando.run());
+    }
+
+    private boolean emCache() {
+        return entityManagerFactory.getCache().contains(Servico.class, servico);
+    }
+}
@@ -0,0 +1,177 @@
+package com.prestacaoservicos.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Partições mensais de {@code agendamento} contra o banco configurado: cada linha vai para a
+ * partição do seu mês e as listagens por período de cliente e prestador leem apenas as
+ * partições do período.
+ * <p>
+ * O SQL explicado é o que o Hibernate gera para a listagem, capturado por um
+ * {@link StatementInspector}, com os mesmos parâmetros da execução.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.prestacaoservicos.repository.ParticoesAgendamentoTests$CapturaSql")
+class ParticoesAgendamentoTests {
+
+    private static final Pattern PARTICAO = Pattern.compile(" on (agendamento_(?:\\d{4}_\\d{2}|padrao))(?!\\w)");
+    private static final DateTimeFormatter MES = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /**
+     * Guarda o SQL gerado pelo Hibernate na thread que ativou a captura.
+     */
+    public static class CapturaSql implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> CAPTURADOS = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> capturados = CAPTURADOS.get();
+            if (capturados != null) {
+                capturados.add(sql);
+            }
+            return sql;
+        }
+    }
+
+    @Autowired
+    private AgendamentoRepository agendamentoRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime proximoMes = LocalDate.now().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+    private Long cliente;
+    private Long prestador;
+    private Long servico;
+
+    @BeforeEach
+    void preparar() {
+        jdbcTemplate.queryForObject("SELECT criar_particoes_agendamento(6)", Integer.class);
+        cliente = criarUsuario();
+        prestador = criarUsuario();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES ('Teste', 70.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class);
+        for (int mes = 0; mes < 3; mes++) {
+            jdbcTemplate.update(
+                    "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                    "VALUES (?, ?, ?, ?, 70.00, 'AGENDADO')",
+                    cliente, prestador, servico, Timestamp.valueOf(proximoMes.plusMonths(mes).plusDays(10).withHour(9)));
+        }
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user IN (?, ?)", cliente, prestador);
+    }
+
+    @Test
+    void cadaAgendamentoFicaNaParticaoDoSeuMes() {
+        assertEquals(List.of(particao(0), particao(1), particao(2)), jdbcTemplate.queryForList(
+                "SELECT tableoid::regclass::text FROM agendamento WHERE cd_servico = ? ORDER BY dt_agendamento",
+                String.class, servico));
+    }
+
+    @Test
+    void criarParticoesFuturasNaoRecriaAsExistentes() {
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT criar_particoes_agendamento(6)", Integer.class));
+    }
+
+    @Test
+    void listagemDoClienteNoMesLeSoAParticaoDoMes() {
+        LocalDateTime inicio = proximoMes.plusMonths(1);
+        LocalDateTime fim = inicio.plusMonths(1);
+
+        List<String> comandos = capturar(() -> agendamentoRepo
+                .findByClienteIdAndDataHoraGreaterThanEqualAndDataHoraLessThanOrderByDataHora(cliente, inicio, fim));
+
+        assertEquals(1, comandos.size());
+        assertEquals(Set.of(particao(1)), particoesLidas(comandos.get(0), cliente, inicio, fim));
+    }
+
+    @Test
+    void listagemDoPrestadorEntreDoisMesesLeSoAsDuasParticoes() {
+        LocalDateTime inicio = proximoMes.plusDays(15);
+        LocalDateTime fim = proximoMes.plusMonths(1).plusDays(15);
+
+        List<String> comandos = capturar(() -> agendamentoRepo
+                .findByPrestadorIdAndDataHoraGreaterThanEqualAndDataHoraLessThanOrderByDataHora(prestador, inicio, fim));
+
+        assertEquals(1, comandos.size());
+        assertEquals(Set.of(particao(0), particao(1)), particoesLidas(comandos.get(0), prestador, inicio, fim));
+    }
+
+    @Test
+    void listagemSemPeriodoLeTodasAsParticoes() {
+        List<String> comandos = capturar(() -> agendamentoRepo.findByClienteId(cliente));
+
+        Set<String> lidas = particoesLidas(comandos.get(0), cliente);
+        assertTrue(lidas.containsAll(Set.of("agendamento_padrao", particao(0), particao(1), particao(2))), lidas::toString);
+    }
+
+    /**
+     * Partições citadas no plano do comando, com os parâmetros informados.
+     */
+    private Set<String> particoesLidas(String sql, Object... parametros) {
+        Object[] valores = new Object[parametros.length];
+        for (int i = 0; i < parametros.length; i++) {
+            valores[i] = parametros[i] instanceof LocalDateTime data ? Timestamp.valueOf(data) : parametros[i];
+        }
+        String plano = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, valores));
+
+        Set<String> particoes = new TreeSet<>();
+        Matcher particao = PARTICAO.matcher(plano);
+        while (particao.find()) {
+            particoes.add(particao.group(1));
+        }
+        return particoes;
+    }
+
+    private List<String> capturar(Supplier<?> consulta) {
+        List<String> capturados = new ArrayList<>();
+        CapturaSql.CAPTURADOS.set(capturados);
+        try {
+            consulta.get();
+        } finally {
+            CapturaSql.CAPTURADOS.remove();
+        }
+        return capturados.stream()
+                .filter(sql -> sql.stripLeading().toLowerCase().startsWith("select"))
+                .toList();
+    }
+
+    private String particao(int mesesAposOProximo) {
+        return "agendamento_" + proximoMes.plusMonths(mesesAposOProximo).format(MES);
+    }
+
+    private Long criarUsuario() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@particao.teste");
+    }
+}
@@ -0,0 +1,103 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.entity.Role;
+import com.prestacaoservicos.entity.User;
+import com.prestacaoservicos.enums.RoleNameEnum;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import com.prestacaoservicos.exception.AcessoNegadoException;
+import com.prestacaoservicos.security.userdetails.UserDetailsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Acesso a um agendamento por ID contra o banco configurado: cliente e prestador do
+ * agendamento e administradores o enxergam e alteram; outro prestador não, como na busca.
+ */
+@SpringBootTest
+class AgendamentoServiceTests {
+
+    @Autowired
+    private AgendamentoService agendamentoService;
+
+    @Autowired
+    private RegistroPermissoes registroPermissoes;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long cliente;
+    private Long prestador;
+    private Long outroPrestador;
+    private Long servico;
+    private Long agendamento;
+
+    @BeforeEach
+    void preparar() {
+        cliente = criarUsuario();
+        prestador = criarUsuario();
+        outroPrestador = criarUsuario();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES ('Teste', 70.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class);
+        agendamento = jdbcTemplate.queryForObject(
+                "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                "VALUES (?, ?, ?, ?, 70.00, 'AGENDADO') RETURNING cd_agendamento",
+                Long.class, cliente, prestador, servico, Timestamp.valueOf(LocalDateTime.now().plusDays(3).withNano(0)));
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cd_agendamento = ?", agendamento);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user IN (?, ?, ?)", cliente, prestador, outroPrestador);
+    }
+
+    @Test
+    void participantesEAdministradorAcessamOAgendamento() {
+        assertEquals(agendamento, agendamentoService.buscarPorId(agendamento, logado(cliente, RoleNameEnum.ROLE_CUSTOMER)).getId());
+        assertEquals(agendamento, agendamentoService.buscarPorId(agendamento, logado(prestador, RoleNameEnum.ROLE_SERVICE_PROVIDER)).getId());
+        assertEquals(agendamento, agendamentoService.buscarPorId(agendamento, logado(outroPrestador, RoleNameEnum.ROLE_ADMINISTRATOR)).getId());
+    }
+
+    @Test
+    void prestadorNaoAcessaAgendamentoDeOutroPrestador() {
+        UserDetailsImpl estranho = logado(outroPrestador, RoleNameEnum.ROLE_SERVICE_PROVIDER);
+
+        assertThrows(AcessoNegadoException.class, () -> agendamentoService.buscarPorId(agendamento, estranho));
+        assertThrows(AcessoNegadoException.class, () -> agendamentoService.historico(agendamento, estranho));
+    }
+
+    @Test
+    void prestadorNaoAlteraAgendamentoDeOutroPrestador() {
+        UserDetailsImpl estranho = logado(outroPrestador, RoleNameEnum.ROLE_SERVICE_PROVIDER);
+
+        assertThrows(AcessoNegadoException.class, () -> agendamentoService.atualizarStatus(
+                agendamento, StatusAgendamentoEnum.CONFIRMADO, null, null, estranho));
+        assertEquals("AGENDADO", jdbcTemplate.queryForObject(
+                "SELECT ds_status FROM agendamento WHERE cd_agendamento = ?", String.class, agendamento));
+    }
+
+    private Long criarUsuario() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@agendamento.teste");
+    }
+
+    private UserDetailsImpl logado(Long id, RoleNameEnum papel) {
+        User user = new User("Teste", id + "@agendamento.teste", "x", Set.of(new Role(papel)));
+        user.setId(id);
+        return new UserDetailsImpl(user, registroPermissoes);
+    }
+}
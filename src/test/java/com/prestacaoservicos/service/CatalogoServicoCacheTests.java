@@ -0,0 +1,152 @@
+package com.prestacaoservicos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.dto.ServicoRequestDTO;
+import com.prestacaoservicos.entity.Servico;
+import com.prestacaoservicos.event.CatalogoServicoAlteradoEvent;
+import com.prestacaoservicos.repository.ServicoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Catálogo serializado: reaproveitamento entre leituras, invalidação após o commit de uma
+ * alteração (bytes e ETag), alterações de outras instâncias percebidas pela assinatura da
+ * tabela e a montagem que concorre com uma invalidação.
+ */
+@SpringBootTest
+class CatalogoServicoCacheTests {
+
+    @Autowired
+    private CatalogoServicoCache cache;
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ServicoRepository servicoRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long servico;
+
+    @AfterEach
+    void limpar() {
+        if (servico != null) {
+            jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        }
+    }
+
+    @Test
+    void alteracaoConfirmadaTrocaOsBytesEAETag() throws IOException {
+        String nome = "Catálogo " + UUID.randomUUID();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 40.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, nome);
+        cache.aoAlterarCatalogo(new CatalogoServicoAlteradoEvent(servico));
+
+        CatalogoServicoCache.Catalogo antes = cache.obter();
+        assertSame(antes, cache.obter());
+        assertTrue(json(antes).contains(nome));
+
+        servicoService.update(servico, new ServicoRequestDTO(nome + " renomeado", new BigDecimal("45.00"), "teste"), null);
+
+        CatalogoServicoCache.Catalogo depois = cache.obter();
+        assertNotEquals(antes.etag(), depois.etag());
+        assertNotEquals(antes.etagGzip(), depois.etagGzip());
+        assertTrue(json(depois).contains(nome + " renomeado"));
+        assertArrayEquals(depois.json(), descompactar(depois.gzip()));
+    }
+
+    @Test
+    void alteracaoDeOutraInstanciaEPercebidaPelaAssinatura() {
+        // Sem intervalo entre as conferências; a alteração entra por JDBC, sem o evento desta instância.
+        CatalogoServicoCache isolado = new CatalogoServicoCache(servicoRepo, objectMapper, transactionManager);
+        String nome = "Catálogo " + UUID.randomUUID();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 40.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, nome);
+
+        CatalogoServicoCache.Catalogo antes = isolado.obter();
+        assertSame(antes, isolado.obter());
+        assertTrue(json(antes).contains(nome));
+
+        jdbcTemplate.update("UPDATE servico SET st_ativo = false, nr_versao = nr_versao + 1 WHERE cd_servico = ?", servico);
+
+        CatalogoServicoCache.Catalogo depois = isolado.obter();
+        assertNotEquals(antes.etag(), depois.etag());
+        assertFalse(json(depois).contains(nome));
+    }
+
+    @Test
+    void catalogoMontadoDuranteUmaInvalidacaoNaoEhPublicado() throws Exception {
+        ServicoRepository repositorio = mock(ServicoRepository.class);
+        CountDownLatch lendo = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Servico anterior = new Servico(1L, "Anterior", new BigDecimal("10.00"), "teste", true);
+        Servico alterado = new Servico(1L, "Alterado", new BigDecimal("10.00"), "teste", true);
+        when(repositorio.assinaturaCatalogo()).thenReturn("1:0:1");
+        when(repositorio.listarAtivosSemCache())
+                .thenAnswer(invocacao -> {
+                    lendo.countDown();
+                    assertTrue(liberar.await(10, TimeUnit.SECONDS));
+                    return List.of(anterior);
+                })
+                .thenReturn(List.of(alterado));
+        CatalogoServicoCache isolado = new CatalogoServicoCache(repositorio, objectMapper, transactionManager);
+
+        CompletableFuture<CatalogoServicoCache.Catalogo> leitura = CompletableFuture.supplyAsync(isolado::obter);
+        assertTrue(lendo.await(10, TimeUnit.SECONDS));
+        isolado.aoAlterarCatalogo(new CatalogoServicoAlteradoEvent(1L));
+        liberar.countDown();
+
+        assertTrue(json(leitura.get(10, TimeUnit.SECONDS)).contains("Anterior"));
+        CatalogoServicoCache.Catalogo seguinte = isolado.obter();
+        assertTrue(json(seguinte).contains("Alterado"));
+        assertFalse(json(seguinte).contains("Anterior"));
+        assertSame(seguinte, isolado.obter());
+        verify(repositorio, times(2)).listarAtivosSemCache();
+    }
+
+    private static String json(CatalogoServicoCache.Catalogo catalogo) {
+        return new String(catalogo.json(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] descompactar(byte[] gzip) throws IOException {
+        try (GZIPInputStream entrada = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return entrada.readAllBytes();
+        }
+    }
+}
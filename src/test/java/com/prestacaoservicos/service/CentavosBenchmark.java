@@ -0,0 +1,70 @@
+package com.prestacaoservicos.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a agregação de valores e o cálculo da taxa da plataforma em {@link BigDecimal}
+ * (caminho original dos relatórios) com o mesmo cálculo em {@link Centavos}.
+ * <p>
+ * Cada operação soma {@code quantidade} valores e calcula taxa e líquido do total e de cada
+ * valor, como na liquidação dos prestadores. Execute com {@code mvn -P benchmark test-compile exec:exec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CentavosBenchmark {
+
+    @Param({"1000", "100000"})
+    private int quantidade;
+
+    private BigDecimal[] valores;
+    private long[] centavos;
+
+    @Setup
+    public void preparar() {
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        valores = new BigDecimal[quantidade];
+        centavos = new long[quantidade];
+        for (int i = 0; i < quantidade; i++) {
+            long valor = aleatorio.nextLong(1_000, 500_000);
+            valores[i] = BigDecimal.valueOf(valor, 2);
+            centavos[i] = valor;
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal bruto = BigDecimal.ZERO;
+        BigDecimal taxas = BigDecimal.ZERO;
+        for (BigDecimal valor : valores) {
+            bruto = bruto.add(valor);
+            taxas = taxas.add(RelatorioService.calcularTaxa(valor));
+        }
+        return bruto.subtract(RelatorioService.calcularTaxa(bruto)).add(taxas);
+    }
+
+    @Benchmark
+    public long centavos() {
+        long bruto = 0;
+        long taxas = 0;
+        for (long valor : centavos) {
+            bruto = Centavos.somar(bruto, valor);
+            taxas = Centavos.somar(taxas, RelatorioService.calcularTaxa(valor));
+        }
+        return Centavos.somar(Centavos.subtrair(bruto, RelatorioService.calcularTaxa(bruto)), taxas);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CentavosBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.prestacaoservicos.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Propriedades de {@link Centavos}: para valores gerados aleatoriamente (com semente fixa, para
+ * que uma falha seja reproduzível) e para os casos de fronteira, cada operação em centavos
+ * produz exatamente o mesmo resultado que o cálculo equivalente em {@link BigDecimal}.
+ */
+class CentavosTests {
+
+    private static final long SEMENTE = 20_241_019L;
+    private static final int AMOSTRAS = 100_000;
+
+    /** Valores de fronteira: zero, meio centavo exato, ímpares e pares em torno dele, extremos. */
+    private static final long[] FRONTEIRAS = {
+            0, 1, -1, 5, -5, 15, -15, 25, -25, 49_995, 50_005, 99_999, -99_999,
+            Long.MAX_VALUE / Centavos.PONTOS_BASE_POR_UNIDADE, Long.MIN_VALUE / Centavos.PONTOS_BASE_POR_UNIDADE
+    };
+
+    @ParameterizedTest
+    @EnumSource(value = RoundingMode.class, mode = EnumSource.Mode.EXCLUDE, names = "UNNECESSARY")
+    void percentualIgualAoBigDecimal(RoundingMode modo) {
+        SplittableRandom aleatorio = new SplittableRandom(SEMENTE);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            long centavos = aleatorio.nextLong(-10_000_000_000L, 10_000_000_000L);
+            long pontosBase = aleatorio.nextLong(0, 10_001);
+            assertPercentualIgual(centavos, pontosBase, modo);
+        }
+        for (long centavos : FRONTEIRAS) {
+            for (long pontosBase : new long[]{0, 1, 500, 1_000, 5_000, 9_999, 10_000}) {
+                assertPercentualIgual(centavos, pontosBase, modo);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RoundingMode.class, mode = EnumSource.Mode.EXCLUDE, names = "UNNECESSARY")
+    void divisaoIgualAoBigDecimal(RoundingMode modo) {
+        SplittableRandom aleatorio = new SplittableRandom(SEMENTE);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            long dividendo = aleatorio.nextLong();
+            long divisor = aleatorio.nextLong(1, 1_000_000) * (aleatorio.nextBoolean() ? 1 : -1);
+            long esperado = BigDecimal.valueOf(dividendo).divide(BigDecimal.valueOf(divisor), 0, modo).longValueExact();
+            assertEquals(esperado, Centavos.dividir(dividendo, divisor, modo), dividendo + " / " + divisor + " " + modo);
+        }
+    }
+
+    @Test
+    void taxaDaPlataformaIgualAoCalculoEmBigDecimal() {
+        SplittableRandom aleatorio = new SplittableRandom(SEMENTE);
+        long somaCentavos = 0;
+        BigDecimal somaReais = BigDecimal.ZERO;
+        for (int i = 0; i < AMOSTRAS; i++) {
+            BigDecimal valor = BigDecimal.valueOf(aleatorio.nextLong(0, 10_000_000), 2);
+            somaReais = somaReais.add(valor);
+            somaCentavos = Centavos.somar(somaCentavos, Centavos.de(valor));
+
+            assertEquals(RelatorioService.calcularTaxa(valor), Centavos.paraBigDecimal(RelatorioService.calcularTaxa(Centavos.de(valor))));
+        }
+
+        assertEquals(somaReais, Centavos.paraBigDecimal(somaCentavos));
+        BigDecimal taxa = RelatorioService.calcularTaxa(somaReais);
+        long taxaCentavos = RelatorioService.calcularTaxa(somaCentavos);
+        assertEquals(taxa, Centavos.paraBigDecimal(taxaCentavos));
+        assertEquals(somaReais.subtract(taxa), Centavos.paraBigDecimal(Centavos.subtrair(somaCentavos, taxaCentavos)));
+    }
+
+    @Test
+    void conversaoArredondaComoSetScale() {
+        SplittableRandom aleatorio = new SplittableRandom(SEMENTE);
+        for (int i = 0; i < AMOSTRAS; i++) {
+            BigDecimal valor = BigDecimal.valueOf(aleatorio.nextLong(-1_000_000_000L, 1_000_000_000L), aleatorio.nextInt(0, 6));
+            assertEquals(valor.setScale(2, RoundingMode.HALF_EVEN), Centavos.paraBigDecimal(Centavos.de(valor)));
+        }
+        assertEquals(0L, Centavos.de(null));
+    }
+
+    @Test
+    void estouroEArredondamentoProibidoLancamExcecao() {
+        assertThrows(ArithmeticException.class, () -> Centavos.somar(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Centavos.subtrair(Long.MIN_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Centavos.percentual(Long.MAX_VALUE, 1_000, RoundingMode.HALF_EVEN));
+        assertThrows(ArithmeticException.class, () -> Centavos.percentual(15, 1_000, RoundingMode.UNNECESSARY));
+        assertThrows(ArithmeticException.class, () -> Centavos.de(new BigDecimal("1e30")));
+        assertEquals(2L, Centavos.percentual(20, 1_000, RoundingMode.UNNECESSARY));
+    }
+
+    private static void assertPercentualIgual(long centavos, long pontosBase, RoundingMode modo) {
+        BigDecimal esperado = BigDecimal.valueOf(centavos, 2)
+                .multiply(BigDecimal.valueOf(pontosBase, 4))
+                .setScale(2, modo);
+        assertEquals(esperado, Centavos.paraBigDecimal(Centavos.percentual(centavos, pontosBase, modo)),
+                centavos + " x " + pontosBase + "pb " + modo);
+    }
+}
@@ -0,0 +1,126 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Gravação do histórico de status contra o banco configurado: o que a transação acumulou é
+ * gravado no commit, em lotes, e desfeito no rollback.
+ * <p>
+ * O histórico não aceita exclusões; cada teste usa IDs de agendamento negativos e aleatórios,
+ * que nunca existem, e deixa as linhas gravadas.
+ */
+@SpringBootTest
+class GravadorHistoricoStatusTests {
+
+    @Autowired
+    private GravadorHistoricoStatus gravador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private long agendamento;
+
+    @BeforeEach
+    void preparar() {
+        agendamento = -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    @Test
+    void mudancasDaTransacaoSaoGravadasNoCommit() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            gravador.aoAlterarStatus(evento(null, StatusAgendamentoEnum.AGENDADO, null));
+            gravador.aoAlterarStatus(evento(StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.CONFIRMADO, null));
+            gravador.aoAlterarStatus(evento(StatusAgendamentoEnum.CONFIRMADO, StatusAgendamentoEnum.CANCELADO, "Imprevisto"));
+
+            assertEquals(List.of(), statusGravados());
+        });
+
+        assertEquals(List.of("AGENDADO", "CONFIRMADO", "CANCELADO"), statusGravados());
+        assertEquals("Imprevisto", jdbcTemplate.queryForObject(
+                "SELECT ds_motivo FROM historico_status_agendamento WHERE cd_agendamento = ? AND ds_status_novo = 'CANCELADO'",
+                String.class, agendamento));
+    }
+
+    @Test
+    void rollbackDescartaOHistorico() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            gravador.aoAlterarStatus(evento(null, StatusAgendamentoEnum.AGENDADO, null));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(), statusGravados());
+    }
+
+    @Test
+    void transacaoInternaGravaApenasAsPropriasMudancas() {
+        TransactionTemplate interna = new TransactionTemplate(transactionManager);
+        interna.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            gravador.aoAlterarStatus(evento(null, StatusAgendamentoEnum.AGENDADO, null));
+            interna.executeWithoutResult(s -> gravador.aoAlterarStatus(
+                    evento(StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.CONFIRMADO, null)));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of("CONFIRMADO"), statusGravados());
+    }
+
+    @Test
+    void semTransacaoGravaNaHora() {
+        gravador.aoAlterarStatus(evento(null, StatusAgendamentoEnum.AGENDADO, null));
+
+        assertEquals(List.of("AGENDADO"), statusGravados());
+    }
+
+    @Test
+    void entradasSaoGravadasEmLotesDoTamanhoConfigurado() {
+        JdbcTemplate espiao = spy(jdbcTemplate);
+        GravadorHistoricoStatus emLotesDeDois = new GravadorHistoricoStatus(espiao, 2);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                emLotesDeDois.aoAlterarStatus(evento(null, StatusAgendamentoEnum.AGENDADO, "entrada " + i));
+            }
+        });
+
+        verify(espiao, times(3)).update(anyString(), any(Object[].class));
+        assertEquals(5, statusGravados().size());
+    }
+
+    private List<String> statusGravados() {
+        return jdbcTemplate.queryForList(
+                "SELECT ds_status_novo FROM historico_status_agendamento WHERE cd_agendamento = ? ORDER BY cd_historico",
+                String.class, agendamento);
+    }
+
+    private AgendamentoStatusAlteradoEvent evento(StatusAgendamentoEnum anterior, StatusAgendamentoEnum novo, String motivo) {
+        LocalDateTime agora = LocalDateTime.now();
+        return new AgendamentoStatusAlteradoEvent(agendamento, 1L, 2L, 3L, agora.plusDays(1), BigDecimal.TEN,
+                anterior, novo, null, motivo, agora);
+    }
+}
@@ -0,0 +1,125 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.PrestadorServicoProjection;
+import com.prestacaoservicos.event.PrestadorServicoAlteradoEvent;
+import com.prestacaoservicos.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Índice de prestadores por serviço: eventos de associação e desassociação, carga inicial e a
+ * remoção do prestador excluído.
+ */
+@SpringBootTest
+class IndicePrestadoresServicoTests {
+
+    @Autowired
+    private IndicePrestadoresServico indice;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long prestador;
+    private Long servico;
+
+    @AfterEach
+    void limpar() {
+        if (servico != null) {
+            jdbcTemplate.update("DELETE FROM prestador_servicos WHERE cd_servico = ?", servico);
+            jdbcTemplate.update("DELETE FROM users WHERE cd_user = ?", prestador);
+            jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        }
+    }
+
+    @Test
+    void eventosMantemOArrayOrdenadoSemAlterarOPublicado() {
+        IndicePrestadoresServico isolado = new IndicePrestadoresServico(mock(UserRepository.class));
+
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(30L, 1L, true));
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(10L, 1L, true));
+        long[] publicado = isolado.prestadoresDe(1L);
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(20L, 1L, true));
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(20L, 1L, true));
+
+        assertArrayEquals(new long[]{10L, 30L}, publicado);
+        assertArrayEquals(new long[]{10L, 20L, 30L}, isolado.prestadoresDe(1L));
+
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(20L, 1L, false));
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(20L, 1L, false));
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(10L, 2L, false));
+
+        assertArrayEquals(new long[]{10L, 30L}, isolado.prestadoresDe(1L));
+        assertArrayEquals(new long[0], isolado.prestadoresDe(2L));
+
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(10L, 1L, false));
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(30L, 1L, false));
+        assertArrayEquals(new long[0], isolado.prestadoresDe(1L));
+    }
+
+    @Test
+    void recargaSubstituiOIndiceInteiro() {
+        UserRepository repositorio = mock(UserRepository.class);
+        IndicePrestadoresServico isolado = new IndicePrestadoresServico(repositorio);
+        isolado.aoAlterarAssociacao(new PrestadorServicoAlteradoEvent(5L, 9L, true));
+        when(repositorio.findAllPrestadorServico()).thenReturn(List.of(
+                associacao(1L, 40L), associacao(1L, 7L), associacao(2L, 7L), associacao(1L, 40L)));
+
+        isolado.recarregar();
+
+        assertArrayEquals(new long[]{7L, 40L}, isolado.prestadoresDe(1L));
+        assertArrayEquals(new long[]{7L}, isolado.prestadoresDe(2L));
+        assertSame(isolado.prestadoresDe(3L), isolado.prestadoresDe(9L));
+        assertArrayEquals(new long[0], isolado.prestadoresDe(9L));
+    }
+
+    @Test
+    void prestadorExcluidoSaiDoIndice() {
+        prestador = jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@indice.teste");
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 50.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, "Índice " + UUID.randomUUID());
+        jdbcTemplate.update("INSERT INTO prestador_servicos (cd_user, cd_servico) VALUES (?, ?)", prestador, servico);
+        indice.recarregar();
+        assertTrue(contem(indice.prestadoresDe(servico), prestador));
+
+        userService.deleteUser(prestador);
+
+        assertArrayEquals(new long[0], indice.prestadoresDe(servico));
+    }
+
+    private static boolean contem(long[] prestadores, long prestador) {
+        return Arrays.binarySearch(prestadores, prestador) >= 0;
+    }
+
+    private static PrestadorServicoProjection associacao(Long servicoId, Long prestadorId) {
+        return new PrestadorServicoProjection() {
+            @Override
+            public Long getServicoId() {
+                return servicoId;
+            }
+
+            @Override
+            public Long getPrestadorId() {
+                return prestadorId;
+            }
+        };
+    }
+}
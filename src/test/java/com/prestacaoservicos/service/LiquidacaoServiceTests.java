@@ -0,0 +1,213 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.LiquidacaoPrestadorDTO;
+import com.prestacaoservicos.dto.ResultadoLiquidacaoDTO;
+import com.prestacaoservicos.enums.StatusLiquidacaoEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Liquidação dos prestadores contra o banco configurado: valores do extrato, retomada de uma
+ * execução interrompida, agendamentos finalizados com atraso e reserva por outra instância.
+ * <p>
+ * Cada teste cria os próprios usuários, serviço e agendamentos em uma competência antiga (mas
+ * dentro da retenção) e os remove ao final; os extratos vão para um diretório temporário.
+ */
+@SpringBootTest
+class LiquidacaoServiceTests {
+
+    private static final YearMonth COMPETENCIA = YearMonth.now().minusMonths(6);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ManutencaoParticoesAgendamento particoes;
+
+    @TempDir
+    private Path diretorio;
+
+    private LiquidacaoService service;
+    private final List<Long> usuarios = new ArrayList<>();
+    private Long cliente;
+    private Long servico;
+
+    @BeforeEach
+    void preparar() {
+        service = new LiquidacaoService(jdbcTemplate, transactionManager, particoes, diretorio.toString(), 2, 1, 2);
+        cliente = criarUsuario();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 100.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class, "Serviço; com separador");
+    }
+
+    @AfterEach
+    void limpar() {
+        service.encerrar();
+        for (Long usuario : usuarios) {
+            jdbcTemplate.update("DELETE FROM liquidacao_agendamento WHERE cd_prestador_user = ?", usuario);
+            jdbcTemplate.update("DELETE FROM liquidacao_prestador WHERE cd_prestador_user = ?", usuario);
+            jdbcTemplate.update("DELETE FROM agendamento WHERE cd_prestador_user = ? OR cd_cliente_user = ?", usuario, usuario);
+        }
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        usuarios.forEach(usuario -> jdbcTemplate.update("DELETE FROM users WHERE cd_user = ?", usuario));
+    }
+
+    @Test
+    void extratoTemBrutoTaxaELiquido() throws IOException {
+        Long prestador = criarUsuario();
+        agendar(prestador, COMPETENCIA.atDay(3).atTime(9, 0), "100.00", "FINALIZADO");
+        agendar(prestador, COMPETENCIA.atDay(10).atTime(14, 0), "33.35", "FINALIZADO");
+        agendar(prestador, COMPETENCIA.atEndOfMonth().atTime(23, 59), "0.10", "FINALIZADO");
+        agendar(prestador, COMPETENCIA.atDay(12).atTime(8, 0), "500.00", "CANCELADO");
+        agendar(prestador, COMPETENCIA.plusMonths(1).atDay(1).atStartOfDay(), "70.00", "FINALIZADO");
+
+        ResultadoLiquidacaoDTO resultado = service.liquidar(COMPETENCIA);
+
+        assertFalse(resultado.falhas().contains(prestador));
+        LiquidacaoPrestadorDTO liquidacao = liquidacao(COMPETENCIA, prestador);
+        assertEquals(StatusLiquidacaoEnum.CONCLUIDA, liquidacao.status());
+        assertEquals(3, liquidacao.quantidadeServicos());
+        // 133,45 de bruto; 10% = 13,345, arredondado para o par mais próximo.
+        assertEquals(new BigDecimal("133.45"), liquidacao.valorBruto());
+        assertEquals(new BigDecimal("13.34"), liquidacao.taxaPlataforma());
+        assertEquals(new BigDecimal("120.11"), liquidacao.valorLiquido());
+
+        List<String> linhas = Files.readAllLines(Path.of(liquidacao.arquivo()), StandardCharsets.UTF_8);
+        assertEquals(7, linhas.size());
+        assertEquals("agendamento;data;servico;valor", linhas.get(0));
+        assertTrue(linhas.get(1).endsWith(";\"Serviço; com separador\";100.00"), linhas.get(1));
+        assertEquals("TOTAL BRUTO;;;133.45", linhas.get(4));
+        assertEquals("TAXA DA PLATAFORMA;;;13.34", linhas.get(5));
+        assertEquals("VALOR LIQUIDO;;;120.11", linhas.get(6));
+        try (var arquivos = Files.list(diretorio.resolve(COMPETENCIA.toString()))) {
+            assertTrue(arquivos.noneMatch(arquivo -> arquivo.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    void novaExecucaoLiquidaApenasOsPrestadoresPendentes() {
+        Long concluido = criarUsuario();
+        agendar(concluido, COMPETENCIA.atDay(5).atTime(10, 0), "80.00", "FINALIZADO");
+        service.liquidar(COMPETENCIA);
+        LiquidacaoPrestadorDTO anterior = liquidacao(COMPETENCIA, concluido);
+
+        // Estado deixado por uma execução interrompida: o prestador foi enfileirado e não concluído.
+        Long pendente = criarUsuario();
+        agendar(pendente, COMPETENCIA.atDay(6).atTime(10, 0), "45.50", "FINALIZADO");
+        jdbcTemplate.update("INSERT INTO liquidacao_prestador (dt_competencia, cd_prestador_user) VALUES (?, ?)",
+                Date.valueOf(COMPETENCIA.atDay(1)), pendente);
+
+        service.liquidar(COMPETENCIA);
+
+        assertEquals(anterior, liquidacao(COMPETENCIA, concluido));
+        LiquidacaoPrestadorDTO retomado = liquidacao(COMPETENCIA, pendente);
+        assertEquals(StatusLiquidacaoEnum.CONCLUIDA, retomado.status());
+        assertEquals(new BigDecimal("45.50"), retomado.valorBruto());
+        assertEquals(1, agendamentosLiquidados(concluido));
+    }
+
+    @Test
+    void agendamentoFinalizadoDepoisDaLiquidacaoEntraNaCompetenciaSeguinte() {
+        Long prestador = criarUsuario();
+        agendar(prestador, COMPETENCIA.atDay(2).atTime(9, 0), "60.00", "FINALIZADO");
+        Long atrasado = agendar(prestador, COMPETENCIA.atDay(20).atTime(9, 0), "25.00", "CONFIRMADO");
+        service.liquidar(COMPETENCIA);
+
+        jdbcTemplate.update("UPDATE agendamento SET ds_status = 'FINALIZADO' WHERE cd_agendamento = ?", atrasado);
+        service.liquidar(COMPETENCIA);
+        assertEquals(new BigDecimal("60.00"), liquidacao(COMPETENCIA, prestador).valorBruto());
+
+        service.liquidar(COMPETENCIA.plusMonths(1));
+
+        LiquidacaoPrestadorDTO seguinte = liquidacao(COMPETENCIA.plusMonths(1), prestador);
+        assertEquals(StatusLiquidacaoEnum.CONCLUIDA, seguinte.status());
+        assertEquals(1, seguinte.quantidadeServicos());
+        assertEquals(new BigDecimal("25.00"), seguinte.valorBruto());
+        assertEquals(2, agendamentosLiquidados(prestador));
+    }
+
+    @Test
+    void prestadorReservadoPorOutraInstanciaNaoEhLiquidado() {
+        Long prestador = criarUsuario();
+        agendar(prestador, COMPETENCIA.atDay(8).atTime(9, 0), "90.00", "FINALIZADO");
+        jdbcTemplate.update("INSERT INTO liquidacao_prestador (dt_competencia, cd_prestador_user) VALUES (?, ?)",
+                Date.valueOf(COMPETENCIA.atDay(1)), prestador);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT cd_prestador_user FROM liquidacao_prestador " +
+                    "WHERE dt_competencia = ? AND cd_prestador_user = ? FOR UPDATE",
+                    Long.class, Date.valueOf(COMPETENCIA.atDay(1)), prestador);
+
+            ResultadoLiquidacaoDTO resultado = service.liquidar(COMPETENCIA);
+
+            assertFalse(resultado.falhas().contains(prestador));
+        });
+        LiquidacaoPrestadorDTO reservado = liquidacao(COMPETENCIA, prestador);
+        assertEquals(StatusLiquidacaoEnum.PENDENTE, reservado.status());
+        assertNull(reservado.arquivo());
+        assertEquals(0, agendamentosLiquidados(prestador));
+
+        service.liquidar(COMPETENCIA);
+
+        LiquidacaoPrestadorDTO liquidado = liquidacao(COMPETENCIA, prestador);
+        assertEquals(StatusLiquidacaoEnum.CONCLUIDA, liquidado.status());
+        assertNotNull(liquidado.arquivo());
+    }
+
+    private Long criarUsuario() {
+        Long id = jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@liquidacao.teste");
+        usuarios.add(id);
+        return id;
+    }
+
+    private Long agendar(Long prestador, LocalDateTime data, String valor, String status) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                "VALUES (?, ?, ?, ?, ?, ?) RETURNING cd_agendamento",
+                Long.class, cliente, prestador, servico, Timestamp.valueOf(data), new BigDecimal(valor), status);
+    }
+
+    private LiquidacaoPrestadorDTO liquidacao(YearMonth competencia, Long prestador) {
+        return service.listar(competencia).stream()
+                .filter(liquidacao -> liquidacao.prestadorId().equals(prestador))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Prestador " + prestador + " sem liquidação em " + competencia));
+    }
+
+    private int agendamentosLiquidados(Long prestador) {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM liquidacao_agendamento WHERE cd_prestador_user = ?", Integer.class, prestador);
+    }
+}
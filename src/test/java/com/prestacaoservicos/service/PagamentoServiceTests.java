@@ -0,0 +1,224 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.entity.IntencaoPagamento;
+import com.prestacaoservicos.enums.MetodoPagamentoEnum;
+import com.prestacaoservicos.enums.StatusPagamentoEnum;
+import com.prestacaoservicos.exception.ConflitoException;
+import com.prestacaoservicos.exception.GatewayPagamentoIndisponivelException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pagamentos contra o banco configurado: envio pelos trabalhadores do
+ * {@link ProcessadorPagamentos}, espera exponencial e desistência, retorno do gateway e a
+ * corrida entre duas solicitações simultâneas do mesmo agendamento.
+ * <p>
+ * O gateway é substituído por um mock; cada teste cria e remove os próprios usuários,
+ * serviço e agendamento.
+ */
+@SpringBootTest(properties = {
+        "app.pagamentos.intervalo-ms=50",
+        "app.pagamentos.max-tentativas=2",
+        "app.pagamentos.token-retorno=" + PagamentoServiceTests.TOKEN
+})
+@AutoConfigureMockMvc
+class PagamentoServiceTests {
+
+    static final String TOKEN = "token-retorno-teste";
+
+    @Autowired
+    private PagamentoService pagamentoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private GatewayPagamento gateway;
+
+    private Long cliente;
+    private Long prestador;
+    private Long servico;
+    private Long agendamento;
+
+    @BeforeEach
+    void preparar() {
+        cliente = criarUsuario();
+        prestador = criarUsuario();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES ('Teste', 90.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class);
+        agendamento = jdbcTemplate.queryForObject(
+                "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                "VALUES (?, ?, ?, ?, 90.00, 'AGENDADO') RETURNING cd_agendamento",
+                Long.class, cliente, prestador, servico, Timestamp.valueOf(LocalDateTime.now().plusDays(7).withNano(0)));
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM intencao_pagamento WHERE cd_agendamento = ?", agendamento);
+        jdbcTemplate.update("DELETE FROM resumo_diario_agendamento_delta WHERE cd_prestador_user = ?", prestador);
+        jdbcTemplate.update("DELETE FROM resumo_diario_agendamento WHERE cd_prestador_user = ?", prestador);
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cd_agendamento = ?", agendamento);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user IN (?, ?)", cliente, prestador);
+    }
+
+    @Test
+    void cartaoAprovadoPeloTrabalhadorConfirmaOAgendamento() {
+        when(gateway.cobrar(any())).thenReturn(new GatewayPagamento.Resposta(StatusPagamentoEnum.APROVADO, "ref-1", null));
+
+        IntencaoPagamento intencao = pagamentoService.solicitar(agendamento, MetodoPagamentoEnum.CARTAO_CREDITO, chave(), cliente);
+
+        aguardar(() -> "APROVADO".equals(intencao(intencao.getId()).get("st_pagamento")));
+        Map<String, Object> aprovada = intencao(intencao.getId());
+        assertEquals("ref-1", aprovada.get("ds_referencia_gateway"));
+        assertEquals(1, aprovada.get("nr_tentativas"));
+        assertEquals("CONFIRMADO", statusAgendamento());
+    }
+
+    @Test
+    void falhaTransitoriaVoltaParaAFilaComEsperaEDesisteAoEsgotarAsTentativas() {
+        when(gateway.cobrar(any())).thenThrow(new GatewayPagamentoIndisponivelException("gateway fora do ar"));
+
+        IntencaoPagamento intencao = pagamentoService.solicitar(agendamento, MetodoPagamentoEnum.CARTAO_CREDITO, chave(), cliente);
+
+        aguardar(() -> "gateway fora do ar".equals(intencao(intencao.getId()).get("ds_ultimo_erro")));
+        Map<String, Object> pendente = intencao(intencao.getId());
+        assertEquals("PENDENTE", pendente.get("st_pagamento"));
+        assertEquals(1, pendente.get("nr_tentativas"));
+        assertTrue(((Timestamp) pendente.get("dt_proxima_tentativa")).toLocalDateTime().isAfter(LocalDateTime.now()),
+                "A nova tentativa deveria esperar o intervalo exponencial.");
+
+        // Antecipa a espera para não depender do relógio; a segunda falha esgota as tentativas.
+        jdbcTemplate.update("UPDATE intencao_pagamento SET dt_proxima_tentativa = now() WHERE cd_intencao = ?", intencao.getId());
+
+        aguardar(() -> "FALHOU".equals(intencao(intencao.getId()).get("st_pagamento")));
+        assertEquals(2, intencao(intencao.getId()).get("nr_tentativas"));
+        assertEquals("AGENDADO", statusAgendamento());
+    }
+
+    @Test
+    void retornoDoGatewayAprovaPixAguardandoConfirmacao() throws Exception {
+        when(gateway.cobrar(any())).thenReturn(
+                new GatewayPagamento.Resposta(StatusPagamentoEnum.AGUARDANDO_CONFIRMACAO, "pix-1", null));
+        String chave = chave();
+
+        IntencaoPagamento intencao = pagamentoService.solicitar(agendamento, MetodoPagamentoEnum.PIX, chave, cliente);
+        aguardar(() -> "AGUARDANDO_CONFIRMACAO".equals(intencao(intencao.getId()).get("st_pagamento")));
+
+        String retorno = "{\"chaveIdempotencia\":\"" + chave + "\",\"referencia\":\"pix-1\",\"status\":\"APROVADO\"}";
+        mockMvc.perform(post("/api/v1/pagamentos/retorno").header("X-Gateway-Token", "outro-token")
+                        .contentType(MediaType.APPLICATION_JSON).content(retorno))
+                .andExpect(status().isForbidden());
+        assertEquals("AGUARDANDO_CONFIRMACAO", intencao(intencao.getId()).get("st_pagamento"));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/v1/pagamentos/retorno").header("X-Gateway-Token", TOKEN)
+                            .contentType(MediaType.APPLICATION_JSON).content(retorno))
+                    .andExpect(status().isNoContent());
+            assertEquals("APROVADO", intencao(intencao.getId()).get("st_pagamento"));
+            assertEquals("CONFIRMADO", statusAgendamento());
+        }
+    }
+
+    @Test
+    void solicitacaoConcorrenteDoMesmoAgendamentoRecebeConflito() throws Exception {
+        // A outra solicitação gravou a intenção e ainda não confirmou: a verificação da segunda
+        // não a enxerga, e só o índice único parcial impede a segunda intenção ativa.
+        CompletableFuture<IntencaoPagamento> concorrente = new TransactionTemplate(transactionManager).execute(status -> {
+            jdbcTemplate.update(
+                    "INSERT INTO intencao_pagamento (cd_agendamento, cd_cliente, ds_chave_idempotencia, tp_metodo, " +
+                    "vl_pagamento, st_pagamento, dt_proxima_tentativa) " +
+                    "VALUES (?, ?, ?, 'PIX', 90.00, 'PENDENTE', now() + interval '1 hour')",
+                    agendamento, cliente, chave());
+            CompletableFuture<IntencaoPagamento> segunda = CompletableFuture.supplyAsync(
+                    () -> pagamentoService.solicitar(agendamento, MetodoPagamentoEnum.CARTAO_CREDITO, chave(), cliente));
+            try {
+                segunda.get(500, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return segunda;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            throw new AssertionError("A segunda solicitação não esperou a primeira no índice único.");
+        });
+
+        assertNotNull(concorrente);
+        ExecutionException erro = assertThrows(ExecutionException.class, () -> concorrente.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(ConflitoException.class, erro.getCause());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM intencao_pagamento WHERE cd_agendamento = ?", Integer.class, agendamento));
+    }
+
+    private Long criarUsuario() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@pagamento.teste");
+    }
+
+    private static String chave() {
+        return UUID.randomUUID().toString();
+    }
+
+    private Map<String, Object> intencao(Long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT st_pagamento, nr_tentativas, ds_referencia_gateway, ds_ultimo_erro, dt_proxima_tentativa " +
+                "FROM intencao_pagamento WHERE cd_intencao = ?", id);
+    }
+
+    private String statusAgendamento() {
+        return jdbcTemplate.queryForObject(
+                "SELECT ds_status FROM agendamento WHERE cd_agendamento = ?", String.class, agendamento);
+    }
+
+    private static void aguardar(BooleanSupplier condicao) {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condicao.getAsBoolean()) {
+            if (System.nanoTime() > limite) {
+                throw new AssertionError("Condição não atingida em 10 segundos.");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.OcupacaoDTO;
+import com.prestacaoservicos.dto.RelatorioLinhaDTO;
+import com.prestacaoservicos.enums.AgrupamentoRelatorioEnum;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
+import com.prestacaoservicos.exception.RegraNegocioException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Consolidação diária contra o banco configurado: deltas gravados na transação do
+ * agendamento, descarga, reconciliação sem contagem dupla e exclusão mútua entre as duas, e o
+ * relatório de faturamento lido da consolidação.
+ * <p>
+ * Cada teste usa um prestador próprio, criado e removido pelo próprio teste; as comparações
+ * são feitas sempre contra o {@code GROUP BY} sobre {@code agendamento} desse prestador. A
+ * descarga agendada fica com intervalo longo em todos os contextos de teste
+ * ({@code config/application.properties} dos testes); os testes descarregam explicitamente.
+ */
+@SpringBootTest
+class RelatorioServiceTests {
+
+    @Autowired
+    private RelatorioService relatorioService;
+
+    @Autowired
+    private AcumuladorResumoAgendamento acumulador;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate dia = LocalDate.now().plusDays(30);
+    private Long cliente;
+    private Long prestador;
+    private Long servico;
+
+    @BeforeEach
+    void preparar() {
+        cliente = criarUsuario();
+        prestador = criarUsuario();
+        servico = jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES ('Teste', 80.00, 'teste', true) " +
+                "RETURNING cd_servico", Long.class);
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM resumo_diario_agendamento_delta WHERE cd_prestador_user = ?", prestador);
+        jdbcTemplate.update("DELETE FROM resumo_diario_agendamento WHERE cd_prestador_user = ?", prestador);
+        jdbcTemplate.update("DELETE FROM agendamento WHERE cd_prestador_user = ?", prestador);
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico = ?", servico);
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user IN (?, ?)", cliente, prestador);
+    }
+
+    @Test
+    void deltasConfirmadosAparecemNaOcupacaoAntesEDepoisDaDescarga() {
+        Long id = criarAgendamento("80.00");
+        alterarStatus(id, StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.CONFIRMADO);
+
+        OcupacaoDTO antes = relatorioService.ocupacao(prestador, dia);
+        acumulador.descarregar();
+        OcupacaoDTO depois = relatorioService.ocupacao(prestador, dia);
+
+        for (OcupacaoDTO ocupacao : List.of(antes, depois)) {
+            assertEquals(1, ocupacao.ocupados());
+            assertEquals(1L, ocupacao.porStatus().get("CONFIRMADO"));
+            assertEquals(0, new BigDecimal("80.00").compareTo(ocupacao.valorAgendado()));
+        }
+        assertEquals(0, deltasPendentes());
+        assertEquals(recalculado(), consolidado());
+    }
+
+    @Test
+    void transacaoDesfeitaNaoGravaDelta() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Long id = inserirAgendamento("50.00", StatusAgendamentoEnum.AGENDADO);
+            eventPublisher.publishEvent(evento(id, "50.00", null, StatusAgendamentoEnum.AGENDADO));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, deltasPendentes());
+    }
+
+    @Test
+    void reconciliacaoNaoContaDuasVezesOsDeltasPendentes() {
+        Long primeiro = criarAgendamento("80.00");
+        acumulador.descarregar();
+        alterarStatus(primeiro, StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.FINALIZADO);
+        criarAgendamento("35.10");
+
+        relatorioService.atualizarConsolidacao(dia, dia);
+
+        assertEquals(0, deltasPendentes());
+        assertEquals(recalculado(), consolidado());
+
+        Long terceiro = criarAgendamento("12.00");
+        alterarStatus(terceiro, StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.CANCELADO);
+        acumulador.descarregar();
+
+        assertEquals(recalculado(), consolidado());
+    }
+
+    @Test
+    void descargaEsperaAReconciliacaoTerminar() throws Exception {
+        criarAgendamento("80.00");
+
+        TransactionTemplate reconciliacao = new TransactionTemplate(transactionManager);
+        reconciliacao.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        CompletableFuture<Void> descarga = reconciliacao.execute(status -> {
+            acumulador.bloquearDescarga();
+            CompletableFuture<Void> emAndamento = CompletableFuture.runAsync(acumulador::descarregar);
+            try {
+                emAndamento.get(500, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return emAndamento;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            throw new AssertionError("A descarga não esperou o bloqueio da reconciliação.");
+        });
+
+        assertNotNull(descarga);
+        descarga.get(10, TimeUnit.SECONDS);
+        assertEquals(0, deltasPendentes());
+        assertEquals(recalculado(), consolidado());
+    }
+
+    @Test
+    void faturamentoPorPrestadorEServicoSaiDaConsolidacao() {
+        alterarStatus(criarAgendamento("80.00"), StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.FINALIZADO);
+        alterarStatus(criarAgendamento("35.15"), StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.FINALIZADO);
+        alterarStatus(criarAgendamento("12.00"), StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.CANCELADO);
+        criarAgendamento("20.00");
+        acumulador.descarregar();
+
+        RelatorioLinhaDTO esperada = new RelatorioLinhaDTO(null, null, 4, 2, 1,
+                new BigDecimal("115.15"), new BigDecimal("11.52"), new BigDecimal("103.63"), new BigDecimal("12.00"));
+
+        assertEquals(semChave(esperada), semChave(linha(AgrupamentoRelatorioEnum.PRESTADOR, prestador)));
+        assertEquals(semChave(esperada), semChave(linha(AgrupamentoRelatorioEnum.SERVICO, servico)));
+        assertEquals("Teste", linha(AgrupamentoRelatorioEnum.PRESTADOR, prestador).descricao());
+    }
+
+    @Test
+    void faturamentoIgnoraDeltasAindaNaoDescarregados() {
+        alterarStatus(criarAgendamento("80.00"), StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.FINALIZADO);
+
+        assertEquals(List.of(), relatorioService.faturamento(dia, dia, AgrupamentoRelatorioEnum.PRESTADOR).stream()
+                .filter(l -> l.chave().equals(String.valueOf(prestador)))
+                .toList());
+    }
+
+    @Test
+    void periodoInvalidoOuArquivadoERecusado() {
+        assertThrows(RegraNegocioException.class,
+                () -> relatorioService.faturamento(dia, dia.minusDays(1), AgrupamentoRelatorioEnum.DIA));
+        assertThrows(RegraNegocioException.class,
+                () -> relatorioService.faturamento(null, dia, AgrupamentoRelatorioEnum.DIA));
+        assertThrows(RegraNegocioException.class,
+                () -> relatorioService.atualizarConsolidacao(LocalDate.now().minusYears(30), LocalDate.now()));
+    }
+
+    private RelatorioLinhaDTO linha(AgrupamentoRelatorioEnum agrupamento, Long chave) {
+        return relatorioService.faturamento(dia, dia, agrupamento).stream()
+                .filter(l -> l.chave().equals(String.valueOf(chave)))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Sem linha " + chave + " no agrupamento " + agrupamento));
+    }
+
+    /**
+     * A linha sem chave e descrição, para comparar só os totais.
+     */
+    private static RelatorioLinhaDTO semChave(RelatorioLinhaDTO linha) {
+        return new RelatorioLinhaDTO(null, null, linha.totalAgendamentos(), linha.finalizados(), linha.cancelados(),
+                linha.faturamentoBruto(), linha.taxaPlataforma(), linha.valorLiquido(), linha.valorCancelado());
+    }
+
+    private Long criarUsuario() {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Teste', ?, 'x') RETURNING cd_user",
+                Long.class, UUID.randomUUID() + "@relatorio.teste");
+    }
+
+    /**
+     * Cria um agendamento e publica o evento de criação na mesma transação, como o serviço faz.
+     */
+    private Long criarAgendamento(String valor) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Long id = inserirAgendamento(valor, StatusAgendamentoEnum.AGENDADO);
+            eventPublisher.publishEvent(evento(id, valor, null, StatusAgendamentoEnum.AGENDADO));
+            return id;
+        });
+    }
+
+    private void alterarStatus(Long id, StatusAgendamentoEnum anterior, StatusAgendamentoEnum novo) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            BigDecimal valor = jdbcTemplate.queryForObject(
+                    "UPDATE agendamento SET ds_status = ? WHERE cd_agendamento = ? RETURNING vl_agendamento",
+                    BigDecimal.class, novo.name(), id);
+            eventPublisher.publishEvent(evento(id, valor.toPlainString(), anterior, novo));
+        });
+    }
+
+    private Long inserirAgendamento(String valor, StatusAgendamentoEnum status) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO agendamento (cd_cliente_user, cd_prestador_user, cd_servico, dt_agendamento, vl_agendamento, ds_status) " +
+                "VALUES (?, ?, ?, ?, ?, ?) RETURNING cd_agendamento",
+                Long.class, cliente, prestador, servico, Timestamp.valueOf(dia.atTime(10, 0)), new BigDecimal(valor), status.name());
+    }
+
+    private AgendamentoStatusAlteradoEvent evento(Long id, String valor, StatusAgendamentoEnum anterior,
+                                                  StatusAgendamentoEnum novo) {
+        return new AgendamentoStatusAlteradoEvent(id, cliente, prestador, servico, dia.atTime(10, 0),
+                new BigDecimal(valor), anterior, novo, cliente, null, LocalDateTime.now());
+    }
+
+    private int deltasPendentes() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM resumo_diario_agendamento_delta WHERE cd_prestador_user = ?", Integer.class, prestador);
+    }
+
+    private List<String> consolidado() {
+        return jdbcTemplate.queryForList(
+                "SELECT ds_status || ':' || qt_agendamentos || ':' || vl_total FROM resumo_diario_agendamento " +
+                "WHERE cd_prestador_user = ? AND dt_referencia = ? AND qt_agendamentos <> 0 ORDER BY ds_status",
+                String.class, prestador, Date.valueOf(dia));
+    }
+
+    private List<String> recalculado() {
+        return jdbcTemplate.queryForList(
+                "SELECT ds_status || ':' || count(*) || ':' || CAST(sum(vl_agendamento) AS NUMERIC(14, 2)) FROM agendamento " +
+                "WHERE cd_prestador_user = ? AND dt_agendamento >= ? AND dt_agendamento < ? " +
+                "GROUP BY ds_status ORDER BY ds_status",
+                String.class, prestador, Timestamp.valueOf(dia.atStartOfDay()), Timestamp.valueOf(dia.plusDays(1).atStartOfDay()));
+    }
+}
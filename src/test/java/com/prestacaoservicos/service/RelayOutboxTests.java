@@ -0,0 +1,194 @@
+package com.prestacaoservicos.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prestacaoservicos.enums.StatusAgendamentoEnum;
+import com.prestacaoservicos.enums.TipoEventoIntegracaoEnum;
+import com.prestacaoservicos.event.AgendamentoStatusAlteradoEvent;
+import com.prestacaoservicos.event.EventoIntegracao;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Outbox de agendamentos contra o banco configurado: o evento é gravado na transação que o
+ * produziu e o relay o publica em ordem por agendamento, adia o que falhou sem deixar os
+ * seguintes do mesmo agendamento passarem à frente e remove os publicados antigos.
+ * <p>
+ * O relay do teste tem um publicador próprio, que só registra os eventos dos agendamentos do
+ * teste (IDs negativos e aleatórios, que nunca existem). Os relays agendados de todos os contextos
+ * de teste ficam com intervalo longo ({@code config/application.properties} dos testes), para que
+ * nenhum deles publique os eventos do teste antes deste relay.
+ * Como um lote só leva o evento mais antigo pendente de cada agendamento, os testes drenam até
+ * não sobrar pendente do teste.
+ */
+@SpringBootTest(properties = {
+        "app.outbox.intervalo-ms=3600000",
+        "app.relatorios.intervalo-descarga-ms=3600000",
+        "app.pagamentos.intervalo-ms=3600000",
+        "app.pagamentos.estornos.intervalo-ms=3600000"
+})
+class RelayOutboxTests {
+
+    @Autowired
+    private OutboxAgendamento outbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<EventoIntegracao> publicados = new CopyOnWriteArrayList<>();
+    private Set<Long> falhando = Set.of();
+    private long primeiro;
+    private long segundo;
+    private RelayOutbox relay;
+
+    @BeforeEach
+    void preparar() {
+        primeiro = -ThreadLocalRandom.current().nextLong(2, Long.MAX_VALUE);
+        segundo = primeiro + 1;
+        relay = new RelayOutbox(jdbcTemplate, transactionManager, evento -> {
+            if (evento.agregadoId() != primeiro && evento.agregadoId() != segundo) {
+                return;
+            }
+            if (falhando.contains(evento.id())) {
+                throw new IllegalStateException("indisponível");
+            }
+            publicados.add(evento);
+        });
+        ReflectionTestUtils.setField(relay, "tamanhoLote", 100);
+        ReflectionTestUtils.setField(relay, "esperaMaximaSegundos", 300);
+        ReflectionTestUtils.setField(relay, "diasRetencao", 7);
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM outbox_evento WHERE ds_agregado = ? AND cd_agregado IN (?, ?)",
+                OutboxAgendamento.AGREGADO, primeiro, segundo);
+    }
+
+    @Test
+    void eventoEGravadoComATransacaoEDesfeitoComEla() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                outbox.aoAlterarStatus(evento(primeiro, null, StatusAgendamentoEnum.AGENDADO)));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            outbox.aoAlterarStatus(evento(segundo, null, StatusAgendamentoEnum.AGENDADO));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(TipoEventoIntegracaoEnum.AGENDAMENTO_CRIADO.name()), jdbcTemplate.queryForList(
+                "SELECT ds_tipo FROM outbox_evento WHERE ds_agregado = ? AND cd_agregado = ?",
+                String.class, OutboxAgendamento.AGREGADO, primeiro));
+        assertEquals(List.of(), eventos(segundo));
+    }
+
+    @Test
+    void relayPublicaEmOrdemEMarcaOsPublicados() throws Exception {
+        List<Long> gravados = gravar(primeiro, segundo, primeiro, primeiro);
+        ReflectionTestUtils.setField(relay, "tamanhoLote", 2);
+
+        drenarTudo();
+
+        assertEquals(gravados, publicados.stream().map(EventoIntegracao::id).toList());
+        assertEquals(List.of(TipoEventoIntegracaoEnum.AGENDAMENTO_CRIADO, TipoEventoIntegracaoEnum.AGENDAMENTO_CRIADO,
+                        TipoEventoIntegracaoEnum.AGENDAMENTO_STATUS_ALTERADO, TipoEventoIntegracaoEnum.AGENDAMENTO_STATUS_ALTERADO),
+                publicados.stream().map(EventoIntegracao::tipo).toList());
+        assertEquals(primeiro, objectMapper.readTree(publicados.get(0).payload()).get("agendamentoId").asLong());
+        assertEquals(0, pendentes());
+    }
+
+    @Test
+    void falhaAdiaOEventoESegueOsDoMesmoAgendamento() {
+        List<Long> gravados = gravar(primeiro, primeiro, segundo);
+        falhando = Set.of(gravados.get(0));
+
+        relay.drenar();
+
+        assertEquals(List.of(gravados.get(2)), publicados.stream().map(EventoIntegracao::id).toList());
+        assertEquals(2, pendentes());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT nr_tentativas FROM outbox_evento WHERE cd_evento = ? AND dt_disponivel > now() AND ds_ultimo_erro = 'indisponível'",
+                Integer.class, gravados.get(0)));
+
+        falhando = Set.of();
+        jdbcTemplate.update("UPDATE outbox_evento SET dt_disponivel = now() WHERE cd_evento = ?", gravados.get(0));
+        drenarTudo();
+
+        assertEquals(List.of(gravados.get(2), gravados.get(0), gravados.get(1)),
+                publicados.stream().map(EventoIntegracao::id).toList());
+        assertEquals(0, pendentes());
+    }
+
+    @Test
+    void limpezaRemoveSoOsPublicadosForaDaRetencao() {
+        List<Long> gravados = gravar(primeiro, primeiro, primeiro);
+        drenarTudo();
+        jdbcTemplate.update("UPDATE outbox_evento SET dt_publicacao = now() - INTERVAL '8 days' WHERE cd_evento = ?",
+                gravados.get(0));
+        jdbcTemplate.update("UPDATE outbox_evento SET dt_publicacao = NULL WHERE cd_evento = ?", gravados.get(2));
+
+        relay.limpar();
+
+        assertEquals(gravados.subList(1, 3), eventos(primeiro));
+    }
+
+    /**
+     * Grava um evento por agendamento informado, cada um em sua transação: o primeiro de cada
+     * agendamento é a criação e os seguintes, confirmações.
+     */
+    private List<Long> gravar(long... agendamentos) {
+        for (long agendamento : agendamentos) {
+            boolean criacao = eventos(agendamento).isEmpty();
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> outbox.aoAlterarStatus(criacao
+                    ? evento(agendamento, null, StatusAgendamentoEnum.AGENDADO)
+                    : evento(agendamento, StatusAgendamentoEnum.AGENDADO, StatusAgendamentoEnum.CONFIRMADO)));
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT cd_evento FROM outbox_evento WHERE ds_agregado = ? AND cd_agregado IN (?, ?) ORDER BY cd_evento",
+                Long.class, OutboxAgendamento.AGREGADO, primeiro, segundo);
+    }
+
+    private void drenarTudo() {
+        for (int i = 0; i < 10 && pendentes() > 0; i++) {
+            relay.drenar();
+        }
+        assertEquals(0, pendentes());
+    }
+
+    private List<Long> eventos(long agendamento) {
+        return jdbcTemplate.queryForList(
+                "SELECT cd_evento FROM outbox_evento WHERE ds_agregado = ? AND cd_agregado = ? ORDER BY cd_evento",
+                Long.class, OutboxAgendamento.AGREGADO, agendamento);
+    }
+
+    private int pendentes() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM outbox_evento WHERE ds_agregado = ? AND cd_agregado IN (?, ?) AND dt_publicacao IS NULL",
+                Integer.class, OutboxAgendamento.AGREGADO, primeiro, segundo);
+    }
+
+    private AgendamentoStatusAlteradoEvent evento(long agendamento, StatusAgendamentoEnum anterior, StatusAgendamentoEnum novo) {
+        LocalDateTime agora = LocalDateTime.now();
+        return new AgendamentoStatusAlteradoEvent(agendamento, 1L, 2L, 3L, agora.plusDays(1), BigDecimal.TEN,
+                anterior, novo, null, null, agora);
+    }
+}
@@ -0,0 +1,118 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.ServicoResponseDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Busca textual do catálogo contra o banco configurado: radicais, acentos, erros de digitação,
+ * relevância e serviços inativos.
+ * <p>
+ * O catálogo pode ter outros serviços; as verificações consideram apenas os criados aqui, na
+ * ordem em que a busca os devolve.
+ */
+@SpringBootTest
+class ServicoBuscaTests {
+
+    @Autowired
+    private ServicoService servicoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long eletrica;
+    private Long pintura;
+    private Long encanador;
+    private Long antenaInativa;
+
+    @BeforeEach
+    void preparar() {
+        eletrica = criar("Instalação elétrica", "Troca de tomadas e disjuntores", true);
+        pintura = criar("Pintura residencial", "Inclui a instalação de rodapés", true);
+        encanador = criar("Encanador", "Conserto de vazamentos", true);
+        antenaInativa = criar("Instalação de antenas", "Antenas parabólicas", false);
+    }
+
+    @AfterEach
+    void limpar() {
+        jdbcTemplate.update("DELETE FROM servico WHERE cd_servico IN (?, ?, ?, ?)", eletrica, pintura, encanador, antenaInativa);
+    }
+
+    @Test
+    void pluralEVerboCasamPeloRadical() {
+        assertEquals(List.of(eletrica, pintura), buscar("instalações"));
+        assertEquals(List.of(eletrica, pintura), buscar("instalar"));
+        assertEquals(List.of(encanador), buscar("vazamento"));
+    }
+
+    @Test
+    void acentosEMaiusculasSaoIgnorados() {
+        assertEquals(List.of(eletrica), buscar("ELETRICA"));
+        assertEquals(List.of(eletrica, pintura), buscar("instalacao"));
+    }
+
+    @Test
+    void erroDeDigitacaoAindaEncontra() {
+        assertEquals(List.of(encanador), buscar("encandor"));
+        assertEquals(List.of(eletrica), buscar("eletrca"));
+    }
+
+    @Test
+    void trigramasNaoDependemDoCtypeDoBanco() {
+        // Os acentos saem antes de lower(), que num banco com ctype C não altera letras acentuadas.
+        assertEquals(jdbcTemplate.queryForObject("SELECT show_trgm('eletrica')::text", String.class),
+                jdbcTemplate.queryForObject("SELECT show_trgm(texto_busca('ELÉTRICA'))::text", String.class));
+        assertEquals(List.of(eletrica), buscar("ELÉTRCA"));
+    }
+
+    @Test
+    void nomePesaMaisQueDescricao() {
+        assertEquals(List.of(eletrica, pintura), buscar("instalação"));
+    }
+
+    @Test
+    void inativoEConsultaVaziaNaoRetornamNada() {
+        assertTrue(buscar("antenas parabólicas").isEmpty());
+        assertEquals(0, servicoService.buscar("  ", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void paginacaoIgnoraOrdenacaoInformada() {
+        PageRequest ordenada = PageRequest.of(0, 100, Sort.by("nome").descending());
+
+        List<Long> ids = servicoService.buscar("instalação", ordenada).map(ServicoResponseDTO::id).getContent();
+
+        assertEquals(List.of(eletrica, pintura), ids.stream().filter(this::criado).toList());
+    }
+
+    /**
+     * IDs dos serviços criados pelo teste que a busca devolveu, na ordem da relevância.
+     */
+    private List<Long> buscar(String consulta) {
+        return servicoService.buscar(consulta, PageRequest.of(0, 100)).stream()
+                .map(ServicoResponseDTO::id)
+                .filter(this::criado)
+                .toList();
+    }
+
+    private boolean criado(Long id) {
+        return id.equals(eletrica) || id.equals(pintura) || id.equals(encanador) || id.equals(antenaInativa);
+    }
+
+    private Long criar(String nome, String descricao, boolean ativo) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO servico (nm_servico, vl_servico, ds_servico, st_ativo) VALUES (?, 90.00, ?, ?) RETURNING cd_servico",
+                Long.class, nome, descricao, ativo);
+    }
+}
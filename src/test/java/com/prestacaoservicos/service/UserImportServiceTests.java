@@ -0,0 +1,136 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.ImportUsersResultDto;
+import com.prestacaoservicos.dto.ImportUsersResultDto.RowError;
+import com.prestacaoservicos.exception.RegraNegocioException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Importação de usuários por CSV contra o banco configurado: aspas, aspas escapadas, quebras de
+ * linha entre aspas e o relatório de rejeições por linha.
+ * <p>
+ * Os emails de cada teste usam um domínio próprio, removido ao final.
+ */
+@SpringBootTest
+class UserImportServiceTests {
+
+    private static final String CABECALHO = "name,email,password,role,phones\n";
+
+    @Autowired
+    private UserImportService importService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String dominio = "@" + UUID.randomUUID() + ".importacao.teste";
+
+    @AfterEach
+    void limpar() {
+        String usuarios = "SELECT cd_user FROM users WHERE ds_email LIKE ?";
+        jdbcTemplate.update("DELETE FROM user_phone WHERE cd_user IN (" + usuarios + ")", "%" + dominio);
+        jdbcTemplate.update("DELETE FROM user_role WHERE cd_user IN (" + usuarios + ")", "%" + dominio);
+        jdbcTemplate.update("DELETE FROM users WHERE ds_email LIKE ?", "%" + dominio);
+    }
+
+    @Test
+    void camposEntreAspasAceitamVirgulaEAspasEscapadas() {
+        ImportUsersResultDto resultado = importar(
+                "\"Silva, Ana\",ana" + dominio + ",\"se\"\"nha,1\",role_customer,\"11999990000:mobile;1133334444:LANDLINE\"\n" +
+                "  Bruno  ,bruno" + dominio + ",senha123,ROLE_SERVICE_PROVIDER\n");
+
+        assertEquals(new ImportUsersResultDto(2, 2, List.of()), resultado);
+        assertEquals("Silva, Ana", coluna("nm_user", "ana"));
+        assertTrue(passwordEncoder.matches("se\"nha,1", coluna("ds_password", "ana")));
+        assertEquals("Bruno", coluna("nm_user", "bruno"));
+        assertEquals(List.of("1133334444:LANDLINE", "11999990000:MOBILE"), jdbcTemplate.queryForList(
+                "SELECT p.ds_phone || ':' || p.tp_phone FROM user_phone p JOIN users u ON u.cd_user = p.cd_user " +
+                "WHERE u.ds_email = ? ORDER BY p.ds_phone", String.class, "ana" + dominio));
+        assertEquals("ROLE_SERVICE_PROVIDER", jdbcTemplate.queryForObject(
+                "SELECT r.nm_role FROM role r JOIN user_role ur ON ur.cd_role = r.cd_role JOIN users u ON u.cd_user = ur.cd_user " +
+                "WHERE u.ds_email = ?", String.class, "bruno" + dominio));
+    }
+
+    @Test
+    void quebraDeLinhaEntreAspasContinuaORegistro() {
+        ImportUsersResultDto resultado = importar(
+                "Carla,carla" + dominio + ",\"linha 1\nlinha \"\"2\"\"\n,fim\",ROLE_CUSTOMER,\n" +
+                "Davi,,senha123,ROLE_CUSTOMER,\n");
+
+        assertEquals(2, resultado.total());
+        assertEquals(1, resultado.imported());
+        assertTrue(passwordEncoder.matches("linha 1\nlinha \"2\"\n,fim", coluna("ds_password", "carla")));
+        assertEquals(List.of(new RowError(5, null, "Email não pode ser vazio")), resultado.errors());
+    }
+
+    @Test
+    void aspasNaoFechadasRejeitamORegistroComALinhaDeInicio() {
+        ImportUsersResultDto resultado = importar(
+                "Eva,eva" + dominio + ",senha123,ROLE_CUSTOMER,\n" +
+                "\"Fabio,fabio" + dominio + ",senha123,ROLE_CUSTOMER,\n");
+
+        assertEquals(2, resultado.total());
+        assertEquals(1, resultado.imported());
+        assertEquals(List.of(new RowError(3, null, "Registro mal formatado: aspas não fechadas")), resultado.errors());
+    }
+
+    @Test
+    void relatorioApontaCadaLinhaRejeitada() {
+        jdbcTemplate.update("INSERT INTO users (nm_user, ds_email, ds_password) VALUES ('Existente', ?, 'x')",
+                "existente" + dominio);
+
+        ImportUsersResultDto resultado = importar(
+                "Gil,gil" + dominio + ",senha123,ROLE_CUSTOMER,\n" +
+                "\n" +
+                "Gil de novo,gil" + dominio + ",senha456,ROLE_CUSTOMER,\n" +
+                "Hugo,hugo" + dominio + ",123,ROLE_CUSTOMER,\n" +
+                "Iris,iris" + dominio + ",senha123,ROLE_INEXISTENTE,\n" +
+                "Juca,juca" + dominio + ",senha123\n" +
+                "Lia,lia" + dominio + ",senha123,ROLE_CUSTOMER,11999990000\n" +
+                "Existente,existente" + dominio + ",senha123,ROLE_CUSTOMER,\n" +
+                "Mia,mia" + dominio + ",senha123,ROLE_CUSTOMER,\n");
+
+        assertEquals(8, resultado.total());
+        assertEquals(2, resultado.imported());
+        assertEquals(List.of(
+                new RowError(4, "gil" + dominio, "O email informado se repete no arquivo."),
+                new RowError(5, "hugo" + dominio, "Senha deve ter pelo menos 6 caracteres"),
+                new RowError(6, null, "Registro mal formatado: role inválido(a): ROLE_INEXISTENTE"),
+                new RowError(7, null, "Registro mal formatado: esperadas 5 colunas, encontradas 3"),
+                new RowError(8, null, "Registro mal formatado: telefone sem tipo: 11999990000"),
+                new RowError(9, "existente" + dominio, "O email informado já está em uso.")
+        ), resultado.errors());
+        assertEquals("Gil", coluna("nm_user", "gil"));
+    }
+
+    @Test
+    void cabecalhoDiferenteRejeitaOArquivo() {
+        assertThrows(RegraNegocioException.class, () -> importService.importar(
+                new ByteArrayInputStream("nome,email\n".getBytes(StandardCharsets.UTF_8)), UserImportService.CSV));
+    }
+
+    private ImportUsersResultDto importar(String linhas) {
+        byte[] corpo = (CABECALHO + linhas).getBytes(StandardCharsets.UTF_8);
+        return importService.importar(new ByteArrayInputStream(corpo), UserImportService.CSV);
+    }
+
+    private String coluna(String nome, String usuario) {
+        return jdbcTemplate.queryForObject("SELECT " + nome + " FROM users WHERE ds_email = ?", String.class, usuario + dominio);
+    }
+}
@@ -0,0 +1,131 @@
+package com.prestacaoservicos.service;
+
+import com.prestacaoservicos.dto.PhoneDto;
+import com.prestacaoservicos.dto.RecoveryUserDto;
+import com.prestacaoservicos.dto.UserPageDto;
+import com.prestacaoservicos.enums.PhoneTypeEnum;
+import com.prestacaoservicos.exception.RegraNegocioException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listagem de usuários por cursor contra o banco configurado: limites de página, última página
+ * exata, cursor após o fim ou sobre um ID removido e o carregamento de roles e telefones.
+ * <p>
+ * Os usuários criados aqui são os de maior ID; o cursor parte do ID anterior ao primeiro deles.
+ */
+@SpringBootTest
+class UserServiceTests {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> usuarios = new ArrayList<>();
+    private long antesDoPrimeiro;
+
+    @BeforeEach
+    void preparar() {
+        for (int i = 0; i < 5; i++) {
+            usuarios.add(jdbcTemplate.queryForObject(
+                    "INSERT INTO users (nm_user, ds_email, ds_password) VALUES (?, ?, 'x') RETURNING cd_user",
+                    Long.class, "Cursor " + i, UUID.randomUUID() + "@cursor.teste"));
+        }
+        antesDoPrimeiro = usuarios.get(0) - 1;
+    }
+
+    @AfterEach
+    void limpar() {
+        for (Long usuario : usuarios) {
+            jdbcTemplate.update("DELETE FROM user_phone WHERE cd_user = ?", usuario);
+            jdbcTemplate.update("DELETE FROM user_role WHERE cd_user = ?", usuario);
+            jdbcTemplate.update("DELETE FROM users WHERE cd_user = ?", usuario);
+        }
+    }
+
+    @Test
+    void paginasSeguemOCursorAteAUltima() {
+        UserPageDto primeira = userService.listUsers(antesDoPrimeiro, 2);
+        UserPageDto segunda = userService.listUsers(primeira.nextCursor(), 2);
+        UserPageDto terceira = userService.listUsers(segunda.nextCursor(), 2);
+
+        assertEquals(usuarios.subList(0, 2), ids(primeira));
+        assertEquals(usuarios.get(1), primeira.nextCursor());
+        assertTrue(primeira.hasNext());
+        assertEquals(usuarios.subList(2, 4), ids(segunda));
+        assertEquals(usuarios.subList(4, 5), ids(terceira));
+        assertFalse(terceira.hasNext());
+        assertNull(terceira.nextCursor());
+    }
+
+    @Test
+    void ultimaPaginaCheiaNaoIndicaProxima() {
+        UserPageDto pagina = userService.listUsers(usuarios.get(0), 4);
+
+        assertEquals(usuarios.subList(1, 5), ids(pagina));
+        assertFalse(pagina.hasNext());
+        assertNull(pagina.nextCursor());
+    }
+
+    @Test
+    void cursorNoUltimoUsuarioDevolvePaginaVazia() {
+        UserPageDto pagina = userService.listUsers(usuarios.get(4), 10);
+
+        assertTrue(pagina.users().isEmpty());
+        assertFalse(pagina.hasNext());
+        assertNull(pagina.nextCursor());
+    }
+
+    @Test
+    void cursorSobreUsuarioRemovidoContinuaNoSeguinte() {
+        jdbcTemplate.update("DELETE FROM users WHERE cd_user = ?", usuarios.get(1));
+
+        UserPageDto pagina = userService.listUsers(usuarios.get(1), 2);
+
+        assertEquals(usuarios.subList(2, 4), ids(pagina));
+    }
+
+    @Test
+    void tamanhoDePaginaForaDosLimitesERecusado() {
+        assertThrows(RegraNegocioException.class, () -> userService.listUsers(null, 0));
+        assertThrows(RegraNegocioException.class, () -> userService.listUsers(null, UserService.MAX_PAGE_SIZE + 1));
+        assertEquals(1, userService.listUsers(antesDoPrimeiro, 1).users().size());
+        assertEquals(usuarios, ids(userService.listUsers(antesDoPrimeiro, UserService.MAX_PAGE_SIZE)));
+    }
+
+    @Test
+    void paginaTrazRolesPermissoesETelefonesDeCadaUsuario() {
+        jdbcTemplate.update("INSERT INTO user_role (cd_user, cd_role) SELECT ?, cd_role FROM role WHERE nm_role = 'ROLE_ADMINISTRATOR'",
+                usuarios.get(0));
+        jdbcTemplate.update("INSERT INTO user_phone (ds_phone, tp_phone, cd_user) VALUES ('11999990000', 'MOBILE', ?)", usuarios.get(0));
+
+        List<RecoveryUserDto> pagina = userService.listUsers(antesDoPrimeiro, 2).users();
+
+        assertEquals(List.of("ROLE_ADMINISTRATOR"), pagina.get(0).roles());
+        assertFalse(pagina.get(0).permissions().isEmpty());
+        assertEquals(List.of(new PhoneDto("11999990000", PhoneTypeEnum.MOBILE)), pagina.get(0).phones());
+        assertEquals(List.of(), pagina.get(1).roles());
+        assertEquals(List.of(), pagina.get(1).permissions());
+        assertEquals(List.of(), pagina.get(1).phones());
+    }
+
+    private static List<Long> ids(UserPageDto pagina) {
+        return pagina.users().stream().map(RecoveryUserDto::id).toList();
+    }
+}